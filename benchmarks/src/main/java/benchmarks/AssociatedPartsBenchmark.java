@@ -0,0 +1,59 @@
+package benchmarks;
+
+import model.InHouse;
+import model.Part;
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Product.addAssociatedPart and Product.deleteAssociatedPart on products with different numbers of associated parts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssociatedPartsBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int associatedPartCount;
+
+    private Product product;
+    private Part[] parts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        product = new Product(1, "Benchmark Product", 10, 5, 1, 10);
+        parts = new Part[associatedPartCount];
+        for (int i = 0; i < associatedPartCount; i++) {
+            parts[i] = new InHouse(i + 1, "Part " + i, 1, 5, 1, 10, 100);
+            product.addAssociatedPart(parts[i]);
+        }
+    }
+
+    /**
+     * Removes an associated part from the middle of the list and adds it back at the end.
+     */
+    @Benchmark
+    public boolean deleteThenAddAssociatedPart() {
+        Part part = parts[(next++ & Integer.MAX_VALUE) % associatedPartCount];
+        boolean deleted = product.deleteAssociatedPart(part);
+        product.addAssociatedPart(part);
+        return deleted;
+    }
+}
@@ -0,0 +1,35 @@
+package benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The BenchmarkRunner class is the entry point of the benchmarks jar. It accepts the usual JMH command line options and,
+ * unless told otherwise with -rf/-rff, writes the results as JSON to target/jmh-result.json so that runs can be compared
+ * to catch regressions.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Runs the benchmarks selected on the command line, or all of them.
+     * @param args JMH command line options.
+     * @throws CommandLineOptionException If the options cannot be parsed.
+     * @throws RunnerException If a benchmark fails.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result("target/jmh-result.json");
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,139 @@
+package benchmarks;
+
+import model.InHouse;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+
+import java.util.SplittableRandom;
+
+/**
+ * The Catalogue class fills the Inventory with generated parts and products and generates the keys benchmarks look up.
+ * <p></p>
+ * The data distribution controls both the data and the queries:
+ * <ul>
+ *     <li>UNIFORM: every part and product has a unique name and lookups are spread evenly over the whole catalogue.</li>
+ *     <li>SKEWED: names are drawn from a small vocabulary so many parts share a name, and 90% of lookups go to a hot 1% of ids.</li>
+ * </ul>
+ */
+public final class Catalogue {
+
+    /**
+     * The data distributions benchmarks are parameterized by.
+     */
+    public enum Distribution { UNIFORM, SKEWED }
+
+    /**
+     * The number of keys generated for a benchmark to cycle through. A power of two so the index can be masked.
+     */
+    public static final int KEY_COUNT = 4096;
+
+    /**
+     * The number of distinct names used by the SKEWED distribution.
+     */
+    private static final int SKEWED_VOCABULARY = 1000;
+
+    private static final String[] SUPPLIERS = {"Precision Edge Co.", "Pilfercraft", "Sentry Inc.", "Forgeworks", "Ironhold Ltd."};
+
+    private Catalogue() {
+    }
+
+    /**
+     * Empties the Inventory and fills it with generated parts and products. Part ids and product ids run from 1 to the given sizes.
+     * @param partCount The number of parts.
+     * @param productCount The number of products.
+     * @param distribution The data distribution.
+     * @param seed The random seed, so that runs are repeatable.
+     */
+    public static void populate(int partCount, int productCount, Distribution distribution, long seed) {
+        Inventory.getAllProducts().clear();
+        Inventory.getAllParts().clear();
+        SplittableRandom random = new SplittableRandom(seed);
+        Part[] parts = new Part[partCount];
+        for (int id = 1; id <= partCount; id++) {
+            parts[id - 1] = newPart(id, name("Part", id, distribution, random), random);
+        }
+        Inventory.getAllParts().addAll(parts);
+        Product[] products = new Product[productCount];
+        for (int id = 1; id <= productCount; id++) {
+            Product product = new Product(id, name("Product", id, distribution, random), 10 + random.nextInt(10_000) / 100.0, 5, 1, 100);
+            product.getAllAssociatedParts().add(parts[random.nextInt(partCount)]);
+            product.getAllAssociatedParts().add(parts[random.nextInt(partCount)]);
+            products[id - 1] = product;
+        }
+        Inventory.getAllProducts().addAll(products);
+    }
+
+    /**
+     * Creates a part with random values. Even ids are InHouse, odd ids are Outsourced.
+     * @param id The part id.
+     * @param name The part name.
+     * @param random The random source.
+     * @return the new part.
+     */
+    public static Part newPart(int id, String name, SplittableRandom random) {
+        double price = 1 + random.nextInt(10_000) / 100.0;
+        int min = 1 + random.nextInt(10);
+        int max = min + 100 + random.nextInt(1000);
+        int stock = min + random.nextInt(max - min);
+        if (id % 2 == 0) {
+            return new InHouse(id, name, price, stock, min, max, 100 + random.nextInt(50));
+        }
+        return new Outsourced(id, name, price, stock, min, max, SUPPLIERS[random.nextInt(SUPPLIERS.length)]);
+    }
+
+    /**
+     * Generates ids to look up, following the distribution.
+     * @param size The largest id.
+     * @param distribution The data distribution.
+     * @param seed The random seed.
+     * @return KEY_COUNT ids between 1 and size.
+     */
+    public static int[] ids(int size, Distribution distribution, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int hotCount = Math.max(1, size / 100);
+        int[] hotIds = new int[hotCount];
+        for (int i = 0; i < hotCount; i++) {
+            hotIds[i] = 1 + random.nextInt(size);
+        }
+        int[] ids = new int[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            if (distribution == Distribution.SKEWED && random.nextInt(10) != 0) {
+                ids[i] = hotIds[random.nextInt(hotCount)];
+            } else {
+                ids[i] = 1 + random.nextInt(size);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Generates names to look up, following the distribution.
+     * @param prefix "Part" or "Product".
+     * @param size The number of parts or products.
+     * @param distribution The data distribution.
+     * @param seed The random seed.
+     * @return KEY_COUNT names that exist in the catalogue.
+     */
+    public static String[] names(String prefix, int size, Distribution distribution, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] names = new String[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            names[i] = name(prefix, 1 + random.nextInt(size), distribution, random);
+        }
+        return names;
+    }
+
+    /**
+     * Generates a name. UNIFORM names are unique per id; SKEWED names repeat, with low-numbered names far more common.
+     */
+    private static String name(String prefix, int id, Distribution distribution, SplittableRandom random) {
+        if (distribution == Distribution.UNIFORM) {
+            return prefix + " " + id;
+        }
+        // Squaring a uniform value biases the choice towards the start of the vocabulary.
+        double skew = random.nextDouble();
+        return prefix + " " + (int) (skew * skew * SKEWED_VOCABULARY);
+    }
+}
@@ -0,0 +1,117 @@
+package benchmarks;
+
+import javafx.application.Platform;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import model.Inventory;
+import model.Part;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cell values a parts table reads for one frame of scrolling: every column of every row in the viewport, as
+ * the reused cells are given their new rows. The reflective factory is the PropertyValueFactory the tables used before;
+ * the direct factory reads the part's properties through a lambda, as the controllers do now. Scrolling moves the
+ * viewport down one row per frame; jumping moves it to a random row, so most rows have not created their properties yet.
+ * <p></p>
+ * A column only reads cell values once it belongs to a table, so JavaFX runs headless on the Monocle platform. The table
+ * is never shown, which leaves out the cells themselves and measures only what the factories cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw"})
+public class CellValueBenchmark {
+
+    private static final int VIEWPORT_ROWS = 30;
+    private static final int CATALOGUE_SIZE = 100_000;
+
+    @Param({"reflective", "direct"})
+    public String factory;
+
+    private List<Part> allParts;
+    private TableColumn<Part, Integer> idColumn;
+    private TableColumn<Part, String> nameColumn;
+    private TableColumn<Part, Integer> stockColumn;
+    private TableColumn<Part, Long> priceColumn;
+    private int[] jumps;
+    private int scrollRow;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void populate() throws InterruptedException {
+        Catalogue.populate(CATALOGUE_SIZE, 1, Catalogue.Distribution.UNIFORM, 42);
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+        allParts = Inventory.getAllParts();
+        idColumn = new TableColumn<>();
+        nameColumn = new TableColumn<>();
+        stockColumn = new TableColumn<>();
+        priceColumn = new TableColumn<>();
+        TableView<Part> table = new TableView<>();
+        table.getColumns().setAll(List.of(idColumn, nameColumn, stockColumn, priceColumn));
+        if (factory.equals("reflective")) {
+            idColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
+            nameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
+            stockColumn.setCellValueFactory(new PropertyValueFactory<>("stock"));
+            priceColumn.setCellValueFactory(new PropertyValueFactory<>("priceMinor"));
+        } else {
+            idColumn.setCellValueFactory(cell -> cell.getValue().idProperty());
+            nameColumn.setCellValueFactory(cell -> cell.getValue().nameProperty());
+            stockColumn.setCellValueFactory(cell -> cell.getValue().stockProperty());
+            priceColumn.setCellValueFactory(cell -> cell.getValue().priceMinorProperty());
+        }
+        SplittableRandom random = new SplittableRandom(7);
+        jumps = new int[Catalogue.KEY_COUNT];
+        for (int i = 0; i < jumps.length; i++) {
+            jumps[i] = random.nextInt(CATALOGUE_SIZE - VIEWPORT_ROWS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopFx() {
+        Platform.exit();
+    }
+
+    private void renderViewport(int firstRow, Blackhole blackhole) {
+        for (int i = firstRow; i < firstRow + VIEWPORT_ROWS; i++) {
+            Part part = allParts.get(i);
+            blackhole.consume(idColumn.getCellObservableValue(part).getValue());
+            blackhole.consume(nameColumn.getCellObservableValue(part).getValue());
+            blackhole.consume(stockColumn.getCellObservableValue(part).getValue());
+            blackhole.consume(priceColumn.getCellObservableValue(part).getValue());
+        }
+    }
+
+    @Benchmark
+    public void scroll(Blackhole blackhole) {
+        scrollRow = scrollRow + 1 < CATALOGUE_SIZE - VIEWPORT_ROWS ? scrollRow + 1 : 0;
+        renderViewport(scrollRow, blackhole);
+    }
+
+    @Benchmark
+    public void jump(Blackhole blackhole) {
+        renderViewport(jumps[next++ & (Catalogue.KEY_COUNT - 1)], blackhole);
+    }
+}
@@ -0,0 +1,122 @@
+package benchmarks;
+
+import model.ConsumptionRates;
+import model.StockHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.OptionalInt;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ConsumptionRates against working the same rates out from the StockHistory each time. Every part is consumed
+ * twice a day on average for the last 90 days, and the same consumption is recorded in both.
+ * <ul>
+ *     <li>partRate / partRateFromHistory: one part's 30 day rate.</li>
+ *     <li>topTwenty / topTwentyFromHistory: the twenty parts with the highest 30 day rate across the catalogue.</li>
+ *     <li>record: recording one more consumption.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConsumptionRatesBenchmark {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Param({"100000"})
+    public int catalogueSize;
+
+    private ConsumptionRates rates;
+    private StockHistory history;
+    private long now;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void populate() {
+        rates = new ConsumptionRates();
+        history = new StockHistory(null, Long.MAX_VALUE);
+        now = System.currentTimeMillis();
+        Random consumption = new Random(7);
+        long start = now - 90 * DAY;
+        for (int partId = 1; partId <= catalogueSize; partId++) {
+            int level = 1_000_000;
+            for (long time = start + consumption.nextInt((int) DAY); time < now; time += consumption.nextInt((int) DAY)) {
+                int quantity = 1 + consumption.nextInt(10);
+                history.record(partId, time, level, level - quantity);
+                rates.recordConsumption(partId, quantity, time);
+                level -= quantity;
+            }
+        }
+    }
+
+    @Benchmark
+    public double partRate() {
+        return rates.getDailyRate(1 + random.nextInt(catalogueSize), ConsumptionRates.Window.THIRTY_DAYS, now);
+    }
+
+    @Benchmark
+    public double partRateFromHistory() {
+        return rateFromHistory(1 + random.nextInt(catalogueSize));
+    }
+
+    @Benchmark
+    public int[] topTwenty() {
+        return rates.getHighestRates(ConsumptionRates.Window.THIRTY_DAYS, 20);
+    }
+
+    @Benchmark
+    public int[] topTwentyFromHistory() {
+        PriorityQueue<double[]> highest = new PriorityQueue<>(20, (a, b) -> Double.compare(a[0], b[0]));
+        for (int partId = 1; partId <= catalogueSize; partId++) {
+            double rate = rateFromHistory(partId);
+            if (highest.size() < 20) {
+                highest.add(new double[] {rate, partId});
+            } else if (rate > highest.peek()[0]) {
+                highest.poll();
+                highest.add(new double[] {rate, partId});
+            }
+        }
+        int[] partIds = new int[highest.size()];
+        for (int i = partIds.length - 1; i >= 0; i--) {
+            partIds[i] = (int) highest.poll()[1];
+        }
+        return partIds;
+    }
+
+    @Benchmark
+    public void record() {
+        rates.recordConsumption(1 + random.nextInt(catalogueSize), 1, now);
+    }
+
+    /**
+     * Adds up the decreases in a part's stock over the last 30 days.
+     */
+    private double rateFromHistory(int partId) {
+        long from = now - 30 * DAY;
+        OptionalInt before = history.stockAt(partId, from);
+        StockHistory.Samples samples = history.range(partId, from, now);
+        long consumed = 0;
+        int level = before.orElse(samples.size() == 0 ? 0 : samples.level(0));
+        for (int i = 0; i < samples.size(); i++) {
+            consumed += Math.max(0, level - samples.level(i));
+            level = samples.level(i);
+        }
+        return consumed / 30.0;
+    }
+}
@@ -0,0 +1,148 @@
+package benchmarks;
+
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import model.StringDictionary;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Reports how much heap the part names and company names take with and without dictionary encoding, on a generated
+ * catalogue where, as in a real one, names repeat. Part names come from a vocabulary of 50,000 skewed towards the common
+ * ones, and every other part is outsourced from one of 300 companies. Every name is built as a new String, as it would be
+ * when read from a file or typed into a form.
+ * <p></p>
+ * Without encoding each part holds its own String for each name. With encoding each part holds an int code, the same size
+ * as a reference, and each distinct name is held once by a StringDictionary, so the saving is the Strings of the parts less
+ * the size of the dictionaries. Sizes are read from the heap after full collections, which is accurate to about a MB.
+ * <p></p>
+ * Run from the project root:
+ * <pre>
+ *     java -Xmx4g -cp benchmarks/target/benchmarks.jar benchmarks.HeapFootprintReport [parts]
+ * </pre>
+ */
+public class HeapFootprintReport {
+
+    private static final int NAME_VOCABULARY = 50_000;
+    private static final int COMPANY_COUNT = 300;
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) {
+        int partCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int outsourcedCount = partCount / 2;
+
+        long plainStrings = plainStrings(partCount, outsourcedCount);
+
+        long empty = usedHeap();
+        StringDictionary nameDictionary = new StringDictionary();
+        StringDictionary companyDictionary = new StringDictionary();
+        // The codes take the place of the references in the parts and are the same size, so they are not kept here
+        SplittableRandom random = new SplittableRandom(42);
+        long checksum = 0;
+        for (int i = 0; i < partCount; i++) {
+            checksum += nameDictionary.encode(name(random));
+        }
+        for (int i = 0; i < outsourcedCount; i++) {
+            checksum += companyDictionary.encode(companyName(random));
+        }
+        long encoded = usedHeap() - empty;
+
+        System.out.printf("%,d parts, %,d outsourced%n", partCount, outsourcedCount);
+        System.out.printf("Distinct names: %,d, distinct company names: %,d%n", nameDictionary.size(), companyDictionary.size());
+        System.out.printf("One String per name:  %,12d bytes  (%.1f bytes per part)%n", plainStrings, (double) plainStrings / partCount);
+        System.out.printf("Dictionary encoded:   %,12d bytes  (%.1f bytes per part)%n", encoded, (double) encoded / partCount);
+        System.out.printf("Saved:                %,12d bytes  (%.0f%%)%n", plainStrings - encoded,
+                100.0 * (plainStrings - encoded) / plainStrings);
+        System.out.printf("(checksum %d)%n", checksum);
+
+        reportInventory(partCount);
+    }
+
+    /**
+     * Measures the heap taken by a String for every name, as each part held before encoding.
+     * @param partCount The number of part names.
+     * @param outsourcedCount The number of company names.
+     * @return the bytes taken by the Strings, not counting the arrays holding them.
+     */
+    private static long plainStrings(int partCount, int outsourcedCount) {
+        long empty = usedHeap();
+        String[] names = new String[partCount];
+        String[] companyNames = new String[outsourcedCount];
+        long arrays = usedHeap() - empty;
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < partCount; i++) {
+            names[i] = name(random);
+        }
+        for (int i = 0; i < outsourcedCount; i++) {
+            companyNames[i] = companyName(random);
+        }
+        long strings = usedHeap() - empty - arrays;
+        // Keep the Strings reachable until they have been measured
+        return names[partCount - 1].length() + companyNames[outsourcedCount - 1].length() > 0 ? strings : 0;
+    }
+
+    /**
+     * Generates a part name.
+     * @param random The random source.
+     * @return a new String.
+     */
+    private static String name(SplittableRandom random) {
+        // Squaring a uniform value biases the choice towards the start of the vocabulary
+        double skew = random.nextDouble();
+        return new StringBuilder("Part ").append((int) (skew * skew * NAME_VOCABULARY)).toString();
+    }
+
+    /**
+     * Generates a company name.
+     * @param random The random source.
+     * @return a new String.
+     */
+    private static String companyName(SplittableRandom random) {
+        return new StringBuilder("Supplier ").append(random.nextInt(COMPANY_COUNT)).append(" Ltd.").toString();
+    }
+
+    /**
+     * Fills the Inventory with the same kind of catalogue and reports the heap each part takes, names included, and the
+     * outsourced parts grouped by company, which is counted on the company name codes.
+     * @param partCount The number of parts.
+     */
+    private static void reportInventory(int partCount) {
+        long empty = usedHeap();
+        SplittableRandom random = new SplittableRandom(7);
+        List<Part> parts = new ArrayList<>(partCount);
+        for (int id = 1; id <= partCount; id++) {
+            if (id % 2 == 0) {
+                parts.add(Catalogue.newPart(id, name(random), random));
+            } else {
+                parts.add(new Outsourced(id, name(random), 1 + random.nextInt(10_000) / 100.0, 10, 1, 100, companyName(random)));
+            }
+        }
+        Inventory.getAllParts().setAll(parts);
+        parts = null;
+        long inventory = usedHeap() - empty;
+        Map<String, Integer> byCompany = Inventory.countPartsByCompany();
+        System.out.printf("Inventory of %,d parts: %,d bytes (%.1f bytes per part), %d companies%n", partCount, inventory,
+                (double) inventory / partCount, byCompany.size());
+    }
+
+    /**
+     * Collects garbage several times, as one collection does not always free everything that is unreachable, and reads
+     * the least heap in use.
+     * @return the bytes of heap in use.
+     */
+    private static long usedHeap() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, MEMORY.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
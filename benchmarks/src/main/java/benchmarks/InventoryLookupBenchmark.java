@@ -0,0 +1,78 @@
+package benchmarks;
+
+import javafx.collections.ObservableList;
+import model.Inventory;
+import model.Part;
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Inventory.lookupPart and Inventory.lookupProduct by id and by name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class InventoryLookupBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int catalogueSize;
+
+    @Param({"UNIFORM", "SKEWED"})
+    public Catalogue.Distribution distribution;
+
+    private int[] partIds;
+    private int[] productIds;
+    private String[] partNames;
+    private String[] productNames;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        int productCount = Math.max(1, catalogueSize / 10);
+        Catalogue.populate(catalogueSize, productCount, distribution, 42);
+        partIds = Catalogue.ids(catalogueSize, distribution, 7);
+        productIds = Catalogue.ids(productCount, distribution, 8);
+        partNames = Catalogue.names("Part", catalogueSize, distribution, 9);
+        productNames = Catalogue.names("Product", productCount, distribution, 10);
+    }
+
+    private int nextKey() {
+        return next++ & (Catalogue.KEY_COUNT - 1);
+    }
+
+    @Benchmark
+    public Part lookupPartById() {
+        return Inventory.lookupPart(partIds[nextKey()]);
+    }
+
+    @Benchmark
+    public ObservableList<Part> lookupPartByName() {
+        return Inventory.lookupPart(partNames[nextKey()]);
+    }
+
+    @Benchmark
+    public Product lookupProductById() {
+        return Inventory.lookupProduct(productIds[nextKey()]);
+    }
+
+    @Benchmark
+    public ObservableList<Product> lookupProductByName() {
+        return Inventory.lookupProduct(productNames[nextKey()]);
+    }
+}
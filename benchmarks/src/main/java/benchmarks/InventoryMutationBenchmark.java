@@ -0,0 +1,88 @@
+package benchmarks;
+
+import model.Inventory;
+import model.Part;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Inventory.addPart, Inventory.deletePart and Inventory.updatePart. Adds and deletes are paired so the catalogue
+ * keeps the same size for the whole run. Added parts get ids no other part has, and every update puts a new part in place,
+ * so the id indexes stay as they would in the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class InventoryMutationBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int catalogueSize;
+
+    @Param({"UNIFORM", "SKEWED"})
+    public Catalogue.Distribution distribution;
+
+    private int[] partIds;
+    private int next;
+    private int nextNewId;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        Catalogue.populate(catalogueSize, 1, distribution, 42);
+        partIds = Catalogue.ids(catalogueSize, distribution, 7);
+        // The catalogue's ids run from 1 to catalogueSize, so ids after that are free
+        nextNewId = catalogueSize + 1;
+        random = new SplittableRandom(11);
+    }
+
+    private int nextKey() {
+        return next++ & (Catalogue.KEY_COUNT - 1);
+    }
+
+    /**
+     * Adds a new part to the end of the catalogue and deletes it again.
+     */
+    @Benchmark
+    public boolean addThenDeletePart() {
+        Part part = Catalogue.newPart(nextNewId++, "New part", random);
+        Inventory.addPart(part);
+        return Inventory.deletePart(part);
+    }
+
+    /**
+     * Deletes an existing part, chosen by the distribution, and adds it back.
+     */
+    @Benchmark
+    public boolean deleteThenAddPart() {
+        Part part = Inventory.lookupPart(partIds[nextKey()]);
+        boolean deleted = Inventory.deletePart(part);
+        Inventory.addPart(part);
+        return deleted;
+    }
+
+    /**
+     * Replaces a part chosen by the distribution with a new part with the same id, at the index the part is found at.
+     */
+    @Benchmark
+    public boolean updatePart() {
+        int id = partIds[nextKey()];
+        int index = Inventory.getAllParts().indexOf(Inventory.lookupPart(id));
+        return Inventory.updatePart(index, Catalogue.newPart(id, "Replacement", random));
+    }
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import model.InHouse;
+import model.Part;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a part stocked at several warehouses:
+ * <ul>
+ *     <li>total: getStock(), which reads the unassigned stock and the running sum of the located stock, as a table does on
+ *     every render.</li>
+ *     <li>summed: the total added up from each location instead, as it would be without the running sum.</li>
+ *     <li>transfer: moving one unit between two warehouses and back.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocationStockBenchmark {
+
+    @Param({"1", "8", "32"})
+    public int locationCount;
+
+    private Part part;
+
+    private List<String> locations;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        part = new InHouse(1, "Bolt", 1.0, 1_000_000, 0, 2_000_000, 7);
+        for (int i = 0; i < locationCount; i++) {
+            part.transferStock(null, "Warehouse " + i, 1000);
+        }
+        locations = part.getStockLocations();
+    }
+
+    @Benchmark
+    public int total() {
+        return part.getStock();
+    }
+
+    @Benchmark
+    public int summed() {
+        int total = part.getStockAt(null);
+        for (String location : locations) {
+            total += part.getStockAt(location);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public boolean transfer() {
+        String from = locations.get(0);
+        String to = locations.get(locations.size() - 1);
+        return part.transferStock(from, to, 1) & part.transferStock(to, from, 1);
+    }
+}
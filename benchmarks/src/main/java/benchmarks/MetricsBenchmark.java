@@ -0,0 +1,76 @@
+package benchmarks;
+
+import model.Inventory;
+import model.Part;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.InventoryMetrics;
+import utils.InventoryMetricsMXBean;
+
+import javax.management.JMX;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead InventoryMetrics adds to each operation, which should stay under 50 ns. The probe benchmarks time
+ * an empty operation, so their score is the whole overhead; the lookup benchmark shows it against a real operation.
+ * Metrics are switched on and off through the MBean, as an operator would from JConsole.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+
+    @Param({"true", "false"})
+    public boolean enabled;
+
+    private int[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void configure() throws MalformedObjectNameException {
+        InventoryMetrics.registerMBeans();
+        InventoryMetricsMXBean metrics = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                new ObjectName(InventoryMetrics.DOMAIN + ":type=InventoryMetrics"), InventoryMetricsMXBean.class);
+        metrics.setEnabled(enabled);
+        Catalogue.populate(10_000, 1, Catalogue.Distribution.UNIFORM, 42);
+        ids = Catalogue.ids(10_000, Catalogue.Distribution.UNIFORM, 7);
+    }
+
+    @Benchmark
+    public void probe() {
+        long start = InventoryMetrics.begin();
+        InventoryMetrics.end(InventoryMetrics.Operation.PART_LOOKUP_BY_ID, start);
+    }
+
+    /**
+     * Every thread records into the same histogram, to show the cost when operations run on many threads at once.
+     */
+    @Benchmark
+    @Threads(8)
+    public void probeContended() {
+        long start = InventoryMetrics.begin();
+        InventoryMetrics.end(InventoryMetrics.Operation.PART_LOOKUP_BY_ID, start);
+    }
+
+    @Benchmark
+    public Part lookupPartById() {
+        return Inventory.lookupPart(ids[next++ & (Catalogue.KEY_COUNT - 1)]);
+    }
+}
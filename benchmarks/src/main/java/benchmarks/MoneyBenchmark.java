@@ -0,0 +1,130 @@
+package benchmarks;
+
+import model.Inventory;
+import model.Money;
+import model.Part;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares prices held as double with prices held as long minor units. The aggregate scans sum price times stock over
+ * every part, both straight from columns and through the Inventory. The double sums are the baseline: they are not exact,
+ * and drift further from the exact total as the row count grows. Formatting and parsing are compared with
+ * String.valueOf and Double.parseDouble.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int partCount;
+
+    private double[] doublePrices;
+    private long[] minorPrices;
+    private int[] stock;
+    private String[] priceTexts;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        Catalogue.populate(partCount, 1, Catalogue.Distribution.UNIFORM, 42);
+        doublePrices = new double[partCount];
+        minorPrices = new long[partCount];
+        stock = new int[partCount];
+        priceTexts = new String[Catalogue.KEY_COUNT];
+        for (int i = 0; i < partCount; i++) {
+            Part part = Inventory.getAllParts().get(i);
+            doublePrices[i] = part.getPrice();
+            minorPrices[i] = part.getPriceMinor();
+            stock[i] = part.getStock();
+        }
+        for (int i = 0; i < priceTexts.length; i++) {
+            priceTexts[i] = Money.format(minorPrices[i]);
+        }
+    }
+
+    @Benchmark
+    public double sumDoubleColumns() {
+        double value = 0;
+        for (int i = 0; i < doublePrices.length; i++) {
+            value += doublePrices[i] * stock[i];
+        }
+        return value;
+    }
+
+    @Benchmark
+    public long sumMinorColumns() {
+        long value = 0;
+        for (int i = 0; i < minorPrices.length; i++) {
+            value = Math.addExact(value, Math.multiplyExact(minorPrices[i], stock[i]));
+        }
+        return value;
+    }
+
+    @Benchmark
+    public double sumDoubleInventory() {
+        double value = 0;
+        for (Part part : Inventory.getAllParts()) {
+            value += part.getPrice() * part.getStock();
+        }
+        return value;
+    }
+
+    @Benchmark
+    public long sumMinorInventory() {
+        return Inventory.getPartsValue();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Catalogue.KEY_COUNT)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void formatDouble(Blackhole blackhole) {
+        for (int i = 0; i < Catalogue.KEY_COUNT; i++) {
+            blackhole.consume(String.valueOf(doublePrices[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Catalogue.KEY_COUNT)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void formatMinor(Blackhole blackhole) {
+        for (int i = 0; i < Catalogue.KEY_COUNT; i++) {
+            blackhole.consume(Money.format(minorPrices[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Catalogue.KEY_COUNT)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void parseDouble(Blackhole blackhole) {
+        for (String text : priceTexts) {
+            blackhole.consume(Double.parseDouble(text));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Catalogue.KEY_COUNT)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void parseMinor(Blackhole blackhole) {
+        for (String text : priceTexts) {
+            blackhole.consume(Money.parse(text));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package benchmarks;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.ReusableController;
+import utils.SceneCache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures a round trip from the main form to another form and back, loading both views from their FXML files each time
+ * as navigation used to, against taking the views kept by the SceneCache and resetting their controllers, as SceneSwap does.
+ * <p></p>
+ * JavaFX runs headless on the Monocle platform, so the benchmark needs no display. The stage is never shown, which leaves
+ * out the CSS and layout pass of the next pulse: text layout needs the system's font libraries, which headless machines
+ * often lack, and that pass costs the same whether or not the view was cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw"})
+public class NavigationBenchmark {
+
+    private static final String MAIN_FORM = "/view/MainForm.fxml";
+
+    @Param({"/view/AddPart.fxml", "/view/AddProduct.fxml", "/view/ModifyPart.fxml", "/view/ModifyProduct.fxml"})
+    public String fxmlFile;
+
+    private Stage stage;
+
+    @Setup(Level.Trial)
+    public void startFx() throws Exception {
+        Catalogue.populate(100, 10, Catalogue.Distribution.UNIFORM, 42);
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+        onFxThread(() -> {
+            stage = new Stage();
+            showCached(MAIN_FORM);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void stopFx() {
+        Platform.exit();
+    }
+
+    /**
+     * Runs a task on the JavaFX Application Thread and waits for it to finish.
+     */
+    private static void onFxThread(Runnable task) throws Exception {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                failure.set(t);
+            } finally {
+                done.countDown();
+            }
+        });
+        done.await();
+        if (failure.get() != null) {
+            throw new IllegalStateException(failure.get());
+        }
+    }
+
+    private void loadAndShow(String file) {
+        try {
+            Parent root = FXMLLoader.load(SceneCache.class.getResource(file));
+            stage.setScene(new Scene(root));
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void showCached(String file) {
+        try {
+            Scene scene = SceneCache.getScene(file);
+            ReusableController controller = SceneCache.getController(file);
+            controller.reset();
+            stage.setScene(scene);
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public void loadEachTime() throws Exception {
+        onFxThread(() -> {
+            loadAndShow(fxmlFile);
+            loadAndShow(MAIN_FORM);
+        });
+    }
+
+    @Benchmark
+    public void cached() throws Exception {
+        onFxThread(() -> {
+            showCached(fxmlFile);
+            showCached(MAIN_FORM);
+        });
+    }
+}
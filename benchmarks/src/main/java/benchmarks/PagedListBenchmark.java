@@ -0,0 +1,94 @@
+package benchmarks;
+
+import javafx.collections.ObservableList;
+import model.Inventory;
+import model.Part;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.PagedList;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading a table's viewport of rows through a PagedList against reading them straight from the allParts list,
+ * as a TableView does on each frame. Scrolling moves the viewport down one row per frame, so most frames find their rows
+ * in pages already kept; jumping moves it to a random row, as dragging the scroll bar does, so most frames read new pages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class PagedListBenchmark {
+
+    private static final int VIEWPORT_ROWS = 30;
+
+    @Param({"100000", "10000000"})
+    public int catalogueSize;
+
+    private ObservableList<Part> allParts;
+    private PagedList<Part> pagedParts;
+    private int[] jumps;
+    private int scrollRow;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        Catalogue.populate(catalogueSize, 1, Catalogue.Distribution.UNIFORM, 42);
+        allParts = Inventory.getAllParts();
+        pagedParts = Inventory.getPagedParts();
+        SplittableRandom random = new SplittableRandom(7);
+        jumps = new int[Catalogue.KEY_COUNT];
+        for (int i = 0; i < jumps.length; i++) {
+            jumps[i] = random.nextInt(catalogueSize - VIEWPORT_ROWS);
+        }
+    }
+
+    private static void readViewport(ObservableList<Part> rows, int firstRow, Blackhole blackhole) {
+        for (int i = firstRow; i < firstRow + VIEWPORT_ROWS; i++) {
+            blackhole.consume(rows.get(i));
+        }
+    }
+
+    private int nextScrollRow() {
+        scrollRow = scrollRow + 1 < catalogueSize - VIEWPORT_ROWS ? scrollRow + 1 : 0;
+        return scrollRow;
+    }
+
+    private int nextJump() {
+        return jumps[next++ & (Catalogue.KEY_COUNT - 1)];
+    }
+
+    @Benchmark
+    public void scrollDirect(Blackhole blackhole) {
+        readViewport(allParts, nextScrollRow(), blackhole);
+    }
+
+    @Benchmark
+    public void scrollPaged(Blackhole blackhole) {
+        readViewport(pagedParts, nextScrollRow(), blackhole);
+    }
+
+    @Benchmark
+    public void jumpDirect(Blackhole blackhole) {
+        readViewport(allParts, nextJump(), blackhole);
+    }
+
+    @Benchmark
+    public void jumpPaged(Blackhole blackhole) {
+        readViewport(pagedParts, nextJump(), blackhole);
+    }
+}
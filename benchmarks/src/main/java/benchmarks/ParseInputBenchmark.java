@@ -0,0 +1,130 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.ParseInput;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ParseInput with Integer.parseInt and Double.parseDouble wrapped in try/catch, the way the forms used to parse
+ * their fields. The invalid share sets how many inputs are not numbers, which is where throwing gets expensive: a search
+ * for a name always took the exception path. Also parses the fields of a CSV line in place to show the slice API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseInputBenchmark {
+
+    /**
+     * The number of inputs parsed per invocation.
+     */
+    private static final int INPUTS = 1024;
+
+    @Param({"0", "10", "100"})
+    public int invalidPercent;
+
+    private String[] integers;
+    private String[] decimals;
+    private String csvLine;
+
+    @Setup
+    public void generateInputs() {
+        SplittableRandom random = new SplittableRandom(42);
+        integers = new String[INPUTS];
+        decimals = new String[INPUTS];
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < INPUTS; i++) {
+            boolean invalid = random.nextInt(100) < invalidPercent;
+            integers[i] = invalid ? "Part " + i : Integer.toString(random.nextInt(100_000));
+            decimals[i] = invalid ? "12,99" : random.nextInt(1000) + "." + random.nextInt(10) + random.nextInt(10);
+            line.append(random.nextInt(100_000)).append(',');
+        }
+        csvLine = line.toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public void parseIntWithException(Blackhole blackhole) {
+        for (String input : integers) {
+            try {
+                blackhole.consume(Integer.parseInt(input));
+            } catch (NumberFormatException e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public void parseIntWithoutException(Blackhole blackhole) {
+        for (String input : integers) {
+            blackhole.consume(ParseInput.parseInt(input));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public void parseDoubleWithException(Blackhole blackhole) {
+        for (String input : decimals) {
+            try {
+                blackhole.consume(Double.parseDouble(input));
+            } catch (NumberFormatException e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public void parseDecimalWithoutException(Blackhole blackhole) {
+        for (String input : decimals) {
+            blackhole.consume(ParseInput.parseDecimal(input));
+        }
+    }
+
+    /**
+     * Splits a CSV line into Strings and parses each one. Reported per field.
+     */
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public long csvSplitAndParse() {
+        long sum = 0;
+        for (String field : csvLine.split(",")) {
+            sum += Integer.parseInt(field);
+        }
+        return sum;
+    }
+
+    /**
+     * Parses each field of a CSV line in place, without creating any Strings. Reported per field.
+     */
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public long csvParseInPlace() {
+        long sum = 0;
+        int start = 0;
+        for (int i = 0; i < csvLine.length(); i++) {
+            if (csvLine.charAt(i) == ',') {
+                sum += ParseInput.parseInt(csvLine, start, i);
+                start = i + 1;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,108 @@
+package benchmarks;
+
+import model.InHouse;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import model.PartQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures PartQuery against the hand-written scan of getAllParts() each query would otherwise need. The queries are:
+ * <ul>
+ *     <li>machine: the parts made on one machine with low stock, which the planner answers from the machine index.</li>
+ *     <li>company: the parts from one of the five suppliers within a price band, from the company index.</li>
+ *     <li>range: the parts within a price band and a max band, which no index answers, so the planner scans the columns.</li>
+ *     <li>top: the twenty most expensive outsourced parts with low stock, a scan followed by a sort.</li>
+ * </ul>
+ * The first planned run of a scan builds the column snapshot, which later runs reuse as the parts do not change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PartQueryBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int catalogueSize;
+
+    @Param({"machine", "company", "range", "top"})
+    public String query;
+
+    private PartQuery planned;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        Catalogue.populate(catalogueSize, 1, Catalogue.Distribution.UNIFORM, 42);
+        switch (query) {
+            case "machine" -> planned = PartQuery.parts().where(PartQuery.machineIs(103)).where(PartQuery.stockBetween(0, 100));
+            case "company" -> planned = PartQuery.parts().where(PartQuery.companyIs("Pilfercraft")).where(PartQuery.priceBetween(1000, 2000));
+            case "range" -> planned = PartQuery.parts().where(PartQuery.priceBetween(1000, 1100)).where(PartQuery.maxBetween(500, 600));
+            default -> planned = PartQuery.parts().where(PartQuery.outsourced()).where(PartQuery.stockBetween(0, 50))
+                    .orderBy(PartQuery.Field.PRICE, true).limit(20);
+        }
+        System.out.println(planned.explain());
+    }
+
+    @Benchmark
+    public List<Part> planned() {
+        return planned.list();
+    }
+
+    @Benchmark
+    public List<Part> naive() {
+        List<Part> parts = new ArrayList<>();
+        switch (query) {
+            case "machine" -> {
+                for (Part part : Inventory.getAllParts()) {
+                    if (part instanceof InHouse && ((InHouse) part).getMachineId() == 103 && part.getStock() <= 100 && part.getStock() >= 0) {
+                        parts.add(part);
+                    }
+                }
+            }
+            case "company" -> {
+                for (Part part : Inventory.getAllParts()) {
+                    if (part instanceof Outsourced && "Pilfercraft".equals(((Outsourced) part).getCompanyName())
+                            && part.getPriceMinor() >= 1000 && part.getPriceMinor() <= 2000) {
+                        parts.add(part);
+                    }
+                }
+            }
+            case "range" -> {
+                for (Part part : Inventory.getAllParts()) {
+                    if (part.getPriceMinor() >= 1000 && part.getPriceMinor() <= 1100 && part.getMax() >= 500 && part.getMax() <= 600) {
+                        parts.add(part);
+                    }
+                }
+            }
+            default -> {
+                for (Part part : Inventory.getAllParts()) {
+                    if (part instanceof Outsourced && part.getStock() >= 0 && part.getStock() <= 50) {
+                        parts.add(part);
+                    }
+                }
+                parts.sort(Comparator.comparingLong(Part::getPriceMinor).reversed());
+                return new ArrayList<>(parts.subList(0, Math.min(20, parts.size())));
+            }
+        }
+        return parts;
+    }
+}
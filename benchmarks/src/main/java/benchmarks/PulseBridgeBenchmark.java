@@ -0,0 +1,131 @@
+package benchmarks;
+
+import javafx.application.Platform;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import model.Inventory;
+import model.Part;
+import model.PulseBridge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.SortKey;
+import utils.TableSorter;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a background thread getting one pulse's worth of changes into a parts table, from queuing the first to the last
+ * being applied. The changes are either updates of random parts or new parts, as from an import. The perChange benchmark
+ * posts each change to the JavaFX Application Thread with its own Platform.runLater and Inventory.updatePart() or
+ * addPart(), so every change is a separate list change. The batched benchmark queues them with the PulseBridge and
+ * applies them all at once with flush(), as one list change. The parts added are removed after each iteration.
+ * PulseBudgetBenchmark measures a single pulse.
+ * <p></p>
+ * The parts list has the id index and a TableView's TableSorter and PagedList listening to it, as in the application, so
+ * JavaFX runs headless on the Monocle platform. The table is never shown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw"})
+public class PulseBridgeBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int catalogueSize;
+
+    @Param({"update", "add"})
+    public String change;
+
+    // Enough changes for several pulses
+    private static final int CHANGES = 16384;
+
+    private Part[] updates;
+    private int[] indexes;
+    private int next;
+    private final SplittableRandom random = new SplittableRandom(11);
+
+    @Setup(Level.Trial)
+    public void populate() throws InterruptedException {
+        Catalogue.populate(catalogueSize, 1, Catalogue.Distribution.UNIFORM, 42);
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+        onFxThread(() -> {
+            TableView<Part> table = new TableView<>();
+            TableColumn<Part, Integer> stock = new TableColumn<>();
+            table.getColumns().add(stock);
+            table.setItems(new TableSorter<>(table, Inventory.getAllParts()).sortBy(stock, SortKey.ofInt(Part::getStock)).getItems());
+            // Builds the id index, which then follows every change
+            Inventory.lookupPart(1);
+        });
+
+        // Enough updates for several pulses, each to a random part, so no two in a pulse are coalesced by chance alone
+        SplittableRandom random = new SplittableRandom(7);
+        updates = new Part[CHANGES * 4];
+        indexes = new int[updates.length];
+        for (int i = 0; i < updates.length; i++) {
+            indexes[i] = random.nextInt(catalogueSize);
+            updates[i] = Catalogue.newPart(indexes[i] + 1, "Updated", random);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeAdded() throws InterruptedException {
+        onFxThread(() -> Inventory.getAllParts().remove(catalogueSize, Inventory.getAllParts().size()));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopFx() {
+        Platform.exit();
+    }
+
+    private static void onFxThread(Runnable task) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            task.run();
+            done.countDown();
+        });
+        done.await();
+    }
+
+    @Benchmark
+    public void perChange() throws InterruptedException {
+        for (int i = 0; i < CHANGES; i++) {
+            if (change.equals("add")) {
+                Part part = Catalogue.newPart(catalogueSize + ++next, "Added", random);
+                Platform.runLater(() -> Inventory.addPart(part));
+            } else {
+                int update = next++ % updates.length;
+                Platform.runLater(() -> Inventory.updatePart(indexes[update], updates[update]));
+            }
+        }
+        onFxThread(() -> { });
+    }
+
+    @Benchmark
+    public void batched() throws InterruptedException {
+        for (int i = 0; i < CHANGES; i++) {
+            if (change.equals("add")) {
+                PulseBridge.addPart(Catalogue.newPart(catalogueSize + ++next, "Added", random));
+            } else {
+                PulseBridge.updatePart(updates[next++ % updates.length]);
+            }
+        }
+        onFxThread(PulseBridge::flush);
+    }
+}
@@ -0,0 +1,142 @@
+package benchmarks;
+
+import javafx.application.Platform;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import model.Inventory;
+import model.Part;
+import model.PulseBridge;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.SortKey;
+import utils.TableSorter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one PulseBridge pulse while more changes are queued than a pulse can take, as during a large import. Each pulse
+ * should stay inside its time budget, and so inside a 16.7 ms frame, whatever the size of the catalogue. The changes are
+ * updates or deletions of random parts, or new parts. The changes a pulse leaves are applied and undone after it, outside
+ * the measurement, so every pulse starts from the same catalogue.
+ * <p></p>
+ * The changes counter is the number of changes applied by the measured pulses, to divide by their number. The time also
+ * includes waiting for any pulse the bridge's own timer is running when the measured pulse is posted, so it is an upper
+ * bound on the pulse itself.
+ * <p></p>
+ * The parts list has the id index and a TableView's TableSorter and PagedList listening to it, as in the application, so
+ * JavaFX runs headless on the Monocle platform. The table is never shown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw"})
+public class PulseBudgetBenchmark {
+
+    // Several pulses' worth, so the measured pulse is always cut short by its budget
+    private static final int BACKLOG = 65536;
+
+    @Param({"100000", "1000000"})
+    public int catalogueSize;
+
+    @Param({"update", "delete", "add"})
+    public String change;
+
+    private Part[] catalogue;
+    private final List<Part> deleted = new ArrayList<>();
+    private int next;
+    private final SplittableRandom random = new SplittableRandom(11);
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Applied {
+        public long changes;
+    }
+
+    @Setup(Level.Trial)
+    public void populate() throws InterruptedException {
+        Catalogue.populate(catalogueSize, 1, Catalogue.Distribution.UNIFORM, 42);
+        catalogue = Inventory.getAllParts().toArray(new Part[0]);
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+        onFxThread(() -> {
+            TableView<Part> table = new TableView<>();
+            TableColumn<Part, Integer> stock = new TableColumn<>();
+            table.getColumns().add(stock);
+            table.setItems(new TableSorter<>(table, Inventory.getAllParts()).sortBy(stock, SortKey.ofInt(Part::getStock)).getItems());
+            // Builds the id index, which then follows every change
+            Inventory.lookupPart(1);
+        });
+    }
+
+    @Setup(Level.Invocation)
+    public void queueBacklog() {
+        for (int i = 0; i < BACKLOG; i++) {
+            switch (change) {
+                case "update":
+                    PulseBridge.updatePart(Catalogue.newPart(random.nextInt(catalogueSize) + 1, "Updated", random));
+                    break;
+                case "delete":
+                    // Each part once, so every deletion finds its part
+                    Part part = catalogue[next++ % catalogue.length];
+                    PulseBridge.deletePart(part);
+                    deleted.add(part);
+                    break;
+                default:
+                    PulseBridge.addPart(Catalogue.newPart(catalogueSize + ++next, "Added", random));
+            }
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void restore() throws InterruptedException {
+        onFxThread(() -> {
+            PulseBridge.flush();
+            if (change.equals("delete")) {
+                Inventory.getAllParts().addAll(deleted);
+                deleted.clear();
+            } else if (change.equals("add")) {
+                Inventory.getAllParts().remove(catalogueSize, Inventory.getAllParts().size());
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void stopFx() {
+        Platform.exit();
+    }
+
+    private static void onFxThread(Runnable task) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            task.run();
+            done.countDown();
+        });
+        done.await();
+    }
+
+    @Benchmark
+    public void onePulse(Applied applied) throws InterruptedException {
+        int[] taken = new int[1];
+        onFxThread(() -> taken[0] = PulseBridge.applyPulse());
+        applied.changes += taken[0];
+    }
+}
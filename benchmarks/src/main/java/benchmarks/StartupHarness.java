@@ -0,0 +1,136 @@
+package benchmarks;
+
+import utils.StartupTimer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to first frame of InventoryApplication, with the JDK's default class data sharing archive and with
+ * the application archive built by the appcds profile. Each run starts a new JVM, which reports when the first frame of
+ * the main form was laid out and then exits. The runs of the two configurations are interleaved, after one untimed run
+ * of each, so that a warming file cache or a busy machine affects both alike.
+ * <p></p>
+ * Run from the project root after mvn -Pappcds package:
+ * <pre>
+ *     java -cp benchmarks/target/benchmarks.jar benchmarks.StartupHarness [--runs 10] [-- extra JVM options]
+ * </pre>
+ * Extra JVM options are passed to the application. Like the training run, the application needs a display. The module path
+ * and archive are read from target/app-module-path.txt and target/app-cds.jsa; --module-path-file and --archive change them.
+ */
+public class StartupHarness {
+
+    private static final String MAIN_MODULE = "ims.inventoryapp/ims.inventoryapp.InventoryApplication";
+
+    private static final long TIMEOUT_SECONDS = 120;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = 10;
+        Path modulePathFile = Path.of("target", "app-module-path.txt");
+        Path archive = Path.of("target", "app-cds.jsa");
+        List<String> extraOptions = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--runs" -> runs = Integer.parseInt(args[++i]);
+                case "--module-path-file" -> modulePathFile = Path.of(args[++i]);
+                case "--archive" -> archive = Path.of(args[++i]);
+                case "--" -> {
+                    extraOptions.addAll(Arrays.asList(args).subList(i + 1, args.length));
+                    i = args.length;
+                }
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException(archive + " does not exist, build it with mvn -Pappcds package");
+        }
+        String modulePath = Files.readString(modulePathFile).trim();
+
+        List<String> defaultCds = List.of("-Xshare:auto");
+        List<String> appCds = List.of("-XX:SharedArchiveFile=" + archive);
+
+        // Untimed runs, so the first timed run does not pay for reading the jars from disk
+        timeToFirstFrame(defaultCds, extraOptions, modulePath);
+        timeToFirstFrame(appCds, extraOptions, modulePath);
+
+        long[][] withDefaultCds = new long[2][runs];
+        long[][] withAppCds = new long[2][runs];
+        for (int run = 0; run < runs; run++) {
+            long[] times = timeToFirstFrame(defaultCds, extraOptions, modulePath);
+            withDefaultCds[0][run] = times[0];
+            withDefaultCds[1][run] = times[1];
+            times = timeToFirstFrame(appCds, extraOptions, modulePath);
+            withAppCds[0][run] = times[0];
+            withAppCds[1][run] = times[1];
+        }
+
+        System.out.printf("Time to first frame over %d runs, in ms (launched = from starting the JVM, reported = by the application)%n", runs);
+        System.out.printf("%-28s %8s %8s %8s%n", "", "min", "median", "max");
+        print("default CDS, launched", withDefaultCds[0]);
+        print("default CDS, reported", withDefaultCds[1]);
+        print("application CDS, launched", withAppCds[0]);
+        print("application CDS, reported", withAppCds[1]);
+        long before = median(withDefaultCds[0]);
+        long after = median(withAppCds[0]);
+        System.out.printf("Median improvement: %d ms (%.1f%%)%n", before - after, 100.0 * (before - after) / before);
+    }
+
+    /**
+     * Starts the application in a new JVM and waits for it to report its first frame.
+     * @return the milliseconds from starting the JVM to reading the report, and the milliseconds the application reported.
+     */
+    private static long[] timeToFirstFrame(List<String> cdsOptions, List<String> extraOptions, String modulePath)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(cdsOptions);
+        command.add("-Dims.startup.report=true");
+        command.add("-Dims.startup.exit=true");
+        command.addAll(extraOptions);
+        command.addAll(List.of("--module-path", modulePath, "--module", MAIN_MODULE));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long launched = -1;
+        long reported = -1;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            // Keep reading after the report, so the application never blocks on a full pipe while it finishes starting up
+            while ((line = output.readLine()) != null) {
+                if (launched < 0 && line.startsWith(StartupTimer.REPORT_PREFIX)) {
+                    launched = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    reported = Long.parseLong(line.substring(StartupTimer.REPORT_PREFIX.length(), line.indexOf(" ms")));
+                }
+            }
+        }
+        if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("The application did not exit: " + String.join(" ", command));
+        }
+        if (launched < 0) {
+            throw new IllegalStateException("The application exited with " + process.exitValue()
+                    + " without reporting a first frame: " + String.join(" ", command));
+        }
+        return new long[]{launched, reported};
+    }
+
+    private static void print(String name, long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-28s %8d %8d %8d%n", name, sorted[0], median(times), sorted[sorted.length - 1]);
+    }
+
+    private static long median(long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,79 @@
+package benchmarks;
+
+import model.InHouse;
+import model.Inventory;
+import model.StockAdjustmentPipeline;
+import model.StockJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synthetic scanner load on the StockAdjustmentPipeline: many threads submitting +1/-1 adjustments to a small set of
+ * parts and waiting for each to become durable. Sample-time mode reports latency percentiles (p50, p90, p99, p99.9);
+ * run with -bm thrpt for throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class StockAdjustmentPipelineBenchmark {
+
+    @Param({"1", "2", "5"})
+    public int windowMillis;
+
+    @Param({"8"})
+    public int hotPartCount;
+
+    private Path journalFile;
+    private StockJournal journal;
+    private StockAdjustmentPipeline pipeline;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        Inventory.getAllProducts().clear();
+        Inventory.getAllParts().clear();
+        for (int id = 1; id <= hotPartCount; id++) {
+            Inventory.addPart(new InHouse(id, "Fastener " + id, 0.1, 1_000_000, 0, Integer.MAX_VALUE, 100));
+        }
+        journalFile = Files.createTempFile("stock-journal", ".bin");
+        journal = new StockJournal(journalFile);
+        pipeline = new StockAdjustmentPipeline(journal, Duration.ofMillis(windowMillis));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        pipeline.close();
+        journal.close();
+        Files.deleteIfExists(journalFile);
+    }
+
+    @Benchmark
+    public Boolean submitAndAwaitDurable() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int partId = 1 + random.nextInt(hotPartCount);
+        int delta = random.nextBoolean() ? 1 : -1;
+        return pipeline.submit(partId, delta).join();
+    }
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import model.InHouse;
+import model.Part;
+import model.StripedStockCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of a single hot part's stock adjusted from many threads, using a StripedStockCounter and using
+ * an int field guarded by synchronized. Each operation removes one unit with a floor check and then adds it back.
+ * The part benchmark does the same through Part.adjustStock(), so it also pays for recording the stock history and the
+ * consumption. Change the thread count with -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class StockCounterBenchmark {
+
+    private final StripedStockCounter striped = new StripedStockCounter(1_000_000, 10);
+    private final SynchronizedStock synchronizedStock = new SynchronizedStock(1_000_000, 10);
+    private final Part part = new InHouse(1, "Hot part", 1, 1_000_000, 10, 2_000_000, 1);
+
+    @Benchmark
+    public boolean striped() {
+        boolean removed = striped.tryRemoveAboveMinimum(1);
+        striped.add(1);
+        return removed;
+    }
+
+    @Benchmark
+    public boolean synchronizedField() {
+        boolean removed = synchronizedStock.tryRemoveAboveMinimum(1);
+        synchronizedStock.add(1);
+        return removed;
+    }
+
+    @Benchmark
+    public boolean part() {
+        boolean removed = part.adjustStock(-1, true);
+        part.adjustStock(1, true);
+        return removed;
+    }
+
+    /**
+     * The baseline: a stock field behind a lock.
+     */
+    static final class SynchronizedStock {
+        private int stock;
+        private final int min;
+
+        SynchronizedStock(int stock, int min) {
+            this.stock = stock;
+            this.min = min;
+        }
+
+        synchronized boolean tryRemoveAboveMinimum(int amount) {
+            if (stock - amount < min) {
+                return false;
+            }
+            stock -= amount;
+            return true;
+        }
+
+        synchronized void add(int amount) {
+            stock += amount;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package benchmarks;
+
+import model.StockHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.OptionalInt;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures StockHistory queries over three years of a busy part's stock, changing every five minutes on average, which is
+ * about 315,000 samples. The history is either all in memory or spilled to a temporary file but for the open chunk.
+ * <ul>
+ *     <li>stockAt: the stock at a random time.</li>
+ *     <li>month: every sample in a random month.</li>
+ *     <li>chart: the whole three years reduced to 500 buckets, read from the chunk fields where it can be.</li>
+ *     <li>chartByDecoding: the same chart built by decoding every sample, as a history without chunk fields would.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockHistoryBenchmark {
+
+    private static final long START = 1_600_000_000_000L;
+    private static final long YEARS = TimeUnit.DAYS.toMillis(3 * 365);
+    private static final long MONTH = TimeUnit.DAYS.toMillis(30);
+    private static final int BUCKETS = 500;
+
+    @Param({"memory", "spilled"})
+    public String storage;
+
+    private StockHistory history;
+    private long end;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void record() {
+        history = new StockHistory(null, "memory".equals(storage) ? Long.MAX_VALUE : 0);
+        Random changes = new Random(7);
+        long time = START;
+        int level = 500;
+        int samples = 0;
+        while (time < START + YEARS) {
+            time += 1 + changes.nextInt(600_000);
+            int next = Math.max(0, level + changes.nextInt(41) - 20);
+            history.record(1, time, level, next);
+            level = next;
+            samples++;
+        }
+        end = time;
+        System.out.println(samples + " samples, " + history.getInMemoryBytes() + " bytes in memory");
+    }
+
+    @Benchmark
+    public OptionalInt stockAt() {
+        return history.stockAt(1, START + (long) (random.nextDouble() * YEARS));
+    }
+
+    @Benchmark
+    public StockHistory.Samples month() {
+        long from = START + (long) (random.nextDouble() * (YEARS - MONTH));
+        return history.range(1, from, from + MONTH);
+    }
+
+    @Benchmark
+    public StockHistory.Chart chart() {
+        return history.downsample(1, START, end + 1, BUCKETS);
+    }
+
+    @Benchmark
+    public int[] chartByDecoding() {
+        StockHistory.Samples samples = history.range(1, START, end);
+        int[] closes = new int[BUCKETS];
+        double bucketMillis = (double) (end + 1 - START) / BUCKETS;
+        for (int i = 0; i < samples.size(); i++) {
+            closes[Math.min(BUCKETS - 1, (int) ((samples.time(i) - START) / bucketMillis))] = samples.level(i);
+        }
+        return closes;
+    }
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import model.InHouse;
+import model.Inventory;
+import model.Product;
+import model.StockTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures build transactions (reserve then commit every associated part of a product) from 32 threads at once.
+ * The target is at least 100k transactions per second in total.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class StockTransactionBenchmark {
+
+    /**
+     * The number of distinct parts. Fewer parts means more threads competing for the same counters.
+     */
+    @Param({"16", "1000"})
+    public int partCount;
+
+    @Param({"4"})
+    public int partsPerProduct;
+
+    private Product[] products;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        Inventory.getAllProducts().clear();
+        Inventory.getAllParts().clear();
+        for (int id = 1; id <= partCount; id++) {
+            Inventory.addPart(new InHouse(id, "Part " + id, 1, 1_000_000_000, 0, Integer.MAX_VALUE, 100));
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        products = new Product[64];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = new Product(i + 1, "Product " + i, 10, 0, 0, 100);
+            for (int j = 0; j < partsPerProduct; j++) {
+                products[i].addAssociatedPart(Inventory.lookupPart(1 + random.nextInt(partCount)));
+            }
+        }
+    }
+
+    /**
+     * Each thread picks products from its own sequence.
+     */
+    @State(Scope.Thread)
+    public static class ThreadCursor {
+        int next = (int) Thread.currentThread().getId();
+    }
+
+    @Benchmark
+    public boolean buildProduct(ThreadCursor cursor) {
+        Product product = products[cursor.next++ & (products.length - 1)];
+        StockTransaction transaction = StockTransaction.forProduct(product, 1);
+        if (!transaction.reserve()) {
+            return false;
+        }
+        transaction.commit();
+        return true;
+    }
+}
@@ -0,0 +1,117 @@
+package benchmarks;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import model.Inventory;
+import model.Part;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.SortKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sorting the parts table by one column and by three. The comparator benchmark is TableView's default sort policy
+ * reading boxed cell values through PropertyValueFactory, as clicking a header did on the JavaFX Application Thread. The
+ * permutation benchmark is what TableSorter runs in the background: SortKey.order() over primitive keys, then the sorted
+ * array of rows. Both start from the parts in id order.
+ * <p></p>
+ * A TableView is needed for the default policy, so JavaFX runs headless on the Monocle platform. 10M parts need a heap of
+ * about 8 GB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g", "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw"})
+public class TableSortBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int catalogueSize;
+
+    /**
+     * The sort order: the price alone, or the stock high to low, then the name, then the price.
+     */
+    @Param({"price", "stock,name,price"})
+    public String sortOrder;
+
+    private Part[] parts;
+    private TableView<Part> table;
+    private List<TableColumn<Part, ?>> sortColumns;
+    private List<SortKey<Part>> sortKeys;
+    private boolean[] descending;
+
+    @Setup(Level.Trial)
+    public void populate() throws InterruptedException {
+        Catalogue.populate(catalogueSize, 1, Catalogue.Distribution.UNIFORM, 42);
+        parts = Inventory.getAllParts().toArray(new Part[0]);
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        TableColumn<Part, String> name = new TableColumn<>();
+        name.setCellValueFactory(new PropertyValueFactory<>("name"));
+        TableColumn<Part, Integer> stock = new TableColumn<>();
+        stock.setCellValueFactory(new PropertyValueFactory<>("stock"));
+        stock.setSortType(TableColumn.SortType.DESCENDING);
+        TableColumn<Part, Long> price = new TableColumn<>();
+        price.setCellValueFactory(new PropertyValueFactory<>("priceMinor"));
+        table = new TableView<>();
+        table.getColumns().setAll(List.of(name, stock, price));
+
+        if (sortOrder.equals("price")) {
+            sortColumns = List.of(price);
+            sortKeys = List.of(SortKey.ofLong(Part::getPriceMinor));
+            descending = new boolean[] {false};
+        } else {
+            sortColumns = List.of(stock, name, price);
+            sortKeys = List.of(SortKey.ofInt(Part::getStock), SortKey.ofText(Part::getName), SortKey.ofLong(Part::getPriceMinor));
+            descending = new boolean[] {true, false, false};
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void unsort() {
+        table.getSortOrder().clear();
+        table.setItems(FXCollections.observableArrayList(parts));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopFx() {
+        Platform.exit();
+    }
+
+    @Benchmark
+    public ObservableList<Part> comparator() {
+        table.getSortOrder().setAll(new ArrayList<>(sortColumns));
+        return table.getItems();
+    }
+
+    @Benchmark
+    public Part[] permutation() {
+        int[] order = SortKey.order(parts, sortKeys, descending);
+        Part[] sorted = new Part[parts.length];
+        Arrays.parallelSetAll(sorted, position -> parts[order[position]]);
+        return sorted;
+    }
+}
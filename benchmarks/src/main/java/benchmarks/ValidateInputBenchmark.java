@@ -0,0 +1,167 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.ValidateInput;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ValidateInput on valid input and on input that breaks several rules. The bitmask checks are compared with the
+ * message-building methods, and with the original String += implementation kept here as a baseline. Run with -prof gc
+ * to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidateInputBenchmark {
+
+    /**
+     * The number of rows in the columnar batch.
+     */
+    private static final int BATCH_ROWS = 10_000;
+
+    public String name = "Crossbow String";
+    public String emptyName = "";
+    public String companyName = "Sentry Inc.";
+
+    private String[] names;
+    private int[] stock;
+    private double[] price;
+    private int[] min;
+    private int[] max;
+    private int[] machineIds;
+    private int[] violations;
+
+    @Setup(Level.Trial)
+    public void generateBatch() {
+        SplittableRandom random = new SplittableRandom(42);
+        names = new String[BATCH_ROWS];
+        stock = new int[BATCH_ROWS];
+        price = new double[BATCH_ROWS];
+        min = new int[BATCH_ROWS];
+        max = new int[BATCH_ROWS];
+        machineIds = new int[BATCH_ROWS];
+        violations = new int[BATCH_ROWS];
+        for (int row = 0; row < BATCH_ROWS; row++) {
+            // Roughly one row in twenty breaks a rule.
+            boolean invalid = random.nextInt(20) == 0;
+            names[row] = invalid && random.nextBoolean() ? "" : "Part " + row;
+            min[row] = 1 + random.nextInt(10);
+            max[row] = min[row] + random.nextInt(100);
+            stock[row] = invalid ? max[row] + 1 : min[row];
+            price[row] = 1 + random.nextInt(10_000) / 100.0;
+            machineIds[row] = 100 + random.nextInt(50);
+        }
+    }
+
+    @Benchmark
+    public String validateInHouseValid() {
+        return ValidateInput.validateInputInHouse(name, 20, 6.99, 10, 30, 103);
+    }
+
+    @Benchmark
+    public String validateInHouseInvalid() {
+        return ValidateInput.validateInputInHouse(emptyName, 0, -1, 10, 5, 0);
+    }
+
+    @Benchmark
+    public String validateOutsourcedValid() {
+        return ValidateInput.validateInputOutsourced(name, 20, 6.99, 10, 30, companyName);
+    }
+
+    @Benchmark
+    public String validateProductValid() {
+        return ValidateInput.validateInputProduct(name, 3, 82.80, 2, 8);
+    }
+
+    @Benchmark
+    public int checkInHouseValid() {
+        return ValidateInput.checkInHouse(name, 20, 6.99, 10, 30, 103);
+    }
+
+    @Benchmark
+    public int checkInHouseInvalid() {
+        return ValidateInput.checkInHouse(emptyName, 0, -1, 10, 5, 0);
+    }
+
+    @Benchmark
+    public String legacyInHouseValid() {
+        return LegacyValidateInput.validateInputInHouse(name, 20, 6.99, 10, 30, 103);
+    }
+
+    @Benchmark
+    public String legacyInHouseInvalid() {
+        return LegacyValidateInput.validateInputInHouse(emptyName, 0, -1, 10, 5, 0);
+    }
+
+    /**
+     * Checks the whole columnar batch. Reported per row.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_ROWS)
+    public int checkBatch() {
+        return ValidateInput.checkBatch(names, stock, price, min, max, null, machineIds, BATCH_ROWS, violations);
+    }
+
+    /**
+     * Validates the same batch one row at a time with the original implementation. Reported per row.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_ROWS)
+    public void legacyBatch(Blackhole blackhole) {
+        for (int row = 0; row < BATCH_ROWS; row++) {
+            blackhole.consume(LegacyValidateInput.validateInputInHouse(names[row], stock[row], price[row], min[row], max[row], machineIds[row]));
+        }
+    }
+
+    /**
+     * The original String += implementation of ValidateInput.validateInputInHouse, kept as the baseline.
+     */
+    static final class LegacyValidateInput {
+
+        static String validateInputInHouse(String name, int stock, double price, int min, int max, int machineId) {
+            String errorMessage = "";
+            if (name.isEmpty()) {
+                errorMessage += "• Name field is empty\n";
+            }
+            if (stock <= 0) {
+                errorMessage += "• Inventory must be a positive integer\n";
+            }
+            if (stock < min || stock > max) {
+                errorMessage += "• Inventory value must be between min and max.\n";
+            }
+            if (price <= 0) {
+                errorMessage += "• Price must be a positive decimal number\n";
+            }
+            if (max <= 0) {
+                errorMessage += "• Maximum value must be a positive integer\n";
+            }
+            if (min <= 0) {
+                errorMessage += "• Minimum value must be a positive integer\n";
+            }
+            if (max < min) {
+                errorMessage += "• Maximum value must be greater than or equal to minimum value\n";
+            }
+            if (machineId <= 0) {
+                errorMessage += "• Machine ID must be entered.\n";
+            }
+            return errorMessage;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import javafx.scene.control.Alert;
 import model.InHouse;
 import model.Outsourced;
 import model.Inventory;
+import model.Money;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -16,6 +17,8 @@ import javafx.scene.text.Text;
 
 
 import model.Part;
+import utils.ParseInput;
+import utils.ReusableController;
 import utils.SceneSwap;
 import utils.ValidateInput;
 
@@ -26,7 +29,7 @@ import java.util.ResourceBundle;
  * The AddPartController class is responsible for controlling the add part form, performing input validation, and
  * creating new part objects based on user input to add to inventory.
  */
-public class AddPartController implements Initializable {
+public class AddPartController implements Initializable, ReusableController {
 
     // Declare Fields
 
@@ -110,15 +113,38 @@ public class AddPartController implements Initializable {
     // Declare Methods
 
     /**
-     * Initializes the class and any required resources.
+     * Initializes the class and any required resources. The form itself is filled in by reset(), which is called each
+     * time the form is shown.
      * @param url The location of the FXML file.
      * @param resourceBundle The resources required for this view.
      */
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
+    }
+
+    /**
+     * Clears the form from the last part added and works out the ID the next part will get.
+     */
+    @Override
+    public void reset() {
+        // Clear the text fields and return the ID field to its placeholder until a type of part is selected
+        idField.setText("Auto-Gen (Disabled)");
+        nameField.clear();
+        invField.clear();
+        priceField.clear();
+        maxField.clear();
+        minField.clear();
+        companyNameOrMachineIDField.clear();
+
+        // Clear the type of part
+        radioInHouse.setSelected(false);
+        radioOutsourced.setSelected(false);
+        labelCompanyNameOrMachineID.setText("Company Name");
+
+        // The new part's ID follows the ID of the last part, or is 1 if there are no parts
         int lastIndex = Inventory.getAllParts().size() - 1;
-        tempPartId = Inventory.getAllParts().get(lastIndex).getId() + 1;
+        tempPartId = lastIndex < 0 ? 1 : Inventory.getAllParts().get(lastIndex).getId() + 1;
     }
 
     /**
@@ -181,76 +207,79 @@ public class AddPartController implements Initializable {
         int extractedPartId = Integer.parseInt(this.idField.getText());
         String extractedName = this.nameField.getText();
         int extractedInv;
-        double extractedPrice;
+        long extractedPrice;
         int extractedMax;
         int extractedMin;
         int extractedMachineID;
         String extractedCompanyName;
 
-        try {
-            extractedInv = Integer.parseInt(this.invField.getText());
-        } catch (NumberFormatException e) {
+        long parsedInv = ParseInput.parseInt(this.invField.getText());
+        if (parsedInv == ParseInput.INVALID) {
             String errorMessage = "The inventory value entered must be an integer.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
+        extractedInv = (int) parsedInv;
 
-        try {
-            extractedPrice = Double.parseDouble(this.priceField.getText());
-        } catch (NumberFormatException e) {
-            String errorMessage = "The price value entered must be an integer or decimal value.";
+        extractedPrice = Money.parse(this.priceField.getText());
+        if (extractedPrice == Money.INVALID) {
+            String errorMessage = "The price value entered must be an integer or decimal value with at most " + Money.SCALE + " decimal places.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
 
-        try {
-            extractedMax = Integer.parseInt(this.maxField.getText());
-        } catch (NumberFormatException e) {
+        long parsedMax = ParseInput.parseInt(this.maxField.getText());
+        if (parsedMax == ParseInput.INVALID) {
             String errorMessage = "The max value entered must be an integer.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
+        extractedMax = (int) parsedMax;
 
-        try {
-            extractedMin = Integer.parseInt(this.minField.getText());
-        } catch (NumberFormatException e) {
+        long parsedMin = ParseInput.parseInt(this.minField.getText());
+        if (parsedMin == ParseInput.INVALID) {
             String errorMessage = "The min value entered must be an integer.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
+        extractedMin = (int) parsedMin;
 
         if(radioOutsourced.isSelected()) {
             extractedCompanyName = this.companyNameOrMachineIDField.getText();
-            String outsourcedInputErrorMessage = ValidateInput.validateInputOutsourced(extractedName, extractedInv, extractedPrice, extractedMin, extractedMax, extractedCompanyName);
-            if (outsourcedInputErrorMessage.isEmpty()) {
-                Inventory.addPart(new Outsourced(extractedPartId, extractedName, extractedPrice, extractedInv, extractedMin, extractedMax, extractedCompanyName));
+            int outsourcedInputViolations = ValidateInput.checkOutsourced(extractedName, extractedInv, extractedPrice, extractedMin, extractedMax, extractedCompanyName);
+            if (outsourcedInputViolations == 0) {
+                Outsourced outsourcedPart = new Outsourced(extractedPartId, extractedName, 0, extractedInv, extractedMin, extractedMax, extractedCompanyName);
+                outsourcedPart.setPriceMinor(extractedPrice);
+                Inventory.addPart(outsourcedPart);
                 SceneSwap.swapScene("/view/MainForm.fxml", savePartButton);
             } else {
-                Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, "One or more fields contain invalid values:\n" + outsourcedInputErrorMessage);
+                Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, "One or more fields contain invalid values:\n" + ValidateInput.describe(outsourcedInputViolations));
                 inputErrorAlert.showAndWait();
                 return;
             }
         }
 
         if(radioInHouse.isSelected()) {
-            try {
-                extractedMachineID = Integer.parseInt(companyNameOrMachineIDField.getText());
-            } catch (NumberFormatException e) {
+            long parsedMachineID = ParseInput.parseInt(companyNameOrMachineIDField.getText());
+            if (parsedMachineID == ParseInput.INVALID) {
                 String errorMessage = "The Machine ID value entered must be an integer.";
                 Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
                 inputErrorAlert.showAndWait();
                 return;
             }
-            String inHouseInputErrorMessage = ValidateInput.validateInputInHouse(extractedName, extractedInv, extractedPrice, extractedMin, extractedMax, extractedMachineID);
-            if (inHouseInputErrorMessage.isEmpty()) {
-                Inventory.addPart(new InHouse(extractedPartId, extractedName, extractedPrice, extractedInv, extractedMin, extractedMax, extractedMachineID));
+            extractedMachineID = (int) parsedMachineID;
+            int inHouseInputViolations = ValidateInput.checkInHouse(extractedName, extractedInv, extractedPrice, extractedMin, extractedMax, extractedMachineID);
+            if (inHouseInputViolations == 0) {
+                InHouse inHousePart = new InHouse(extractedPartId, extractedName, 0, extractedInv, extractedMin, extractedMax, extractedMachineID);
+                inHousePart.setPriceMinor(extractedPrice);
+                Inventory.addPart(inHousePart);
                 SceneSwap.swapScene("/view/MainForm.fxml", savePartButton);
             } else {
-                Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, "One or more fields contain invalid values:\n" + inHouseInputErrorMessage);
+                Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, "One or more fields contain invalid values:\n" + ValidateInput.describe(inHouseInputViolations));
                 inputErrorAlert.showAndWait();
                 return;
             }
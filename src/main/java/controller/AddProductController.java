@@ -1,15 +1,21 @@
 package controller;
 
-import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import model.*;
+import utils.BackgroundSearch;
+import utils.InventoryMetrics;
+import utils.MoneyTableCell;
+import utils.PagedList;
+import utils.ParseInput;
+import utils.ReusableController;
 import utils.SceneSwap;
+import utils.SortKey;
+import utils.TableSorter;
 import utils.ValidateInput;
 
 import java.net.URL;
@@ -19,7 +25,7 @@ import java.util.ResourceBundle;
  * The AddProductController class is responsible for controlling the Add Product form view.
  * This class handles user input validation and updates to the product list and associated part list.
  */
-public class AddProductController implements Initializable {
+public class AddProductController implements Initializable, ReusableController {
 
     // Declare Fields
 
@@ -116,7 +122,7 @@ public class AddProductController implements Initializable {
      * A TableColumn for displaying the price of a part.
      */
     @FXML
-    private TableColumn<Part, Double> partPrice;
+    private TableColumn<Part, Long> partPrice;
 
     /**
      * A TableView for displaying all associated parts of a product.
@@ -146,46 +152,82 @@ public class AddProductController implements Initializable {
      * A TableColumn for displaying the price of an associated part.
      */
     @FXML
-    private TableColumn<Part, Double> associatedPartPrice;
+    private TableColumn<Part, Long> associatedPartPrice;
 
     /**
      * A Product object to hold the current new product being created.
      */
-    private Product product = new Product(0,"",0.0,0,0,0);
+    private Product product;
 
 
+    /**
+     * The rows of the partsTableView when it shows every part, read a page at a time in the order the user sorted by. Created the first time the form is shown.
+     */
+    private PagedList<Part> pagedParts;
+
+    /**
+     * Runs the searches typed into searchBoxParts in the background. Created when the form is loaded.
+     */
+    private BackgroundSearch<Part> partSearch;
+
     // Declare Methods
 
     /**
-     * Initializes the Add Product form, populating the fields and tables with appropriate data. This method also adds a
-     * listener to the allAssociatedParts list of the product to detect changes, using a lambda expression as a ListChangeListener.
-     * The lambda expression is used to provide an inline implementation of ListChangeListener's onChanged() method.
-     * When a change event is detected, it updates the associatedPartsTableView to display the new list of associated parts,
-     * and disables the Remove Associated Part button if the list is empty.
+     * Initializes the Add Product form. The form itself is filled in by reset(), which is called each time the form is shown.
      @param url The location of the FXML file.
      @param resourceBundle The resources required for this view.
-     @see javafx.collections.ListChangeListener
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
+        // Search in the background as the user types, and straight away when they press enter
+        partSearch = new BackgroundSearch<>(InventoryMetrics.Operation.PART_SEARCH, Inventory::getIndexedParts, Inventory::lookupPart,
+                Part::getName, partsTableView, () -> pagedParts, this::noPartsFound);
+        searchBoxParts.textProperty().addListener((observable, oldText, newText) -> partSearch.searchSoon(newText));
+
+        // Read each cell straight from its row's properties
+        setUpPartsTableColumns();
+        setUpAssociatedPartsTableColumns();
+    }
+
+    /**
+     * Clears the form from the last product added, populating the fields and tables with appropriate data. This method also
+     * creates a new product to hold the associated parts, and adds a listener to its allAssociatedParts list to detect changes,
+     * using a lambda expression as a ListChangeListener. The lambda expression is used to provide an inline implementation
+     * of ListChangeListener's onChanged() method. When a change event is detected, it updates the associatedPartsTableView
+     * to display the new list of associated parts, and disables the Remove Associated Part button if the list is empty.
+     @see javafx.collections.ListChangeListener
+     */
+    @Override
+    public void reset() {
+        // The new product's ID follows the ID of the last product, or is 1 if there are no products
         int lastIndex = Inventory.getAllProducts().size() - 1;
-        int tempProductId = Inventory.getAllProducts().get(lastIndex).getId() + 1;
+        int tempProductId = lastIndex < 0 ? 1 : Inventory.getAllProducts().get(lastIndex).getId() + 1;
         idField.setText(String.valueOf(tempProductId));
 
-        // Bind the items property of the partsTableView to the allParts list
-        partsTableView.setItems(Inventory.getAllParts());
-
-        if (!Inventory.getAllParts().isEmpty()) {
-            updatePartsTableView(Inventory.getAllParts());
+        // Clear the text fields and any search left from the last product added
+        nameField.clear();
+        invField.clear();
+        priceField.clear();
+        maxField.clear();
+        minField.clear();
+        searchBoxParts.clear();
+
+        // Bind the items property of the partsTableView to a paged view of the allParts list, which is sorted in the background
+        if (pagedParts == null) {
+            pagedParts = new TableSorter<>(partsTableView, Inventory.getAllParts())
+                    .sortBy(partId, SortKey.ofInt(Part::getId))
+                    .sortBy(partName, SortKey.ofText(Part::getName))
+                    .sortBy(partInventory, SortKey.ofInt(Part::getStock))
+                    .sortBy(partPrice, SortKey.ofLong(Part::getPriceMinor))
+                    .getItems();
         }
+        partsTableView.setItems(pagedParts);
+        partsTableView.getSelectionModel().clearSelection();
 
         // Initialize a new product instance and bind the associatedPartsTableView's items property to the allAssociatedParts list from the product.
+        product = new Product(0,"",0.0,0,0,0);
         associatedPartsTableView.setItems(product.getAllAssociatedParts());
-
-        // Check if the allAssociatedParts list is not empty and update the associatedPartsTableView if it is not
-        if (!product.getAllAssociatedParts().isEmpty()) {
-            updateAssociatedPartsTableView(product.getAllAssociatedParts());
-        }
+        removeAssociatedPartButton.setDisable(true);
 
         // Add a listener to the allAssociatedParts list to detect changes using a lambda expression as a ListChangeListener
         product.getAllAssociatedParts().addListener((ListChangeListener<Part>) change -> {
@@ -201,25 +243,27 @@ public class AddProductController implements Initializable {
     }
 
     /**
-     * Update the parts table view with the given list of parts.
-     * @param allParts the list of parts to display in the table view
+     * Sets how the columns of the parts table view read their cells, once when the form is loaded. Each cell reads a
+     * property of its row directly, without reflection, and updates in place when the row changes.
      */
-    private void updatePartsTableView(ObservableList<Part> allParts) {
-        partId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        partName.setCellValueFactory(new PropertyValueFactory<>("name"));
-        partInventory.setCellValueFactory(new PropertyValueFactory<>("stock"));
-        partPrice.setCellValueFactory(new PropertyValueFactory<>("price"));
+    private void setUpPartsTableColumns() {
+        partId.setCellValueFactory(cell -> cell.getValue().idProperty());
+        partName.setCellValueFactory(cell -> cell.getValue().nameProperty());
+        partInventory.setCellValueFactory(cell -> cell.getValue().stockProperty());
+        partPrice.setCellValueFactory(cell -> cell.getValue().priceMinorProperty());
+        partPrice.setCellFactory(column -> new MoneyTableCell<>());
     }
 
     /**
-     * Update the associated parts table view with the given list of parts.
-     * @param associatedParts the list of associated parts to display in the table view
+     * Sets how the columns of the associated parts table view read their cells, once when the form is loaded. Each cell reads a
+     * property of its row directly, without reflection, and updates in place when the row changes.
      */
-    private void updateAssociatedPartsTableView(ObservableList<Part> associatedParts) {
-        associatedPartId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        associatedPartName.setCellValueFactory(new PropertyValueFactory<>("name"));
-        associatedPartInventory.setCellValueFactory(new PropertyValueFactory<>("stock"));
-        associatedPartPrice.setCellValueFactory(new PropertyValueFactory<>("price"));
+    private void setUpAssociatedPartsTableColumns() {
+        associatedPartId.setCellValueFactory(cell -> cell.getValue().idProperty());
+        associatedPartName.setCellValueFactory(cell -> cell.getValue().nameProperty());
+        associatedPartInventory.setCellValueFactory(cell -> cell.getValue().stockProperty());
+        associatedPartPrice.setCellValueFactory(cell -> cell.getValue().priceMinorProperty());
+        associatedPartPrice.setCellFactory(column -> new MoneyTableCell<>());
     }
 
     /**
@@ -232,7 +276,6 @@ public class AddProductController implements Initializable {
     private void onAddSelectedPartButtonClick(ActionEvent actionEvent) {
         Part selectedPart = partsTableView.getSelectionModel().getSelectedItem();
         product.addAssociatedPart(selectedPart);
-        updateAssociatedPartsTableView(product.getAllAssociatedParts());
     }
 
     /**
@@ -264,54 +307,54 @@ public class AddProductController implements Initializable {
         int extractedPartId = Integer.parseInt(this.idField.getText());
         String extractedName = this.nameField.getText();
         int extractedInv;
-        double extractedPrice;
+        long extractedPrice;
         int extractedMax;
         int extractedMin;
 
-        try {
-            extractedInv = Integer.parseInt(this.invField.getText());
-        } catch (NumberFormatException e) {
+        long parsedInv = ParseInput.parseInt(this.invField.getText());
+        if (parsedInv == ParseInput.INVALID) {
             // Display an error message to the user if the inventory value is not a valid integer
             String errorMessage = "The inventory value entered must be an integer.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
+        extractedInv = (int) parsedInv;
 
-        try {
-            extractedPrice = Double.parseDouble(this.priceField.getText());
-        } catch (NumberFormatException e) {
+        extractedPrice = Money.parse(this.priceField.getText());
+        if (extractedPrice == Money.INVALID) {
             // Display an error message to the user if the price value is not a valid decimal or integer
-            String errorMessage = "The price value entered must be an integer or decimal value.";
+            String errorMessage = "The price value entered must be an integer or decimal value with at most " + Money.SCALE + " decimal places.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
 
-        try {
-            extractedMax = Integer.parseInt(this.maxField.getText());
-        } catch (NumberFormatException e) {
+        long parsedMax = ParseInput.parseInt(this.maxField.getText());
+        if (parsedMax == ParseInput.INVALID) {
             // Display an error message to the user if the max value is not a valid integer
             String errorMessage = "The max value entered must be an integer.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
+        extractedMax = (int) parsedMax;
 
-        try {
-            extractedMin = Integer.parseInt(this.minField.getText());
-        } catch (NumberFormatException e) {
+        long parsedMin = ParseInput.parseInt(this.minField.getText());
+        if (parsedMin == ParseInput.INVALID) {
             // Display an error message to the user if the min value is not a valid integer
             String errorMessage = "The min value entered must be an integer.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
+        extractedMin = (int) parsedMin;
 
-        String inputErrorMessage = ValidateInput.validateInputProduct(extractedName, extractedInv, extractedPrice, extractedMin, extractedMax);
-        if (inputErrorMessage.isEmpty()) {
+        int inputViolations = ValidateInput.checkProduct(extractedName, extractedInv, extractedPrice, extractedMin, extractedMax);
+        if (inputViolations == 0) {
             // Create the new product with the extracted data.
-            Product newProduct = new Product(extractedPartId, extractedName, extractedPrice, extractedInv, extractedMin, extractedMax);
+            Product newProduct = new Product(extractedPartId, extractedName, 0, extractedInv, extractedMin, extractedMax);
+            newProduct.setPriceMinor(extractedPrice);
             // Connect the new product to it's associated parts list.
             newProduct.getAllAssociatedParts().addAll(product.getAllAssociatedParts());
             // Add the newly created product to Inventory's allProducts list.
@@ -319,7 +362,7 @@ public class AddProductController implements Initializable {
             // Go back to the Main screen.
             SceneSwap.swapScene("/view/MainForm.fxml", saveProductButton);
         } else {
-            Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, "One or more fields contain invalid values.\n" + inputErrorMessage);
+            Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, "One or more fields contain invalid values.\n" + ValidateInput.describe(inputViolations));
             inputErrorAlert.showAndWait();
             return;
         }
@@ -335,7 +378,7 @@ public class AddProductController implements Initializable {
 
     /**
      * Retrieves the selected part from the associatedPartsTableView and removes it from the associatedParts list.
-     * After removing the part, updates the associatedPartsTableView with the current, updated list of associated parts.
+     * The associatedPartsTableView shows the product's associated parts list, so it updates itself.
      * @param actionEvent the Remove Associated Part button is clicked.
      */
     public void onRemoveAssociatedPartButtonClick(ActionEvent actionEvent) {
@@ -343,68 +386,31 @@ public class AddProductController implements Initializable {
         Part selectedAssociatedPart = associatedPartsTableView.getSelectionModel().getSelectedItem();
 
         // Try to delete the selected associated part from the product
-        if (product.deleteAssociatedPart(selectedAssociatedPart)) {
-            // If the deletion was successful, update the table view
-            updateAssociatedPartsTableView(product.getAllAssociatedParts());
-        } else {
+        if (!product.deleteAssociatedPart(selectedAssociatedPart)) {
             // If the deletion was not successful, show an error message
             System.out.println("Failed to remove the selected associated part.");
         }
     }
 
     /**
-     * Search for a part based on user input in the search box. If the input is an integer, the search will be performed by product ID.
-     * If the input is a string, the search will be performed by part name. Displays a message if no matching parts are found.
+     * Searches for a part straight away when the user presses enter in the search box. If the input is an integer, the search
+     * will be performed by part ID. If the input is a string, the search will be performed by part name. Displays a message
+     * if no matching parts are found. The search runs in the background, as do the searches made while the user types.
      * @param actionEvent when the user hits enter after entering their search query
      */
     @FXML
     public void onPartsSearch(ActionEvent actionEvent) {
-        // Get the input from the search box
-        String userSearchInput = searchBoxParts.getText();
-
-        // Variables for storing the search result
-        int searchedPartId;
-        String searchedPartName;
-        Part searchResult;
-
-        // ObservableList to store the search results
-        ObservableList<Part> allPartsSearchResults = FXCollections.observableArrayList();
+        partSearch.searchNow(searchBoxParts.getText());
+    }
 
-        // If the search input is empty, set all parts in the table view
-        if (userSearchInput.isEmpty()) {
-            partsTableView.setItems(Inventory.getAllParts());
-        } else {
-            // Try to parse the search input as an integer
-            try {
-                searchedPartId = Integer.parseInt(userSearchInput);
-                // Look up the part by id
-                searchResult = Inventory.lookupPart(searchedPartId);
-                if (searchResult == null) {
-                    // Display an error message if the search result is null
-                    Alert searchAlert = new Alert(Alert.AlertType.INFORMATION);
-                    searchAlert.setContentText("No part with the ID " + searchedPartId + " was located.");
-                    searchAlert.showAndWait();
-                } else {
-                    // Add the search result to the observable list
-                    allPartsSearchResults.add(searchResult);
-                    // Set the search results in the table view
-                    partsTableView.setItems(allPartsSearchResults);
-                }
-            } catch (NumberFormatException e) {
-                // If the search input is not an integer, it is a name
-                searchedPartName = userSearchInput;
-                // Look up the part by name
-                allPartsSearchResults = Inventory.lookupPart(searchedPartName);
-                if (allPartsSearchResults.isEmpty()) {
-                    // Display an error message if the search result is empty
-                    Alert searchAlert = new Alert(Alert.AlertType.INFORMATION);
-                    searchAlert.setContentText("No part with the name " + searchedPartName + " was located.");
-                    searchAlert.showAndWait();
-                } else {
-                    // Set the search results in the table view
-                    partsTableView.setItems(allPartsSearchResults);
-                }
-            }
-        }
+    /**
+     * Displays a message when a search started with enter finds no parts.
+     * @param query The text searched for.
+     * @param byId Whether the text was searched for as an ID rather than a name.
+     */
+    private void noPartsFound(String query, boolean byId) {
+        Alert searchAlert = new Alert(Alert.AlertType.INFORMATION);
+        searchAlert.setContentText("No part with the " + (byId ? "ID " : "name ") + query + " was located.");
+        searchAlert.showAndWait();
     }
 }
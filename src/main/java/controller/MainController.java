@@ -1,22 +1,25 @@
 package controller;
 
-import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.stage.Stage;
 import model.Inventory;
 import model.Part;
+import model.PartDeletePolicy;
 import model.Product;
+import utils.BackgroundSearch;
+import utils.DaysOfCoverTableCell;
+import utils.InventoryMetrics;
+import utils.MoneyTableCell;
+import utils.PagedList;
+import utils.ParseInput;
+import utils.ReusableController;
 import utils.SceneSwap;
+import utils.SortKey;
+import utils.TableSorter;
 
-import java.io.IOException;
 import java.net.URL;
 import java.util.Optional;
 import java.util.ResourceBundle;
@@ -40,7 +43,7 @@ import java.util.ResourceBundle;
  * Runtime error description located in comment for ModifyPartController class.
  */
 
-public class MainController implements Initializable {
+public class MainController implements Initializable, ReusableController {
     /**
      * TableColumn to display the ID of the parts in the partsTableView.
      */
@@ -59,7 +62,12 @@ public class MainController implements Initializable {
     /**
      * TableColumn to display the price of the parts in the partsTableView.
      */
-    public TableColumn<Part, Double> partPrice;
+    public TableColumn<Part, Long> partPrice;
+
+    /**
+     * TableColumn to display how many days the stock of the parts in the partsTableView would last at their recent consumption.
+     */
+    public TableColumn<Part, Double> partDaysOfCover;
 
     /**
      * TableColumn to display the ID of the products in the productsTableView.
@@ -79,7 +87,7 @@ public class MainController implements Initializable {
     /**
      * TableColumn to display the price of the products in the productsTableView.
      */
-    public TableColumn<Product, Double> productPrice;
+    public TableColumn<Product, Long> productPrice;
 
     /**
      * Button to close the application.
@@ -96,6 +104,21 @@ public class MainController implements Initializable {
      */
     public TextField searchBoxProducts;
 
+    /**
+     * ComboBox to show only the parts supplied by one company.
+     */
+    public ComboBox<String> supplierFilter;
+
+    /**
+     * TextField for the id of a machine, to show only the parts made on it.
+     */
+    public TextField machineFilter;
+
+    /**
+     * Button to clear the supplier and machine filters and show every part again.
+     */
+    public Button clearFiltersButton;
+
     /**
      * TableView to display the parts in the inventory.
      */
@@ -145,63 +168,137 @@ public class MainController implements Initializable {
     private Button modifyProductButton;
 
     /**
-     * Initializes the MainForm by setting the items property of the partsTableView and productsTableView to the allParts and allProducts list, respectively.
-     * If either list is empty, the Modify and Delete buttons for that table are disabled. If the lists are not empty, the Modify and Delete buttons are enabled,
-     * and the table views are updated.
+     * The rows of the partsTableView when it shows every part, read a page at a time in the order the user sorted by. Created the first time the form is shown.
+     */
+    private PagedList<Part> pagedParts;
+
+    /**
+     * The rows of the productsTableView when it shows every product, read a page at a time in the order the user sorted by. Created the first time the form is shown.
+     */
+    private PagedList<Product> pagedProducts;
+
+    /**
+     * Runs the searches typed into searchBoxParts in the background. Created when the form is loaded.
+     */
+    private BackgroundSearch<Part> partSearch;
+
+    /**
+     * Runs the searches typed into searchBoxProducts in the background. Created when the form is loaded.
+     */
+    private BackgroundSearch<Product> productSearch;
+
+    /**
+     * Initializes the MainForm. The form itself is filled in by reset(), which is called each time the form is shown.
      * @param url the URL location of the fxml file used to create the MainForm
      * @param resourceBundle the resource bundle used for localization in the MainForm
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
+        // Search in the background as the user types, and straight away when they press enter
+        partSearch = new BackgroundSearch<>(InventoryMetrics.Operation.PART_SEARCH, Inventory::getIndexedParts, Inventory::lookupPart,
+                Part::getName, partsTableView, () -> pagedParts, this::noPartsFound);
+        searchBoxParts.textProperty().addListener((observable, oldText, newText) -> {
+            // A search replaces the filtered parts, so the filters no longer apply
+            if (!newText.isEmpty()) {
+                clearPartFilters();
+            }
+            partSearch.searchSoon(newText);
+        });
+        productSearch = new BackgroundSearch<>(InventoryMetrics.Operation.PRODUCT_SEARCH, Inventory::getIndexedProducts, Inventory::lookupProduct,
+                Product::getName, productsTableView, () -> pagedProducts, this::noProductsFound);
+        searchBoxProducts.textProperty().addListener((observable, oldText, newText) -> productSearch.searchSoon(newText));
+
+        // List the companies that supply parts now, each time the supplier filter is opened
+        supplierFilter.setOnShowing(event -> supplierFilter.getItems().setAll(Inventory.getCompanyNames()));
+
+        // Read each cell straight from its row's properties
+        setUpPartsTableColumns();
+        setUpProductsTableColumns();
+    }
 
-        // Bind the items property of the partsTableView to the allParts list
-        partsTableView.setItems(Inventory.getAllParts());
+    /**
+     * Fills in the MainForm by setting the items property of the partsTableView and productsTableView to the allParts and allProducts list, respectively.
+     * If either list is empty, the Modify and Delete buttons for that table are disabled. If the lists are not empty, the Modify and Delete buttons are enabled,
+     * and the table views are updated. Any searches and selections left from the last time the MainForm was shown are cleared.
+     */
+    @Override
+    public void reset() {
+
+        // Clear any searches and filters left from the last time the MainForm was shown
+        searchBoxParts.clear();
+        searchBoxProducts.clear();
+        clearPartFilters();
+
+        // Bind the items property of the partsTableView to a paged view of the allParts list, which is sorted in the background
+        if (pagedParts == null) {
+            pagedParts = new TableSorter<>(partsTableView, Inventory.getAllParts())
+                    .sortBy(partId, SortKey.ofInt(Part::getId))
+                    .sortBy(partName, SortKey.ofText(Part::getName))
+                    .sortBy(partInventory, SortKey.ofInt(Part::getStock))
+                    .sortBy(partPrice, SortKey.ofLong(Part::getPriceMinor))
+                    .sortBy(partDaysOfCover, SortKey.ofDouble(Inventory.getConsumptionRates()::getDaysOfCover))
+                    .getItems();
+        }
+        partsTableView.setItems(pagedParts);
 
-        // Check if list is empty. If it is, disable Modify and Delete buttons. If not, enabled them and update the table view.
+        // Check if list is empty. If it is, disable Modify and Delete buttons. If not, enable them.
         if(Inventory.getAllParts().isEmpty()) {
             modifyPartButton.setDisable(true);
             deletePartButton.setDisable(true);
         } else {
             modifyPartButton.setDisable(false);
             deletePartButton.setDisable(false);
-            updatePartsTableView(Inventory.getAllParts());
         }
 
-        // Bind the items property of the productsTableView to the allProducts list
-        productsTableView.setItems(Inventory.getAllProducts());
+        // Bind the items property of the productsTableView to a paged view of the allProducts list, which is sorted in the background
+        if (pagedProducts == null) {
+            pagedProducts = new TableSorter<>(productsTableView, Inventory.getAllProducts())
+                    .sortBy(productId, SortKey.ofInt(Product::getId))
+                    .sortBy(productName, SortKey.ofText(Product::getName))
+                    .sortBy(productInventory, SortKey.ofInt(Product::getStock))
+                    .sortBy(productPrice, SortKey.ofLong(Product::getPriceMinor))
+                    .getItems();
+        }
+        productsTableView.setItems(pagedProducts);
 
-        // Check if list is empty. If it is, disable Modify and Delete buttons. If not, enabled them and update the table view.
+        // Check if list is empty. If it is, disable Modify and Delete buttons. If not, enable them.
         if(Inventory.getAllProducts().isEmpty()) {
             modifyProductButton.setDisable(true);
             deleteProductButton.setDisable(true);
         } else {
             modifyProductButton.setDisable(false);
             deleteProductButton.setDisable(false);
-            updateProductsTableView(Inventory.getAllProducts());
         }
+
+        // Clear any selections left from the last time the MainForm was shown
+        partsTableView.getSelectionModel().clearSelection();
+        productsTableView.getSelectionModel().clearSelection();
     }
 
     /**
-     * Update the parts table view with the given list of parts.
-     * @param allParts the list of parts to display in the table view
+     * Sets how the columns of the parts table view read their cells, once when the form is loaded. Each cell reads a
+     * property of its row directly, without reflection, and updates in place when the row changes.
      */
-    private void updatePartsTableView(ObservableList<Part> allParts) {
-        partId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        partName.setCellValueFactory(new PropertyValueFactory<>("name"));
-        partInventory.setCellValueFactory(new PropertyValueFactory<>("stock"));
-        partPrice.setCellValueFactory(new PropertyValueFactory<>("price"));
+    private void setUpPartsTableColumns() {
+        partId.setCellValueFactory(cell -> cell.getValue().idProperty());
+        partName.setCellValueFactory(cell -> cell.getValue().nameProperty());
+        partInventory.setCellValueFactory(cell -> cell.getValue().stockProperty());
+        partPrice.setCellValueFactory(cell -> cell.getValue().priceMinorProperty());
+        partPrice.setCellFactory(column -> new MoneyTableCell<>());
+        partDaysOfCover.setCellValueFactory(cell -> cell.getValue().daysOfCoverProperty());
+        partDaysOfCover.setCellFactory(column -> new DaysOfCoverTableCell<>());
     }
 
     /**
-     * Update the products table view with the given list of products.
-     * @param allProducts the list of products to display in the table view
+     * Sets how the columns of the products table view read their cells, once when the form is loaded. Each cell reads a
+     * property of its row directly, without reflection, and updates in place when the row changes.
      */
-    private void updateProductsTableView(ObservableList<Product> allProducts) {
-
-        productId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        productName.setCellValueFactory(new PropertyValueFactory<>("name"));
-        productInventory.setCellValueFactory(new PropertyValueFactory<>("stock"));
-        productPrice.setCellValueFactory(new PropertyValueFactory<>("price"));
+    private void setUpProductsTableColumns() {
+        productId.setCellValueFactory(cell -> cell.getValue().idProperty());
+        productName.setCellValueFactory(cell -> cell.getValue().nameProperty());
+        productInventory.setCellValueFactory(cell -> cell.getValue().stockProperty());
+        productPrice.setCellValueFactory(cell -> cell.getValue().priceMinorProperty());
+        productPrice.setCellFactory(column -> new MoneyTableCell<>());
     }
 
     /**
@@ -215,30 +312,20 @@ public class MainController implements Initializable {
     /**
      * This method retrieves the user-selected Part object and passes it to the ModifyPart.fxml view.
      * @param actionEvent the click event on the "Modify" button.
-     * @throws IOException An IOException may occur if the FXML file is not located.
      */
-    public void onModifyPartButtonClick(ActionEvent actionEvent) throws IOException {
+    public void onModifyPartButtonClick(ActionEvent actionEvent) {
         // Get the user-selected Part
         Part selectedPart = partsTableView.getSelectionModel().getSelectedItem();
         int index = Inventory.getAllParts().indexOf(selectedPart);
 
-        FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/view/ModifyPart.fxml"));
-        Parent root = fxmlLoader.load();
-        Scene scene = new Scene(root);
-
-        // Get the controller of the target FXML file
-        ModifyPartController modifyPartController = fxmlLoader.getController();
-        modifyPartController.receiveSelectedPart(index, selectedPart);
-
-        // Get the current stage and set the new scene
-        Stage stage = (Stage) ((javafx.scene.Node) actionEvent.getSource()).getScene().getWindow();
-        stage.setScene(scene);
-        stage.show();
-
+        // Show the ModifyPart view and pass the selected part to its controller
+        SceneSwap.swapScene("/view/ModifyPart.fxml", modifyPartButton,
+                (ModifyPartController modifyPartController) -> modifyPartController.receiveSelectedPart(index, selectedPart));
     }
 
     /**
-     * This method retrieves the user-selected Part object and deletes it from the allParts ObservableList.
+     * This method retrieves the user-selected Part object and deletes it from the allParts ObservableList. A part that
+     * products use is only deleted if the user agrees to remove it from those products as well.
      * @param actionEvent the click event on the "Delete" button.
      */
     public void onDeletePartButtonClick(ActionEvent actionEvent) {
@@ -248,13 +335,30 @@ public class MainController implements Initializable {
             noPartsSelected.showAndWait();
             return;
         }
+        Part selectedPart = partsTableView.getSelectionModel().getSelectedItem();
+        // A part used by products needs its own confirmation, as deleting it also removes it from them
+        int usageCount = Inventory.getPartUsageCount(selectedPart.getId());
+        if (usageCount > 0) {
+            ButtonType removeFromProducts = new ButtonType("Remove From Products", ButtonBar.ButtonData.OK_DONE);
+            Alert confirmCascade = new Alert(Alert.AlertType.WARNING, "The selected part is associated with " + usageCount
+                    + (usageCount == 1 ? " product" : " products") + ". Deleting it will remove it from "
+                    + (usageCount == 1 ? "that product." : "those products."), removeFromProducts, ButtonType.CANCEL);
+            Optional<ButtonType> result = confirmCascade.showAndWait();
+            if (result.isPresent() && result.get() == removeFromProducts) {
+                Inventory.deletePart(selectedPart, PartDeletePolicy.CASCADE);
+            }
+            return;
+        }
         // Confirm the deletion before proceeding
         Alert confirmDeletion = new Alert(Alert.AlertType.CONFIRMATION, "Are you sure you would like to delete the selected part?");
         Optional<ButtonType> result = confirmDeletion.showAndWait();
-        // If confirmed, delete the part
+        // If confirmed, delete the part, unless a product has started using it meanwhile
         if (result.isPresent() && (result.get() == ButtonType.OK)) {
-            Part selectedPart = partsTableView.getSelectionModel().getSelectedItem();
-            Inventory.deletePart(selectedPart);
+            if (!Inventory.deletePart(selectedPart, PartDeletePolicy.BLOCK)
+                    && Inventory.getPartUsageCount(selectedPart.getId()) > 0) {
+                Alert deletionDenied = new Alert(Alert.AlertType.ERROR, "The part cannot be deleted because it is now associated with a product.");
+                deletionDenied.showAndWait();
+            }
         }
     }
 
@@ -269,26 +373,16 @@ public class MainController implements Initializable {
     /**
      * This method retrieves the user-selected Product object and passes it to the ModifyProduct.fxml view.
      * @param actionEvent the click event on the "Modify" button.
-     * @throws IOException An IOException may occur if the FXML file is not located.
      */
-    public void onModifyProductButtonClick(ActionEvent actionEvent) throws IOException {
+    public void onModifyProductButtonClick(ActionEvent actionEvent) {
 
         // Get the user-selected Product
         Product selectedProduct = productsTableView.getSelectionModel().getSelectedItem();
         int index = Inventory.getAllProducts().indexOf(selectedProduct);
 
-        FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/view/ModifyProduct.fxml"));
-        Parent root = fxmlLoader.load();
-        Scene scene = new Scene(root);
-
-        // Get the controller of the target FXML file
-        ModifyProductController modifyProductController = fxmlLoader.getController();
-        modifyProductController.receiveSelectedProduct(index, selectedProduct);
-
-        // Get the current stage and set the new scene
-        Stage stage = (Stage) ((javafx.scene.Node) actionEvent.getSource()).getScene().getWindow();
-        stage.setScene(scene);
-        stage.show();
+        // Show the ModifyProduct view and pass the selected product to its controller
+        SceneSwap.swapScene("/view/ModifyProduct.fxml", modifyProductButton,
+                (ModifyProductController modifyProductController) -> modifyProductController.receiveSelectedProduct(index, selectedProduct));
     }
 
     /**
@@ -329,114 +423,120 @@ public class MainController implements Initializable {
     }
 
     /**
-     * Search for a part based on user input in the search box. If the input is an integer, the search will be performed by product ID.
-     * If the input is a string, the search will be performed by part name. Displays a message if no matching parts are found.
+     * Searches for a part straight away when the user presses enter in the search box. If the input is an integer, the search
+     * will be performed by part ID. If the input is a string, the search will be performed by part name. Displays a message
+     * if no matching parts are found. The search runs in the background, as do the searches made while the user types.
      * @param actionEvent when the user hits enter after entering their search query
      */
     @FXML
     public void onPartsSearch(ActionEvent actionEvent) {
-        // Get the input from the search box
-        String userSearchInput = searchBoxParts.getText();
-
-        // Variables for storing the search result
-        int searchedPartId;
-        String searchedPartName;
-        Part searchResult;
+        partSearch.searchNow(searchBoxParts.getText());
+    }
 
-        // ObservableList to store the search results
-        ObservableList<Part> allPartsSearchResults = FXCollections.observableArrayList();
+    /**
+     * Searches for a product straight away when the user presses enter in the search box. If the input is an integer, the search
+     * will be performed by product ID. If the input is a string, the search will be performed by product name. Displays a message
+     * if no matching products are found. The search runs in the background, as do the searches made while the user types.
+     * @param actionEvent when the user hits enter after entering their search query
+     */
+    @FXML
+    public void onProductsSearch(ActionEvent actionEvent) {
+        productSearch.searchNow(searchBoxProducts.getText());
+    }
 
-        // If the search input is empty, set all parts in the table view
-        if (userSearchInput.isEmpty()) {
-            partsTableView.setItems(Inventory.getAllParts());
-        } else {
-            // Try to parse the search input as an integer
-            try {
-                searchedPartId = Integer.parseInt(userSearchInput);
-                // Look up the part by id
-                searchResult = Inventory.lookupPart(searchedPartId);
-                if (searchResult == null) {
-                    // Display an error message if the search result is null
-                    Alert searchAlert = new Alert(Alert.AlertType.INFORMATION);
-                    searchAlert.setContentText("No part with the ID " + searchedPartId + " was located.");
-                    searchAlert.showAndWait();
-                } else {
-                    // Add the search result to the observable list
-                    allPartsSearchResults.add(searchResult);
-                    // Set the search results in the table view
-                    partsTableView.setItems(allPartsSearchResults);
-                }
-            } catch (NumberFormatException e) {
-                // If the search input is not an integer, it is a name
-                searchedPartName = userSearchInput;
-                // Look up the part by name
-                allPartsSearchResults = Inventory.lookupPart(searchedPartName);
-                if (allPartsSearchResults.isEmpty()) {
-                    // Display an error message if the search result is empty
-                    Alert searchAlert = new Alert(Alert.AlertType.INFORMATION);
-                    searchAlert.setContentText("No part with the name " + searchedPartName + " was located.");
-                    searchAlert.showAndWait();
-                } else {
-                    // Set the search results in the table view
-                    partsTableView.setItems(allPartsSearchResults);
-                }
-            }
+    /**
+     * Shows only the parts supplied by the company chosen in the supplier filter, found through the Inventory's company
+     * index.
+     * @param actionEvent when the user chooses a company
+     */
+    @FXML
+    public void onSupplierFilter(ActionEvent actionEvent) {
+        String companyName = supplierFilter.getValue();
+        // The value is cleared when the filters are, which leaves the table to whatever cleared it
+        if (companyName == null) {
+            return;
         }
+        machineFilter.clear();
+        showFilteredParts(Inventory.lookupPartsByCompany(companyName));
     }
 
     /**
-     * Search for a product based on user input in the search box. If the input is an integer, the search will be performed by product ID.
-     * If the input is a string, the search will be performed by product name. Displays a message if no matching products are found.
-     * @param actionEvent the event that triggers the search, i.e. when the user hits enter after entering their search query
+     * Shows only the parts made on the machine entered in the machine filter, found through the Inventory's machine
+     * index, when the user presses enter. An empty filter shows every part again. Displays a message if the machine ID
+     * is not an integer or no parts are made on the machine.
+     * @param actionEvent when the user hits enter after entering a machine ID
      */
     @FXML
-    public void onProductsSearch(ActionEvent actionEvent) {
-        // Get the input from the search box
-        String userSearchInput = searchBoxProducts.getText();
+    public void onMachineFilter(ActionEvent actionEvent) {
+        String machineText = machineFilter.getText().trim();
+        if (machineText.isEmpty()) {
+            partsTableView.setItems(pagedParts);
+            return;
+        }
+        long machineId = ParseInput.parseInt(machineText);
+        if (machineId == ParseInput.INVALID) {
+            Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, "The Machine ID value entered must be an integer.");
+            inputErrorAlert.showAndWait();
+            return;
+        }
+        ObservableList<Part> machineParts = Inventory.lookupPartsByMachine((int) machineId);
+        if (machineParts.isEmpty()) {
+            Alert filterAlert = new Alert(Alert.AlertType.INFORMATION);
+            filterAlert.setContentText("No part made on machine " + machineId + " was located.");
+            filterAlert.showAndWait();
+            return;
+        }
+        supplierFilter.setValue(null);
+        showFilteredParts(machineParts);
+    }
 
-        // Variables for storing the search result
-        int searchedProductId;
-        String searchedProductName;
-        Product searchResult;
+    /**
+     * Clears the supplier and machine filters and shows every part again.
+     * @param actionEvent the click event on the "Clear Filters" button
+     */
+    public void onClearFiltersButtonClick(ActionEvent actionEvent) {
+        clearPartFilters();
+        partsTableView.setItems(pagedParts);
+    }
 
-        // ObservableList to store the search results
-        ObservableList<Product> allProductsSearchResults = FXCollections.observableArrayList();
+    /**
+     * Shows the parts found by a filter in the partsTableView, in place of any search.
+     * @param parts The parts found.
+     */
+    private void showFilteredParts(ObservableList<Part> parts) {
+        // Clearing the search box shows every part straight away, before the filtered parts replace them
+        searchBoxParts.clear();
+        partSearch.cancel();
+        partsTableView.setItems(parts);
+    }
 
-        // If the search input is empty, set all parts in the table view
-        if (userSearchInput.isEmpty()) {
-            productsTableView.setItems(Inventory.getAllProducts());
-        } else {
-            // Try to parse the search input as an integer
-            try {
-                searchedProductId = Integer.parseInt(userSearchInput);
-                // Look up the part by id
-                searchResult = Inventory.lookupProduct(searchedProductId);
-                if (searchResult == null) {
-                    // Display an error message if the search result is null
-                    Alert searchAlert = new Alert(Alert.AlertType.INFORMATION);
-                    searchAlert.setContentText("No product with the ID " + searchedProductId + " was located.");
-                    searchAlert.showAndWait();
-                } else {
-                    // Add the search result to the observable list
-                    allProductsSearchResults.add(searchResult);
-                    // Set the search results in the table view
-                    productsTableView.setItems(allProductsSearchResults);
-                }
-            } catch (NumberFormatException e) {
-                // If the search input is not an integer, it is a name
-                searchedProductName = userSearchInput;
-                // Look up the part by name
-                allProductsSearchResults = Inventory.lookupProduct(searchedProductName);
-                if (allProductsSearchResults.isEmpty()) {
-                    // Display an error message if the search result is empty
-                    Alert searchAlert = new Alert(Alert.AlertType.INFORMATION);
-                    searchAlert.setContentText("No product with the name " + searchedProductName + " was located.");
-                    searchAlert.showAndWait();
-                } else {
-                    // Set the search results in the table view
-                    productsTableView.setItems(allProductsSearchResults);
-                }
-            }
-        }
+    /**
+     * Clears the supplier and machine filters without changing the rows shown.
+     */
+    private void clearPartFilters() {
+        supplierFilter.setValue(null);
+        machineFilter.clear();
+    }
+
+    /**
+     * Displays a message when a search started with enter finds no parts.
+     * @param query The text searched for.
+     * @param byId Whether the text was searched for as an ID rather than a name.
+     */
+    private void noPartsFound(String query, boolean byId) {
+        Alert searchAlert = new Alert(Alert.AlertType.INFORMATION);
+        searchAlert.setContentText("No part with the " + (byId ? "ID " : "name ") + query + " was located.");
+        searchAlert.showAndWait();
+    }
+
+    /**
+     * Displays a message when a search started with enter finds no products.
+     * @param query The text searched for.
+     * @param byId Whether the text was searched for as an ID rather than a name.
+     */
+    private void noProductsFound(String query, boolean byId) {
+        Alert searchAlert = new Alert(Alert.AlertType.INFORMATION);
+        searchAlert.setContentText("No product with the " + (byId ? "ID " : "name ") + query + " was located.");
+        searchAlert.showAndWait();
     }
 }
@@ -10,8 +10,11 @@ import javafx.scene.control.TextField;
 import javafx.scene.text.Text;
 import model.InHouse;
 import model.Inventory;
+import model.Money;
 import model.Outsourced;
 import model.Part;
+import utils.ParseInput;
+import utils.ReusableController;
 import utils.SceneSwap;
 import utils.ValidateInput;
 
@@ -30,7 +33,7 @@ import java.util.ResourceBundle;
  * Once I made these changes, I no longer received this runtime error.
  */
 
-public class ModifyPartController implements Initializable {
+public class ModifyPartController implements Initializable, ReusableController {
 
     // Declare Fields
     /**
@@ -102,12 +105,37 @@ public class ModifyPartController implements Initializable {
      */
     private int selectedIndex = 0;
 
+    /**
+     * The stock the part being edited holds at locations, which the inventory value may not go below.
+     */
+    private int locatedStock = 0;
+
     // Declare Methods
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
     }
 
+    /**
+     * Clears the form from the last part modified, before the next selected part is received. The radio buttons are not
+     * in a toggle group, so both are cleared here and receiveSelectedPart() only has to select one.
+     */
+    @Override
+    public void reset() {
+        selectedIndex = 0;
+        locatedStock = 0;
+        idField.clear();
+        nameField.clear();
+        invField.clear();
+        priceField.clear();
+        maxField.clear();
+        minField.clear();
+        companyNameOrMachineIDField.clear();
+        radioInHouse.setSelected(false);
+        radioOutsourced.setSelected(false);
+        labelCompanyNameOrMachineID.setText("Company Name");
+    }
+
     /**
      * This method receives the selected part from the MainForm and sets the radio button, labels and text fields according to the
      * type of part, and it's attribute values.
@@ -116,12 +144,13 @@ public class ModifyPartController implements Initializable {
      */
     public void receiveSelectedPart(int index, Part selectedPart) {
         selectedIndex = index;
+        locatedStock = selectedPart.getLocatedStock();
 
         // Set text in fields
         idField.setText(String.valueOf(selectedPart.getId()));
         nameField.setText(selectedPart.getName());
         invField.setText(String.valueOf(selectedPart.getStock()));
-        priceField.setText(String.valueOf(selectedPart.getPrice()));
+        priceField.setText(Money.format(selectedPart.getPriceMinor()));
         maxField.setText(String.valueOf(selectedPart.getMax()));
         minField.setText(String.valueOf(selectedPart.getMin()));
 
@@ -197,92 +226,110 @@ public class ModifyPartController implements Initializable {
         int extractedPartId = Integer.parseInt(this.idField.getText());
         String extractedName = this.nameField.getText();
         int extractedInv;
-        double extractedPrice;
+        long extractedPrice;
         int extractedMax;
         int extractedMin;
         int extractedMachineID;
         String extractedCompanyName;
 
-        try {
-            extractedInv = Integer.parseInt(this.invField.getText());
-        } catch (NumberFormatException e) {
+        long parsedInv = ParseInput.parseInt(this.invField.getText());
+        if (parsedInv == ParseInput.INVALID) {
             // Display an error message to the user if the inventory value is not a valid integer
             String errorMessage = "The inventory value entered must be an integer.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
+        extractedInv = (int) parsedInv;
+        if (extractedInv < locatedStock) {
+            // Display an error message to the user if the inventory value is less than the stock held at locations
+            String errorMessage = "The inventory value entered must be at least the " + locatedStock + " held at warehouse locations.";
+            Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
+            inputErrorAlert.showAndWait();
+            return;
+        }
 
-        try {
-            extractedPrice = Double.parseDouble(this.priceField.getText());
-        } catch (NumberFormatException e) {
+        extractedPrice = Money.parse(this.priceField.getText());
+        if (extractedPrice == Money.INVALID) {
             // Display an error message to the user if the price value is not a valid decimal or integer
-            String errorMessage = "The price value entered must be an integer or decimal value.";
+            String errorMessage = "The price value entered must be an integer or decimal value with at most " + Money.SCALE + " decimal places.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
 
-        try {
-            extractedMax = Integer.parseInt(this.maxField.getText());
-        } catch (NumberFormatException e) {
+        long parsedMax = ParseInput.parseInt(this.maxField.getText());
+        if (parsedMax == ParseInput.INVALID) {
             // Display an error message to the user if the max value is not a valid integer
             String errorMessage = "The max value entered must be an integer.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
+        extractedMax = (int) parsedMax;
 
-        try {
-            extractedMin = Integer.parseInt(this.minField.getText());
-        } catch (NumberFormatException e) {
+        long parsedMin = ParseInput.parseInt(this.minField.getText());
+        if (parsedMin == ParseInput.INVALID) {
             // Display an error message to the user if the min value is not a valid integer
             String errorMessage = "The min value entered must be an integer.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
+        extractedMin = (int) parsedMin;
 
 
         if(radioOutsourced.isSelected()) {
             // Parse and store the company name for an outsourced part
             extractedCompanyName = this.companyNameOrMachineIDField.getText();
             // Validate the user input for an outsourced part and create a new outsourced part if input is valid
-            String inputErrorMessage = ValidateInput.validateInputOutsourced(extractedName, extractedInv, extractedPrice, extractedMin, extractedMax, extractedCompanyName);
+            int inputViolations = ValidateInput.checkOutsourced(extractedName, extractedInv, extractedPrice, extractedMin, extractedMax, extractedCompanyName);
             // If input is valid, create a new Outsourced object, update the part in the Inventory, and switch back to the main form
-            if (inputErrorMessage.isEmpty()){
-                Part outsourcedPart = new Outsourced(extractedPartId,extractedName,extractedPrice,extractedInv,extractedMin, extractedMax, extractedCompanyName);
-                Inventory.updatePart(selectedIndex,outsourcedPart);
+            if (inputViolations == 0){
+                Part outsourcedPart = new Outsourced(extractedPartId,extractedName,0,extractedInv,extractedMin, extractedMax, extractedCompanyName);
+                outsourcedPart.setPriceMinor(extractedPrice);
+                if (!Inventory.updatePart(selectedIndex, outsourcedPart)) {
+                    // The stock at the locations may have grown since the form was opened
+                    Alert updateErrorAlert = new Alert(Alert.AlertType.ERROR, "The inventory value entered is less than the stock now held at warehouse locations.");
+                    updateErrorAlert.showAndWait();
+                    return;
+                }
                 SceneSwap.swapScene("/view/MainForm.fxml", savePartButton);
             } else {
                 // If input is invalid, display a detailed error message to the user
-                Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, "One or more fields contain invalid values.\n" + inputErrorMessage);
+                Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, "One or more fields contain invalid values.\n" + ValidateInput.describe(inputViolations));
                 inputErrorAlert.showAndWait();
             }
 
         }
 
         if(radioInHouse.isSelected()) {
-            try {
-                // Parse and store the machine ID
-                extractedMachineID = Integer.parseInt(companyNameOrMachineIDField.getText());
-            } catch (NumberFormatException e) {
+            // Parse and store the machine ID
+            long parsedMachineID = ParseInput.parseInt(companyNameOrMachineIDField.getText());
+            if (parsedMachineID == ParseInput.INVALID) {
                 // Display an error message to the user if the machine ID value is not a valid integer
                 String errorMessage = "The Machine ID value entered must be an integer.";
                 Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
                 inputErrorAlert.showAndWait();
                 return;
             }
+            extractedMachineID = (int) parsedMachineID;
             // Validate the user input for an in-house part and create a new in-house part if input is valid
-            String inputErrorMessage = ValidateInput.validateInputInHouse(extractedName, extractedInv, extractedPrice, extractedMin, extractedMax, extractedMachineID);
+            int inputViolations = ValidateInput.checkInHouse(extractedName, extractedInv, extractedPrice, extractedMin, extractedMax, extractedMachineID);
             // If input is valid, create a new InHouse object, update the part in the Inventory, and switch back to the main form
-            if (inputErrorMessage.isEmpty()) {
-                Part inHousePart = new InHouse(extractedPartId, extractedName, extractedPrice, extractedInv, extractedMin, extractedMax, extractedMachineID);
-                Inventory.updatePart(selectedIndex, inHousePart);
+            if (inputViolations == 0) {
+                Part inHousePart = new InHouse(extractedPartId, extractedName, 0, extractedInv, extractedMin, extractedMax, extractedMachineID);
+                inHousePart.setPriceMinor(extractedPrice);
+                if (!Inventory.updatePart(selectedIndex, inHousePart)) {
+                    // The stock at the locations may have grown since the form was opened
+                    Alert updateErrorAlert = new Alert(Alert.AlertType.ERROR, "The inventory value entered is less than the stock now held at warehouse locations.");
+                    updateErrorAlert.showAndWait();
+                    return;
+                }
                 SceneSwap.swapScene("/view/MainForm.fxml", savePartButton);
             } else {
                 // If input is invalid, display an error message to the user
-                Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, "One or more fields contain invalid values.\n" + inputErrorMessage);
+                Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, "One or more fields contain invalid values.\n" + ValidateInput.describe(inputViolations));
                 inputErrorAlert.showAndWait();
             }
         }
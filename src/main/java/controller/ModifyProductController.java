@@ -7,11 +7,19 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.Alert.AlertType;
-import javafx.scene.control.cell.PropertyValueFactory;
 import model.Inventory;
+import model.Money;
 import model.Part;
 import model.Product;
+import utils.BackgroundSearch;
+import utils.InventoryMetrics;
+import utils.MoneyTableCell;
+import utils.PagedList;
+import utils.ParseInput;
+import utils.ReusableController;
 import utils.SceneSwap;
+import utils.SortKey;
+import utils.TableSorter;
 import utils.ValidateInput;
 
 import java.net.URL;
@@ -23,7 +31,7 @@ import java.util.ResourceBundle;
  * product to modify and initialize the form fields with the product's data, including a list of it's associated parts.
  * It validates user-entered changes to the product data and saves the modified product to Inventory.
  */
-public class ModifyProductController implements Initializable {
+public class ModifyProductController implements Initializable, ReusableController {
 
     // Declare Fields
     /**
@@ -65,7 +73,7 @@ public class ModifyProductController implements Initializable {
      * TableColumn for displaying the price of a part.
      */
     @FXML
-    private TableColumn<Part, Double> partPrice;
+    private TableColumn<Part, Long> partPrice;
 
     /**
      * TableView for displaying associated parts of a product.
@@ -95,7 +103,7 @@ public class ModifyProductController implements Initializable {
      * TableColumn for displaying the price of an associated part.
      */
     @FXML
-    private TableColumn<Part, Double> associatedPartPrice;
+    private TableColumn<Part, Long> associatedPartPrice;
 
     /**
      * Button to cancel creating or modifying a product and return to the main form.
@@ -156,49 +164,96 @@ public class ModifyProductController implements Initializable {
      */
     private int selectedIndex = 0;
 
+    /**
+     * The stock the product being modified holds at locations, which the inventory value may not go below.
+     */
+    private int locatedStock = 0;
+
     /**
      * ObservableList of associated parts for the product being modified.
      */
     private ObservableList<Part> tempAssociatedParts = FXCollections.observableArrayList();
 
+    /**
+     * The rows of the partsTableView when it shows every part, read a page at a time in the order the user sorted by. Created the first time the form is shown.
+     */
+    private PagedList<Part> pagedParts;
+
+    /**
+     * Runs the searches typed into searchBoxParts in the background. Created when the form is loaded.
+     */
+    private BackgroundSearch<Part> partSearch;
+
     // Declare Methods
 
     /**
-     * Initializes the partsTableView with data from the allParts list and updates the table view if the list is not empty.
+     * Initializes the Modify Product form. The form itself is filled in by reset(), which is called each time the form is shown.
      * @param url The location of the FXML file.
      * @param resourceBundle The resources required for this view.
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
+        // Search in the background as the user types, and straight away when they press enter
+        partSearch = new BackgroundSearch<>(InventoryMetrics.Operation.PART_SEARCH, Inventory::getIndexedParts, Inventory::lookupPart,
+                Part::getName, partsTableView, () -> pagedParts, this::noPartsFound);
+        searchBoxParts.textProperty().addListener((observable, oldText, newText) -> partSearch.searchSoon(newText));
+
+        // Read each cell straight from its row's properties
+        setUpPartsTableColumns();
+        setUpAssociatedPartsTableColumns();
+    }
+
+    /**
+     * Clears the form from the last product modified, before the next selected product is received. Initializes the
+     * partsTableView with data from the allParts list and updates the table view if the list is not empty.
+     */
+    @Override
+    public void reset() {
 
-        // Bind the items property of the partsTableView to the allParts list
-        partsTableView.setItems(Inventory.getAllParts());
-        // If the allParts list is not empty, update partsTableView
-        if (!Inventory.getAllParts().isEmpty()) {
-            updatePartsTableView(Inventory.getAllParts());
+        // Forget the last product modified
+        selectedIndex = 0;
+        locatedStock = 0;
+        tempAssociatedParts = FXCollections.observableArrayList();
+        associatedPartsTableView.setItems(tempAssociatedParts);
+        removeAssociatedPartButton.setDisable(false);
+
+        // Clear any search left from the last product modified
+        searchBoxParts.clear();
+
+        // Bind the items property of the partsTableView to a paged view of the allParts list, which is sorted in the background
+        if (pagedParts == null) {
+            pagedParts = new TableSorter<>(partsTableView, Inventory.getAllParts())
+                    .sortBy(partId, SortKey.ofInt(Part::getId))
+                    .sortBy(partName, SortKey.ofText(Part::getName))
+                    .sortBy(partInventory, SortKey.ofInt(Part::getStock))
+                    .sortBy(partPrice, SortKey.ofLong(Part::getPriceMinor))
+                    .getItems();
         }
+        partsTableView.setItems(pagedParts);
     }
 
     /**
-     * Update the parts table view with the given list of parts.
-     * @param allParts the list of parts to display in the table view
+     * Sets how the columns of the parts table view read their cells, once when the form is loaded. Each cell reads a
+     * property of its row directly, without reflection, and updates in place when the row changes.
      */
-    private void updatePartsTableView(ObservableList<Part> allParts) {
-        partId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        partName.setCellValueFactory(new PropertyValueFactory<>("name"));
-        partInventory.setCellValueFactory(new PropertyValueFactory<>("stock"));
-        partPrice.setCellValueFactory(new PropertyValueFactory<>("price"));
+    private void setUpPartsTableColumns() {
+        partId.setCellValueFactory(cell -> cell.getValue().idProperty());
+        partName.setCellValueFactory(cell -> cell.getValue().nameProperty());
+        partInventory.setCellValueFactory(cell -> cell.getValue().stockProperty());
+        partPrice.setCellValueFactory(cell -> cell.getValue().priceMinorProperty());
+        partPrice.setCellFactory(column -> new MoneyTableCell<>());
     }
 
     /**
-     * Update the associated parts table view with the given list of associated parts.
-     * @param associatedParts the list of associated parts to display in the table view
+     * Sets how the columns of the associated parts table view read their cells, once when the form is loaded. Each cell reads a
+     * property of its row directly, without reflection, and updates in place when the row changes.
      */
-    private void updateAssociatedPartsTableView(ObservableList<Part> associatedParts) {
-        associatedPartId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        associatedPartName.setCellValueFactory(new PropertyValueFactory<>("name"));
-        associatedPartInventory.setCellValueFactory(new PropertyValueFactory<>("stock"));
-        associatedPartPrice.setCellValueFactory(new PropertyValueFactory<>("price"));
+    private void setUpAssociatedPartsTableColumns() {
+        associatedPartId.setCellValueFactory(cell -> cell.getValue().idProperty());
+        associatedPartName.setCellValueFactory(cell -> cell.getValue().nameProperty());
+        associatedPartInventory.setCellValueFactory(cell -> cell.getValue().stockProperty());
+        associatedPartPrice.setCellValueFactory(cell -> cell.getValue().priceMinorProperty());
+        associatedPartPrice.setCellFactory(column -> new MoneyTableCell<>());
     }
     /**
      * This method receives the selected product from the MainForm and sets the text field values with
@@ -208,18 +263,18 @@ public class ModifyProductController implements Initializable {
      */
     public void receiveSelectedProduct(int index, Product selectedProduct) {
         selectedIndex = index;
+        locatedStock = selectedProduct.getLocatedStock();
 
         // Set text in fields
         idField.setText(String.valueOf(selectedProduct.getId()));
         nameField.setText(selectedProduct.getName());
         invField.setText(String.valueOf(selectedProduct.getStock()));
-        priceField.setText(String.valueOf(selectedProduct.getPrice()));
+        priceField.setText(Money.format(selectedProduct.getPriceMinor()));
         maxField.setText(String.valueOf(selectedProduct.getMax()));
         minField.setText(String.valueOf(selectedProduct.getMin()));
-        // Get the associated parts for the selected product and update the table view accordingly
+        // Get the associated parts for the selected product and show them in the table view
         tempAssociatedParts = selectedProduct.getAllAssociatedParts();
         associatedPartsTableView.setItems(tempAssociatedParts);
-        updateAssociatedPartsTableView(tempAssociatedParts);
 
     }
     /**
@@ -239,7 +294,6 @@ public class ModifyProductController implements Initializable {
     void onAddSelectedPartButtonClick(ActionEvent actionEvent) {
         Part selectedPart = partsTableView.getSelectionModel().getSelectedItem();
         tempAssociatedParts.add(selectedPart);
-        updateAssociatedPartsTableView(tempAssociatedParts);
         removeAssociatedPartButton.setDisable(false);
     }
     /**
@@ -299,121 +353,97 @@ public class ModifyProductController implements Initializable {
         int extractedPartId = Integer.parseInt(this.idField.getText());
         String extractedName = this.nameField.getText();
         int extractedInv;
-        double extractedPrice;
+        long extractedPrice;
         int extractedMax;
         int extractedMin;
 
-        try {
-            extractedInv = Integer.parseInt(this.invField.getText());
-        } catch (NumberFormatException e) {
+        long parsedInv = ParseInput.parseInt(this.invField.getText());
+        if (parsedInv == ParseInput.INVALID) {
             // Display an error message to the user if the inventory value is not a valid integer
             String errorMessage = "The inventory value entered must be an integer.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
+        extractedInv = (int) parsedInv;
+        if (extractedInv < locatedStock) {
+            // Display an error message to the user if the inventory value is less than the stock held at locations
+            String errorMessage = "The inventory value entered must be at least the " + locatedStock + " held at warehouse locations.";
+            Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
+            inputErrorAlert.showAndWait();
+            return;
+        }
 
-        try {
-            extractedPrice = Double.parseDouble(this.priceField.getText());
-        } catch (NumberFormatException e) {
+        extractedPrice = Money.parse(this.priceField.getText());
+        if (extractedPrice == Money.INVALID) {
             // Display an error message to the user if the price value is not a valid decimal or integer
-            String errorMessage = "The price value entered must be an integer or decimal value.";
+            String errorMessage = "The price value entered must be an integer or decimal value with at most " + Money.SCALE + " decimal places.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
 
-        try {
-            extractedMax = Integer.parseInt(this.maxField.getText());
-        } catch (NumberFormatException e) {
+        long parsedMax = ParseInput.parseInt(this.maxField.getText());
+        if (parsedMax == ParseInput.INVALID) {
             // Display an error message to the user if the max value is not a valid integer
             String errorMessage = "The max value entered must be an integer.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
+        extractedMax = (int) parsedMax;
 
-        try {
-            extractedMin = Integer.parseInt(this.minField.getText());
-        } catch (NumberFormatException e) {
+        long parsedMin = ParseInput.parseInt(this.minField.getText());
+        if (parsedMin == ParseInput.INVALID) {
             // Display an error message to the user if the min value is not a valid integer
             String errorMessage = "The min value entered must be an integer.";
             Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, errorMessage);
             inputErrorAlert.showAndWait();
             return;
         }
+        extractedMin = (int) parsedMin;
 
-        String inputErrorMessage = ValidateInput.validateInputProduct(extractedName, extractedInv, extractedPrice, extractedMin, extractedMax);
-        if (inputErrorMessage.isEmpty()) {
+        int inputViolations = ValidateInput.checkProduct(extractedName, extractedInv, extractedPrice, extractedMin, extractedMax);
+        if (inputViolations == 0) {
             // Create the new product with the extracted data and update the associated parts list for the new product.
-            Product newProduct = new Product(extractedPartId, extractedName, extractedPrice, extractedInv, extractedMin, extractedMax);
+            Product newProduct = new Product(extractedPartId, extractedName, 0, extractedInv, extractedMin, extractedMax);
+            newProduct.setPriceMinor(extractedPrice);
             newProduct.getAllAssociatedParts().addAll(tempAssociatedParts);
-            // Update the product at the selectedIndex with the modified product data. Then update the associated parts table view with the modified associated parts list.
-            Inventory.updateProduct(selectedIndex, newProduct);
-
-            updateAssociatedPartsTableView(tempAssociatedParts);
+            // Update the product at the selectedIndex with the modified product data.
+            if (!Inventory.updateProduct(selectedIndex, newProduct)) {
+                // The stock at the locations may have grown since the form was opened
+                Alert updateErrorAlert = new Alert(Alert.AlertType.ERROR, "The inventory value entered is less than the stock now held at warehouse locations.");
+                updateErrorAlert.showAndWait();
+                return;
+            }
             // Go back to the Main screen.
             SceneSwap.swapScene("/view/MainForm.fxml", saveProductButton);
         } else {
             // If input is invalid, display a detailed error message to the user
-            Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, "One or more fields contain invalid values.\n" + inputErrorMessage);
+            Alert inputErrorAlert = new Alert(Alert.AlertType.ERROR, "One or more fields contain invalid values.\n" + ValidateInput.describe(inputViolations));
             inputErrorAlert.showAndWait();
         }
     }
 
     /**
-     * Search for a part based on user input in the search box. If the input is an integer, the search will be performed by product ID.
-     * If the input is a string, the search will be performed by part name. Displays a message if no matching parts are found.
+     * Searches for a part straight away when the user presses enter in the search box. If the input is an integer, the search
+     * will be performed by part ID. If the input is a string, the search will be performed by part name. Displays a message
+     * if no matching parts are found. The search runs in the background, as do the searches made while the user types.
      * @param actionEvent when the user hits enter after entering their search query
      */
     @FXML
     public void onPartsSearch(ActionEvent actionEvent) {
-        // Get the input from the search box
-        String userSearchInput = searchBoxParts.getText();
-
-        // Variables for storing the search result
-        int searchedPartId;
-        String searchedPartName;
-        Part searchResult;
-
-        // ObservableList to store the search results
-        ObservableList<Part> allPartsSearchResults = FXCollections.observableArrayList();
+        partSearch.searchNow(searchBoxParts.getText());
+    }
 
-        // If the search input is empty, set all parts in the table view
-        if (userSearchInput.isEmpty()) {
-            partsTableView.setItems(Inventory.getAllParts());
-        } else {
-            // Try to parse the search input as an integer
-            try {
-                searchedPartId = Integer.parseInt(userSearchInput);
-                // Look up the part by id
-                searchResult = Inventory.lookupPart(searchedPartId);
-                if (searchResult == null) {
-                    // Display an error message if the search result is null
-                    Alert searchAlert = new Alert(Alert.AlertType.INFORMATION);
-                    searchAlert.setContentText("No part with the ID " + searchedPartId + " was located.");
-                    searchAlert.showAndWait();
-                } else {
-                    // Add the search result to the observable list
-                    allPartsSearchResults.add(searchResult);
-                    // Set the search results in the table view
-                    partsTableView.setItems(allPartsSearchResults);
-                }
-            } catch (NumberFormatException e) {
-                // If the search input is not an integer, it is a name
-                searchedPartName = userSearchInput;
-                // Look up the part by name
-                allPartsSearchResults = Inventory.lookupPart(searchedPartName);
-                if (allPartsSearchResults.isEmpty()) {
-                    // Display an error message if the search result is empty
-                    Alert searchAlert = new Alert(Alert.AlertType.INFORMATION);
-                    searchAlert.setContentText("No part with the name " + searchedPartName + " was located.");
-                    searchAlert.showAndWait();
-                } else {
-                    // Set the search results in the table view
-                    partsTableView.setItems(allPartsSearchResults);
-                }
-            }
-        }
+    /**
+     * Displays a message when a search started with enter finds no parts.
+     * @param query The text searched for.
+     * @param byId Whether the text was searched for as an ID rather than a name.
+     */
+    private void noPartsFound(String query, boolean byId) {
+        Alert searchAlert = new Alert(Alert.AlertType.INFORMATION);
+        searchAlert.setContentText("No part with the " + (byId ? "ID " : "name ") + query + " was located.");
+        searchAlert.showAndWait();
     }
 }
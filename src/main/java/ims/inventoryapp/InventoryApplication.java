@@ -1,17 +1,15 @@
 package ims.inventoryapp;
 
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.stage.Stage;
 import model.InHouse;
 import model.Inventory;
 import model.Outsourced;
 import model.Product;
-
-
-import java.io.IOException;
+import utils.InventoryMetrics;
+import utils.SceneCache;
+import utils.SceneSwap;
+import utils.StartupTimer;
 
 /**
  * The InventoryApplication class is the entry point of the inventory management application. It includes methods for
@@ -20,19 +18,25 @@ import java.io.IOException;
 public class InventoryApplication extends Application {
 
     /**
-     * Loads the FXML file for the main screen of the application and creates the primary stage, then launches the application.
+     * Shows the main screen of the application on the primary stage. Everything the main screen does not need waits
+     * until its first frame has been laid out: the metrics MBeans are registered, and the other views are loaded in the
+     * background so they are usually ready by the time the user first navigates to one.
      */
     @Override
-    public void start(Stage stage) throws IOException {
+    public void start(Stage stage) {
 
-        FXMLLoader fxmlLoader = new FXMLLoader();
-        fxmlLoader.setLocation(getClass().getResource("/view/MainForm.fxml"));
-        Parent root = fxmlLoader.load();
-        Scene scene = new Scene(root, 1000, 400);
         stage.setTitle("Inventory Management System");
-        stage.setScene(scene);
         stage.setResizable(false);
-        stage.show();
+        SceneSwap.setStage(stage);
+        SceneSwap.swapScene("/view/MainForm.fxml", null);
+
+        StartupTimer.afterFirstFrame(stage.getScene(), () -> {
+            // Publish the operation metrics so they can be watched from JConsole.
+            InventoryMetrics.registerMBeans();
+
+            // The main form is already loaded, so the preloader skips it
+            StartupTimer.exitAfter(SceneCache.preload(SceneCache.VIEWS));
+        });
     }
 
     /**
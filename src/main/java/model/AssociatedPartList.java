@@ -0,0 +1,258 @@
+package model;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The AssociatedPartList class is the list of associated parts of a Product. It holds the id of each part rather than the
+ * part itself, and reads the part from the Inventory's id index each time it is asked for. A part replaced by updatePart()
+ * then shows as the new part in every product that lists it, and the replaced part is left for the garbage collector.
+ * <p></p>
+ * A part that is not in the Inventory cannot be read from the index, so the list keeps that part itself: a part listed
+ * before it was added to the Inventory, or one deleted from the Inventory while a product in the Inventory still lists it.
+ * A product outside the Inventory, such as one still being filled in on the add product form, is not told about
+ * deletions, and reads a part deleted meanwhile as null.
+ */
+final class AssociatedPartList extends ModifiableObservableListBase<Part> {
+
+    // Declare Fields
+
+    /**
+     * The product whose associated parts these are.
+     */
+    private final Product product;
+
+    /**
+     * The id of each associated part, in order. Only the first size entries are used.
+     */
+    private int[] ids = new int[4];
+
+    /**
+     * The number of associated parts.
+     */
+    private int size;
+
+    /**
+     * The associated parts that are not in the Inventory, by id, or null while there are none.
+     */
+    private Map<Integer, Part> missingParts;
+
+    // Declare Methods
+
+    /**
+     * Creates an empty list of associated parts.
+     * @param product The product whose associated parts these are.
+     */
+    AssociatedPartList(Product product) {
+        this.product = product;
+    }
+
+    @Override
+    public Part get(int index) {
+        Objects.checkIndex(index, size);
+        int id = ids[index];
+        Part part = Inventory.indexedPart(id);
+        if (part == null && missingParts != null) {
+            part = missingParts.get(id);
+        }
+        return part;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds an associated part by id, so a part matches whichever object currently stands for it in the Inventory.
+     * @param o The part to find.
+     * @return the index of the first associated part with the same id, or -1 if there is none.
+     */
+    @Override
+    public int indexOf(Object o) {
+        return o instanceof Part ? indexOfId(((Part) o).getId()) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        if (o instanceof Part) {
+            int id = ((Part) o).getId();
+            for (int i = size - 1; i >= 0; i--) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    protected void doAdd(int index, Part part) {
+        Objects.checkIndex(index, size + 1);
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        ids[index] = part.getId();
+        size++;
+        listed(part);
+    }
+
+    @Override
+    protected Part doSet(int index, Part part) {
+        Part oldPart = get(index);
+        int oldId = ids[index];
+        ids[index] = part.getId();
+        unlisted(oldId);
+        listed(part);
+        return oldPart;
+    }
+
+    @Override
+    protected Part doRemove(int index) {
+        Part oldPart = get(index);
+        int oldId = ids[index];
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        unlisted(oldId);
+        return oldPart;
+    }
+
+    /**
+     * Keeps a newly listed part if the Inventory cannot supply it, and tells the Inventory the product now uses it.
+     * @param part The part.
+     */
+    private void listed(Part part) {
+        if (Inventory.indexedPart(part.getId()) == null) {
+            if (missingParts == null) {
+                missingParts = new HashMap<>();
+            }
+            missingParts.put(part.getId(), part);
+        }
+        Inventory.associatedPartAdded(product, part.getId());
+    }
+
+    /**
+     * Forgets a part that is no longer listed at all, and tells the Inventory the product no longer uses it.
+     * @param partId The id of the part.
+     */
+    private void unlisted(int partId) {
+        if (indexOfId(partId) >= 0) {
+            // The part is still listed elsewhere in the list
+            return;
+        }
+        if (missingParts != null && missingParts.remove(partId) != null && missingParts.isEmpty()) {
+            missingParts = null;
+        }
+        Inventory.associatedPartRemoved(product, partId);
+    }
+
+    /**
+     * @param partId The id of a part.
+     * @return the index of the first associated part with that id, or -1 if there is none.
+     */
+    int indexOfId(int partId) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == partId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return a copy of the ids of the associated parts, in order.
+     */
+    int[] ids() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Removes every listing of a part, reporting the removals to the listeners as a single change.
+     * @param partId The id of the part.
+     * @return whether the part was listed.
+     */
+    boolean removeId(int partId) {
+        if (indexOfId(partId) < 0) {
+            return false;
+        }
+        beginChange();
+        try {
+            // The kept ids are moved down over the removed ones, and each removal is reported at its index in the updated list
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == partId) {
+                    nextRemove(kept, get(i));
+                } else {
+                    ids[kept++] = ids[i];
+                }
+            }
+            size = kept;
+            modCount++;
+            unlisted(partId);
+        } finally {
+            endChange();
+        }
+        return true;
+    }
+
+    /**
+     * Keeps a listed part that has just been deleted from the Inventory, so the list can still show it.
+     * @param part The deleted part.
+     */
+    void partDeleted(Part part) {
+        if (indexOfId(part.getId()) >= 0) {
+            if (missingParts == null) {
+                missingParts = new HashMap<>();
+            }
+            missingParts.put(part.getId(), part);
+        }
+    }
+
+    /**
+     * Tells the listeners that a listed part now reads as a different object, after it was replaced in the Inventory or
+     * added back to it.
+     * @param oldPart The part it read as before.
+     * @param part The part it reads as now.
+     */
+    void partReplaced(Part oldPart, Part part) {
+        if (missingParts != null) {
+            Part missingPart = missingParts.remove(part.getId());
+            if (oldPart == null) {
+                oldPart = missingPart;
+            }
+            if (missingParts.isEmpty()) {
+                missingParts = null;
+            }
+        }
+        beginChange();
+        try {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == part.getId()) {
+                    nextSet(i, oldPart == null ? part : oldPart);
+                }
+            }
+        } finally {
+            endChange();
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ConsumptionRates class keeps the average daily consumption of each part over the last 7, 30 and 90 days, for
+ * reorder decisions. Consumption is stock that leaves through adjustStock() or a committed StockTransaction; corrections
+ * made by editing the part are not counted.
+ * <p></p>
+ * Each window is a ring of buckets: 7 buckets of a day, 10 of three days and 9 of ten days. Recording consumption adds it
+ * to the current bucket of each ring, clearing any buckets that have fallen out of the window since the part was last
+ * consumed, so each part takes the same 112 bytes however much it is consumed. A window covers its full buckets and the
+ * days so far of the current one, so the 30 day rate, for example, averages over 28 to 30 days.
+ * <p></p>
+ * The buckets of all parts are kept in pages of int arrays rather than an object per part, and each part is locked
+ * through one of a fixed set of locks, so parts consumed on different threads rarely wait on each other. Consumption
+ * recorded as it happens is buffered on the thread that records it and added to the buckets in batches, a part's
+ * consumption on the same day in one sum, so threads consuming the same part do not each take its lock. The rates are
+ * read only once every thread's buffered consumption has been added.
+ */
+public final class ConsumptionRates {
+
+    /**
+     * The windows a rate can be averaged over.
+     */
+    public enum Window {
+        SEVEN_DAYS(7, 1, 0),
+        THIRTY_DAYS(10, 3, 7),
+        NINETY_DAYS(9, 10, 17);
+
+        /**
+         * The number of buckets in the ring.
+         */
+        private final int buckets;
+
+        /**
+         * The days each bucket covers.
+         */
+        private final int bucketDays;
+
+        /**
+         * Where the ring starts among a part's buckets.
+         */
+        private final int offset;
+
+        /**
+         * Describes a window.
+         * @param buckets The number of buckets in the ring.
+         * @param bucketDays The days each bucket covers.
+         * @param offset Where the ring starts among a part's buckets.
+         */
+        Window(int buckets, int bucketDays, int offset) {
+            this.buckets = buckets;
+            this.bucketDays = bucketDays;
+            this.offset = offset;
+        }
+
+        /**
+         * @return the number of days the window covers.
+         */
+        public int getDays() {
+            return buckets * bucketDays;
+        }
+    }
+
+    // Declare Fields
+
+    /**
+     * The milliseconds in a day.
+     */
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Where a part's id is kept in its slot.
+     */
+    private static final int PART_ID = 0;
+
+    /**
+     * Where the day the part was last consumed is kept in its slot, in days since the epoch.
+     */
+    private static final int LAST_DAY = 1;
+
+    /**
+     * Where a part's buckets start in its slot.
+     */
+    private static final int FIRST_BUCKET = 2;
+
+    /**
+     * The ints in a part's slot.
+     */
+    private static final int SLOT_INTS = FIRST_BUCKET + 7 + 10 + 9;
+
+    /**
+     * The slots in a page.
+     */
+    private static final int PAGE_SLOTS = 1024;
+
+    /**
+     * The number of locks the slots share.
+     */
+    private static final int LOCKS = 64;
+
+    /**
+     * The consumptions a thread buffers before adding them to the buckets.
+     */
+    private static final int BUFFERED_CONSUMPTIONS = 256;
+
+    /**
+     * The slot of each part that has been consumed, by part id.
+     */
+    private final Map<Integer, Integer> slots = new ConcurrentHashMap<>();
+
+    /**
+     * The pages of slots. A page is never moved once created, so growing only copies this array of references.
+     */
+    private volatile int[][] pages = new int[0][];
+
+    /**
+     * The number of slots handed out.
+     */
+    private volatile int slotCount;
+
+    /**
+     * The locks a slot is read and changed under, chosen by the slot number.
+     */
+    private final Object[] locks = new Object[LOCKS];
+
+    /**
+     * The consumption recorded now and not yet added to the buckets, buffered on the threads that recorded it.
+     */
+    private final ThreadChangeBuffers consumptions = new ThreadChangeBuffers(BUFFERED_CONSUMPTIONS, this::addConsumptions);
+
+    // Declare Constructors
+
+    /**
+     * Creates rates with no consumption.
+     */
+    public ConsumptionRates() {
+        for (int i = 0; i < LOCKS; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // Declare Methods
+
+    /**
+     * Records consumption of a part now.
+     * @param partId The id of the part.
+     * @param quantity The quantity consumed.
+     */
+    public void recordConsumption(int partId, int quantity) {
+        if (quantity > 0) {
+            consumptions.add(partId, System.currentTimeMillis(), quantity);
+        }
+    }
+
+    /**
+     * Adds a run of buffered consumption of a part to its buckets, summing the consumption on each day first.
+     * @param partId The id of the part.
+     * @param order The consumptions to add from from to to, each as its index in times and quantities in the low 32 bits.
+     * @param from The first consumption to add.
+     * @param to The consumption after the last to add.
+     * @param times The time of each consumption.
+     * @param quantities Each quantity consumed.
+     */
+    private void addConsumptions(int partId, long[] order, int from, int to, long[] times, int[] quantities) {
+        int i = from;
+        while (i < to) {
+            long day = Math.floorDiv(times[(int) order[i]], DAY_MILLIS);
+            long quantity = 0;
+            while (i < to && Math.floorDiv(times[(int) order[i]], DAY_MILLIS) == day) {
+                quantity += quantities[(int) order[i++]];
+            }
+            addConsumption(partId, (int) Math.min(Integer.MAX_VALUE, quantity), (int) day);
+        }
+    }
+
+    /**
+     * Records consumption of a part at a given time, such as when loading it from the StockHistory. A time before the
+     * part's last consumption is counted on the day of that consumption.
+     * @param partId The id of the part.
+     * @param quantity The quantity consumed.
+     * @param timeMillis The time in epoch milliseconds.
+     */
+    public void recordConsumption(int partId, int quantity, long timeMillis) {
+        if (quantity > 0) {
+            addConsumption(partId, quantity, (int) Math.floorDiv(timeMillis, DAY_MILLIS));
+        }
+    }
+
+    /**
+     * Adds consumption of a part to its buckets. A day before the part's last consumption is counted as that day.
+     * @param partId The id of the part.
+     * @param quantity The quantity consumed, greater than zero.
+     * @param day The day of the consumption, in days since the epoch.
+     */
+    private void addConsumption(int partId, int quantity, int day) {
+        Integer slot = slots.get(partId);
+        if (slot == null) {
+            slot = newSlot(partId, day);
+        }
+        int[] page = pages[slot / PAGE_SLOTS];
+        int base = slot % PAGE_SLOTS * SLOT_INTS;
+        synchronized (locks[slot % LOCKS]) {
+            int lastDay = page[base + LAST_DAY];
+            day = Math.max(day, lastDay);
+            for (Window window : Window.values()) {
+                int first = base + FIRST_BUCKET + window.offset;
+                long lastBucket = Math.floorDiv(lastDay, window.bucketDays);
+                long bucket = Math.floorDiv(day, window.bucketDays);
+                // Clear the buckets passed since the last consumption, which are now in use for a later stretch of days
+                for (long passed = lastBucket + 1; passed <= Math.min(bucket, lastBucket + window.buckets); passed++) {
+                    page[first + Math.floorMod(passed, window.buckets)] = 0;
+                }
+                int index = first + Math.floorMod(bucket, window.buckets);
+                page[index] = (int) Math.min(Integer.MAX_VALUE, (long) page[index] + quantity);
+            }
+            page[base + LAST_DAY] = day;
+        }
+    }
+
+    /**
+     * Hands out the next slot to a part, unless another thread has just done so.
+     * @param partId The id of the part.
+     * @param day The day of its first consumption, in days since the epoch.
+     * @return the part's slot.
+     */
+    private synchronized Integer newSlot(int partId, int day) {
+        Integer slot = slots.get(partId);
+        if (slot != null) {
+            return slot;
+        }
+        slot = slotCount;
+        if (slot / PAGE_SLOTS == pages.length) {
+            int[][] grown = Arrays.copyOf(pages, pages.length + 1);
+            grown[pages.length] = new int[PAGE_SLOTS * SLOT_INTS];
+            pages = grown;
+        }
+        int[] page = pages[slot / PAGE_SLOTS];
+        int base = slot % PAGE_SLOTS * SLOT_INTS;
+        page[base + PART_ID] = partId;
+        page[base + LAST_DAY] = day;
+        // The slot is counted before it is published, and readers lock it before reading it
+        slotCount = slot + 1;
+        slots.put(partId, slot);
+        return slot;
+    }
+
+    /**
+     * Finds the average daily consumption of a part over a window ending now.
+     * @param partId The id of the part.
+     * @param window The window.
+     * @return the average quantity consumed per day, 0 if the part has not been consumed in the window.
+     */
+    public double getDailyRate(int partId, Window window) {
+        return getDailyRate(partId, window, System.currentTimeMillis());
+    }
+
+    /**
+     * Finds the average daily consumption of a part over a window ending at a given time.
+     * @param partId The id of the part.
+     * @param window The window.
+     * @param timeMillis The end of the window in epoch milliseconds.
+     * @return the average quantity consumed per day, 0 if the part has not been consumed in the window.
+     */
+    public double getDailyRate(int partId, Window window, long timeMillis) {
+        consumptions.appendAll();
+        Integer slot = slots.get(partId);
+        if (slot == null) {
+            return 0;
+        }
+        return rate(slot, window, (int) Math.floorDiv(timeMillis, DAY_MILLIS));
+    }
+
+    /**
+     * Finds how many days the stock of a part would last at its average daily consumption over the last 30 days.
+     * @param part The part.
+     * @return the days of cover, or positive infinity if the part has not been consumed in the last 30 days.
+     */
+    public double getDaysOfCover(Part part) {
+        return getDaysOfCover(part, Window.THIRTY_DAYS);
+    }
+
+    /**
+     * Finds how many days the stock of a part would last at its average daily consumption over a window.
+     * @param part The part.
+     * @param window The window the consumption is averaged over.
+     * @return the days of cover, or positive infinity if the part has not been consumed in the window.
+     */
+    public double getDaysOfCover(Part part, Window window) {
+        double rate = getDailyRate(part.getId(), window);
+        return rate == 0 ? Double.POSITIVE_INFINITY : Math.max(0, part.getStock()) / rate;
+    }
+
+    /**
+     * Ranks the parts by their average daily consumption over a window ending now, reading each part's buckets once and
+     * keeping only the highest so far.
+     * @param window The window.
+     * @param limit The number of parts wanted.
+     * @return the ids of up to limit parts consumed in the window, highest rate first.
+     */
+    public int[] getHighestRates(Window window, int limit) {
+        consumptions.appendAll();
+        int today = (int) Math.floorDiv(System.currentTimeMillis(), DAY_MILLIS);
+        int count = slotCount;
+        // Each entry is a rate and a slot, lowest rate at the head so it is the one dropped
+        PriorityQueue<double[]> highest = new PriorityQueue<>(Math.max(1, limit), (a, b) -> Double.compare(a[0], b[0]));
+        for (int slot = 0; slot < count && limit > 0; slot++) {
+            double rate = rate(slot, window, today);
+            if (rate == 0) {
+                continue;
+            }
+            if (highest.size() < limit) {
+                highest.add(new double[] {rate, slot});
+            } else if (rate > highest.peek()[0]) {
+                highest.poll();
+                highest.add(new double[] {rate, slot});
+            }
+        }
+        int[] partIds = new int[highest.size()];
+        for (int i = partIds.length - 1; i >= 0; i--) {
+            int slot = (int) highest.poll()[1];
+            partIds[i] = pages[slot / PAGE_SLOTS][slot % PAGE_SLOTS * SLOT_INTS + PART_ID];
+        }
+        return partIds;
+    }
+
+    /**
+     * @return the number of parts that have been consumed.
+     */
+    public int getPartCount() {
+        consumptions.appendAll();
+        return slotCount;
+    }
+
+    /**
+     * Averages the buckets of a slot that are still inside a window ending on a given day, without clearing the others.
+     * @param slot The slot.
+     * @param window The window.
+     * @param day The last day of the window, in days since the epoch.
+     * @return the average quantity consumed per day.
+     */
+    private double rate(int slot, Window window, int day) {
+        int[] page = pages[slot / PAGE_SLOTS];
+        int base = slot % PAGE_SLOTS * SLOT_INTS;
+        long sum = 0;
+        int lastDay;
+        synchronized (locks[slot % LOCKS]) {
+            lastDay = page[base + LAST_DAY];
+            day = Math.max(day, lastDay);
+            long lastBucket = Math.floorDiv(lastDay, window.bucketDays);
+            long oldestBucket = Math.floorDiv(day, window.bucketDays) - window.buckets + 1;
+            int first = base + FIRST_BUCKET + window.offset;
+            for (int position = 0; position < window.buckets; position++) {
+                // The bucket at each position is the latest one at or before lastBucket that maps to it
+                long bucket = lastBucket - Math.floorMod(lastBucket - position, window.buckets);
+                if (bucket >= oldestBucket) {
+                    sum += page[first + position];
+                }
+            }
+        }
+        int days = (window.buckets - 1) * window.bucketDays + Math.floorMod(day, window.bucketDays) + 1;
+        return (double) sum / days;
+    }
+}
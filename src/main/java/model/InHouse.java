@@ -23,17 +23,23 @@ public class InHouse extends Part {
     public InHouse (int id, String name, double price, int stock, int min, int max, int machineId){
         // Call the constructor of the parent class, Part, to inherit attributes and properly initialize the object.
         super(id, name, price, stock, min, max);
-        setMachineId(machineId);
+        // Set directly, as a new part is in no index yet
+        this.machineId = machineId;
     }
 
     // Declare Methods
 
     /**
-     * Sets the machine ID for this part.
+     * Sets the machine ID for this part, and moves it in the Inventory's machine index if it is in the Inventory.
      * @param machineId the machine ID for this part
      */
     public void setMachineId(int machineId){
+        int oldMachineId = this.machineId;
         this.machineId = machineId;
+        if (oldMachineId != machineId) {
+            Inventory.machineIdChanged(this, oldMachineId);
+            Inventory.partColumnsChanged();
+        }
     }
 
     /**
@@ -1,7 +1,28 @@
 package model;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import utils.BatchObservableList;
+import utils.InventoryMetrics;
+import utils.InventoryOperationEvent;
+import utils.PageSource;
+import utils.PagedList;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 /**
@@ -13,13 +34,15 @@ public class Inventory {
     // Declare Fields
 
     /**
-     * An observable list containing all Parts in the Inventory.
+     * An observable list containing all Parts in the Inventory. Changes made off the JavaFX Application Thread reach it
+     * through the PulseBridge, in batches.
      */
-    private static ObservableList<Part> allParts = FXCollections.observableArrayList();
+    private static final BatchObservableList<Part> allParts = new BatchObservableList<>();
     /**
-     * An observable list containing all Products in the Inventory.
+     * An observable list containing all Products in the Inventory. Changes made off the JavaFX Application Thread reach
+     * it through the PulseBridge, in batches.
      */
-    private static ObservableList<Product> allProducts = FXCollections.observableArrayList();
+    private static final BatchObservableList<Product> allProducts = new BatchObservableList<>();
     /**
      * Used to generate unique IDs for Parts.
      */
@@ -28,9 +51,407 @@ public class Inventory {
      * Used to generate unique IDs for Products.
      */
     private static int productId = 0;
+    /**
+     * Publishes changes made to the Inventory to any subscribed integrations.
+     */
+    private static final InventoryChangeFeed changeFeed = new InventoryChangeFeed();
+    /**
+     * The history of the stock level of every part that has changed. Sealed chunks past the ims.history.memoryBytes
+     * property (64 MB by default) are written to the file named by the ims.history.file property, or to a temporary file.
+     */
+    private static final StockHistory stockHistory = new StockHistory(
+            System.getProperty("ims.history.file") == null ? null : Path.of(System.getProperty("ims.history.file")),
+            Long.getLong("ims.history.memoryBytes", 64L << 20));
+    /**
+     * The average daily consumption of every part that has been consumed, over the last 7, 30 and 90 days.
+     */
+    private static final ConsumptionRates consumptionRates = new ConsumptionRates();
+    /**
+     * Index of the Parts in the allParts list by id. Built by the first lookup that needs it, then kept in sync by a
+     * listener on allParts, and safe to read from any thread. Use partsById() rather than reading it directly.
+     */
+    private static final Map<Integer, Part> partsById = new ConcurrentHashMap<>();
+    /**
+     * Index of the Products in the allProducts list by id. Built by the first lookup that needs it, then kept in sync by
+     * a listener on allProducts, and safe to read from any thread. Use productsById() rather than reading it directly.
+     */
+    private static final Map<Integer, Product> productsById = new ConcurrentHashMap<>();
+    /**
+     * Index of the Outsourced parts in the allParts list by the code of their company name in
+     * StringDictionary.COMPANY_NAMES. Built and kept in sync along with partsById, and safe to read from any thread.
+     */
+    private static final Map<Integer, Set<Part>> partsByCompany = new ConcurrentHashMap<>();
+    /**
+     * Index of the InHouse parts in the allParts list by machine id. Built and kept in sync along with partsById, and
+     * safe to read from any thread.
+     */
+    private static final Map<Integer, Set<Part>> partsByMachine = new ConcurrentHashMap<>();
+    /**
+     * Index of the Products in the allProducts list by the id of each Part they list as an associated part. Built and
+     * kept in sync along with productsById, so a replaced or deleted Part reaches only the Products that list it.
+     */
+    private static final Map<Integer, Set<Product>> productsByPart = new ConcurrentHashMap<>();
+    /**
+     * A snapshot of the parts one array per field, for PartQuery to scan. Built by the first query that needs it and
+     * dropped whenever the parts change. Use partColumns() rather than reading it directly.
+     */
+    private static final AtomicReference<PartColumns> partColumns = new AtomicReference<>();
+    /**
+     * Counts the changes that drop partColumns. A snapshot is only used while the count is the one it was begun at.
+     */
+    private static final AtomicInteger partColumnsVersion = new AtomicInteger();
+    /**
+     * Whether partsById, partsByCompany and partsByMachine have been built. Until they are, the parts loaded at startup
+     * are only added to the allParts list.
+     */
+    private static volatile boolean partsIndexed = false;
+    /**
+     * Whether productsById and productsByPart have been built. Until they are, the products loaded at startup are only
+     * added to the allProducts list.
+     */
+    private static volatile boolean productsIndexed = false;
+
+    static {
+        // Keep the id indexes in sync with every change to the lists, including changes made directly through getAllParts() and getAllProducts().
+        // Changes made before an index is built are skipped here. The list has already changed when its listeners run, so
+        // an index built at any point after that sees the change anyway.
+        allParts.addListener((ListChangeListener<Part>) change -> {
+            partColumnsChanged();
+            if (!partsIndexed) {
+                return;
+            }
+            // A part whose type is switched is replaced by a new object, so it moves between the company and machine indexes here
+            while (change.next()) {
+                for (Part removedPart : change.getRemoved()) {
+                    unindexPart(removedPart);
+                }
+                for (Part addedPart : change.getAddedSubList()) {
+                    indexPart(addedPart);
+                }
+            }
+            // Products only list parts once the indexes are built, as listing a part looks it up
+            if (productsIndexed && !productsByPart.isEmpty()) {
+                change.reset();
+                refreshAssociatedParts(change);
+            }
+        });
+        allProducts.addListener((ListChangeListener<Product>) change -> {
+            if (!productsIndexed) {
+                return;
+            }
+            while (change.next()) {
+                for (Product removedProduct : change.getRemoved()) {
+                    unindexProduct(removedProduct);
+                }
+                for (Product addedProduct : change.getAddedSubList()) {
+                    indexProduct(addedProduct);
+                }
+            }
+        });
+    }
 
     // Declare Methods
 
+    /**
+     * Retrieves the index of Parts by id, building it first if this is the first lookup since the application started.
+     * Building the index on first use keeps it off the startup path, when the first frame is still being waited for.
+     * @return the index of Parts by id.
+     */
+    private static Map<Integer, Part> partsById() {
+        if (!partsIndexed) {
+            indexParts();
+        }
+        return partsById;
+    }
+
+    /**
+     * Retrieves the index of Products by id, building it first if this is the first lookup since the application started.
+     * @return the index of Products by id.
+     */
+    private static Map<Integer, Product> productsById() {
+        if (!productsIndexed) {
+            indexProducts();
+        }
+        return productsById;
+    }
+
+    /**
+     * Builds the indexes of Parts by id, company and machine from the allParts list, unless another thread already has.
+     */
+    private static synchronized void indexParts() {
+        if (!partsIndexed) {
+            for (Part part : allParts) {
+                indexPart(part);
+            }
+            partsIndexed = true;
+        }
+    }
+
+    /**
+     * Adds a Part to the indexes of Parts by id, and by company or machine depending on its type.
+     * @param part The Part to add.
+     */
+    private static void indexPart(Part part) {
+        partsById.put(part.getId(), part);
+        if (part instanceof Outsourced) {
+            addToIndex(partsByCompany, ((Outsourced) part).getCompanyNameCode(), part);
+        } else if (part instanceof InHouse) {
+            addToIndex(partsByMachine, ((InHouse) part).getMachineId(), part);
+        }
+    }
+
+    /**
+     * Removes a Part from the indexes of Parts by id, company and machine.
+     * @param part The Part to remove.
+     */
+    private static void unindexPart(Part part) {
+        partsById.remove(part.getId(), part);
+        if (part instanceof Outsourced) {
+            removeFromIndex(partsByCompany, ((Outsourced) part).getCompanyNameCode(), part);
+        } else if (part instanceof InHouse) {
+            removeFromIndex(partsByMachine, ((InHouse) part).getMachineId(), part);
+        }
+    }
+
+    /**
+     * Adds an element to the set of elements with the given key in a secondary index.
+     * @param index The index.
+     * @param key The key.
+     * @param element The Part or Product to add.
+     * @param <E> The type of the elements.
+     */
+    private static <E> void addToIndex(Map<Integer, Set<E>> index, int key, E element) {
+        // The set is changed inside compute, so it cannot be dropped as empty by a removal at the same time
+        index.compute(key, (sameKey, elements) -> {
+            Set<E> keyElements = elements == null ? ConcurrentHashMap.newKeySet() : elements;
+            keyElements.add(element);
+            return keyElements;
+        });
+    }
+
+    /**
+     * Removes an element from the set of elements with the given key in a secondary index, dropping the set once it is empty.
+     * @param index The index.
+     * @param key The key.
+     * @param element The Part or Product to remove.
+     * @param <E> The type of the elements.
+     * @return whether the element was in the set.
+     */
+    private static <E> boolean removeFromIndex(Map<Integer, Set<E>> index, int key, E element) {
+        boolean[] removed = new boolean[1];
+        index.computeIfPresent(key, (sameKey, elements) -> {
+            removed[0] = elements.remove(element);
+            return elements.isEmpty() ? null : elements;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Moves an Outsourced part in the company index after its company name has been changed in place.
+     * @param part The part.
+     * @param oldCompanyNameCode The code of its company name before the change.
+     */
+    static synchronized void companyNameChanged(Outsourced part, int oldCompanyNameCode) {
+        // A part that is not in the index, because it is not in the Inventory or the index is not built, is left out of it
+        if (partsIndexed && removeFromIndex(partsByCompany, oldCompanyNameCode, part)) {
+            addToIndex(partsByCompany, part.getCompanyNameCode(), part);
+        }
+    }
+
+    /**
+     * Moves an InHouse part in the machine index after its machine id has been changed in place.
+     * @param part The part.
+     * @param oldMachineId Its machine id before the change.
+     */
+    static synchronized void machineIdChanged(InHouse part, int oldMachineId) {
+        if (partsIndexed && removeFromIndex(partsByMachine, oldMachineId, part)) {
+            addToIndex(partsByMachine, part.getMachineId(), part);
+        }
+    }
+
+    /**
+     * Builds the indexes of Products by id and by associated part from the allProducts list, unless another thread already has.
+     */
+    private static synchronized void indexProducts() {
+        if (!productsIndexed) {
+            for (Product product : allProducts) {
+                indexProduct(product);
+            }
+            productsIndexed = true;
+        }
+    }
+
+    /**
+     * Adds a Product to the indexes of Products by id and by each of its associated parts.
+     * @param product The Product to add.
+     */
+    private static synchronized void indexProduct(Product product) {
+        productsById.put(product.getId(), product);
+        for (int partId : product.getAssociatedPartIds()) {
+            addToIndex(productsByPart, partId, product);
+        }
+    }
+
+    /**
+     * Removes a Product from the indexes of Products by id and by associated part.
+     * @param product The Product to remove.
+     */
+    private static synchronized void unindexProduct(Product product) {
+        productsById.remove(product.getId(), product);
+        for (int partId : product.getAssociatedPartIds()) {
+            removeFromIndex(productsByPart, partId, product);
+        }
+    }
+
+    /**
+     * Records that a Product now lists a Part as an associated part, if the Product is in the Inventory.
+     * @param product The Product.
+     * @param partId The id of the Part.
+     */
+    static synchronized void associatedPartAdded(Product product, int partId) {
+        if (productsById().get(product.getId()) == product) {
+            addToIndex(productsByPart, partId, product);
+        }
+    }
+
+    /**
+     * Records that a Product no longer lists a Part as an associated part at all.
+     * @param product The Product.
+     * @param partId The id of the Part.
+     */
+    static synchronized void associatedPartRemoved(Product product, int partId) {
+        if (productsIndexed) {
+            removeFromIndex(productsByPart, partId, product);
+        }
+    }
+
+    /**
+     * Passes the Parts replaced in or deleted from the allParts list on to the Products that list them, so their
+     * associated parts lists show the new Parts and keep the deleted ones.
+     * @param change The change to the allParts list, already applied to partsById.
+     */
+    private static void refreshAssociatedParts(ListChangeListener.Change<? extends Part> change) {
+        Map<Integer, Part> removedParts = new HashMap<>();
+        while (change.next()) {
+            for (Part removedPart : change.getRemoved()) {
+                removedParts.put(removedPart.getId(), removedPart);
+            }
+            for (Part addedPart : change.getAddedSubList()) {
+                Set<Product> products = productsByPart.get(addedPart.getId());
+                if (products != null) {
+                    Part oldPart = removedParts.remove(addedPart.getId());
+                    for (Product product : products) {
+                        product.associatedPartReplaced(oldPart, addedPart);
+                    }
+                }
+            }
+        }
+        for (Part removedPart : removedParts.values()) {
+            Set<Product> products = productsByPart.get(removedPart.getId());
+            // A part moved within the list or replaced in a later step of the change is still in the index
+            if (products != null && partsById.get(removedPart.getId()) == null) {
+                for (Product product : products) {
+                    product.associatedPartDeleted(removedPart);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the index of Products by associated part, building the product indexes first if need be.
+     * @return the index of Products by the id of each Part they list.
+     */
+    private static Map<Integer, Set<Product>> productsByPart() {
+        if (!productsIndexed) {
+            indexProducts();
+        }
+        return productsByPart;
+    }
+
+    /**
+     * Counts the products in the Inventory that list a Part as an associated part, without looking at any product.
+     * @param partId The id of the Part.
+     * @return the number of products, each counted once however many times it lists the Part.
+     */
+    public static int getPartUsageCount(int partId) {
+        Set<Product> products = productsByPart().get(partId);
+        return products == null ? 0 : products.size();
+    }
+
+    /**
+     * Retrieves the products in the Inventory that list a Part as an associated part.
+     * @param partId The id of the Part.
+     * @return the products, sorted by id.
+     */
+    public static List<Product> getProductsUsingPart(int partId) {
+        Set<Product> products = productsByPart().get(partId);
+        if (products == null) {
+            return new ArrayList<>();
+        }
+        List<Product> sortedProducts = new ArrayList<>(products);
+        sortedProducts.sort(Comparator.comparingInt(Product::getId));
+        return sortedProducts;
+    }
+
+    /**
+     * Retrieves a Part by id from the id index, without recording an operation, for PartQuery and StockTransaction.
+     * @param partId The id of the Part.
+     * @return the Part, or null if there is none.
+     */
+    static Part indexedPart(int partId) {
+        return partsById().get(partId);
+    }
+
+    /**
+     * Retrieves the Outsourced parts supplied by a company from the company index, for PartQuery.
+     * @param companyNameCode The code of the company name in StringDictionary.COMPANY_NAMES.
+     * @return a live view of the parts, which must not be changed.
+     */
+    static Set<Part> indexedPartsByCompany(int companyNameCode) {
+        if (!partsIndexed) {
+            indexParts();
+        }
+        return partsByCompany.getOrDefault(companyNameCode, Set.of());
+    }
+
+    /**
+     * Retrieves the InHouse parts made on a machine from the machine index, for PartQuery.
+     * @param machineId The id of the machine.
+     * @return a live view of the parts, which must not be changed.
+     */
+    static Set<Part> indexedPartsByMachine(int machineId) {
+        if (!partsIndexed) {
+            indexParts();
+        }
+        return partsByMachine.getOrDefault(machineId, Set.of());
+    }
+
+    /**
+     * Retrieves the snapshot of the parts one array per field, building it first if the parts have changed since the
+     * last one. Called on the JavaFX Application Thread.
+     * @return the snapshot.
+     */
+    static PartColumns partColumns() {
+        int version = partColumnsVersion.get();
+        PartColumns columns = partColumns.get();
+        if (columns == null || columns.version != version) {
+            PartColumns builtColumns = new PartColumns(allParts, version);
+            // Kept unless another snapshot was published meanwhile. One that missed a change while it was built is used
+            // this once, and its version no longer matches, so the next call builds a new one.
+            partColumns.compareAndSet(columns, builtColumns);
+            columns = builtColumns;
+        }
+        return columns;
+    }
+
+    /**
+     * Drops the snapshot of the parts after a change to allParts, or to a field of a part other than its stock.
+     */
+    static void partColumnsChanged() {
+        partColumnsVersion.incrementAndGet();
+        partColumns.set(null);
+    }
+
     /**
      * Gets the current part ID.
      * @return The current ID.
@@ -45,7 +466,12 @@ public class Inventory {
      * @param newPart The Part object to add.
      */
     public static void addPart(Part newPart) {
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.PART_ADD);
         allParts.add(newPart);
+        changeFeed.publishPart(InventoryEvent.Type.PART_ADDED, newPart);
+        InventoryMetrics.end(InventoryMetrics.Operation.PART_ADD, start);
+        event.finish(allParts.size(), 1);
     }
 
     /**
@@ -53,35 +479,40 @@ public class Inventory {
      * @param newProduct The Product object to add.
      */
     public static void addProduct(Product newProduct){
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.PRODUCT_ADD);
         allProducts.add(newProduct);
+        changeFeed.publishProduct(InventoryEvent.Type.PRODUCT_ADDED, newProduct);
+        InventoryMetrics.end(InventoryMetrics.Operation.PRODUCT_ADD, start);
+        event.finish(allProducts.size(), 1);
     }
 
     /**
-     * Searches for a Part in the allParts list by partId.
+     * Searches for a Part in the allParts list by partId, using the id index.
      * @param partId The id of the Part to look up.
-     * @return The Part object that matches the partId.
+     * @return The Part object that matches the partId, or null if there is none.
      */
     public static Part lookupPart(int partId){
-        for(Part part : allParts) {
-            if (part.getId() == partId) {
-                return part;
-            }
-        }
-        return null;
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.PART_LOOKUP_BY_ID);
+        Part part = partsById().get(partId);
+        InventoryMetrics.end(InventoryMetrics.Operation.PART_LOOKUP_BY_ID, start);
+        event.finish(allParts.size(), part == null ? 0 : 1);
+        return part;
     }
 
     /**
-     * Searches for a Product in the allProducts list by productId.
+     * Searches for a Product in the allProducts list by productId, using the id index.
      * @param productId The id of the Product to look up.
-     * @return The Product object that matches the productId.
+     * @return The Product object that matches the productId, or null if there is none.
      */
     public static Product lookupProduct(int productId){
-        for(Product product : allProducts) {
-            if (product.getId() == productId) {
-                return product;
-            }
-        }
-        return null;
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.PRODUCT_LOOKUP_BY_ID);
+        Product product = productsById().get(productId);
+        InventoryMetrics.end(InventoryMetrics.Operation.PRODUCT_LOOKUP_BY_ID, start);
+        event.finish(allProducts.size(), product == null ? 0 : 1);
+        return product;
     }
 
     /**
@@ -90,14 +521,22 @@ public class Inventory {
      * @return The list of all Parts that match the name.
      */
     public static ObservableList<Part> lookupPart(String partName){
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.PART_LOOKUP_BY_NAME);
         // Create an empty list to hold search results.
         ObservableList<Part> partSearchResults = FXCollections.observableArrayList();
+        // Names are matched on their codes. A name that has never been encoded matches no part.
+        int nameCode = StringDictionary.NAMES.codeOf(partName);
         // Iterate through each part in the allParts list and add any parts that match the provided name to the search results list.
-        for (Part part : allParts) {
-            if (part.getName().equals(partName)) {
-                partSearchResults.add(part);
+        if (nameCode != StringDictionary.NULL_CODE) {
+            for (Part part : allParts) {
+                if (part.getNameCode() == nameCode) {
+                    partSearchResults.add(part);
+                }
             }
         }
+        InventoryMetrics.end(InventoryMetrics.Operation.PART_LOOKUP_BY_NAME, start);
+        event.finish(allParts.size(), partSearchResults.size());
         // Return the list of parts that match the provided name.
         return partSearchResults;
     }
@@ -108,43 +547,197 @@ public class Inventory {
      * @return The list of all Products that match the name.
      */
     public static ObservableList<Product> lookupProduct(String productName){
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.PRODUCT_LOOKUP_BY_NAME);
         // Create an empty list to hold search results.
         ObservableList<Product> productSearchResults = FXCollections.observableArrayList();
+        // Names are matched on their codes. A name that has never been encoded matches no product.
+        int nameCode = StringDictionary.NAMES.codeOf(productName);
         // Iterate through each product in the allProducts list and add any products that match the provided name to the search results list.
-        for (Product product : allProducts) {
-            if (product.getName().equals(productName)) {
-                productSearchResults.add(product);
+        if (nameCode != StringDictionary.NULL_CODE) {
+            for (Product product : allProducts) {
+                if (product.getNameCode() == nameCode) {
+                    productSearchResults.add(product);
+                }
             }
         }
+        InventoryMetrics.end(InventoryMetrics.Operation.PRODUCT_LOOKUP_BY_NAME, start);
+        event.finish(allProducts.size(), productSearchResults.size());
         // Return the list of products that match the provided name.
         return productSearchResults;
     }
 
     /**
-     * Updates a Part in the allParts list.
+     * Retrieves the Outsourced parts supplied by a company, using the company index.
+     * @param companyName The name of the company.
+     * @return The list of all Parts from the company, in id order.
+     */
+    public static ObservableList<Part> lookupPartsByCompany(String companyName) {
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.PART_LOOKUP_BY_COMPANY);
+        if (!partsIndexed) {
+            indexParts();
+        }
+        // A company name that has never been encoded has no parts
+        int companyNameCode = StringDictionary.COMPANY_NAMES.codeOf(companyName);
+        ObservableList<Part> partSearchResults = sortedById(partsByCompany.get(companyNameCode));
+        InventoryMetrics.end(InventoryMetrics.Operation.PART_LOOKUP_BY_COMPANY, start);
+        event.finish(allParts.size(), partSearchResults.size());
+        return partSearchResults;
+    }
+
+    /**
+     * Retrieves the InHouse parts made on a machine, using the machine index.
+     * @param machineId The id of the machine.
+     * @return The list of all Parts made on the machine, in id order.
+     */
+    public static ObservableList<Part> lookupPartsByMachine(int machineId) {
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.PART_LOOKUP_BY_MACHINE);
+        if (!partsIndexed) {
+            indexParts();
+        }
+        ObservableList<Part> partSearchResults = sortedById(partsByMachine.get(machineId));
+        InventoryMetrics.end(InventoryMetrics.Operation.PART_LOOKUP_BY_MACHINE, start);
+        event.finish(allParts.size(), partSearchResults.size());
+        return partSearchResults;
+    }
+
+    /**
+     * Copies a set of Parts from a secondary index into a new list in id order.
+     * @param parts The set of Parts, or null if the index has none for the key.
+     * @return the list.
+     */
+    private static ObservableList<Part> sortedById(Set<Part> parts) {
+        ObservableList<Part> sortedParts = parts == null ? FXCollections.observableArrayList() : FXCollections.observableArrayList(parts);
+        sortedParts.sort(Comparator.comparingInt(Part::getId));
+        return sortedParts;
+    }
+
+    /**
+     * Retrieves the names of every location that stock has been put at, such as the warehouses.
+     * @return the location names, in alphabetical order.
+     */
+    public static List<String> getLocationNames() {
+        List<String> locationNames = new ArrayList<>();
+        for (int code = 0; code < StringDictionary.LOCATIONS.size(); code++) {
+            locationNames.add(StringDictionary.LOCATIONS.decode(code));
+        }
+        locationNames.sort(String.CASE_INSENSITIVE_ORDER);
+        return locationNames;
+    }
+
+    /**
+     * Retrieves the names of the companies that supply at least one part in the Inventory, using the company index.
+     * @return the company names, in alphabetical order.
+     */
+    public static List<String> getCompanyNames() {
+        if (!partsIndexed) {
+            indexParts();
+        }
+        List<String> companyNames = new ArrayList<>();
+        for (int companyNameCode : partsByCompany.keySet()) {
+            companyNames.add(StringDictionary.COMPANY_NAMES.decode(companyNameCode));
+        }
+        companyNames.sort(Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+        return companyNames;
+    }
+
+    /**
+     * Updates a Part in the allParts list. The new Part takes over the stock the original Part holds at each location, so the
+     * update is refused if its stock is less than the original Part's located stock.
      * @param index The index of the Part in the allParts list to update.
      * @param selectedPart The Part object that replaces the original Part.
+     * @return A boolean indicating whether the Part was updated.
      */
-    public static void updatePart(int index, Part selectedPart){
-            Inventory.getAllParts().set(index, selectedPart);
+    public static boolean updatePart(int index, Part selectedPart){
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.PART_UPDATE);
+        if (!selectedPart.takeLocationStock(Inventory.getAllParts().get(index))) {
+            InventoryMetrics.end(InventoryMetrics.Operation.PART_UPDATE, start);
+            event.finish(allParts.size(), 0);
+            return false;
+        }
+        Part originalPart = Inventory.getAllParts().set(index, selectedPart);
+        changeFeed.publishPart(InventoryEvent.Type.PART_UPDATED, selectedPart);
+        if (originalPart.getStock() != selectedPart.getStock()) {
+            stockHistory.record(selectedPart.getId(), originalPart.getStock(), selectedPart.getStock());
+            changeFeed.publishPart(InventoryEvent.Type.PART_STOCK_CHANGED, selectedPart);
+        }
+        InventoryMetrics.end(InventoryMetrics.Operation.PART_UPDATE, start);
+        event.finish(allParts.size(), 1);
+        return true;
     }
 
     /**
-     * Updates a Product in the allProducts list.
+     * Updates a Product in the allProducts list. The new Product takes over the stock the original Product holds at each
+     * location, so the update is refused if its stock is less than the original Product's located stock, as updatePart()
+     * does for parts.
      * @param index The index of the Product in the allProducts list to update.
      * @param selectedProduct The Product object that replaces the original Product.
+     * @return A boolean indicating whether the Product was updated.
+     */
+    public static boolean updateProduct(int index, Product selectedProduct){
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.PRODUCT_UPDATE);
+        if (!selectedProduct.takeLocationStock(Inventory.getAllProducts().get(index))) {
+            InventoryMetrics.end(InventoryMetrics.Operation.PRODUCT_UPDATE, start);
+            event.finish(allProducts.size(), 0);
+            return false;
+        }
+        Product originalProduct = Inventory.getAllProducts().set(index, selectedProduct);
+        changeFeed.publishProduct(InventoryEvent.Type.PRODUCT_UPDATED, selectedProduct);
+        if (originalProduct.getStock() != selectedProduct.getStock()) {
+            changeFeed.publishProduct(InventoryEvent.Type.PRODUCT_STOCK_CHANGED, selectedProduct);
+        }
+        if (!originalProduct.getAllAssociatedParts().equals(selectedProduct.getAllAssociatedParts())) {
+            changeFeed.publishProduct(InventoryEvent.Type.ASSOCIATED_PARTS_CHANGED, selectedProduct);
+        }
+        InventoryMetrics.end(InventoryMetrics.Operation.PRODUCT_UPDATE, start);
+        event.finish(allProducts.size(), 1);
+        return true;
+    }
+
+    /**
+     * Deletes a Part from the allParts list, unless products still list it and the policy says to keep it.
+     * @param selectedPart The Part to delete.
+     * @param policy What to do if products list the Part as an associated part.
+     * @return A boolean indicating whether the Part was successfully deleted.
      */
-    public static void updateProduct(int index, Product selectedProduct){
-        Inventory.getAllProducts().set(index, selectedProduct);
+    public static boolean deletePart(Part selectedPart, PartDeletePolicy policy) {
+        if (partsById().get(selectedPart.getId()) != selectedPart) {
+            return false;
+        }
+        Set<Product> products = productsByPart().get(selectedPart.getId());
+        if (products != null && !products.isEmpty()) {
+            if (policy == PartDeletePolicy.BLOCK) {
+                return false;
+            }
+            if (policy == PartDeletePolicy.CASCADE) {
+                // Copied first, as each removal drops the product from the set
+                for (Product product : new ArrayList<>(products)) {
+                    product.removeAssociatedPartId(selectedPart.getId());
+                }
+            }
+        }
+        return deletePart(selectedPart);
     }
 
     /**
-     * Deletes a Part from the allParts list.
+     * Deletes a Part from the allParts list. Products that still list the Part keep it, as with PartDeletePolicy.SOFT_DELETE.
      * @param selectedPart The Part to delete.
      * @return A boolean indicating whether the Part was successfully deleted.
      */
     public static boolean deletePart(Part selectedPart){
-        return allParts.remove(selectedPart);
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.PART_DELETE);
+        boolean deleted = allParts.remove(selectedPart);
+        if (deleted) {
+            changeFeed.publishPart(InventoryEvent.Type.PART_DELETED, selectedPart);
+        }
+        InventoryMetrics.end(InventoryMetrics.Operation.PART_DELETE, start);
+        event.finish(allParts.size(), deleted ? 1 : 0);
+        return deleted;
     }
 
     /**
@@ -153,7 +746,95 @@ public class Inventory {
      * @return A boolean indicating whether the Product was successfully deleted.
      */
     public static boolean deleteProduct(Product selectedProduct){
-        return allProducts.remove(selectedProduct);
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.PRODUCT_DELETE);
+        boolean deleted = allProducts.remove(selectedProduct);
+        if (deleted) {
+            changeFeed.publishProduct(InventoryEvent.Type.PRODUCT_DELETED, selectedProduct);
+        }
+        InventoryMetrics.end(InventoryMetrics.Operation.PRODUCT_DELETE, start);
+        event.finish(allProducts.size(), deleted ? 1 : 0);
+        return deleted;
+    }
+
+    /**
+     * Applies a batch of changes from the PulseBridge to the allParts list as a single change to its listeners, then
+     * publishes each change to the change feed. The parts to delete and update are found through the id index, so the
+     * cost grows with the size of the batch rather than the list.
+     * @param deletedIds The ids of the parts to remove.
+     * @param updatedParts The parts to put in place of the parts with the same ids, unless refused as by updatePart().
+     * @param addedParts The parts to append, in order.
+     */
+    static void applyPartChanges(Set<Integer> deletedIds, Map<Integer, Part> updatedParts, List<Part> addedParts) {
+        Map<Integer, Part> parts = partsById();
+        List<Part> deletedParts = new ArrayList<>();
+        for (int id : deletedIds) {
+            Part part = parts.get(id);
+            if (part != null) {
+                deletedParts.add(part);
+            }
+        }
+        Map<Part, Part> replacedParts = new IdentityHashMap<>();
+        updatedParts.forEach((id, updatedPart) -> {
+            Part part = parts.get(id);
+            // An update whose stock is below the part's located stock is refused, as in updatePart()
+            if (part != null && updatedPart.takeLocationStock(part)) {
+                replacedParts.put(part, updatedPart);
+            }
+        });
+        allParts.applyChanges(deletedParts, replacedParts, addedParts);
+        for (Part deletedPart : deletedParts) {
+            changeFeed.publishPart(InventoryEvent.Type.PART_DELETED, deletedPart);
+        }
+        replacedParts.forEach((originalPart, updatedPart) -> {
+            changeFeed.publishPart(InventoryEvent.Type.PART_UPDATED, updatedPart);
+            if (originalPart.getStock() != updatedPart.getStock()) {
+                stockHistory.record(updatedPart.getId(), originalPart.getStock(), updatedPart.getStock());
+                changeFeed.publishPart(InventoryEvent.Type.PART_STOCK_CHANGED, updatedPart);
+            }
+        });
+        for (Part addedPart : addedParts) {
+            changeFeed.publishPart(InventoryEvent.Type.PART_ADDED, addedPart);
+        }
+    }
+
+    /**
+     * Applies a batch of changes from the PulseBridge to the allProducts list as a single change to its listeners, then
+     * publishes each change to the change feed. The products to delete and update are found through the id index.
+     * @param deletedIds The ids of the products to remove.
+     * @param updatedProducts The products to put in place of the products with the same ids, unless refused as by updateProduct().
+     * @param addedProducts The products to append, in order.
+     */
+    static void applyProductChanges(Set<Integer> deletedIds, Map<Integer, Product> updatedProducts, List<Product> addedProducts) {
+        Map<Integer, Product> products = productsById();
+        List<Product> deletedProducts = new ArrayList<>();
+        for (int id : deletedIds) {
+            Product product = products.get(id);
+            if (product != null) {
+                deletedProducts.add(product);
+            }
+        }
+        Map<Product, Product> replacedProducts = new IdentityHashMap<>();
+        updatedProducts.forEach((id, updatedProduct) -> {
+            Product product = products.get(id);
+            // An update whose stock is below the product's located stock is refused, as in updateProduct()
+            if (product != null && updatedProduct.takeLocationStock(product)) {
+                replacedProducts.put(product, updatedProduct);
+            }
+        });
+        allProducts.applyChanges(deletedProducts, replacedProducts, addedProducts);
+        for (Product deletedProduct : deletedProducts) {
+            changeFeed.publishProduct(InventoryEvent.Type.PRODUCT_DELETED, deletedProduct);
+        }
+        replacedProducts.forEach((originalProduct, updatedProduct) -> {
+            changeFeed.publishProduct(InventoryEvent.Type.PRODUCT_UPDATED, updatedProduct);
+            if (originalProduct.getStock() != updatedProduct.getStock()) {
+                changeFeed.publishProduct(InventoryEvent.Type.PRODUCT_STOCK_CHANGED, updatedProduct);
+            }
+        });
+        for (Product addedProduct : addedProducts) {
+            changeFeed.publishProduct(InventoryEvent.Type.PRODUCT_ADDED, addedProduct);
+        }
     }
 
     /**
@@ -172,6 +853,181 @@ public class Inventory {
         return allProducts;
     }
 
+    /**
+     * Retrieves every part through the id index, for scanning on a background thread. The view is safe to iterate while
+     * the inventory changes, and shows some or all of the changes made during the iteration. Parts come in no particular
+     * order. The first call may build the index, so it must be made on the JavaFX Application Thread.
+     * @return an unmodifiable view of every part.
+     */
+    public static Collection<Part> getIndexedParts() {
+        return Collections.unmodifiableCollection(partsById().values());
+    }
+
+    /**
+     * Retrieves every product through the id index, for scanning on a background thread. The view is safe to iterate
+     * while the inventory changes, and shows some or all of the changes made during the iteration. Products come in no
+     * particular order. The first call may build the index, so it must be made on the JavaFX Application Thread.
+     * @return an unmodifiable view of every product.
+     */
+    public static Collection<Product> getIndexedProducts() {
+        return Collections.unmodifiableCollection(productsById().values());
+    }
+
+    /**
+     * Creates a paged view of all parts in the inventory, in id order, for a TableView to show without holding a row for
+     * every part. Each table needs its own view. Must be called on the JavaFX Application Thread.
+     * @return a PagedList of all parts, kept up to date with the inventory.
+     */
+    public static PagedList<Part> getPagedParts() {
+        return paged(allParts);
+    }
+
+    /**
+     * Creates a paged view of all products in the inventory, in id order, for a TableView to show without holding a row
+     * for every product. Each table needs its own view. Must be called on the JavaFX Application Thread.
+     * @return a PagedList of all products, kept up to date with the inventory.
+     */
+    public static PagedList<Product> getPagedProducts() {
+        return paged(allProducts);
+    }
+
+    /**
+     * Creates a paged view of one of the inventory's lists, and passes every change to the list on to it.
+     * @param list The allParts or allProducts list.
+     * @param <E> The type of the list's elements.
+     * @return the paged view.
+     */
+    private static <E> PagedList<E> paged(ObservableList<E> list) {
+        PagedList<E> pagedList = new PagedList<>(new PageSource<E>() {
+            @Override
+            public int size() {
+                return list.size();
+            }
+
+            @Override
+            public List<E> fetch(int fromIndex, int toIndex) {
+                // Copy the page, so that later changes to the list are only seen through sourceChanged().
+                return new ArrayList<>(list.subList(fromIndex, toIndex));
+            }
+        });
+        list.addListener((ListChangeListener<E>) pagedList::sourceChanged);
+        return pagedList;
+    }
+
+    /**
+     * Computes the value of the parts in stock, the sum of each part's price times its stock level. The sum is exact
+     * however many parts there are.
+     * @return the value in minor units, see Money.
+     * @throws ArithmeticException if the value does not fit in a long.
+     */
+    public static long getPartsValue() {
+        long value = 0;
+        for (Part part : allParts) {
+            value = Money.add(value, Money.multiply(part.getPriceMinor(), part.getStock()));
+        }
+        return value;
+    }
+
+    /**
+     * Counts the outsourced parts supplied by each company. The parts are grouped on the codes of their company names,
+     * so the names are only read once per company, not once per part.
+     * @return the number of outsourced parts from each company, by company name.
+     */
+    public static Map<String, Integer> countPartsByCompany() {
+        int[] counts = new int[StringDictionary.COMPANY_NAMES.size() + 1];
+        for (Part part : allParts) {
+            if (part instanceof Outsourced) {
+                // Shifted by one so NULL_CODE has a slot. Codes added since the array was sized are counted after growing it.
+                int slot = ((Outsourced) part).getCompanyNameCode() + 1;
+                if (slot >= counts.length) {
+                    counts = Arrays.copyOf(counts, Math.max(slot + 1, counts.length * 2));
+                }
+                counts[slot]++;
+            }
+        }
+        Map<String, Integer> partCounts = new HashMap<>();
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] > 0) {
+                partCounts.put(StringDictionary.COMPANY_NAMES.decode(slot - 1), counts[slot]);
+            }
+        }
+        return partCounts;
+    }
+
+    /**
+     * Computes the value of the products in stock, the sum of each product's price times its stock level. The sum is
+     * exact however many products there are.
+     * @return the value in minor units, see Money.
+     * @throws ArithmeticException if the value does not fit in a long.
+     */
+    public static long getProductsValue() {
+        long value = 0;
+        for (Product product : allProducts) {
+            value = Money.add(value, Money.multiply(product.getPriceMinor(), product.getStock()));
+        }
+        return value;
+    }
+
+    /**
+     * Retrieves the feed that publishes changes made to the Inventory. Subscribers receive events on a background
+     * thread, so a slow subscriber never holds up the thread that changed the Inventory.
+     * @return the change feed.
+     */
+    public static InventoryChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    /**
+     * Retrieves the history of the stock level of every part, for audits and charts.
+     * @return the stock history.
+     */
+    public static StockHistory getStockHistory() {
+        return stockHistory;
+    }
+
+    /**
+     * Retrieves the average daily consumption of every part, for reorder decisions.
+     * @return the consumption rates.
+     */
+    public static ConsumptionRates getConsumptionRates() {
+        return consumptionRates;
+    }
+
+    /**
+     * Publishes a change to the associated parts of a product, if the product belongs to the Inventory.
+     * @param product The product whose associated parts changed.
+     */
+    static void associatedPartsChanged(Product product) {
+        if (changeFeed.hasSubscribers() && productsById().get(product.getId()) == product) {
+            changeFeed.publishProduct(InventoryEvent.Type.ASSOCIATED_PARTS_CHANGED, product);
+        }
+    }
+
+    /**
+     * Adjusts the stock of a part by a small amount, such as a scanner reporting one unit received or picked. Many threads
+     * can adjust the same part at once without waiting on each other.
+     * @param partId The id of the part to adjust.
+     * @param delta The amount to add to the stock, negative to remove stock.
+     * @param keepAtOrAboveMin Whether a decrease must leave at least the part's min in stock. Decreases never take the stock below zero.
+     * @return true if the stock was adjusted, false if the part does not exist or the decrease was refused.
+     */
+    public static boolean adjustPartStock(int partId, int delta, boolean keepAtOrAboveMin) {
+        Part part = partsById().get(partId);
+        if (part == null || !part.adjustStock(delta, keepAtOrAboveMin)) {
+            return false;
+        }
+        changeFeed.publishPart(InventoryEvent.Type.PART_STOCK_CHANGED, part);
+        return true;
+    }
+
+    /**
+     * Publishes a change to the stock level of a part made outside of updatePart, such as by a StockTransaction.
+     * @param part The part whose stock changed.
+     */
+    static void stockChanged(Part part) {
+        changeFeed.publishPart(InventoryEvent.Type.PART_STOCK_CHANGED, part);
+    }
+
     /**
      * Gets the product ID for this product.
      * @return the product ID.
@@ -0,0 +1,348 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The InventoryChangeFeed class publishes InventoryEvents to any number of Flow.Subscribers.
+ * <p></p>
+ * Publishing never blocks the thread that changed the Inventory. Each subscriber has its own bounded buffer and is
+ * only sent as many events as it has requested. While an update or stock change is waiting in a buffer, a newer event
+ * of the same type for the same part or product takes its place at the back of the buffer, so events are always delivered
+ * in publication order and a subscriber never sees a sequence number lower than one it has already seen. If a subscriber still falls so far behind that
+ * its buffer fills up, the buffered events are discarded and replaced by a single RESYNC_REQUIRED event, numbered with the
+ * sequence of the last event discarded.
+ */
+public class InventoryChangeFeed implements Flow.Publisher<InventoryEvent> {
+
+    // Declare Fields
+
+    /**
+     * The buffer capacity given to subscribers that do not ask for a specific capacity.
+     */
+    public static final int DEFAULT_BUFFER_CAPACITY = 256;
+
+    /**
+     * The executor shared by feeds that are not given one. Delivery threads are daemons so they never keep the application alive.
+     */
+    private static final Executor DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The currently active subscriptions.
+     */
+    private final CopyOnWriteArrayList<FeedSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * The executor used to deliver events to subscribers.
+     */
+    private final Executor executor;
+
+    /**
+     * Used to number events in publication order.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Declare Constructors
+
+    /**
+     * Constructs a feed that delivers events on a shared pool of daemon threads.
+     */
+    public InventoryChangeFeed() {
+        this(DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Constructs a feed that delivers events using the provided executor.
+     * @param executor The executor used to deliver events to subscribers.
+     */
+    public InventoryChangeFeed(Executor executor) {
+        this.executor = executor;
+    }
+
+    // Declare Methods
+
+    /**
+     * Subscribes to the feed with the default buffer capacity.
+     * @param subscriber The subscriber to receive events.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super InventoryEvent> subscriber) {
+        subscribe(subscriber, DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Subscribes to the feed. Only events published after this call are delivered to the subscriber.
+     * @param subscriber The subscriber to receive events.
+     * @param bufferCapacity The maximum number of undelivered events held for the subscriber.
+     */
+    public void subscribe(Flow.Subscriber<? super InventoryEvent> subscriber, int bufferCapacity) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        if (bufferCapacity <= 0) {
+            throw new IllegalArgumentException("Buffer capacity must be positive: " + bufferCapacity);
+        }
+        FeedSubscription subscription = new FeedSubscription(this, subscriber, bufferCapacity);
+        subscriptions.add(subscription);
+        // The first drain signals onSubscribe, so it is delivered on the same serialized path as every later event.
+        subscription.schedule();
+    }
+
+    /**
+     * Checks whether anyone is subscribed, so publishers can skip building events nobody will receive.
+     * @return true if at least one subscription is active.
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Gets the number of active subscriptions.
+     * @return the number of subscriptions.
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Publishes an event about a part.
+     * @param type The kind of change.
+     * @param part The part that changed.
+     */
+    void publishPart(InventoryEvent.Type type, Part part) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        publish(new InventoryEvent(type, part, null, sequence.incrementAndGet()));
+    }
+
+    /**
+     * Publishes an event about a product.
+     * @param type The kind of change.
+     * @param product The product that changed.
+     */
+    void publishProduct(InventoryEvent.Type type, Product product) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        publish(new InventoryEvent(type, null, product, sequence.incrementAndGet()));
+    }
+
+    /**
+     * Offers an event to every subscription.
+     * @param event The event to offer.
+     */
+    private void publish(InventoryEvent event) {
+        for (FeedSubscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * A buffered event. Each event gets its own slot, so a coalesced event can be found and removed by identity.
+     */
+    private static final class Slot {
+        private final InventoryEvent event;
+
+        private Slot(InventoryEvent event) {
+            this.event = event;
+        }
+    }
+
+    /**
+     * The subscription of a single subscriber, holding its buffer and outstanding demand.
+     */
+    private static final class FeedSubscription implements Flow.Subscription {
+
+        private final InventoryChangeFeed feed;
+        private final Flow.Subscriber<? super InventoryEvent> subscriber;
+        private final int capacity;
+
+        /**
+         * Undelivered events in publication order. Guarded by this.
+         */
+        private final ArrayDeque<Slot> buffer = new ArrayDeque<>();
+
+        /**
+         * Undelivered coalescable events by coalescing key. Guarded by this.
+         */
+        private final HashMap<Long, Slot> pending = new HashMap<>();
+
+        /**
+         * The number of events requested and not yet delivered.
+         */
+        private final AtomicLong demand = new AtomicLong();
+
+        /**
+         * Counts drain requests so that only one thread drains at a time.
+         */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+
+        /**
+         * Only read and written while draining.
+         */
+        private boolean started;
+
+        private Throwable requestError;
+
+        private FeedSubscription(InventoryChangeFeed feed, Flow.Subscriber<? super InventoryEvent> subscriber, int capacity) {
+            this.feed = feed;
+            this.subscriber = subscriber;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Adds an event to the buffer, coalescing it with an older event for the same part or product when possible.
+         * @param event The event to add.
+         */
+        private void offer(InventoryEvent event) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                InventoryEvent.Type type = event.getType();
+                if (type.isCoalescable()) {
+                    Slot waiting = pending.remove(event.coalescingKey());
+                    if (waiting != null) {
+                        // An older event of the same type for the same part or product has not been delivered yet. It is
+                        // dropped and the new event queued at the back, as events published between them must come first.
+                        buffer.removeFirstOccurrence(waiting);
+                    }
+                } else {
+                    // Events queued after an add or delete must not be folded into events queued before it.
+                    forgetPending(event);
+                }
+
+                if (buffer.size() >= capacity) {
+                    // The subscriber has fallen too far behind. Replace the backlog with a single resync marker, numbered
+                    // with the last sequence it stands for so the gap ends just before the event queued after it.
+                    long lastDropped = buffer.peekLast().event.getSequence();
+                    buffer.clear();
+                    pending.clear();
+                    buffer.add(new Slot(new InventoryEvent(InventoryEvent.Type.RESYNC_REQUIRED, null, null, lastDropped)));
+                }
+
+                Slot slot = new Slot(event);
+                buffer.add(slot);
+                if (type.isCoalescable()) {
+                    pending.put(event.coalescingKey(), slot);
+                }
+            }
+            schedule();
+        }
+
+        /**
+         * Removes the coalescing entries for the part or product of the given event.
+         * @param event An add or delete event.
+         */
+        private void forgetPending(InventoryEvent event) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            for (InventoryEvent.Type type : InventoryEvent.Type.values()) {
+                if (type.isCoalescable() && type.isPartEvent() == event.getType().isPartEvent()) {
+                    pending.remove(((long) type.ordinal() << 32) | (event.getId() & 0xFFFFFFFFL));
+                }
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                synchronized (this) {
+                    requestError = new IllegalArgumentException("Non-positive request: " + n);
+                }
+            } else {
+                long current;
+                long next;
+                do {
+                    current = demand.get();
+                    next = current + n;
+                    if (next < 0) {
+                        next = Long.MAX_VALUE;
+                    }
+                } while (!demand.compareAndSet(current, next));
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            feed.subscriptions.remove(this);
+            synchronized (this) {
+                buffer.clear();
+                pending.clear();
+            }
+        }
+
+        /**
+         * Starts a drain on the executor unless one is already running.
+         */
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                feed.executor.execute(this::drain);
+            }
+        }
+
+        /**
+         * Delivers buffered events while the subscriber has outstanding demand.
+         */
+        private void drain() {
+            int missed = 1;
+            do {
+                if (!started) {
+                    started = true;
+                    subscriber.onSubscribe(this);
+                }
+                while (!cancelled) {
+                    Throwable error;
+                    synchronized (this) {
+                        error = requestError;
+                    }
+                    if (error != null) {
+                        cancel();
+                        subscriber.onError(error);
+                        break;
+                    }
+                    if (demand.get() == 0) {
+                        break;
+                    }
+                    InventoryEvent event;
+                    synchronized (this) {
+                        Slot slot = buffer.poll();
+                        if (slot == null) {
+                            break;
+                        }
+                        event = slot.event;
+                        if (event.getType().isCoalescable()) {
+                            pending.remove(event.coalescingKey(), slot);
+                        }
+                    }
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    try {
+                        subscriber.onNext(event);
+                    } catch (Throwable t) {
+                        cancel();
+                        subscriber.onError(t);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package model;
+
+/**
+ * The InventoryEvent class describes a single change made to the Inventory. Events are published through the
+ * InventoryChangeFeed so that integrations can react to parts, products and stock levels changing without
+ * listening to the Inventory's ObservableLists on the thread that made the change.
+ */
+public final class InventoryEvent {
+
+    /**
+     * The kinds of change that can be published by the InventoryChangeFeed.
+     */
+    public enum Type {
+        PART_ADDED,
+        PART_UPDATED,
+        PART_DELETED,
+        PART_STOCK_CHANGED,
+        PRODUCT_ADDED,
+        PRODUCT_UPDATED,
+        PRODUCT_DELETED,
+        PRODUCT_STOCK_CHANGED,
+        ASSOCIATED_PARTS_CHANGED,
+        /**
+         * Sent in place of events that were discarded because a subscriber fell too far behind. A subscriber
+         * receiving this event should re-read the Inventory instead of relying on the events it has seen so far. Its
+         * sequence number is that of the last event discarded, so no sequence number is delivered twice.
+         */
+        RESYNC_REQUIRED;
+
+        /**
+         * Checks whether a newer event of this type replaces an older, undelivered event for the same part or product.
+         * @return true if events of this type can be coalesced.
+         */
+        public boolean isCoalescable() {
+            return this == PART_UPDATED || this == PART_STOCK_CHANGED || this == PRODUCT_UPDATED
+                    || this == PRODUCT_STOCK_CHANGED || this == ASSOCIATED_PARTS_CHANGED;
+        }
+
+        /**
+         * Checks whether this type of event concerns a Part rather than a Product.
+         * @return true for part events.
+         */
+        public boolean isPartEvent() {
+            return this == PART_ADDED || this == PART_UPDATED || this == PART_DELETED || this == PART_STOCK_CHANGED;
+        }
+    }
+
+    // Declare Fields
+
+    /**
+     * The kind of change this event describes.
+     */
+    private final Type type;
+
+    /**
+     * The id of the part or product that changed.
+     */
+    private final int id;
+
+    /**
+     * The stock level of the part or product at the time of the change.
+     */
+    private final int stock;
+
+    /**
+     * The part that changed, or null for product events.
+     */
+    private final Part part;
+
+    /**
+     * The product that changed, or null for part events.
+     */
+    private final Product product;
+
+    /**
+     * The sequence number assigned by the feed. Sequence numbers increase in publication order.
+     */
+    private final long sequence;
+
+    // Declare Constructor
+
+    /**
+     * Constructs a new InventoryEvent.
+     * @param type The kind of change.
+     * @param part The part that changed, or null for product events.
+     * @param product The product that changed, or null for part events.
+     * @param sequence The sequence number assigned by the feed.
+     */
+    InventoryEvent(Type type, Part part, Product product, long sequence) {
+        this.type = type;
+        this.part = part;
+        this.product = product;
+        this.sequence = sequence;
+        if (part != null) {
+            this.id = part.getId();
+            this.stock = part.getStock();
+        } else if (product != null) {
+            this.id = product.getId();
+            this.stock = product.getStock();
+        } else {
+            this.id = -1;
+            this.stock = 0;
+        }
+    }
+
+    // Declare Methods
+
+    /**
+     * Returns the kind of change this event describes.
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the id of the part or product that changed.
+     * @return the id, or -1 for a RESYNC_REQUIRED event
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the stock level of the part or product at the time the event was published.
+     * @return the stock
+     */
+    public int getStock() {
+        return stock;
+    }
+
+    /**
+     * Returns the part that changed.
+     * @return the part, or null for product events
+     */
+    public Part getPart() {
+        return part;
+    }
+
+    /**
+     * Returns the product that changed.
+     * @return the product, or null for part events
+     */
+    public Product getProduct() {
+        return product;
+    }
+
+    /**
+     * Returns the sequence number assigned when the event was published.
+     * @return the sequence
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the key used to coalesce this event with older events for the same part or product.
+     * @return the coalescing key
+     */
+    long coalescingKey() {
+        return ((long) type.ordinal() << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public String toString() {
+        return type + "[id=" + id + ", stock=" + stock + ", seq=" + sequence + "]";
+    }
+}
@@ -0,0 +1,153 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The LocationStock class holds the stock of a part or product that has been put at named locations, such as warehouses.
+ * Stock that has not been put at a location stays with the part or product itself as its unassigned stock, so an item
+ * that is never given a location pays for nothing here.
+ * <p></p>
+ * The locations are coded through StringDictionary.LOCATIONS and kept in two parallel arrays sorted by code, one entry for
+ * each location that holds stock. An item stocked at two of fifty warehouses takes two entries, and a location whose stock
+ * runs out is dropped.
+ * <p></p>
+ * Changes are made while holding this object's lock. The sum of the quantities is kept up to date as they change, so the
+ * item's total stock is its unassigned stock plus one field rather than a sum over the locations. A version that is odd
+ * while a change is under way lets the owner read that total without the lock, and without seeing a transfer between the
+ * unassigned stock and a location half done.
+ */
+final class LocationStock {
+
+    // Declare Fields
+
+    /**
+     * The code of each location holding stock, in increasing order. Only the first count entries are used.
+     */
+    private int[] codes = new int[2];
+
+    /**
+     * The stock at each location, in the same order as the codes.
+     */
+    private int[] quantities = new int[2];
+
+    /**
+     * The number of locations holding stock.
+     */
+    private int count;
+
+    /**
+     * The stock at all the locations together.
+     */
+    private volatile long located;
+
+    /**
+     * Counts the changes begun and finished, so it is odd while a change is under way.
+     */
+    private volatile int version;
+
+    // Declare Methods
+
+    /**
+     * @param code The code of a location in StringDictionary.LOCATIONS.
+     * @return the stock at the location, 0 if it holds none.
+     */
+    synchronized int get(int code) {
+        int index = Arrays.binarySearch(codes, 0, count, code);
+        return index < 0 ? 0 : quantities[index];
+    }
+
+    /**
+     * @return the stock at all the locations together.
+     */
+    long located() {
+        return located;
+    }
+
+    /**
+     * @return the names of the locations holding stock, in the order they were first named.
+     */
+    synchronized List<String> names() {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(StringDictionary.LOCATIONS.decode(codes[i]));
+        }
+        return names;
+    }
+
+    /**
+     * Adds stock to a location, or removes it. Must be called while holding this object's lock, between beginChange() and
+     * endChange(), and must not take the location below zero.
+     * @param code The code of the location.
+     * @param delta The change to the stock at the location.
+     */
+    void add(int code, int delta) {
+        int index = Arrays.binarySearch(codes, 0, count, code);
+        if (index >= 0) {
+            quantities[index] += delta;
+            if (quantities[index] == 0) {
+                // The location no longer holds stock, so its entry is dropped
+                System.arraycopy(codes, index + 1, codes, index, count - index - 1);
+                System.arraycopy(quantities, index + 1, quantities, index, count - index - 1);
+                count--;
+            }
+        } else if (delta != 0) {
+            index = -index - 1;
+            if (count == codes.length) {
+                codes = Arrays.copyOf(codes, count * 2);
+                quantities = Arrays.copyOf(quantities, count * 2);
+            }
+            System.arraycopy(codes, index, codes, index + 1, count - index);
+            System.arraycopy(quantities, index, quantities, index + 1, count - index);
+            codes[index] = code;
+            quantities[index] = delta;
+            count++;
+        }
+        located += delta;
+    }
+
+    /**
+     * Copies the stock at each location of another item, replacing any held here. Must be called while holding the locks of
+     * both objects, between beginChange() and endChange().
+     * @param other The stock locations to copy.
+     */
+    void copyFrom(LocationStock other) {
+        codes = Arrays.copyOf(other.codes, other.codes.length);
+        quantities = Arrays.copyOf(other.quantities, other.quantities.length);
+        count = other.count;
+        located = other.located;
+    }
+
+    /**
+     * Marks the start of a change. Must be called while holding this object's lock.
+     */
+    void beginChange() {
+        version++;
+    }
+
+    /**
+     * Marks the end of a change. Must be called while holding this object's lock.
+     */
+    void endChange() {
+        version++;
+    }
+
+    /**
+     * Reads the total stock of a part without taking the lock, waiting out any change under way.
+     * @param unassigned The part's unassigned stock.
+     * @return the unassigned stock plus the stock at all the locations.
+     */
+    long total(StripedStockCounter unassigned) {
+        while (true) {
+            int before = version;
+            if ((before & 1) == 0) {
+                long total = unassigned.get() + located;
+                if (version == before) {
+                    return total;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
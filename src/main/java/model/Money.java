@@ -0,0 +1,241 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The Money class contains methods for working with amounts of money stored as a long count of minor units, such as
+ * cents. Parts and Products store their prices this way so that totals over any number of rows are exact and never need
+ * rounding.
+ * <p></p>
+ * The number of decimal places, the scale, is read once from the "ims.money.scale" system property and defaults to 2.
+ * An amount of 12.99 is stored as 1299 with a scale of 2, or as 12990 with a scale of 3.
+ */
+public final class Money {
+
+    // Declare Fields
+
+    /**
+     * The largest scale supported, which still leaves room for amounts in the billions.
+     */
+    public static final int MAX_SCALE = 9;
+
+    /**
+     * The number of decimal places in an amount.
+     */
+    public static final int SCALE = readScale();
+
+    /**
+     * The number of minor units in one major unit, 10 to the power of SCALE.
+     */
+    public static final long UNIT = powerOfTen(SCALE);
+
+    /**
+     * Returned by parse when the input is not an amount of money.
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    // Declare Methods
+
+    /**
+     * Money only has static methods.
+     */
+    private Money() {
+    }
+
+    /**
+     * Reads the scale from the "ims.money.scale" system property.
+     * @return the scale, or 2 if the property is not set.
+     */
+    private static int readScale() {
+        int scale = Integer.getInteger("ims.money.scale", 2);
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalStateException("ims.money.scale must be between 0 and " + MAX_SCALE + ", was " + scale);
+        }
+        return scale;
+    }
+
+    /**
+     * Computes a power of ten.
+     * @param exponent The exponent, between 0 and 18.
+     * @return 10 to the power of exponent.
+     */
+    private static long powerOfTen(int exponent) {
+        long power = 1;
+        for (int i = 0; i < exponent; i++) {
+            power *= 10;
+        }
+        return power;
+    }
+
+    /**
+     * Converts a double amount to minor units, rounding half up at the last decimal place. The double is read as the
+     * shortest decimal that represents it, so 0.285 becomes 29 cents rather than 28.
+     * @param amount The amount.
+     * @return the amount in minor units.
+     * @throws ArithmeticException if the amount is not finite or does not fit in a long.
+     */
+    public static long fromDouble(double amount) {
+        if (!Double.isFinite(amount)) {
+            throw new ArithmeticException("Not an amount of money: " + amount);
+        }
+        // Whole amounts need no decimal conversion.
+        if (amount == (long) amount && Math.abs(amount) < (double) (Long.MAX_VALUE / UNIT)) {
+            return (long) amount * UNIT;
+        }
+        return BigDecimal.valueOf(amount).setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts minor units to a double amount, for code that still works with doubles.
+     * @param minorUnits The amount in minor units.
+     * @return the nearest double to the amount.
+     */
+    public static double toDouble(long minorUnits) {
+        return (double) minorUnits / UNIT;
+    }
+
+    /**
+     * Adds two amounts.
+     * @param a The first amount in minor units.
+     * @param b The second amount in minor units.
+     * @return the exact sum.
+     * @throws ArithmeticException if the sum does not fit in a long.
+     */
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Multiplies an amount by a quantity, such as a price by a stock level.
+     * @param minorUnits The amount in minor units.
+     * @param quantity The quantity.
+     * @return the exact product.
+     * @throws ArithmeticException if the product does not fit in a long.
+     */
+    public static long multiply(long minorUnits, long quantity) {
+        return Math.multiplyExact(minorUnits, quantity);
+    }
+
+    /**
+     * Formats an amount with exactly SCALE decimal places, such as "12.90" or "-0.05".
+     * @param minorUnits The amount in minor units.
+     * @return the formatted amount.
+     */
+    public static String format(long minorUnits) {
+        return appendTo(new StringBuilder(24), minorUnits).toString();
+    }
+
+    /**
+     * Appends an amount to a StringBuilder with exactly SCALE decimal places, without creating any other objects.
+     * @param builder The StringBuilder to append to.
+     * @param minorUnits The amount in minor units.
+     * @return the builder.
+     */
+    public static StringBuilder appendTo(StringBuilder builder, long minorUnits) {
+        if (minorUnits < 0) {
+            builder.append('-');
+        }
+        // Work with the magnitude as a negative number so that Long.MIN_VALUE does not overflow.
+        long negative = minorUnits < 0 ? minorUnits : -minorUnits;
+        builder.append(-(negative / UNIT));
+        if (SCALE > 0) {
+            builder.append('.');
+            long fraction = -(negative % UNIT);
+            // Pad the fraction with leading zeros, so 5 cents prints as "05".
+            for (long digit = UNIT / 10; digit > 1 && fraction < digit; digit /= 10) {
+                builder.append('0');
+            }
+            builder.append(fraction);
+        }
+        return builder;
+    }
+
+    /**
+     * Parses an amount such as "12.99", "-3", "+0.5" or " 7. ". Leading and trailing whitespace is ignored. The amount
+     * may have fewer decimal places than SCALE, and more only if the extra digits are zeros, so no input is silently
+     * rounded.
+     * @param text The text to parse.
+     * @return the amount in minor units, or INVALID if the text is not an amount or does not fit in a long.
+     */
+    public static long parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses an amount from part of a CharSequence. See parse(CharSequence).
+     * @param text The text to parse.
+     * @param start The index of the first character.
+     * @param end The index after the last character.
+     * @return the amount in minor units, or INVALID if the slice is not an amount or does not fit in a long.
+     */
+    public static long parse(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start >= end) {
+            return INVALID;
+        }
+        boolean negative = false;
+        char first = text.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+        }
+
+        // Accumulate the digits as a negative number, which has room for one more value than a positive one.
+        long value = 0;
+        int digitCount = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                if (seenPoint) {
+                    return INVALID;
+                }
+                seenPoint = true;
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            digitCount++;
+            if (seenPoint && ++fractionDigits > SCALE) {
+                // Digits beyond the scale are only allowed if they are zeros.
+                if (digit != 0) {
+                    return INVALID;
+                }
+                continue;
+            }
+            if (value < Long.MIN_VALUE / 10) {
+                return INVALID;
+            }
+            value *= 10;
+            if (value < Long.MIN_VALUE + digit) {
+                return INVALID;
+            }
+            value -= digit;
+        }
+        if (digitCount == 0) {
+            return INVALID;
+        }
+
+        // Scale the value up for any missing decimal places.
+        for (int missing = SCALE - Math.min(fractionDigits, SCALE); missing > 0; missing--) {
+            if (value < Long.MIN_VALUE / 10) {
+                return INVALID;
+            }
+            value *= 10;
+        }
+        if (negative) {
+            return value;
+        }
+        // INVALID is Long.MIN_VALUE, so it can never be a valid result.
+        return value == Long.MIN_VALUE ? INVALID : -value;
+    }
+}
@@ -5,20 +5,34 @@ package model;
  */
 public class Outsourced extends Part {
     // Declare Fields
-    private String companyName;
+    private int companyName; // Code in StringDictionary.COMPANY_NAMES, as the same few suppliers supply many parts
 
     // Declare Constructor
     public Outsourced(int id, String name, double price, int stock, int min, int max, String companyName){
         super(id, name, price, stock, min, max);
-        setCompanyName(companyName);
+        // Set directly, as a new part is in no index yet
+        this.companyName = StringDictionary.COMPANY_NAMES.encode(companyName);
     }
 
     // Declare Methods
     public void setCompanyName(String companyName){
-        this.companyName = companyName;
+        int oldCompanyName = this.companyName;
+        this.companyName = StringDictionary.COMPANY_NAMES.encode(companyName);
+        // Move the part in the Inventory's company index, if it is in the Inventory
+        if (oldCompanyName != this.companyName) {
+            Inventory.companyNameChanged(this, oldCompanyName);
+            Inventory.partColumnsChanged();
+        }
     }
 
     public String getCompanyName(){
+        return StringDictionary.COMPANY_NAMES.decode(companyName);
+    }
+
+    /**
+     * @return the code of the company name in StringDictionary.COMPANY_NAMES, equal for parts from the same company
+     */
+    public int getCompanyNameCode(){
         return companyName;
     }
 }
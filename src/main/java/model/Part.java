@@ -1,5 +1,10 @@
 package model;
 
+import javafx.beans.property.ReadOnlyObjectProperty;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
 * Supplied class Part.java 
  */
@@ -11,18 +16,22 @@ package model;
 public abstract class Part {
     // Declare Fields
     private int id;
-    private String name;
-    private double price;
-    private int stock;
+    private int name; // Code in StringDictionary.NAMES
+    private long price; // In minor units, see Money
+    private final StripedStockCounter stock; // The unassigned stock, that is not at a location
+    private volatile LocationStock locations; // Created when stock is first put at a location
+    private volatile AtomicInteger reservedStock = new AtomicInteger(); // Shared with the parts that replace this one
     private int min;
     private int max;
+    private volatile RowProperties properties; // Created when a table first shows the part
+    private volatile boolean stockTracked; // Whether the part's history has been started, so later changes skip the lookup
 
     // Declare Constructor
     public Part(int id, String name, double price, int stock, int min, int max) {
         this.id = id;
-        this.name = name;
-        this.price = price;
-        this.stock = stock;
+        this.name = StringDictionary.NAMES.encode(name);
+        this.price = Money.fromDouble(price);
+        this.stock = new StripedStockCounter(stock, min);
         this.min = min;
         this.max = max;
     }
@@ -40,12 +49,22 @@ public abstract class Part {
      */
     public void setId(int id) {
         this.id = id;
+        stockTracked = false;
+        Inventory.partColumnsChanged();
+        changed();
     }
 
     /**
      * @return the name
      */
     public String getName() {
+        return StringDictionary.NAMES.decode(name);
+    }
+
+    /**
+     * @return the code of the name in StringDictionary.NAMES, equal for parts with equal names
+     */
+    public int getNameCode() {
         return name;
     }
 
@@ -53,35 +72,378 @@ public abstract class Part {
      * @param name the name to set
      */
     public void setName(String name) {
-        this.name = name;
+        this.name = StringDictionary.NAMES.encode(name);
+        Inventory.partColumnsChanged();
+        changed();
     }
 
     /**
      * @return the price
      */
     public double getPrice() {
-        return price;
+        return Money.toDouble(price);
     }
 
     /**
-     * @param price the price to set
+     * @param price the price to set, rounded to the nearest minor unit
      */
     public void setPrice(double price) {
+        this.price = Money.fromDouble(price);
+        Inventory.partColumnsChanged();
+        changed();
+    }
+
+    /**
+     * @return the exact price in minor units
+     */
+    public long getPriceMinor() {
+        return price;
+    }
+
+    /**
+     * @param price the price to set in minor units
+     */
+    public void setPriceMinor(long price) {
         this.price = price;
+        Inventory.partColumnsChanged();
+        changed();
     }
     
     /**
-     * @return the stock
+     * @return the stock, including the stock at every location
      */
     public int getStock() {
-        return stock;
+        LocationStock stockLocations = locations;
+        return (int) (stockLocations == null ? stock.get() : stockLocations.total(stock));
     }
 
     /**
-     * @param stock the stock to set
+     * Sets the stock. The stock at each location is kept, and the unassigned stock becomes whatever is left over.
+     * @param stock the stock to set, which must not be less than the stock at the locations
      */
     public void setStock(int stock) {
-        this.stock = stock;
+        trackStock();
+        int levelBefore = replaceStock(stock);
+        if (stock != levelBefore) {
+            stockChanged(stock - levelBefore);
+        }
+    }
+
+    /**
+     * Replaces the total stock, keeping the stock at each location. A part with no stock locations is not given any.
+     * @param stock the stock to set, which must not be less than the stock at the locations
+     * @return the stock before it was replaced
+     */
+    private int replaceStock(int stock) {
+        LocationStock stockLocations = locations;
+        if (stockLocations == null) {
+            synchronized (this) {
+                stockLocations = locations;
+                if (stockLocations == null) {
+                    // The locations are only created while holding this lock, so none can appear while the stock is set
+                    int levelBefore = (int) this.stock.get();
+                    this.stock.set(stock);
+                    return levelBefore;
+                }
+            }
+        }
+        synchronized (stockLocations) {
+            long located = stockLocations.located();
+            if (stock < located) {
+                throw new IllegalArgumentException("Stock " + stock + " is less than the " + located + " held at locations");
+            }
+            int levelBefore = getStock();
+            stockLocations.beginChange();
+            this.stock.set(stock - located);
+            stockLocations.endChange();
+            return levelBefore;
+        }
+    }
+
+    /**
+     * @param location the name of a location, or null for the unassigned stock
+     * @return the stock at the location
+     */
+    public int getStockAt(String location) {
+        LocationStock stockLocations = locations;
+        if (location == null) {
+            return (int) stock.get();
+        }
+        int code = StringDictionary.LOCATIONS.codeOf(location);
+        return stockLocations == null || code == StringDictionary.NULL_CODE ? 0 : stockLocations.get(code);
+    }
+
+    /**
+     * @return the stock at all the locations together, which is the part of the stock that is not unassigned
+     */
+    public int getLocatedStock() {
+        LocationStock stockLocations = locations;
+        return stockLocations == null ? 0 : (int) stockLocations.located();
+    }
+
+    /**
+     * @return the names of the locations holding stock of this part
+     */
+    public List<String> getStockLocations() {
+        LocationStock stockLocations = locations;
+        return stockLocations == null ? List.of() : stockLocations.names();
+    }
+
+    /**
+     * Adjusts the stock at a location, and the total stock with it. Increases always succeed. Decreases are refused if
+     * they would take the location below zero.
+     * @param location the name of the location, or null to adjust the unassigned stock as adjustStock() does
+     * @param delta the amount to add to the location, negative to remove stock
+     * @return true if the stock was adjusted
+     */
+    public boolean adjustStockAt(String location, int delta) {
+        if (location == null) {
+            return adjustStock(delta, false);
+        }
+        if (delta == 0) {
+            return true;
+        }
+        LocationStock stockLocations = locations();
+        int code = StringDictionary.LOCATIONS.encode(location);
+        trackStock();
+        synchronized (stockLocations) {
+            if (delta < 0 && stockLocations.get(code) < -(long) delta) {
+                return false;
+            }
+            stockLocations.beginChange();
+            stockLocations.add(code, delta);
+            stockLocations.endChange();
+            updateMinimum(stockLocations);
+        }
+        if (delta < 0) {
+            Inventory.getConsumptionRates().recordConsumption(id, -delta);
+        }
+        stockChanged(delta);
+        return true;
+    }
+
+    /**
+     * Moves stock from one location to another. Readers of either location or of the total never see the move half done,
+     * and the total stock is unchanged.
+     * @param from the name of the location to take the stock from, or null for the unassigned stock
+     * @param to the name of the location to put the stock at, or null for the unassigned stock
+     * @param quantity the quantity to move
+     * @return true if the stock was moved, false if the location it is taken from holds less than the quantity
+     */
+    public boolean transferStock(String from, String to, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative: " + quantity);
+        }
+        LocationStock stockLocations = locations();
+        int fromCode = from == null ? StringDictionary.NULL_CODE : StringDictionary.LOCATIONS.encode(from);
+        int toCode = to == null ? StringDictionary.NULL_CODE : StringDictionary.LOCATIONS.encode(to);
+        synchronized (stockLocations) {
+            if (fromCode != StringDictionary.NULL_CODE && stockLocations.get(fromCode) < quantity) {
+                return false;
+            }
+            if (quantity == 0 || fromCode == toCode) {
+                return fromCode != StringDictionary.NULL_CODE || stock.get() >= quantity;
+            }
+            stockLocations.beginChange();
+            try {
+                if (fromCode == StringDictionary.NULL_CODE) {
+                    // The unassigned stock is also adjusted outside this lock, so its counter checks it exactly
+                    if (!stock.tryRemove(quantity)) {
+                        return false;
+                    }
+                } else {
+                    stockLocations.add(fromCode, -quantity);
+                }
+                if (toCode == StringDictionary.NULL_CODE) {
+                    stock.add(quantity);
+                } else {
+                    stockLocations.add(toCode, quantity);
+                }
+            } finally {
+                stockLocations.endChange();
+            }
+            updateMinimum(stockLocations);
+        }
+        return true;
+    }
+
+    /**
+     * Takes over the stock at each location of the part this part is replacing, leaving the rest of this part's stock
+     * unassigned, so editing a part keeps its locations. The total stock is unchanged. The quantity held by open stock
+     * transactions is taken over too, by sharing its counter, so a transaction that reserved stock from the original can
+     * still commit or release it against this part.
+     * @param original the part being replaced
+     * @return true if the locations were taken over, false if this part's stock is less than the stock at them
+     */
+    boolean takeLocationStock(Part original) {
+        LocationStock originalLocations = original.locations;
+        if (originalLocations == null || originalLocations == locations) {
+            reservedStock = original.reservedStock;
+            return true;
+        }
+        LocationStock stockLocations = locations();
+        synchronized (originalLocations) {
+            long located = originalLocations.located();
+            synchronized (stockLocations) {
+                int total = getStock();
+                if (total < located) {
+                    return false;
+                }
+                stockLocations.beginChange();
+                stockLocations.copyFrom(originalLocations);
+                stock.set(total - located);
+                stockLocations.endChange();
+                updateMinimum(stockLocations);
+            }
+        }
+        reservedStock = original.reservedStock;
+        return true;
+    }
+
+    /**
+     * Creates the stock locations the first time they are needed.
+     * @return the stock locations
+     */
+    private LocationStock locations() {
+        LocationStock stockLocations = locations;
+        if (stockLocations == null) {
+            synchronized (this) {
+                stockLocations = locations;
+                if (stockLocations == null) {
+                    stockLocations = new LocationStock();
+                    locations = stockLocations;
+                }
+            }
+        }
+        return stockLocations;
+    }
+
+    /**
+     * Sets the minimum of the unassigned stock so that the total stock is kept at or above the min. The unassigned stock
+     * itself never goes below zero, however much is held at the locations.
+     * @param stockLocations the stock locations, or null if there are none
+     */
+    private void updateMinimum(LocationStock stockLocations) {
+        stock.setMinimum(stockLocations == null ? min : Math.max(0, min - stockLocations.located()));
+    }
+
+    /**
+     * @return the quantity held by open stock transactions, which is not included in the stock
+     */
+    public int getReservedStock() {
+        return reservedStock.get();
+    }
+
+    /**
+     * Moves the given quantity out of the unassigned stock and into the reserved quantity, unless the stock is too low.
+     * @param quantity the quantity to reserve
+     * @return true if the quantity was reserved
+     */
+    boolean tryReserveStock(int quantity) {
+        trackStock();
+        if (!stock.tryRemove(quantity)) {
+            return false;
+        }
+        reservedStock.addAndGet(quantity);
+        stockChanged(-quantity);
+        return true;
+    }
+
+    /**
+     * Returns a reserved quantity to the stock.
+     * @param quantity the quantity to release
+     */
+    void releaseReservedStock(int quantity) {
+        reservedStock.addAndGet(-quantity);
+        trackStock();
+        stock.add(quantity);
+        stockChanged(quantity);
+    }
+
+    /**
+     * Adjusts the unassigned stock by the given amount. Increases always succeed. Decreases are refused if they would take
+     * the unassigned stock below zero, or the total stock below the min when keepAtOrAboveMin is true.
+     * @param delta the amount to add to the stock, negative to remove stock
+     * @param keepAtOrAboveMin whether a decrease must leave at least the min in stock
+     * @return true if the stock was adjusted
+     */
+    public boolean adjustStock(int delta, boolean keepAtOrAboveMin) {
+        return adjustStock(delta, keepAtOrAboveMin, true);
+    }
+
+    /**
+     * Adjusts the unassigned stock as adjustStock() does, but without counting a decrease as consumption, for a change that
+     * may yet be taken back with revertStock(). The consumption is counted with recordConsumption() once the change stands.
+     * @param delta the amount to add to the stock, negative to remove stock
+     * @return true if the stock was adjusted
+     */
+    boolean adjustStockUncounted(int delta) {
+        return adjustStock(delta, false, false);
+    }
+
+    /**
+     * Adjusts the unassigned stock.
+     * @param delta the amount to add to the stock, negative to remove stock
+     * @param keepAtOrAboveMin whether a decrease must leave at least the min in stock
+     * @param countConsumption whether a decrease is counted as consumption
+     * @return true if the stock was adjusted
+     */
+    private boolean adjustStock(int delta, boolean keepAtOrAboveMin, boolean countConsumption) {
+        trackStock();
+        boolean adjusted;
+        if (delta >= 0) {
+            stock.add(delta);
+            adjusted = true;
+        } else {
+            adjusted = keepAtOrAboveMin ? stock.tryRemoveAboveMinimum(-(long) delta) : stock.tryRemove(-(long) delta);
+        }
+        if (adjusted && delta != 0) {
+            if (delta < 0 && countConsumption) {
+                Inventory.getConsumptionRates().recordConsumption(id, -delta);
+            }
+            stockChanged(delta);
+        }
+        return adjusted;
+    }
+
+    /**
+     * Takes back a change made with adjustStockUncounted() that could not be made to stand. The change is undone whatever
+     * the stock is now, so it is never refused, and is not counted as consumption.
+     * @param delta the change to take back
+     * @return false if taking it back left the unassigned stock below zero, because stock it added has been used since
+     */
+    boolean revertStock(int delta) {
+        trackStock();
+        if (delta >= 0) {
+            stock.subtract(delta);
+        } else {
+            stock.add(-(long) delta);
+        }
+        if (delta != 0) {
+            stockChanged(-delta);
+        }
+        return stock.get() >= 0;
+    }
+
+    /**
+     * Counts consumption of the part, for a decrease made with adjustStockUncounted() once it stands.
+     * @param quantity the quantity consumed
+     */
+    void recordConsumption(int quantity) {
+        Inventory.getConsumptionRates().recordConsumption(id, quantity);
+        // The stock is unchanged here, but the days of cover are not
+        changed();
+    }
+
+    /**
+     * Consumes a reserved quantity. The stock is unchanged because the quantity already left it when it was reserved.
+     * @param quantity the quantity to consume
+     */
+    void consumeReservedStock(int quantity) {
+        reservedStock.addAndGet(-quantity);
+        Inventory.getConsumptionRates().recordConsumption(id, quantity);
+        // The stock is unchanged, but the days of cover are not, and the properties read them afresh
+        changed();
     }
 
     /**
@@ -96,6 +458,8 @@ public abstract class Part {
      */
     public void setMin(int min) {
         this.min = min;
+        updateMinimum(locations);
+        Inventory.partColumnsChanged();
     }
 
     /**
@@ -110,6 +474,91 @@ public abstract class Part {
      */
     public void setMax(int max) {
         this.max = max;
+        Inventory.partColumnsChanged();
+    }
+
+    /**
+     * @return the id, as a property the tables can watch
+     */
+    public ReadOnlyObjectProperty<Integer> idProperty() {
+        return properties().id();
+    }
+
+    /**
+     * @return the name, as a property the tables can watch
+     */
+    public ReadOnlyObjectProperty<String> nameProperty() {
+        return properties().name();
+    }
+
+    /**
+     * @return the stock, as a property the tables can watch
+     */
+    public ReadOnlyObjectProperty<Integer> stockProperty() {
+        return properties().stock();
+    }
+
+    /**
+     * @return the price in minor units, as a property the tables can watch
+     */
+    public ReadOnlyObjectProperty<Long> priceMinorProperty() {
+        return properties().priceMinor();
+    }
+
+    /**
+     * @return the days of cover from the Inventory's ConsumptionRates, as a property the tables can watch
+     */
+    public ReadOnlyObjectProperty<Double> daysOfCoverProperty() {
+        return properties().daysOfCover();
+    }
+
+    /**
+     * Creates the properties the first time one is asked for. Called on the JavaFX Application Thread.
+     * @return the properties
+     */
+    private RowProperties properties() {
+        RowProperties rowProperties = properties;
+        if (rowProperties == null) {
+            rowProperties = new RowProperties(this::getId, this::getName, this::getStock, this::getPriceMinor,
+                    () -> Inventory.getConsumptionRates().getDaysOfCover(this));
+            properties = rowProperties;
+        }
+        return rowProperties;
+    }
+
+    /**
+     * Starts the part's history in the Inventory's StockHistory if it has none. Called before each change to the stock, so
+     * the history starts at a level that none of the changes it is given are already part of.
+     */
+    private void trackStock() {
+        if (!stockTracked) {
+            StockHistory history = Inventory.getStockHistory();
+            if (!history.isTracked(id)) {
+                history.track(id, getStock());
+            }
+            stockTracked = true;
+        }
+    }
+
+    /**
+     * Records a change to the stock in the Inventory's StockHistory, then updates the properties. The change is recorded as
+     * the delta rather than as a level read afterwards, so concurrent changes recorded out of order still add up to the
+     * level the part holds.
+     * @param delta the change to the stock
+     */
+    private void stockChanged(int delta) {
+        Inventory.getStockHistory().recordChange(id, delta);
+        changed();
+    }
+
+    /**
+     * Updates the properties, if a table has asked for them, after the part has changed.
+     */
+    private void changed() {
+        RowProperties rowProperties = properties;
+        if (rowProperties != null) {
+            rowProperties.changed();
+        }
     }
     
-}
\ No newline at end of file
+}
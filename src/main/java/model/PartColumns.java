@@ -0,0 +1,130 @@
+package model;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The PartColumns class is a snapshot of the parts in the Inventory laid out one array per field, for PartQuery to scan.
+ * A scan that tests the price of a million parts then reads one long array from start to end, rather than following a
+ * million references to Part objects spread over the heap, and it splits evenly across threads.
+ * <p></p>
+ * The Inventory builds a snapshot the first time a query needs one and drops it when the parts change: when allParts
+ * changes, or when a field held here is set on a part. Stock is not held here, as it changes far too often; a query reads
+ * it from the part itself.
+ */
+final class PartColumns {
+
+    // Declare Fields
+
+    /**
+     * The type of an InHouse part.
+     */
+    static final byte IN_HOUSE = 0;
+
+    /**
+     * The type of an Outsourced part.
+     */
+    static final byte OUTSOURCED = 1;
+
+    /**
+     * The type of any other part.
+     */
+    static final byte OTHER = 2;
+
+    /**
+     * The Inventory's count of part changes when the snapshot was begun. The snapshot is current only while the count is
+     * unchanged.
+     */
+    final int version;
+
+    /**
+     * The parts, in the order of the allParts list.
+     */
+    final Part[] rows;
+
+    /**
+     * The id of each part.
+     */
+    final int[] ids;
+
+    /**
+     * The code of each part's name in StringDictionary.NAMES.
+     */
+    final int[] names;
+
+    /**
+     * The price of each part in minor units.
+     */
+    final long[] prices;
+
+    /**
+     * The min of each part.
+     */
+    final int[] mins;
+
+    /**
+     * The max of each part.
+     */
+    final int[] maxes;
+
+    /**
+     * The type of each part: IN_HOUSE, OUTSOURCED or OTHER.
+     */
+    final byte[] types;
+
+    /**
+     * The code of each Outsourced part's company name in StringDictionary.COMPANY_NAMES, or NULL_CODE for other parts.
+     */
+    final int[] companies;
+
+    /**
+     * The machine id of each InHouse part, or 0 for other parts. Only meaningful where types holds IN_HOUSE.
+     */
+    final int[] machines;
+
+    // Declare Methods
+
+    /**
+     * Builds a snapshot of the given parts, filling the columns in parallel.
+     * @param parts The parts, which must not change while the snapshot is built.
+     * @param version The Inventory's count of part changes, read before the parts.
+     */
+    PartColumns(List<Part> parts, int version) {
+        this.version = version;
+        rows = parts.toArray(new Part[0]);
+        int size = rows.length;
+        ids = new int[size];
+        names = new int[size];
+        prices = new long[size];
+        mins = new int[size];
+        maxes = new int[size];
+        types = new byte[size];
+        companies = new int[size];
+        machines = new int[size];
+        IntStream.range(0, size).parallel().forEach(row -> {
+            Part part = rows[row];
+            ids[row] = part.getId();
+            names[row] = part.getNameCode();
+            prices[row] = part.getPriceMinor();
+            mins[row] = part.getMin();
+            maxes[row] = part.getMax();
+            companies[row] = StringDictionary.NULL_CODE;
+            if (part instanceof InHouse) {
+                types[row] = IN_HOUSE;
+                machines[row] = ((InHouse) part).getMachineId();
+            } else if (part instanceof Outsourced) {
+                types[row] = OUTSOURCED;
+                companies[row] = ((Outsourced) part).getCompanyNameCode();
+            } else {
+                types[row] = OTHER;
+            }
+        });
+    }
+
+    /**
+     * @return the number of parts.
+     */
+    int size() {
+        return rows.length;
+    }
+}
@@ -0,0 +1,25 @@
+package model;
+
+/**
+ * The PartDeletePolicy enum chooses what Inventory.deletePart() does with a part that products still list as an
+ * associated part. Each policy only touches the products that list the part, found through the Inventory's index of
+ * products by associated part, never the whole list of products.
+ */
+public enum PartDeletePolicy {
+
+    /**
+     * Refuses to delete the part while any product lists it.
+     */
+    BLOCK,
+
+    /**
+     * Removes the part from the associated parts of every product that lists it, one change per product, then deletes it.
+     */
+    CASCADE,
+
+    /**
+     * Deletes the part but leaves it listed. The products keep it as a missing part, see Product.getMissingAssociatedParts(),
+     * and adding the same part back to the Inventory restores it in all of them.
+     */
+    SOFT_DELETE
+}
@@ -0,0 +1,667 @@
+package model;
+
+import utils.InventoryMetrics;
+import utils.InventoryOperationEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The PartQuery class finds the parts in the Inventory that meet a set of conditions, so a new filter is a query rather
+ * than another hand-written scan. For example, the twenty parts made on machine 103 that are running out, lowest stock
+ * first:
+ * <pre>
+ *     List&lt;Part&gt; parts = PartQuery.parts()
+ *             .where(PartQuery.machineIs(103))
+ *             .where(PartQuery.stockBetween(0, 5))
+ *             .orderBy(PartQuery.Field.STOCK, false)
+ *             .limit(20)
+ *             .list();
+ * </pre>
+ * A part matches when it meets every condition. Before running, the query is planned:
+ * <ul>
+ *     <li>If a condition can be answered by an index (id, company or machine) the smallest such index entry is read, and
+ *     the other conditions are tested on just those parts. An index is only used while it narrows the parts down to a
+ *     quarter or less, as reading parts one by one from the heap costs more per part than a scan.</li>
+ *     <li>Otherwise the parts are scanned through PartColumns, one array per field, split across every core. The
+ *     conditions are compiled into a single test on the arrays, cheapest first, with stock read from the parts last.</li>
+ * </ul>
+ * explain() describes the plan without running it. Without orderBy() the parts come back in no particular order, so offset()
+ * and limit() only page reliably through a sorted query. An unsorted query with a limit scans on one thread and stops as
+ * soon as it has enough parts.
+ * <p></p>
+ * A query can be run more than once, and sees the Inventory as it is each time. Queries must be run on the JavaFX
+ * Application Thread, like the Inventory's other methods.
+ */
+public final class PartQuery {
+
+    /**
+     * The fields a query can sort by.
+     */
+    public enum Field {
+        ID(Comparator.comparingInt(Part::getId)),
+        NAME(Comparator.comparing(Part::getName, Comparator.nullsFirst(Comparator.naturalOrder()))),
+        PRICE(Comparator.comparingLong(Part::getPriceMinor)),
+        STOCK(Comparator.comparingInt(Part::getStock)),
+        MIN(Comparator.comparingInt(Part::getMin)),
+        MAX(Comparator.comparingInt(Part::getMax));
+
+        /**
+         * Orders parts by the field, lowest first.
+         */
+        private final Comparator<Part> comparator;
+
+        /**
+         * Creates a Field.
+         * @param comparator Orders parts by the field, lowest first.
+         */
+        Field(Comparator<Part> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    /**
+     * The fields a condition can test, in the order a compiled test checks them: the equalities on a single column first,
+     * then ranges, then stock, which has to be read from each part.
+     */
+    private enum Column {
+        ID, NAME, TYPE, COMPANY, MACHINE, PRICE, MIN, MAX, STOCK
+    }
+
+    /**
+     * A condition on one field of a part: that it lies between two bounds, both included, or for a name, company or type,
+     * that it equals a value. Created with the static methods of PartQuery.
+     */
+    public static final class Condition {
+
+        /**
+         * The field tested.
+         */
+        private final Column column;
+
+        /**
+         * The lowest value that matches. For a name or company, the code of the string; for a type, a PartColumns type.
+         */
+        private final long low;
+
+        /**
+         * The highest value that matches.
+         */
+        private final long high;
+
+        /**
+         * Creates a Condition.
+         * @param column The field tested.
+         * @param low The lowest value that matches.
+         * @param high The highest value that matches.
+         */
+        private Condition(Column column, long low, long high) {
+            this.column = column;
+            this.low = low;
+            this.high = high;
+        }
+
+        /**
+         * @return whether no part can meet the condition, such as a name that has never been used or an empty range.
+         */
+        private boolean isImpossible() {
+            return low > high || ((column == Column.NAME || column == Column.COMPANY) && low == StringDictionary.NULL_CODE);
+        }
+
+        /**
+         * @return whether the condition is a single value, not a range.
+         */
+        private boolean isEquality() {
+            return low == high;
+        }
+
+        /**
+         * Compiles the condition into a test of a row of a snapshot.
+         * @param columns The snapshot.
+         * @return the test, given the row's index.
+         */
+        private IntPredicate compile(PartColumns columns) {
+            switch (column) {
+                case ID:
+                    return intRange(columns.ids);
+                case NAME:
+                    return intRange(columns.names);
+                case TYPE: {
+                    byte[] types = columns.types;
+                    byte type = (byte) low;
+                    return row -> types[row] == type;
+                }
+                case COMPANY:
+                    return intRange(columns.companies);
+                case MACHINE: {
+                    byte[] types = columns.types;
+                    IntPredicate machine = intRange(columns.machines);
+                    return row -> types[row] == PartColumns.IN_HOUSE && machine.test(row);
+                }
+                case PRICE: {
+                    long[] prices = columns.prices;
+                    long lowPrice = low;
+                    long highPrice = high;
+                    return row -> prices[row] >= lowPrice && prices[row] <= highPrice;
+                }
+                case MIN:
+                    return intRange(columns.mins);
+                case MAX:
+                    return intRange(columns.maxes);
+                default: {
+                    Part[] rows = columns.rows;
+                    return row -> inRange(rows[row].getStock());
+                }
+            }
+        }
+
+        /**
+         * Compiles a test of an int column.
+         * @param values The column.
+         * @return the test, given the row's index.
+         */
+        private IntPredicate intRange(int[] values) {
+            if (isEquality()) {
+                int value = (int) low;
+                return row -> values[row] == value;
+            }
+            // The bounds of a condition on an int column were given as ints
+            int lowValue = (int) low;
+            int highValue = (int) high;
+            return row -> values[row] >= lowValue && values[row] <= highValue;
+        }
+
+        /**
+         * Tests a part directly, for the parts read from an index.
+         * @param part The part.
+         * @return whether the part meets the condition.
+         */
+        private boolean test(Part part) {
+            switch (column) {
+                case ID:
+                    return inRange(part.getId());
+                case NAME:
+                    return inRange(part.getNameCode());
+                case TYPE:
+                    return inRange(typeOf(part));
+                case COMPANY:
+                    return part instanceof Outsourced && inRange(((Outsourced) part).getCompanyNameCode());
+                case MACHINE:
+                    return part instanceof InHouse && inRange(((InHouse) part).getMachineId());
+                case PRICE:
+                    return inRange(part.getPriceMinor());
+                case MIN:
+                    return inRange(part.getMin());
+                case MAX:
+                    return inRange(part.getMax());
+                default:
+                    return inRange(part.getStock());
+            }
+        }
+
+        /**
+         * @param value A value of the field.
+         * @return whether the value lies between the bounds.
+         */
+        private boolean inRange(long value) {
+            return value >= low && value <= high;
+        }
+
+        /**
+         * Reads the parts that may meet the condition from an index, if there is one for the field.
+         * @return the parts, or null if the field has no index or the condition is a range.
+         */
+        private Collection<Part> indexedParts() {
+            if (!isEquality()) {
+                return null;
+            }
+            switch (column) {
+                case ID: {
+                    Part part = Inventory.indexedPart((int) low);
+                    return part == null ? List.of() : List.of(part);
+                }
+                case COMPANY:
+                    return Inventory.indexedPartsByCompany((int) low);
+                case MACHINE:
+                    return Inventory.indexedPartsByMachine((int) low);
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * @return the condition as text, for explain().
+         */
+        @Override
+        public String toString() {
+            String field = column.name().toLowerCase();
+            switch (column) {
+                case NAME:
+                    return "name = " + StringDictionary.NAMES.decode((int) low);
+                case COMPANY:
+                    return "company = " + StringDictionary.COMPANY_NAMES.decode((int) low);
+                case TYPE:
+                    return "type = " + (low == PartColumns.IN_HOUSE ? "InHouse" : "Outsourced");
+                default:
+                    return isEquality() ? field + " = " + low : field + " between " + low + " and " + high;
+            }
+        }
+    }
+
+    // Declare Fields
+
+    /**
+     * An index is only used when it narrows the parts down to at most this fraction of them.
+     */
+    private static final int INDEX_FRACTION = 4;
+
+    /**
+     * The conditions a part must meet.
+     */
+    private final List<Condition> conditions = new ArrayList<>();
+
+    /**
+     * The fields to sort by, most significant first.
+     */
+    private final List<Comparator<Part>> order = new ArrayList<>();
+
+    /**
+     * The number of matching parts to skip.
+     */
+    private int offset;
+
+    /**
+     * The most parts to return.
+     */
+    private int limit = Integer.MAX_VALUE;
+
+    // Declare Methods
+
+    /**
+     * Creates a PartQuery. Use parts().
+     */
+    private PartQuery() {
+    }
+
+    /**
+     * Starts a query of the parts in the Inventory, which matches every part until a condition is added.
+     * @return the query.
+     */
+    public static PartQuery parts() {
+        return new PartQuery();
+    }
+
+    /**
+     * @param id The id.
+     * @return a condition met by the part with the id.
+     */
+    public static Condition idIs(int id) {
+        return new Condition(Column.ID, id, id);
+    }
+
+    /**
+     * @param low The lowest id.
+     * @param high The highest id.
+     * @return a condition met by the parts with ids between low and high, both included.
+     */
+    public static Condition idBetween(int low, int high) {
+        return new Condition(Column.ID, low, high);
+    }
+
+    /**
+     * @param name The name.
+     * @return a condition met by the parts with exactly the name.
+     */
+    public static Condition nameIs(String name) {
+        long code = StringDictionary.NAMES.codeOf(name);
+        return new Condition(Column.NAME, code, code);
+    }
+
+    /**
+     * @param low The lowest price in minor units, see Money.
+     * @param high The highest price in minor units.
+     * @return a condition met by the parts with prices between low and high, both included.
+     */
+    public static Condition priceBetween(long low, long high) {
+        return new Condition(Column.PRICE, low, high);
+    }
+
+    /**
+     * @param low The lowest stock.
+     * @param high The highest stock.
+     * @return a condition met by the parts with stock between low and high, both included.
+     */
+    public static Condition stockBetween(int low, int high) {
+        return new Condition(Column.STOCK, low, high);
+    }
+
+    /**
+     * @param low The lowest min.
+     * @param high The highest min.
+     * @return a condition met by the parts with a min between low and high, both included.
+     */
+    public static Condition minBetween(int low, int high) {
+        return new Condition(Column.MIN, low, high);
+    }
+
+    /**
+     * @param low The lowest max.
+     * @param high The highest max.
+     * @return a condition met by the parts with a max between low and high, both included.
+     */
+    public static Condition maxBetween(int low, int high) {
+        return new Condition(Column.MAX, low, high);
+    }
+
+    /**
+     * @return a condition met by the InHouse parts.
+     */
+    public static Condition inHouse() {
+        return new Condition(Column.TYPE, PartColumns.IN_HOUSE, PartColumns.IN_HOUSE);
+    }
+
+    /**
+     * @return a condition met by the Outsourced parts.
+     */
+    public static Condition outsourced() {
+        return new Condition(Column.TYPE, PartColumns.OUTSOURCED, PartColumns.OUTSOURCED);
+    }
+
+    /**
+     * @param companyName The name of the company.
+     * @return a condition met by the Outsourced parts supplied by the company.
+     */
+    public static Condition companyIs(String companyName) {
+        long code = StringDictionary.COMPANY_NAMES.codeOf(companyName);
+        return new Condition(Column.COMPANY, code, code);
+    }
+
+    /**
+     * @param machineId The id of the machine.
+     * @return a condition met by the InHouse parts made on the machine.
+     */
+    public static Condition machineIs(int machineId) {
+        return new Condition(Column.MACHINE, machineId, machineId);
+    }
+
+    /**
+     * Adds a condition every part returned must meet.
+     * @param condition The condition.
+     * @return this query.
+     */
+    public PartQuery where(Condition condition) {
+        conditions.add(Objects.requireNonNull(condition));
+        return this;
+    }
+
+    /**
+     * Sorts the parts returned by a field. Called again, sorts the parts with equal values by the next field.
+     * @param field The field.
+     * @param descending Whether to put the highest values first.
+     * @return this query.
+     */
+    public PartQuery orderBy(Field field, boolean descending) {
+        order.add(descending ? field.comparator.reversed() : field.comparator);
+        return this;
+    }
+
+    /**
+     * Skips the first matching parts, for paging through the results.
+     * @param offset The number of parts to skip.
+     * @return this query.
+     */
+    public PartQuery offset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Returns no more than the given number of parts.
+     * @param limit The most parts to return.
+     * @return this query.
+     */
+    public PartQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Runs the query.
+     * @return the parts that meet every condition, sorted, skipped and limited as asked.
+     */
+    public List<Part> list() {
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.PART_QUERY);
+        List<Part> parts = page(matches());
+        InventoryMetrics.end(InventoryMetrics.Operation.PART_QUERY, start);
+        event.finish(Inventory.getAllParts().size(), parts.size());
+        return parts;
+    }
+
+    /**
+     * Runs the query and keeps only some of each part.
+     * @param projection Reads what to keep of a part, such as Part::getName.
+     * @param <R> The type of what is kept.
+     * @return what was kept of each part list() would return, in the same order.
+     */
+    public <R> List<R> select(Function<? super Part, ? extends R> projection) {
+        return list().stream().map(projection).collect(Collectors.toList());
+    }
+
+    /**
+     * Counts the parts that meet every condition, ignoring offset() and limit().
+     * @return the number of parts.
+     */
+    public int count() {
+        if (hasImpossibleCondition()) {
+            return 0;
+        }
+        Condition indexCondition = chooseIndex();
+        if (indexCondition != null) {
+            Predicate<Part> test = rowTest();
+            return (int) indexCondition.indexedParts().stream().filter(test).count();
+        }
+        PartColumns columns = Inventory.partColumns();
+        IntPredicate test = compile(columns);
+        return (int) IntStream.range(0, columns.size()).parallel().filter(test).count();
+    }
+
+    /**
+     * Describes how the query would be run now, without running it.
+     * @return the plan, such as "index on machine = 103 (41 parts), then test machine = 103 and stock between 0 and 5".
+     */
+    public String explain() {
+        if (hasImpossibleCondition()) {
+            return "no parts, as a condition can never be met";
+        }
+        String tests = sortedConditions().stream().map(Condition::toString).collect(Collectors.joining(" and "));
+        Condition indexCondition = chooseIndex();
+        if (indexCondition != null) {
+            return "index on " + indexCondition + " (" + indexCondition.indexedParts().size() + " parts), then test " + tests;
+        }
+        String testing = conditions.isEmpty() ? "" : ", testing " + tests;
+        if (order.isEmpty() && limit != Integer.MAX_VALUE) {
+            return "scan of " + Inventory.getAllParts().size() + " parts until " + ((long) offset + limit) + " match" + testing;
+        }
+        return "parallel scan of " + Inventory.getAllParts().size() + " parts" + testing;
+    }
+
+    /**
+     * Finds the parts that meet every condition, following the plan.
+     * @return the parts, sorted if asked but not yet skipped or limited.
+     */
+    private List<Part> matches() {
+        if (hasImpossibleCondition() || limit == 0) {
+            return new ArrayList<>();
+        }
+        List<Part> parts;
+        Condition indexCondition = chooseIndex();
+        if (indexCondition != null) {
+            Predicate<Part> test = rowTest();
+            parts = new ArrayList<>();
+            for (Part part : indexCondition.indexedParts()) {
+                if (test.test(part)) {
+                    parts.add(part);
+                }
+            }
+        } else {
+            PartColumns columns = Inventory.partColumns();
+            IntPredicate test = compile(columns);
+            int[] rows;
+            if (order.isEmpty() && limit != Integer.MAX_VALUE) {
+                // Only the first parts found are wanted, so stop once there are enough
+                rows = IntStream.range(0, columns.size()).filter(test).limit((long) offset + limit).toArray();
+            } else {
+                rows = IntStream.range(0, columns.size()).parallel().filter(test).toArray();
+            }
+            parts = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                parts.add(columns.rows[row]);
+            }
+        }
+        if (!order.isEmpty()) {
+            Comparator<Part> comparator = order.get(0);
+            for (int i = 1; i < order.size(); i++) {
+                comparator = comparator.thenComparing(order.get(i));
+            }
+            long wanted = (long) offset + limit;
+            if (wanted < parts.size() / 2) {
+                // Only the first few in order are wanted, so keep just those rather than sorting every match
+                parts = firstInOrder(parts, (int) wanted, comparator);
+            } else {
+                parts.sort(comparator);
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Selects the first parts in order without sorting all of them, keeping the best so far in a bounded heap.
+     * @param parts The matching parts.
+     * @param wanted The number of parts wanted, fewer than there are parts.
+     * @param comparator The order.
+     * @return the first wanted parts, sorted.
+     */
+    private static List<Part> firstInOrder(List<Part> parts, int wanted, Comparator<Part> comparator) {
+        PriorityQueue<Part> best = new PriorityQueue<>(wanted + 1, comparator.reversed());
+        for (Part part : parts) {
+            if (best.size() < wanted) {
+                best.add(part);
+            } else if (comparator.compare(part, best.peek()) < 0) {
+                best.poll();
+                best.add(part);
+            }
+        }
+        List<Part> first = new ArrayList<>(best);
+        first.sort(comparator);
+        return first;
+    }
+
+    /**
+     * Skips and limits the matching parts.
+     * @param parts The matching parts, in order.
+     * @return the parts asked for.
+     */
+    private List<Part> page(List<Part> parts) {
+        int from = Math.min(offset, parts.size());
+        int to = (int) Math.min(parts.size(), (long) from + limit);
+        return from == 0 && to == parts.size() ? parts : new ArrayList<>(parts.subList(from, to));
+    }
+
+    /**
+     * @return whether a condition can never be met, so the query matches no parts.
+     */
+    private boolean hasImpossibleCondition() {
+        for (Condition condition : conditions) {
+            if (condition.isImpossible()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Picks the index that narrows the parts down the most, if any does so enough to be worth reading part by part.
+     * @return the condition the index answers, or null to scan.
+     */
+    private Condition chooseIndex() {
+        Condition best = null;
+        int bestSize = Integer.MAX_VALUE;
+        for (Condition condition : conditions) {
+            Collection<Part> indexedParts = condition.indexedParts();
+            if (indexedParts != null && indexedParts.size() < bestSize) {
+                best = condition;
+                bestSize = indexedParts.size();
+            }
+        }
+        if (best != null && (long) bestSize * INDEX_FRACTION > Inventory.getAllParts().size()) {
+            return null;
+        }
+        return best;
+    }
+
+    /**
+     * @return the conditions in the order they are tested, cheapest first.
+     */
+    private List<Condition> sortedConditions() {
+        List<Condition> sorted = new ArrayList<>(conditions);
+        sorted.sort(Comparator.comparing((Condition condition) -> condition.column));
+        return sorted;
+    }
+
+    /**
+     * Compiles every condition into a single test of a row of a snapshot.
+     * @param columns The snapshot.
+     * @return the test, given the row's index.
+     */
+    private IntPredicate compile(PartColumns columns) {
+        IntPredicate test = null;
+        for (Condition condition : sortedConditions()) {
+            IntPredicate next = condition.compile(columns);
+            test = test == null ? next : test.and(next);
+        }
+        return test == null ? row -> true : test;
+    }
+
+    /**
+     * Combines every condition into a single test of a part, for the parts read from an index.
+     * @return the test.
+     */
+    private Predicate<Part> rowTest() {
+        List<Condition> sorted = sortedConditions();
+        return part -> {
+            for (Condition condition : sorted) {
+                if (!condition.test(part)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * @param part A part.
+     * @return the PartColumns type of the part.
+     */
+    private static byte typeOf(Part part) {
+        if (part instanceof InHouse) {
+            return PartColumns.IN_HOUSE;
+        }
+        return part instanceof Outsourced ? PartColumns.OUTSOURCED : PartColumns.OTHER;
+    }
+}
@@ -1,7 +1,12 @@
 package model;
 
-import javafx.collections.FXCollections;
+import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.collections.ObservableList;
+import utils.InventoryMetrics;
+import utils.InventoryOperationEvent;
+
+import java.util.ArrayList;
+import java.util.List;
 
 
 /**
@@ -12,9 +17,9 @@ public class Product {
 
     // Declare Fields
     /**
-     * The list of associated parts for the product.
+     * The list of associated parts for the product, which holds their ids and reads each part from the Inventory.
      */
-    private final ObservableList<Part> associatedParts = FXCollections.observableArrayList();
+    private final AssociatedPartList associatedParts = new AssociatedPartList(this);
 
     /**
      * The ID of the product.
@@ -22,20 +27,25 @@ public class Product {
     private int id;
 
     /**
-     * The name of the product.
+     * The code of the product's name in StringDictionary.NAMES.
      */
-    private String name;
+    private int name;
 
     /**
-     * The price of the product.
+     * The price of the product in minor units, see Money.
      */
-    private double price;
+    private long price;
 
     /**
-     * The stock level of the product.
+     * The stock level of the product, including the stock at every location.
      */
     private int stock;
 
+    /**
+     * The stock of the product at each location, created when stock is first put at a location.
+     */
+    private volatile LocationStock locations;
+
     /**
      * The minimum allowed stock level for the product.
      */
@@ -46,6 +56,10 @@ public class Product {
      */
     private int max;
 
+    /**
+     * The properties the tables watch the product through, created when a table first shows the product.
+     */
+    private volatile RowProperties properties;
 
     // Declare Methods
 
@@ -60,8 +74,8 @@ public class Product {
      */
     public Product(int id, String name, double price, int stock, int min, int max){
         this.id = id;
-        this.name = name;
-        this.price = price;
+        this.name = StringDictionary.NAMES.encode(name);
+        this.price = Money.fromDouble(price);
         this.stock = stock;
         this.min = min;
         this.max = max;
@@ -81,6 +95,7 @@ public class Product {
      */
     public void setId(int id) {
         this.id = id;
+        changed();
     }
 
     /**
@@ -88,6 +103,14 @@ public class Product {
      * @return the name
      */
     public String getName() {
+        return StringDictionary.NAMES.decode(name);
+    }
+
+    /**
+     * Returns the code of the product name, which is equal for products with equal names.
+     * @return the code of the name in StringDictionary.NAMES
+     */
+    public int getNameCode() {
         return name;
     }
 
@@ -96,7 +119,8 @@ public class Product {
      * @param name the name to set
      */
     public void setName(String name) {
-        this.name = name;
+        this.name = StringDictionary.NAMES.encode(name);
+        changed();
     }
 
     /**
@@ -104,15 +128,33 @@ public class Product {
      * @return the price
      */
     public double getPrice() {
-        return price;
+        return Money.toDouble(price);
     }
 
     /**
-     * Sets the product price.
+     * Sets the product price, rounded to the nearest minor unit.
      * @param price the price to set
      */
     public void setPrice(double price) {
+        this.price = Money.fromDouble(price);
+        changed();
+    }
+
+    /**
+     * Returns the exact product price in minor units.
+     * @return the price in minor units
+     */
+    public long getPriceMinor() {
+        return price;
+    }
+
+    /**
+     * Sets the product price in minor units.
+     * @param price the price to set in minor units
+     */
+    public void setPriceMinor(long price) {
         this.price = price;
+        changed();
     }
 
     /**
@@ -124,11 +166,172 @@ public class Product {
     }
 
     /**
-     * Sets the stock level for the product.
-     * @param stock the stock to set
+     * Sets the stock level for the product. The stock at each location is kept, and the unassigned stock becomes whatever is
+     * left over.
+     * @param stock the stock to set, which must not be less than the stock at the locations
      */
     public void setStock(int stock) {
-        this.stock = stock;
+        LocationStock stockLocations = locations;
+        if (stockLocations == null) {
+            synchronized (this) {
+                stockLocations = locations;
+                if (stockLocations == null) {
+                    // The locations are only created while holding this lock, so none can appear while the stock is set
+                    this.stock = stock;
+                }
+            }
+        }
+        if (stockLocations != null) {
+            synchronized (stockLocations) {
+                long located = stockLocations.located();
+                if (stock < located) {
+                    throw new IllegalArgumentException("Stock " + stock + " is less than the " + located + " held at locations");
+                }
+                this.stock = stock;
+            }
+        }
+        changed();
+    }
+
+    /**
+     * Returns the stock of the product at a location.
+     * @param location the name of the location, or null for the unassigned stock that is not at any location
+     * @return the stock at the location
+     */
+    public int getStockAt(String location) {
+        LocationStock stockLocations = locations;
+        if (location == null) {
+            return stock - getLocatedStock();
+        }
+        int code = StringDictionary.LOCATIONS.codeOf(location);
+        return stockLocations == null || code == StringDictionary.NULL_CODE ? 0 : stockLocations.get(code);
+    }
+
+    /**
+     * Returns the stock of the product at all the locations together.
+     * @return the stock that is not unassigned
+     */
+    public int getLocatedStock() {
+        LocationStock stockLocations = locations;
+        return stockLocations == null ? 0 : (int) stockLocations.located();
+    }
+
+    /**
+     * Returns the names of the locations holding stock of the product.
+     * @return the location names
+     */
+    public List<String> getStockLocations() {
+        LocationStock stockLocations = locations;
+        return stockLocations == null ? List.of() : stockLocations.names();
+    }
+
+    /**
+     * Adjusts the stock at a location, and the stock level with it. Increases always succeed. Decreases are refused if they
+     * would take the location below zero.
+     * @param location the name of the location, or null for the unassigned stock
+     * @param delta the amount to add to the location, negative to remove stock
+     * @return true if the stock was adjusted
+     */
+    public boolean adjustStockAt(String location, int delta) {
+        if (delta == 0) {
+            return true;
+        }
+        LocationStock stockLocations = locations();
+        synchronized (stockLocations) {
+            if (location == null) {
+                if (delta < 0 && stock - stockLocations.located() < -(long) delta) {
+                    return false;
+                }
+            } else {
+                int code = StringDictionary.LOCATIONS.encode(location);
+                if (delta < 0 && stockLocations.get(code) < -(long) delta) {
+                    return false;
+                }
+                stockLocations.beginChange();
+                stockLocations.add(code, delta);
+                stockLocations.endChange();
+            }
+            stock += delta;
+        }
+        changed();
+        return true;
+    }
+
+    /**
+     * Moves stock of the product from one location to another. The two locations change together and the stock level is
+     * unchanged.
+     * @param from the name of the location to take the stock from, or null for the unassigned stock
+     * @param to the name of the location to put the stock at, or null for the unassigned stock
+     * @param quantity the quantity to move
+     * @return true if the stock was moved, false if the location it is taken from holds less than the quantity
+     */
+    public boolean transferStock(String from, String to, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative: " + quantity);
+        }
+        LocationStock stockLocations = locations();
+        int fromCode = from == null ? StringDictionary.NULL_CODE : StringDictionary.LOCATIONS.encode(from);
+        int toCode = to == null ? StringDictionary.NULL_CODE : StringDictionary.LOCATIONS.encode(to);
+        synchronized (stockLocations) {
+            int available = fromCode == StringDictionary.NULL_CODE ? stock - (int) stockLocations.located() : stockLocations.get(fromCode);
+            if (available < quantity) {
+                return false;
+            }
+            if (quantity > 0 && fromCode != toCode) {
+                stockLocations.beginChange();
+                if (fromCode != StringDictionary.NULL_CODE) {
+                    stockLocations.add(fromCode, -quantity);
+                }
+                if (toCode != StringDictionary.NULL_CODE) {
+                    stockLocations.add(toCode, quantity);
+                }
+                stockLocations.endChange();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes over the stock at each location of the product this product is replacing, leaving the rest of this product's
+     * stock unassigned, so editing a product keeps its locations.
+     * @param original the product being replaced
+     * @return true if the locations were taken over, false if this product's stock is less than the stock at them
+     */
+    boolean takeLocationStock(Product original) {
+        LocationStock originalLocations = original.locations;
+        if (originalLocations == null || originalLocations == locations) {
+            return true;
+        }
+        LocationStock stockLocations = locations();
+        synchronized (originalLocations) {
+            synchronized (stockLocations) {
+                if (stock < originalLocations.located()) {
+                    return false;
+                }
+                stockLocations.beginChange();
+                stockLocations.copyFrom(originalLocations);
+                stockLocations.endChange();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates the stock locations the first time they are needed.
+     * @return the stock locations
+     */
+    private LocationStock locations() {
+        LocationStock stockLocations = locations;
+        if (stockLocations == null) {
+            synchronized (this) {
+                stockLocations = locations;
+                if (stockLocations == null) {
+                    stockLocations = new LocationStock();
+                    locations = stockLocations;
+                }
+            }
+        }
+        return stockLocations;
     }
 
     /**
@@ -163,12 +366,72 @@ public class Product {
         this.max = max;
     }
 
+    /**
+     * Returns the product id as a property the tables can watch.
+     * @return the id property
+     */
+    public ReadOnlyObjectProperty<Integer> idProperty() {
+        return properties().id();
+    }
+
+    /**
+     * Returns the product name as a property the tables can watch.
+     * @return the name property
+     */
+    public ReadOnlyObjectProperty<String> nameProperty() {
+        return properties().name();
+    }
+
+    /**
+     * Returns the stock level for the product as a property the tables can watch.
+     * @return the stock property
+     */
+    public ReadOnlyObjectProperty<Integer> stockProperty() {
+        return properties().stock();
+    }
+
+    /**
+     * Returns the product price in minor units as a property the tables can watch.
+     * @return the price property
+     */
+    public ReadOnlyObjectProperty<Long> priceMinorProperty() {
+        return properties().priceMinor();
+    }
+
+    /**
+     * Creates the properties the first time one is asked for. Called on the JavaFX Application Thread.
+     * @return the properties
+     */
+    private RowProperties properties() {
+        RowProperties rowProperties = properties;
+        if (rowProperties == null) {
+            rowProperties = new RowProperties(this::getId, this::getName, this::getStock, this::getPriceMinor, null);
+            properties = rowProperties;
+        }
+        return rowProperties;
+    }
+
+    /**
+     * Updates the properties, if a table has asked for them, after the product has changed.
+     */
+    private void changed() {
+        RowProperties rowProperties = properties;
+        if (rowProperties != null) {
+            rowProperties.changed();
+        }
+    }
+
     /**
      * Adds the selected Part to the list of associated parts for the Product.
      * @param selectedPart The Part to add to the list of associated parts.
      */
     public void addAssociatedPart(Part selectedPart){
+       long start = InventoryMetrics.begin();
+       InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.ASSOCIATED_PARTS_CHANGE);
        associatedParts.add(selectedPart);
+       Inventory.associatedPartsChanged(this);
+       InventoryMetrics.end(InventoryMetrics.Operation.ASSOCIATED_PARTS_CHANGE, start);
+       event.finish(associatedParts.size(), 1);
     }
 
     /**
@@ -177,6 +440,8 @@ public class Product {
      * @return A boolean indicating whether the Associated Part was successfully deleted.
      */
     public boolean deleteAssociatedPart(Part selectedAssociatedPart){
+        long start = InventoryMetrics.begin();
+        InventoryOperationEvent event = InventoryOperationEvent.start(InventoryMetrics.Operation.ASSOCIATED_PARTS_CHANGE);
         // Find the index of the selected part in the associatedParts list
         int selectedAssociatedPartIndex = associatedParts.indexOf(selectedAssociatedPart);
 
@@ -184,8 +449,13 @@ public class Product {
         if(selectedAssociatedPartIndex >= 0){
             // Remove the selected part from the associatedParts list
             associatedParts.remove(selectedAssociatedPartIndex);
+            Inventory.associatedPartsChanged(this);
+            InventoryMetrics.end(InventoryMetrics.Operation.ASSOCIATED_PARTS_CHANGE, start);
+            event.finish(associatedParts.size(), 1);
             return true;
         }
+        InventoryMetrics.end(InventoryMetrics.Operation.ASSOCIATED_PARTS_CHANGE, start);
+        event.finish(associatedParts.size(), 0);
         return false;
     }
 
@@ -197,5 +467,63 @@ public class Product {
         return associatedParts;
     }
 
+    /**
+     * Retrieves the ids of the associated parts, without reading the parts.
+     * @return a copy of the ids, in the order of the associated parts list.
+     */
+    public int[] getAssociatedPartIds() {
+        return associatedParts.ids();
+    }
+
+    /**
+     * Retrieves the associated parts that are no longer in the Inventory, such as a part deleted while the product still
+     * listed it. Each part is checked with a single lookup in the Inventory's id index.
+     * @return the missing parts, in the order of the associated parts list.
+     */
+    public List<Part> getMissingAssociatedParts() {
+        List<Part> missingParts = new ArrayList<>();
+        for (int partId : associatedParts.ids()) {
+            if (Inventory.indexedPart(partId) == null) {
+                missingParts.add(associatedParts.get(associatedParts.indexOfId(partId)));
+            }
+        }
+        return missingParts;
+    }
+
+    /**
+     * @param partId The id of a part.
+     * @return whether the part is among the associated parts.
+     */
+    boolean listsAssociatedPart(int partId) {
+        return associatedParts.indexOfId(partId) >= 0;
+    }
+
+    /**
+     * Removes every listing of a part from the associated parts, as a single change to the list.
+     * @param partId The id of the part.
+     */
+    void removeAssociatedPartId(int partId) {
+        if (associatedParts.removeId(partId)) {
+            Inventory.associatedPartsChanged(this);
+        }
+    }
+
+    /**
+     * Keeps an associated part that has just been deleted from the Inventory, so the product can still show it.
+     * @param part The deleted part.
+     */
+    void associatedPartDeleted(Part part) {
+        associatedParts.partDeleted(part);
+    }
+
+    /**
+     * Tells the listeners of the associated parts list that an associated part was replaced in the Inventory.
+     * @param oldPart The part that was replaced, or null if the part was added back after being deleted.
+     * @param part The part that replaced it.
+     */
+    void associatedPartReplaced(Part oldPart, Part part) {
+        associatedParts.partReplaced(oldPart, part);
+    }
+
 
 }
@@ -0,0 +1,399 @@
+package model;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The PulseBridge class lets background threads add, update and delete parts and products without touching the
+ * Inventory's lists, which the tables are bound to and which may only change on the JavaFX Application Thread. Changes
+ * are queued from any thread and applied once per animation pulse, so a background job making thousands of changes a
+ * second costs one Platform.runLater, not one per change.
+ * <p></p>
+ * Each pulse has a time budget, 8 ms by default or set with -Dims.pulse.budgetMillis, so it still finishes within a
+ * 60 Hz frame while a million rows are being imported. A pulse takes as many queued changes as earlier pulses show fit in
+ * the budget, and stops taking them early if the budget runs out. The changes taken are first combined by id, so a part
+ * added and then updated is added once, and a part added and then deleted is never shown at all. The rest are applied to
+ * each list as a single list change: the rows deleted and updated are found through the id index, and the additions
+ * appended at the end, so apart from moving the rows after a deletion down, a pulse's cost grows with its changes rather
+ * than with the rows. Each change is also published to the Inventory's change feed as it is applied.
+ * <p></p>
+ * Changes are applied in the order they were queued. The bridge assumes ids are unique, as the Inventory does. Changes
+ * made on the JavaFX Application Thread through the Inventory itself apply straight away, ahead of any changes still
+ * queued here.
+ */
+public final class PulseBridge {
+
+    /**
+     * The kinds of change that can be queued.
+     */
+    private enum Kind {
+        ADD,
+        UPDATE,
+        DELETE,
+        // A delete followed by an add of the same id, which removes the old row and appends the new one
+        REPLACE
+    }
+
+    /**
+     * A queued change to one of the lists.
+     */
+    private static final class Change {
+
+        /**
+         * The kind of change.
+         */
+        private final Kind kind;
+
+        /**
+         * The part changed, or null for a change to a product.
+         */
+        private final Part part;
+
+        /**
+         * The product changed, or null for a change to a part.
+         */
+        private final Product product;
+
+        /**
+         * Creates a Change.
+         * @param kind The kind of change.
+         * @param part The part changed, or null.
+         * @param product The product changed, or null.
+         */
+        private Change(Kind kind, Part part, Product product) {
+            this.kind = kind;
+            this.part = part;
+            this.product = product;
+        }
+    }
+
+    /**
+     * The changes queued for one list in a pulse, combined by id.
+     * @param <E> Part or Product.
+     */
+    private static final class Batch<E> {
+
+        /**
+         * The latest combined change for each id, in the order the ids were first added, or first changed otherwise.
+         */
+        private final Map<Integer, Kind> kinds = new LinkedHashMap<>();
+
+        /**
+         * The latest element queued for each id.
+         */
+        private final Map<Integer, E> elements = new HashMap<>();
+
+        /**
+         * Combines a change with the changes already taken for the same id.
+         * @param id The id of the element.
+         * @param kind The kind of change.
+         * @param element The element.
+         */
+        private void add(int id, Kind kind, E element) {
+            Kind previous = kinds.get(id);
+            Kind combined = combine(previous, kind);
+            if (combined == null) {
+                kinds.remove(id);
+                elements.remove(id);
+                return;
+            }
+            if (combined != previous && (combined == Kind.ADD || combined == Kind.REPLACE)) {
+                // An element that becomes an addition is appended after the additions queued before it
+                kinds.remove(id);
+            }
+            kinds.put(id, combined);
+            elements.put(id, element);
+        }
+
+        /**
+         * Works out the change that has the same effect as two changes made one after the other.
+         * @param first The change made first, or null if there is none.
+         * @param second The change made second.
+         * @return the combined change, or null if together they change nothing.
+         */
+        private static Kind combine(Kind first, Kind second) {
+            if (first == null) {
+                return second;
+            }
+            switch (second) {
+                case UPDATE:
+                    // Updating a deleted element changes nothing, and an update of an addition is still an addition
+                    return first;
+                case DELETE:
+                    return first == Kind.ADD ? null : Kind.DELETE;
+                default:
+                    return first == Kind.DELETE || first == Kind.REPLACE ? Kind.REPLACE : Kind.ADD;
+            }
+        }
+
+        /**
+         * @return whether no changes have been taken.
+         */
+        private boolean isEmpty() {
+            return kinds.isEmpty();
+        }
+
+        /**
+         * @return the ids of the elements to remove, including those removed before being appended again.
+         */
+        private Set<Integer> deletedIds() {
+            Set<Integer> ids = new LinkedHashSet<>();
+            kinds.forEach((id, kind) -> {
+                if (kind == Kind.DELETE || kind == Kind.REPLACE) {
+                    ids.add(id);
+                }
+            });
+            return ids;
+        }
+
+        /**
+         * @return the elements to put in place of the elements with the same ids.
+         */
+        private Map<Integer, E> updatedElements() {
+            Map<Integer, E> updated = new HashMap<>();
+            kinds.forEach((id, kind) -> {
+                if (kind == Kind.UPDATE) {
+                    updated.put(id, elements.get(id));
+                }
+            });
+            return updated;
+        }
+
+        /**
+         * @return the elements to append, in order.
+         */
+        private List<E> addedElements() {
+            List<E> added = new ArrayList<>();
+            kinds.forEach((id, kind) -> {
+                if (kind == Kind.ADD || kind == Kind.REPLACE) {
+                    added.add(elements.get(id));
+                }
+            });
+            return added;
+        }
+    }
+
+    // Declare Fields
+
+    /**
+     * The time each pulse may spend applying changes, in nanoseconds.
+     */
+    public static final long PULSE_BUDGET_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Math.max(1, Integer.getInteger("ims.pulse.budgetMillis", 8)));
+
+    /**
+     * The most changes the first pulse takes, before the cost of a change has been measured.
+     */
+    private static final int FIRST_PULSE_CHANGES = 1024;
+
+    /**
+     * The number of changes taken between checks of the time while taking them.
+     */
+    private static final int CHANGES_PER_CLOCK_CHECK = 256;
+
+    /**
+     * The changes waiting to be applied, oldest first.
+     */
+    private static final Queue<Change> QUEUE = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of changes in QUEUE. ConcurrentLinkedQueue.size() has to count them.
+     */
+    private static final AtomicInteger QUEUED = new AtomicInteger();
+
+    /**
+     * Whether the timer is running or has been asked to start.
+     */
+    private static final AtomicBoolean SCHEDULED = new AtomicBoolean();
+
+    /**
+     * Applies the queued changes on each pulse while there are any. Only used on the JavaFX Application Thread.
+     */
+    private static AnimationTimer timer;
+
+    /**
+     * The time a change has taken to apply, in nanoseconds, averaged over the latest pulses that left changes queued.
+     * Only used on the JavaFX Application Thread.
+     */
+    private static double nanosPerChange = (double) PULSE_BUDGET_NANOS / FIRST_PULSE_CHANGES;
+
+    // Declare Methods
+
+    /**
+     * PulseBridge only has static methods.
+     */
+    private PulseBridge() {
+    }
+
+    /**
+     * Queues a part to be appended to the allParts list. May be called from any thread.
+     * @param part The part to add.
+     */
+    public static void addPart(Part part) {
+        queue(new Change(Kind.ADD, part, null));
+    }
+
+    /**
+     * Queues a part to take the place of the part with the same id. Nothing happens if there is no such part by the
+     * time the change is applied. May be called from any thread.
+     * @param part The updated part.
+     */
+    public static void updatePart(Part part) {
+        queue(new Change(Kind.UPDATE, part, null));
+    }
+
+    /**
+     * Queues the part with the given part's id to be removed. May be called from any thread.
+     * @param part The part to delete.
+     */
+    public static void deletePart(Part part) {
+        queue(new Change(Kind.DELETE, part, null));
+    }
+
+    /**
+     * Queues a product to be appended to the allProducts list. May be called from any thread.
+     * @param product The product to add.
+     */
+    public static void addProduct(Product product) {
+        queue(new Change(Kind.ADD, null, product));
+    }
+
+    /**
+     * Queues a product to take the place of the product with the same id. Nothing happens if there is no such product
+     * by the time the change is applied. May be called from any thread.
+     * @param product The updated product.
+     */
+    public static void updateProduct(Product product) {
+        queue(new Change(Kind.UPDATE, null, product));
+    }
+
+    /**
+     * Queues the product with the given product's id to be removed. May be called from any thread.
+     * @param product The product to delete.
+     */
+    public static void deleteProduct(Product product) {
+        queue(new Change(Kind.DELETE, null, product));
+    }
+
+    /**
+     * @return the number of changes waiting to be applied.
+     */
+    public static int getQueuedCount() {
+        return QUEUED.get();
+    }
+
+    /**
+     * Applies every queued change straight away rather than over the coming pulses, such as before reading the lists.
+     * Must be called on the JavaFX Application Thread.
+     */
+    public static void flush() {
+        while (apply(Integer.MAX_VALUE, Long.MAX_VALUE) > 0) {
+            // Keep going until changes queued while applying are applied too
+        }
+    }
+
+    /**
+     * Queues a change, and starts the timer if it is not already running.
+     * @param change The change.
+     */
+    private static void queue(Change change) {
+        QUEUE.add(change);
+        QUEUED.incrementAndGet();
+        schedule();
+    }
+
+    /**
+     * Starts the timer on the JavaFX Application Thread, unless it is already running or about to start.
+     */
+    private static void schedule() {
+        if (SCHEDULED.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                if (timer == null) {
+                    timer = new AnimationTimer() {
+                        @Override
+                        public void handle(long now) {
+                            pulse();
+                        }
+                    };
+                }
+                timer.start();
+            });
+        }
+    }
+
+    /**
+     * Applies as many queued changes as fit in one pulse's time budget straight away, as the timer does on each pulse.
+     * Must be called on the JavaFX Application Thread.
+     * @return the number of changes applied.
+     */
+    public static int applyPulse() {
+        long start = System.nanoTime();
+        int maxChanges = (int) Math.max(1, Math.min(Integer.MAX_VALUE, PULSE_BUDGET_NANOS / nanosPerChange));
+        int taken = apply(maxChanges, start + PULSE_BUDGET_NANOS);
+        // A pulse that emptied the queue says little about how many changes fit, so only pulses that left changes are measured
+        if (taken > 0 && QUEUED.get() > 0) {
+            double measured = (double) (System.nanoTime() - start) / taken;
+            // Halfway to the latest measure, so one slow pulse, such as one held up by garbage collection, only halves the next
+            nanosPerChange = (nanosPerChange + measured) / 2;
+        }
+        return taken;
+    }
+
+    /**
+     * Applies the next changes on a pulse, and stops the timer once the queue is empty so idle pulses are not requested.
+     */
+    private static void pulse() {
+        applyPulse();
+        if (QUEUED.get() == 0) {
+            timer.stop();
+            SCHEDULED.set(false);
+            // A change queued after the check above but before the flag was cleared would otherwise wait for the next one
+            if (QUEUED.get() > 0) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * Takes queued changes, combines them by id and applies them to the lists.
+     * @param maxChanges The most changes to take.
+     * @param deadline The System.nanoTime() after which no more changes are taken.
+     * @return the number of changes taken.
+     */
+    private static int apply(int maxChanges, long deadline) {
+        Batch<Part> parts = new Batch<>();
+        Batch<Product> products = new Batch<>();
+        int taken = 0;
+        Change change;
+        while (taken < maxChanges && (taken % CHANGES_PER_CLOCK_CHECK != 0 || System.nanoTime() < deadline)
+                && (change = QUEUE.poll()) != null) {
+            taken++;
+            if (change.part != null) {
+                parts.add(change.part.getId(), change.kind, change.part);
+            } else {
+                products.add(change.product.getId(), change.kind, change.product);
+            }
+        }
+        QUEUED.addAndGet(-taken);
+        if (!parts.isEmpty()) {
+            Inventory.applyPartChanges(parts.deletedIds(), parts.updatedElements(), parts.addedElements());
+        }
+        if (!products.isEmpty()) {
+            Inventory.applyProductChanges(products.deletedIds(), products.updatedElements(), products.addedElements());
+        }
+        return taken;
+    }
+}
@@ -0,0 +1,178 @@
+package model;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The RowProperties class holds the JavaFX properties that the tables read a Part or Product through, so a cell updates in
+ * place when its row changes. A Part or Product only creates its RowProperties when a table first asks for a property, so
+ * rows that are never shown pay for nothing more than a null field.
+ * <p></p>
+ * The model can change on any thread, but the properties only change on the JavaFX Application Thread. A change made on
+ * another thread queues a single refresh, which reads the latest values, so a burst of stock adjustments costs one update.
+ */
+final class RowProperties {
+
+    // Declare Fields
+
+    /**
+     * The id shown in the table.
+     */
+    private final ReadOnlyObjectWrapper<Integer> id = new ReadOnlyObjectWrapper<>();
+
+    /**
+     * The name shown in the table.
+     */
+    private final ReadOnlyObjectWrapper<String> name = new ReadOnlyObjectWrapper<>();
+
+    /**
+     * The stock shown in the table.
+     */
+    private final ReadOnlyObjectWrapper<Integer> stock = new ReadOnlyObjectWrapper<>();
+
+    /**
+     * The price in minor units shown in the table.
+     */
+    private final ReadOnlyObjectWrapper<Long> priceMinor = new ReadOnlyObjectWrapper<>();
+
+    /**
+     * The days of cover shown in the table, for a part.
+     */
+    private final ReadOnlyObjectWrapper<Double> daysOfCover = new ReadOnlyObjectWrapper<>();
+
+    /**
+     * Reads the row's id.
+     */
+    private final IntSupplier idSource;
+
+    /**
+     * Reads the row's name.
+     */
+    private final Supplier<String> nameSource;
+
+    /**
+     * Reads the row's stock.
+     */
+    private final IntSupplier stockSource;
+
+    /**
+     * Reads the row's price in minor units.
+     */
+    private final LongSupplier priceMinorSource;
+
+    /**
+     * Reads the row's days of cover, or null for a row that has none.
+     */
+    private final DoubleSupplier daysOfCoverSource;
+
+    /**
+     * Whether a refresh has been queued on the JavaFX Application Thread and has not run yet.
+     */
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    // Declare Methods
+
+    /**
+     * Creates the properties of a row, holding the row's current values. Called on the JavaFX Application Thread.
+     * @param idSource Reads the row's id.
+     * @param nameSource Reads the row's name.
+     * @param stockSource Reads the row's stock.
+     * @param priceMinorSource Reads the row's price in minor units.
+     * @param daysOfCoverSource Reads the row's days of cover, or null for a row that has none.
+     */
+    RowProperties(IntSupplier idSource, Supplier<String> nameSource, IntSupplier stockSource, LongSupplier priceMinorSource,
+                  DoubleSupplier daysOfCoverSource) {
+        this.idSource = idSource;
+        this.nameSource = nameSource;
+        this.stockSource = stockSource;
+        this.priceMinorSource = priceMinorSource;
+        this.daysOfCoverSource = daysOfCoverSource;
+        refresh();
+    }
+
+    /**
+     * @return the id property
+     */
+    ReadOnlyObjectProperty<Integer> id() {
+        return id.getReadOnlyProperty();
+    }
+
+    /**
+     * @return the name property
+     */
+    ReadOnlyObjectProperty<String> name() {
+        return name.getReadOnlyProperty();
+    }
+
+    /**
+     * @return the stock property
+     */
+    ReadOnlyObjectProperty<Integer> stock() {
+        return stock.getReadOnlyProperty();
+    }
+
+    /**
+     * @return the price property, in minor units
+     */
+    ReadOnlyObjectProperty<Long> priceMinor() {
+        return priceMinor.getReadOnlyProperty();
+    }
+
+    /**
+     * @return the days of cover property, which stays null for a row that has none
+     */
+    ReadOnlyObjectProperty<Double> daysOfCover() {
+        return daysOfCover.getReadOnlyProperty();
+    }
+
+    /**
+     * Brings the properties up to date after the row has changed, straight away on the JavaFX Application Thread and
+     * otherwise with one queued refresh for however many changes arrive before it runs.
+     */
+    void changed() {
+        if (Platform.isFxApplicationThread()) {
+            refresh();
+        } else if (refreshQueued.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                // Clear the flag first, so a change made while refreshing queues another refresh
+                refreshQueued.set(false);
+                refresh();
+            });
+        }
+    }
+
+    /**
+     * Copies the row's current values into the properties.
+     */
+    private void refresh() {
+        update(id, idSource.getAsInt());
+        update(name, nameSource.get());
+        update(stock, stockSource.getAsInt());
+        update(priceMinor, priceMinorSource.getAsLong());
+        if (daysOfCoverSource != null) {
+            // Read on every refresh, as consumption changes it while the stock stays the same
+            update(daysOfCover, daysOfCoverSource.getAsDouble());
+        }
+    }
+
+    /**
+     * Sets a property unless it already holds an equal value. Boxed numbers are rarely the same object, so setting them
+     * regardless would redraw every cell in the row for each change.
+     * @param property The property to set.
+     * @param value The new value.
+     * @param <T> The type of the value.
+     */
+    private static <T> void update(ReadOnlyObjectWrapper<T> property, T value) {
+        if (!Objects.equals(property.get(), value)) {
+            property.set(value);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package model;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The StockAdjustmentPipeline class groups small stock adjustments, such as scanners reporting +1 or -1, into batches.
+ * <p></p>
+ * Adjustments submitted for the same part during one window (2 ms by default) are added together. At the end of the window
+ * the pipeline applies each part's net change to its stock once, appends one journal record per part, syncs the journal once
+ * for the whole batch, and only then completes the futures of every adjustment in the batch. A caller whose future has
+ * completed with true therefore knows its adjustment is both applied and durable.
+ * <p></p>
+ * If a part's net change would take its stock below zero, the adjustments in that part's batch are applied one at a time
+ * in the order they were submitted instead, and only the ones that would break the floor are refused.
+ */
+public class StockAdjustmentPipeline implements AutoCloseable {
+
+    // Declare Fields
+
+    /**
+     * The window used when none is given.
+     */
+    public static final Duration DEFAULT_WINDOW = Duration.ofMillis(2);
+
+    /**
+     * The journal that batches are written to.
+     */
+    private final StockJournal journal;
+
+    /**
+     * How long adjustments are collected before a batch is applied, in nanoseconds.
+     */
+    private final long windowNanos;
+
+    /**
+     * The open batch of each part that has adjustments waiting.
+     */
+    private final Map<Integer, Batch> openBatches = new ConcurrentHashMap<>();
+
+    /**
+     * The thread that applies and syncs batches.
+     */
+    private final Thread flusher;
+
+    private volatile boolean closed;
+
+    // Declare Constructors
+
+    /**
+     * Constructs a pipeline with the default window and starts its flusher thread.
+     * @param journal The journal that batches are written to.
+     */
+    public StockAdjustmentPipeline(StockJournal journal) {
+        this(journal, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Constructs a pipeline and starts its flusher thread.
+     * @param journal The journal that batches are written to.
+     * @param window How long adjustments are collected before a batch is applied.
+     */
+    public StockAdjustmentPipeline(StockJournal journal, Duration window) {
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+        this.journal = journal;
+        this.windowNanos = window.toNanos();
+        this.flusher = new Thread(this::runFlusher, "stock-adjustment-pipeline");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // Declare Methods
+
+    /**
+     * Submits a stock adjustment.
+     * @param partId The id of the part to adjust.
+     * @param delta The amount to add to the stock, negative to remove stock.
+     * @return a future that completes with true once the adjustment is applied and durable, with false if the part does
+     * not exist or the adjustment would have taken the stock below zero, or exceptionally if the journal could not be written.
+     */
+    public CompletableFuture<Boolean> submit(int partId, int delta) {
+        CompletableFuture<Boolean> acknowledgement = new CompletableFuture<>();
+        if (closed) {
+            acknowledgement.completeExceptionally(new IllegalStateException("The pipeline has been closed."));
+            return acknowledgement;
+        }
+        while (true) {
+            Batch batch = openBatches.computeIfAbsent(partId, Batch::new);
+            boolean added = false;
+            synchronized (batch) {
+                if (!batch.sealed) {
+                    batch.add(delta, acknowledgement);
+                    added = true;
+                }
+            }
+            if (added) {
+                if (closed) {
+                    // The pipeline was closed while this adjustment was being added and the flusher may already have stopped.
+                    flush();
+                }
+                return acknowledgement;
+            }
+            // The flusher sealed this batch after we found it. It has already been removed, so the next attempt opens a new one.
+        }
+    }
+
+    /**
+     * Stops accepting adjustments, applies whatever is waiting and stops the flusher thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Applies a batch every window until the pipeline is closed.
+     */
+    private void runFlusher() {
+        long nextFlush = System.nanoTime() + windowNanos;
+        while (!closed) {
+            long wait = nextFlush - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            flush();
+            nextFlush = System.nanoTime() + windowNanos;
+        }
+        flush();
+    }
+
+    /**
+     * Seals every open batch, applies the net changes, syncs the journal and acknowledges the callers.
+     */
+    private synchronized void flush() {
+        if (openBatches.isEmpty()) {
+            return;
+        }
+        List<Batch> sealedBatches = new ArrayList<>();
+        for (Integer partId : openBatches.keySet()) {
+            Batch batch = openBatches.remove(partId);
+            if (batch != null) {
+                synchronized (batch) {
+                    batch.sealed = true;
+                }
+                sealedBatches.add(batch);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        List<Part> changedParts = new ArrayList<>();
+        for (Batch batch : sealedBatches) {
+            Part part = Inventory.lookupPart(batch.partId);
+            if (part == null) {
+                continue;
+            }
+            batch.apply(part);
+            if (batch.appliedDelta != 0) {
+                journal.append(now, batch.partId, batch.appliedDelta, part.getStock(), batch.count);
+                changedParts.add(part);
+            }
+        }
+
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            // Nothing in this batch is durable, so undo it in memory on the part it was applied to and tell every caller.
+            for (Batch batch : sealedBatches) {
+                if (batch.part != null && !batch.part.revertStock(batch.appliedDelta)) {
+                    e.addSuppressed(new IllegalStateException("Undoing the change of " + batch.appliedDelta + " to part "
+                            + batch.partId + " left its stock at " + batch.part.getStockAt(null) + ", as the stock was used meanwhile."));
+                }
+            }
+            for (Batch batch : sealedBatches) {
+                batch.fail(e);
+            }
+            return;
+        }
+
+        for (Batch batch : sealedBatches) {
+            if (batch.consumed != 0) {
+                batch.part.recordConsumption(batch.consumed);
+            }
+            batch.acknowledge();
+        }
+        for (Part part : changedParts) {
+            Inventory.stockChanged(part);
+        }
+    }
+
+    /**
+     * The adjustments submitted for one part during one window.
+     */
+    private static final class Batch {
+        private final int partId;
+        private Part part;
+        private int[] deltas = new int[8];
+        private boolean[] accepted;
+        private final List<CompletableFuture<Boolean>> acknowledgements = new ArrayList<>();
+        private int count;
+        private long netDelta;
+        private int appliedDelta;
+        private int consumed;
+        private boolean sealed;
+
+        private Batch(int partId) {
+            this.partId = partId;
+        }
+
+        /**
+         * Adds an adjustment. Must be called while holding the batch's lock.
+         */
+        private void add(int delta, CompletableFuture<Boolean> acknowledgement) {
+            if (count == deltas.length) {
+                deltas = Arrays.copyOf(deltas, count * 2);
+            }
+            deltas[count++] = delta;
+            netDelta += delta;
+            acknowledgements.add(acknowledgement);
+        }
+
+        /**
+         * Applies the batch to the part's stock, as one net change if possible. Consumption is only counted once the batch
+         * is durable, so a batch that is undone leaves no trace in the consumption rates.
+         */
+        private void apply(Part part) {
+            this.part = part;
+            accepted = new boolean[count];
+            if (netDelta >= Integer.MIN_VALUE && netDelta <= Integer.MAX_VALUE && part.adjustStockUncounted((int) netDelta)) {
+                Arrays.fill(accepted, true);
+                appliedDelta = (int) netDelta;
+                consumed = Math.max(0, -appliedDelta);
+                return;
+            }
+            // The net change would break the floor, so apply the adjustments one by one and refuse those that do.
+            for (int i = 0; i < count; i++) {
+                if (part.adjustStockUncounted(deltas[i])) {
+                    accepted[i] = true;
+                    appliedDelta += deltas[i];
+                    if (deltas[i] < 0) {
+                        consumed -= deltas[i];
+                    }
+                }
+            }
+        }
+
+        private void acknowledge() {
+            for (int i = 0; i < count; i++) {
+                acknowledgements.get(i).complete(accepted != null && accepted[i]);
+            }
+        }
+
+        private void fail(Throwable cause) {
+            for (CompletableFuture<Boolean> acknowledgement : acknowledgements) {
+                acknowledgement.completeExceptionally(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,917 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The StockHistory class records the stock level of each part every time it changes, so audits can ask what the stock of
+ * a part was at any time and charts can plot it over years.
+ * <p></p>
+ * Each part's history is a series of chunks of up to {@value #CHUNK_BYTES} bytes. A chunk keeps its first sample, and the
+ * range of times and levels it covers, as plain fields, and every later sample as the change in time and in level since
+ * the sample before, each written as a variable-length integer. A typical sample then takes three to five bytes rather
+ * than the twelve a long and an int would take. Once the sealed chunks held in memory pass the memory budget, the oldest
+ * are written to the spill file and only their fields stay in memory.
+ * <p></p>
+ * Queries find the chunks they need from those fields and only decode the chunks that cross a boundary of the query. A
+ * chart of years of data then reads the fields of a few hundred chunks and decodes a handful of them.
+ * <p></p>
+ * A part's history starts when its stock is first changed, or first about to be, with the level before the change.
+ * <p></p>
+ * Changes recorded with recordChange() are buffered on the thread that records them, and appended to the histories in
+ * batches, once a thread has buffered {@value #BUFFERED_CHANGES} or before the histories are read. Each batch is appended
+ * with one lock per part rather than one per change, and a thread's changes to a part in the same millisecond are added as
+ * one sample of their sum, so threads changing the stock of the same part do not queue on its history. The levels a part
+ * passed through within a millisecond on one thread are then not kept, only where it ended.
+ */
+public final class StockHistory {
+
+    // Declare Fields
+
+    /**
+     * The largest size of a chunk's encoded samples, in bytes.
+     */
+    public static final int CHUNK_BYTES = 4096;
+
+    /**
+     * The most bytes a single encoded sample can take: a ten byte time change and a five byte level change.
+     */
+    private static final int MAX_SAMPLE_BYTES = 15;
+
+    /**
+     * The number of changes a thread buffers before appending them to the histories.
+     */
+    private static final int BUFFERED_CHANGES = 256;
+
+    /**
+     * The history of each part that has changed, by part id.
+     */
+    private final Map<Integer, Series> series = new ConcurrentHashMap<>();
+
+    /**
+     * The sealed chunks whose samples are still in memory, oldest first.
+     */
+    private final Queue<Chunk> inMemoryChunks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The bytes of samples held by the chunks in inMemoryChunks.
+     */
+    private final AtomicLong inMemoryBytes = new AtomicLong();
+
+    /**
+     * The bytes of sealed chunks to keep in memory before spilling the oldest to the spill file.
+     */
+    private final long memoryBudget;
+
+    /**
+     * The changes recorded with recordChange() and not yet appended, buffered on the threads that recorded them.
+     */
+    private final ThreadChangeBuffers changes = new ThreadChangeBuffers(BUFFERED_CHANGES, this::appendChanges);
+
+    /**
+     * The spill file, or null to create a temporary file on the first spill.
+     */
+    private Path spillFile;
+
+    /**
+     * The open spill file, or null until the first spill.
+     */
+    private FileChannel spillChannel;
+
+    /**
+     * Whether writing to the spill file has failed, after which sealed chunks are only kept in memory.
+     */
+    private volatile boolean spillFailed;
+
+    // Declare Constructors
+
+    /**
+     * Creates an empty history.
+     * @param spillFile The file to write chunks to once they pass the memory budget, replacing any existing file, or null
+     *                  to use a temporary file deleted on exit.
+     * @param memoryBudget The bytes of sealed chunks to keep in memory.
+     */
+    public StockHistory(Path spillFile, long memoryBudget) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("Memory budget must not be negative: " + memoryBudget);
+        }
+        this.spillFile = spillFile;
+        this.memoryBudget = memoryBudget;
+    }
+
+    // Declare Methods
+
+    /**
+     * Records a change to the stock of a part at the current time.
+     * @param partId The id of the part.
+     * @param levelBefore The stock before the change, recorded only if this is the part's first change.
+     * @param levelAfter The stock after the change.
+     */
+    public void record(int partId, int levelBefore, int levelAfter) {
+        record(partId, System.currentTimeMillis(), levelBefore, levelAfter);
+    }
+
+    /**
+     * Records a change to the stock of a part, for example when loading older history. A time before the part's latest
+     * sample is recorded at the time of that sample, so each series stays in order.
+     * @param partId The id of the part.
+     * @param timeMillis The time of the change in epoch milliseconds.
+     * @param levelBefore The stock before the change, recorded only if this is the part's first change.
+     * @param levelAfter The stock after the change.
+     */
+    public void record(int partId, long timeMillis, int levelBefore, int levelAfter) {
+        // The buffered changes come before this level, and must not be added to it afterwards
+        changes.appendAll();
+        Series partSeries = series.get(partId);
+        if (partSeries == null) {
+            partSeries = series.computeIfAbsent(partId, id -> new Series(timeMillis, levelBefore));
+        }
+        chunkSealed(partSeries.append(timeMillis, levelAfter));
+    }
+
+    /**
+     * Starts the history of a part at its current stock, unless it has one already. A part whose stock is recorded through
+     * recordChange() must be tracked before each change is made to its stock, so a history is never started at a level
+     * that already includes a change it will be given as well.
+     * @param partId The id of the part.
+     * @param level The stock now, read before the change is made.
+     */
+    public void track(int partId, int level) {
+        long timeMillis = System.currentTimeMillis();
+        series.computeIfAbsent(partId, id -> new Series(timeMillis, level));
+    }
+
+    /**
+     * @param partId The id of a part.
+     * @return whether the part has a history.
+     */
+    public boolean isTracked(int partId) {
+        return series.containsKey(partId);
+    }
+
+    /**
+     * Records a change to the stock of a part at the current time as the amount it changed by. Changes made on several
+     * threads at once may be recorded in any order and the part's history still ends at the level the part holds. The
+     * change is buffered on this thread, and reaches the history with the next batch.
+     * @param partId The id of the part, which must have been tracked before the change was made.
+     * @param delta The change to the stock.
+     */
+    public void recordChange(int partId, int delta) {
+        changes.add(partId, System.currentTimeMillis(), delta);
+    }
+
+    /**
+     * Appends a run of buffered changes to the history of their part. Changes to a part that is not tracked are dropped.
+     * @param partId The id of the part.
+     * @param order The changes to append from from to to, each as its index in times and deltas in the low 32 bits.
+     * @param from The first change to append.
+     * @param to The change after the last to append.
+     * @param times The time of each change.
+     * @param deltas Each change to the stock.
+     */
+    private void appendChanges(int partId, long[] order, int from, int to, long[] times, int[] deltas) {
+        Series partSeries = series.get(partId);
+        if (partSeries != null) {
+            List<Chunk> sealed = new ArrayList<>(1);
+            partSeries.appendChanges(order, from, to, times, deltas, sealed);
+            // Counted once the history is no longer locked, as counting may spill
+            for (Chunk chunk : sealed) {
+                chunkSealed(chunk);
+            }
+        }
+    }
+
+    /**
+     * Counts a chunk that has just been sealed against the memory budget, spilling if it is now over.
+     * @param sealed The sealed chunk, or null if none was sealed.
+     */
+    private void chunkSealed(Chunk sealed) {
+        if (sealed != null) {
+            inMemoryChunks.add(sealed);
+            if (inMemoryBytes.addAndGet(sealed.length) > memoryBudget && !spillFailed) {
+                spill();
+            }
+        }
+    }
+
+    /**
+     * Finds the stock of a part at a point in time.
+     * @param partId The id of the part.
+     * @param timeMillis The time in epoch milliseconds.
+     * @return the stock after the last change at or before that time, or empty if the history starts later or the part
+     * has never changed.
+     */
+    public OptionalInt stockAt(int partId, long timeMillis) {
+        changes.appendAll();
+        Series partSeries = series.get(partId);
+        if (partSeries == null) {
+            return OptionalInt.empty();
+        }
+        Chunk[] chunks = partSeries.snapshot();
+        int index = lastChunkStartingBy(chunks, timeMillis);
+        if (index < 0) {
+            return OptionalInt.empty();
+        }
+        Chunk chunk = chunks[index];
+        if (chunk.lastTime <= timeMillis) {
+            return OptionalInt.of(chunk.lastLevel);
+        }
+        ChunkReader reader = new ChunkReader(chunk, read(chunk));
+        int level = reader.level;
+        while (reader.next() && reader.time <= timeMillis) {
+            level = reader.level;
+        }
+        return OptionalInt.of(level);
+    }
+
+    /**
+     * Retrieves the recorded stock levels of a part between two times.
+     * @param partId The id of the part.
+     * @param fromMillis The start of the range in epoch milliseconds, inclusive.
+     * @param toMillis The end of the range in epoch milliseconds, inclusive.
+     * @return the samples in the range, oldest first. stockAt(fromMillis) gives the level in effect at the start.
+     */
+    public Samples range(int partId, long fromMillis, long toMillis) {
+        changes.appendAll();
+        Samples samples = new Samples();
+        Series partSeries = series.get(partId);
+        if (partSeries == null || toMillis < fromMillis) {
+            return samples;
+        }
+        Chunk[] chunks = partSeries.snapshot();
+        int start = Math.max(0, lastChunkStartingBy(chunks, fromMillis));
+        // Samples at the same time can run across chunks, so earlier chunks may end at the start of the range
+        while (start > 0 && chunks[start - 1].lastTime >= fromMillis) {
+            start--;
+        }
+        for (int i = start; i < chunks.length; i++) {
+            Chunk chunk = chunks[i];
+            if (chunk.firstTime > toMillis) {
+                break;
+            }
+            if (chunk.lastTime < fromMillis) {
+                continue;
+            }
+            ChunkReader reader = new ChunkReader(chunk, read(chunk));
+            do {
+                if (reader.time > toMillis) {
+                    break;
+                }
+                if (reader.time >= fromMillis) {
+                    samples.add(reader.time, reader.level);
+                }
+            } while (reader.next());
+        }
+        return samples;
+    }
+
+    /**
+     * Reduces the stock levels of a part between two times to a fixed number of equal buckets, for a chart. Each bucket
+     * holds the lowest, highest and closing level while it lasted, counting the level carried in from the bucket before.
+     * @param partId The id of the part.
+     * @param fromMillis The start of the first bucket in epoch milliseconds, inclusive.
+     * @param toMillis The end of the last bucket in epoch milliseconds, exclusive.
+     * @param buckets The number of buckets.
+     * @return the buckets, oldest first.
+     */
+    public Chart downsample(int partId, long fromMillis, long toMillis, int buckets) {
+        if (buckets <= 0 || toMillis <= fromMillis) {
+            throw new IllegalArgumentException("A chart needs at least one bucket over a non-empty range");
+        }
+        changes.appendAll();
+        Chart chart = new Chart(fromMillis, toMillis, buckets);
+        Series partSeries = series.get(partId);
+        if (partSeries == null) {
+            return chart;
+        }
+        Chunk[] chunks = partSeries.snapshot();
+        for (Chunk chunk : chunks) {
+            if (chunk.firstTime >= toMillis) {
+                break;
+            }
+            if (chunk.lastTime < fromMillis) {
+                // Only the level the chunk ends on reaches the chart
+                chart.carryIn(chunk.lastLevel);
+                continue;
+            }
+            int firstBucket = chart.bucketOf(chunk.firstTime);
+            if (firstBucket >= 0 && chunk.lastTime < toMillis && firstBucket == chart.bucketOf(chunk.lastTime)) {
+                // The whole chunk falls in one bucket, so its fields are enough
+                chart.addRange(firstBucket, chunk.minLevel, chunk.maxLevel, chunk.lastLevel);
+                continue;
+            }
+            ChunkReader reader = new ChunkReader(chunk, read(chunk));
+            do {
+                if (reader.time >= toMillis) {
+                    break;
+                }
+                if (reader.time < fromMillis) {
+                    chart.carryIn(reader.level);
+                } else {
+                    chart.addRange(chart.bucketOf(reader.time), reader.level, reader.level, reader.level);
+                }
+            } while (reader.next());
+        }
+        chart.fillGaps();
+        return chart;
+    }
+
+    /**
+     * @return the number of parts with a history.
+     */
+    public int getPartCount() {
+        return series.size();
+    }
+
+    /**
+     * @return the bytes of samples held in memory, including chunks that are still open.
+     */
+    public long getInMemoryBytes() {
+        changes.appendAll();
+        long bytes = inMemoryBytes.get();
+        for (Series partSeries : series.values()) {
+            bytes += partSeries.openBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the oldest sealed chunks held in memory to the spill file until they fit in three quarters of the memory
+     * budget. If the file cannot be written, the problem is reported once and every chunk stays in memory from then on.
+     */
+    private synchronized void spill() {
+        if (spillFailed) {
+            return;
+        }
+        long target = memoryBudget / 4 * 3;
+        try {
+            if (spillChannel == null) {
+                if (spillFile == null) {
+                    spillFile = Files.createTempFile("stock-history", ".bin");
+                    spillFile.toFile().deleteOnExit();
+                }
+                spillChannel = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            while (inMemoryBytes.get() > target) {
+                Chunk chunk = inMemoryChunks.peek();
+                if (chunk == null) {
+                    return;
+                }
+                long offset = spillChannel.size();
+                ByteBuffer buffer = ByteBuffer.wrap(chunk.bytes, 0, chunk.length);
+                while (buffer.hasRemaining()) {
+                    spillChannel.write(buffer, offset + buffer.position());
+                }
+                // The offset is set before the bytes are dropped, so a reader that finds no bytes finds the offset
+                chunk.fileOffset = offset;
+                chunk.bytes = null;
+                inMemoryChunks.poll();
+                inMemoryBytes.addAndGet(-chunk.length);
+            }
+        } catch (IOException e) {
+            // Nothing is lost while the chunks stay in memory, so report the problem and stop trying to spill
+            spillFailed = true;
+            System.out.println("An error occurred while writing the stock history to " + spillFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the encoded samples of a chunk, from memory or from the spill file.
+     * @param chunk The chunk.
+     * @return the encoded samples, of at least the chunk's length.
+     */
+    private byte[] read(Chunk chunk) {
+        byte[] bytes = chunk.bytes;
+        if (bytes != null) {
+            return bytes;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(chunk.length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (spillChannel.read(buffer, chunk.fileOffset + buffer.position()) < 0) {
+                    throw new IOException("The stock history spill file ends inside a chunk");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Finds the last chunk that starts at or before a time.
+     * @param chunks The chunks, oldest first.
+     * @param timeMillis The time.
+     * @return the index of the chunk, or -1 if every chunk starts later.
+     */
+    private static int lastChunkStartingBy(Chunk[] chunks, long timeMillis) {
+        int low = 0;
+        int high = chunks.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (chunks[middle].firstTime <= timeMillis) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * The history of one part: its sealed chunks and the chunk samples are being added to.
+     */
+    private static final class Series {
+
+        /**
+         * The sealed chunks, oldest first. Only the first chunkCount entries are used.
+         */
+        private Chunk[] chunks = new Chunk[1];
+
+        /**
+         * The number of sealed chunks.
+         */
+        private int chunkCount;
+
+        /**
+         * The chunk samples are being added to.
+         */
+        private Chunk open;
+
+        /**
+         * Starts a history with its first sample.
+         * @param timeMillis The time of the sample.
+         * @param level The level.
+         */
+        Series(long timeMillis, int level) {
+            open = new Chunk(timeMillis, level);
+        }
+
+        /**
+         * Adds a sample, sealing the open chunk first if it might not fit.
+         * @param timeMillis The time of the sample.
+         * @param level The level.
+         * @return the chunk that was sealed, or null if none was.
+         */
+        synchronized Chunk append(long timeMillis, int level) {
+            long time = Math.max(timeMillis, open.lastTime);
+            if (open.length + MAX_SAMPLE_BYTES <= CHUNK_BYTES) {
+                open.append(time, level);
+                return null;
+            }
+            Chunk sealed = open;
+            sealed.seal();
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            chunks[chunkCount++] = sealed;
+            open = new Chunk(time, level);
+            return sealed;
+        }
+
+        /**
+         * Adds a sample for a run of changes, each at the last level plus its change, so changes appended in any order
+         * reach the same level. Changes next to each other in the run at the same time are added as one sample of their
+         * sum, and a sum of zero adds none.
+         * @param order The changes to add from from to to, each as its index in times and deltas in the low 32 bits.
+         * @param from The first change to add.
+         * @param to The change after the last to add.
+         * @param times The time of each change.
+         * @param deltas Each change to the level.
+         * @param sealed Receives the chunks that were sealed.
+         */
+        synchronized void appendChanges(long[] order, int from, int to, long[] times, int[] deltas, List<Chunk> sealed) {
+            int i = from;
+            while (i < to) {
+                long timeMillis = times[(int) order[i]];
+                long delta = 0;
+                while (i < to && times[(int) order[i]] == timeMillis) {
+                    delta += deltas[(int) order[i++]];
+                }
+                if (delta != 0) {
+                    Chunk sealedChunk = append(timeMillis, (int) (open.lastLevel + delta));
+                    if (sealedChunk != null) {
+                        sealed.add(sealedChunk);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Takes the chunks as they are now, with a copy of the open chunk, so they can be read while samples are added.
+         * @return the chunks, oldest first.
+         */
+        synchronized Chunk[] snapshot() {
+            Chunk[] snapshot = Arrays.copyOf(chunks, chunkCount + 1);
+            snapshot[chunkCount] = open.copy();
+            return snapshot;
+        }
+
+        /**
+         * @return the bytes of samples in the open chunk.
+         */
+        synchronized int openBytes() {
+            return open.bytes.length;
+        }
+    }
+
+    /**
+     * A run of samples of one part. The first sample is kept in fields; each later one is encoded in bytes as the change
+     * in time since the sample before, then the change in level, each as a variable-length integer.
+     */
+    private static final class Chunk {
+
+        /**
+         * The time and level of the first sample.
+         */
+        final long firstTime;
+        final int firstLevel;
+
+        /**
+         * The time and level of the last sample.
+         */
+        long lastTime;
+        int lastLevel;
+
+        /**
+         * The lowest and highest level of any sample.
+         */
+        int minLevel;
+        int maxLevel;
+
+        /**
+         * The encoded samples after the first, or null once they have been written to the spill file.
+         */
+        volatile byte[] bytes;
+
+        /**
+         * The number of bytes of encoded samples.
+         */
+        int length;
+
+        /**
+         * Where the encoded samples start in the spill file, once they have been written to it.
+         */
+        long fileOffset = -1;
+
+        /**
+         * Starts a chunk with its first sample.
+         * @param timeMillis The time of the sample.
+         * @param level The level.
+         */
+        Chunk(long timeMillis, int level) {
+            firstTime = timeMillis;
+            firstLevel = level;
+            lastTime = timeMillis;
+            lastLevel = level;
+            minLevel = level;
+            maxLevel = level;
+            bytes = new byte[16];
+        }
+
+        /**
+         * Encodes a sample after the last one. The caller makes sure it fits in CHUNK_BYTES.
+         * @param timeMillis The time of the sample, not before the last one.
+         * @param level The level.
+         */
+        void append(long timeMillis, int level) {
+            if (bytes.length - length < MAX_SAMPLE_BYTES) {
+                bytes = Arrays.copyOf(bytes, Math.min(CHUNK_BYTES, bytes.length * 2));
+            }
+            writeVarLong(timeMillis - lastTime);
+            writeVarLong((level - (long) lastLevel) << 1 ^ (level - (long) lastLevel) >> 63);
+            lastTime = timeMillis;
+            lastLevel = level;
+            minLevel = Math.min(minLevel, level);
+            maxLevel = Math.max(maxLevel, level);
+        }
+
+        /**
+         * Writes a non-negative long seven bits to the byte, lowest first, with the high bit set on all but the last byte.
+         * @param value The value.
+         */
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        /**
+         * Trims the bytes to the encoded samples once no more will be added.
+         */
+        void seal() {
+            bytes = Arrays.copyOf(bytes, length);
+        }
+
+        /**
+         * @return a copy of this open chunk that later samples do not change.
+         */
+        Chunk copy() {
+            Chunk copy = new Chunk(firstTime, firstLevel);
+            copy.lastTime = lastTime;
+            copy.lastLevel = lastLevel;
+            copy.minLevel = minLevel;
+            copy.maxLevel = maxLevel;
+            copy.bytes = Arrays.copyOf(bytes, length);
+            copy.length = length;
+            return copy;
+        }
+    }
+
+    /**
+     * Steps through the samples of a chunk, starting on the first.
+     */
+    private static final class ChunkReader {
+
+        /**
+         * The encoded samples.
+         */
+        private final byte[] bytes;
+
+        /**
+         * The number of bytes of encoded samples.
+         */
+        private final int length;
+
+        /**
+         * The position of the next encoded sample.
+         */
+        private int position;
+
+        /**
+         * The time and level of the current sample.
+         */
+        long time;
+        int level;
+
+        /**
+         * Starts on the first sample of a chunk.
+         * @param chunk The chunk.
+         * @param bytes Its encoded samples.
+         */
+        ChunkReader(Chunk chunk, byte[] bytes) {
+            this.bytes = bytes;
+            this.length = chunk.length;
+            this.time = chunk.firstTime;
+            this.level = chunk.firstLevel;
+        }
+
+        /**
+         * Moves to the next sample.
+         * @return false if there are no more samples.
+         */
+        boolean next() {
+            if (position >= length) {
+                return false;
+            }
+            time += readVarLong();
+            long zigzag = readVarLong();
+            level += (int) (zigzag >>> 1 ^ -(zigzag & 1));
+            return true;
+        }
+
+        /**
+         * @return the variable-length integer at the position, moving past it.
+         */
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Samples of the stock of one part, oldest first.
+     */
+    public static final class Samples {
+
+        /**
+         * The time of each sample, in epoch milliseconds.
+         */
+        private long[] times = new long[16];
+
+        /**
+         * The level of each sample.
+         */
+        private int[] levels = new int[16];
+
+        /**
+         * The number of samples.
+         */
+        private int size;
+
+        /**
+         * Adds a sample.
+         * @param timeMillis The time of the sample.
+         * @param level The level.
+         */
+        private void add(long timeMillis, int level) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                levels = Arrays.copyOf(levels, size * 2);
+            }
+            times[size] = timeMillis;
+            levels[size++] = level;
+        }
+
+        /**
+         * @return the number of samples.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @param index The index of a sample.
+         * @return its time in epoch milliseconds.
+         */
+        public long time(int index) {
+            return times[index];
+        }
+
+        /**
+         * @param index The index of a sample.
+         * @return its level.
+         */
+        public int level(int index) {
+            return levels[index];
+        }
+    }
+
+    /**
+     * The stock of one part reduced to equal buckets of time, for a chart.
+     */
+    public static final class Chart {
+
+        /**
+         * The start of the first bucket and the length of each bucket, in milliseconds.
+         */
+        private final long fromMillis;
+        private final double bucketMillis;
+
+        /**
+         * The lowest, highest and closing level in each bucket.
+         */
+        private final int[] mins;
+        private final int[] maxes;
+        private final int[] closes;
+
+        /**
+         * Whether each bucket has a sample of its own, and then whether the level is known at all once gaps are filled.
+         */
+        private final boolean[] known;
+
+        /**
+         * The level in effect before the first bucket, if the history starts before it.
+         */
+        private boolean carried;
+        private int carriedLevel;
+
+        /**
+         * Creates a chart with no levels.
+         * @param fromMillis The start of the first bucket.
+         * @param toMillis The end of the last bucket.
+         * @param buckets The number of buckets.
+         */
+        private Chart(long fromMillis, long toMillis, int buckets) {
+            this.fromMillis = fromMillis;
+            this.bucketMillis = (double) (toMillis - fromMillis) / buckets;
+            mins = new int[buckets];
+            maxes = new int[buckets];
+            closes = new int[buckets];
+            known = new boolean[buckets];
+        }
+
+        /**
+         * @param timeMillis A time.
+         * @return the bucket it falls in, or -1 if it is before the first bucket.
+         */
+        private int bucketOf(long timeMillis) {
+            if (timeMillis < fromMillis) {
+                return -1;
+            }
+            return Math.min(mins.length - 1, (int) ((timeMillis - fromMillis) / bucketMillis));
+        }
+
+        /**
+         * Notes a level reached before the first bucket, so the first buckets start from it.
+         * @param level The level.
+         */
+        private void carryIn(int level) {
+            carried = true;
+            carriedLevel = level;
+        }
+
+        /**
+         * Adds levels reached in a bucket, in time order.
+         * @param bucket The bucket.
+         * @param min The lowest of the levels.
+         * @param max The highest of the levels.
+         * @param close The last of the levels.
+         */
+        private void addRange(int bucket, int min, int max, int close) {
+            if (known[bucket]) {
+                mins[bucket] = Math.min(mins[bucket], min);
+                maxes[bucket] = Math.max(maxes[bucket], max);
+            } else {
+                known[bucket] = true;
+                mins[bucket] = min;
+                maxes[bucket] = max;
+            }
+            closes[bucket] = close;
+        }
+
+        /**
+         * Counts the level carried into each bucket from the one before, and gives buckets without samples that level.
+         */
+        private void fillGaps() {
+            boolean hasLevel = carried;
+            int level = carriedLevel;
+            for (int bucket = 0; bucket < closes.length; bucket++) {
+                if (known[bucket]) {
+                    if (hasLevel) {
+                        mins[bucket] = Math.min(mins[bucket], level);
+                        maxes[bucket] = Math.max(maxes[bucket], level);
+                    }
+                    hasLevel = true;
+                    level = closes[bucket];
+                } else if (hasLevel) {
+                    known[bucket] = true;
+                    mins[bucket] = level;
+                    maxes[bucket] = level;
+                    closes[bucket] = level;
+                }
+            }
+        }
+
+        /**
+         * @return the number of buckets.
+         */
+        public int size() {
+            return closes.length;
+        }
+
+        /**
+         * @param bucket A bucket.
+         * @return the time the bucket starts, in epoch milliseconds.
+         */
+        public long bucketStart(int bucket) {
+            return fromMillis + (long) (bucket * bucketMillis);
+        }
+
+        /**
+         * @param bucket A bucket.
+         * @return whether the level is known in the bucket, which it is not before the history starts.
+         */
+        public boolean hasLevel(int bucket) {
+            return known[bucket];
+        }
+
+        /**
+         * @param bucket A bucket.
+         * @return the lowest level in the bucket.
+         */
+        public int min(int bucket) {
+            return mins[bucket];
+        }
+
+        /**
+         * @param bucket A bucket.
+         * @return the highest level in the bucket.
+         */
+        public int max(int bucket) {
+            return maxes[bucket];
+        }
+
+        /**
+         * @param bucket A bucket.
+         * @return the level at the end of the bucket.
+         */
+        public int close(int bucket) {
+            return closes[bucket];
+        }
+    }
+}
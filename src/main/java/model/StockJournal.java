@@ -0,0 +1,116 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The StockJournal class is an append-only file of stock adjustments. Each record describes the net change applied to one
+ * part in one batch, so that stock levels can be audited or rebuilt after a restart.
+ * <p></p>
+ * Records are buffered by append() and only become durable when sync() writes them out and forces them to disk. Calling
+ * sync() once for many records is what lets the StockAdjustmentPipeline pay for one disk flush per batch instead of one per adjustment.
+ * <p></p>
+ * Each record is {@value #RECORD_SIZE} bytes: the time in epoch milliseconds (long), the part id (int), the net change (int),
+ * the stock level after the change (int) and the number of adjustments folded into the record (int).
+ */
+public class StockJournal implements Closeable {
+
+    // Declare Fields
+
+    /**
+     * The size of a single record in bytes.
+     */
+    public static final int RECORD_SIZE = 24;
+
+    /**
+     * The file the records are written to.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Records appended since the last sync.
+     */
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 1024);
+
+    /**
+     * Set when a failed sync could not be cut back off the file, which may then end in records that were never
+     * acknowledged. No more records are written after it.
+     */
+    private IOException damage;
+
+    // Declare Constructor
+
+    /**
+     * Opens a journal, creating the file if needed. New records are added after any existing records.
+     * @param file The journal file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public StockJournal(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // Declare Methods
+
+    /**
+     * Buffers a record. The record is not durable until sync() returns.
+     * @param timeMillis The time of the batch in epoch milliseconds.
+     * @param partId The id of the part.
+     * @param netDelta The net change applied to the stock.
+     * @param stockAfter The stock level after the change.
+     * @param adjustmentCount The number of adjustments folded into the record.
+     */
+    public void append(long timeMillis, int partId, int netDelta, int stockAfter, int adjustmentCount) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        buffer.putLong(timeMillis).putInt(partId).putInt(netDelta).putInt(stockAfter).putInt(adjustmentCount);
+    }
+
+    /**
+     * Writes every buffered record and forces them to disk. If that fails, whatever part of the records reached the file is
+     * cut back off it, so a later sync cannot make them durable.
+     * @throws IOException If the records cannot be written, in which case none of them are kept.
+     */
+    public void sync() throws IOException {
+        if (damage != null) {
+            buffer.clear();
+            throw new IOException("The journal could not be rolled back after an earlier failed sync.", damage);
+        }
+        try {
+            long end = channel.size();
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                try {
+                    channel.truncate(end);
+                } catch (IOException truncateFailure) {
+                    e.addSuppressed(truncateFailure);
+                    damage = e;
+                }
+                throw e;
+            }
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Closes the journal file. Records that have not been synced are discarded.
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,216 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The StockTransaction class reserves stock for several parts at once, for example all of the associated parts needed to
+ * build a Product. Quantities are added to the transaction, reserved together, and then either committed (consumed) or
+ * released back into stock.
+ * <p></p>
+ * Reservation is all-or-nothing: if any part does not have enough stock, every quantity already reserved by the
+ * transaction is returned and reserve() returns false. Each part's stock is changed with a compare-and-set on its own
+ * counter, so no locks are held and transactions running on different threads can never deadlock. Parts are always
+ * visited in ascending id order, so two transactions competing for the same parts fail fast instead of repeatedly
+ * undoing each other's work.
+ * <p></p>
+ * A part may be replaced, by Inventory.updatePart() or a batch of changes, while its stock is reserved. The replacement
+ * takes over the reserved quantity, so commit() and release() look each part up by id again and settle the reservation
+ * with the part the inventory holds then, falling back to the reserved part only if it has since been deleted.
+ * <p></p>
+ * A StockTransaction is meant to be used by a single thread.
+ */
+public class StockTransaction {
+
+    /**
+     * The states a transaction moves through.
+     */
+    public enum State { OPEN, RESERVED, COMMITTED, RELEASED }
+
+    // Declare Fields
+
+    /**
+     * The ids of the parts in the transaction. Sorted and de-duplicated when the transaction is reserved.
+     */
+    private int[] partIds = new int[4];
+
+    /**
+     * The quantity to reserve for each part, at the same index as its id in partIds.
+     */
+    private int[] quantities = new int[4];
+
+    /**
+     * The number of entries used in partIds and quantities.
+     */
+    private int size;
+
+    /**
+     * The parts that were reserved, at the same index as their id in partIds. Used only for parts deleted since.
+     */
+    private Part[] reservedParts;
+
+    /**
+     * The current state of the transaction.
+     */
+    private State state = State.OPEN;
+
+    // Declare Methods
+
+    /**
+     * Creates a transaction for building the given number of units of a product. Each associated part is needed once
+     * per unit for every time it appears in the product's associated parts list.
+     * @param product The product to build.
+     * @param units The number of units to build.
+     * @return an open transaction for the parts the build consumes.
+     */
+    public static StockTransaction forProduct(Product product, int units) {
+        StockTransaction transaction = new StockTransaction();
+        for (int partId : product.getAssociatedPartIds()) {
+            transaction.add(partId, units);
+        }
+        return transaction;
+    }
+
+    /**
+     * Adds a quantity of a part to the transaction. Adding the same part more than once adds the quantities together.
+     * @param partId The id of the part.
+     * @param quantity The quantity to reserve.
+     * @return this transaction.
+     */
+    public StockTransaction add(int partId, int quantity) {
+        if (state != State.OPEN) {
+            throw new IllegalStateException("Parts can only be added to an open transaction, this one is " + state);
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be a positive integer: " + quantity);
+        }
+        if (size == partIds.length) {
+            partIds = Arrays.copyOf(partIds, size * 2);
+            quantities = Arrays.copyOf(quantities, size * 2);
+        }
+        partIds[size] = partId;
+        quantities[size] = quantity;
+        size++;
+        return this;
+    }
+
+    /**
+     * Reserves every quantity in the transaction. Reserved quantities are removed from each part's stock and held until
+     * the transaction is committed or released.
+     * @return true if all quantities were reserved, false if any part is missing or has too little stock, in which case nothing is reserved.
+     */
+    public boolean reserve() {
+        if (state != State.OPEN) {
+            throw new IllegalStateException("Only an open transaction can be reserved, this one is " + state);
+        }
+        sortAndMerge();
+
+        Part[] parts = new Part[size];
+        for (int i = 0; i < size; i++) {
+            Part part = Inventory.lookupPart(partIds[i]);
+            if (part == null || !part.tryReserveStock(quantities[i])) {
+                // Undo the reservations made so far, in reverse order.
+                for (int j = i - 1; j >= 0; j--) {
+                    parts[j].releaseReservedStock(quantities[j]);
+                }
+                return false;
+            }
+            parts[i] = part;
+        }
+
+        reservedParts = parts;
+        state = State.RESERVED;
+        for (Part part : parts) {
+            Inventory.stockChanged(part);
+        }
+        return true;
+    }
+
+    /**
+     * Consumes the reserved quantities. The parts' stock levels stay at the reduced values set by reserve().
+     */
+    public void commit() {
+        if (state != State.RESERVED) {
+            throw new IllegalStateException("Only a reserved transaction can be committed, this one is " + state);
+        }
+        for (int i = 0; i < size; i++) {
+            currentPart(i).consumeReservedStock(quantities[i]);
+        }
+        state = State.COMMITTED;
+    }
+
+    /**
+     * Returns the reserved quantities to the parts' stock.
+     */
+    public void release() {
+        if (state != State.RESERVED) {
+            throw new IllegalStateException("Only a reserved transaction can be released, this one is " + state);
+        }
+        Part[] parts = new Part[size];
+        for (int i = 0; i < size; i++) {
+            parts[i] = currentPart(i);
+            parts[i].releaseReservedStock(quantities[i]);
+        }
+        state = State.RELEASED;
+        for (Part part : parts) {
+            Inventory.stockChanged(part);
+        }
+    }
+
+    /**
+     * Finds the part a reservation is settled with, which is the part the inventory now holds under the reserved part's
+     * id, as the reserved part may have been replaced since.
+     * @param index The index of the part in partIds.
+     * @return the part with the id, or the reserved part if there is none.
+     */
+    private Part currentPart(int index) {
+        Part part = Inventory.indexedPart(partIds[index]);
+        return part != null ? part : reservedParts[index];
+    }
+
+    /**
+     * Gets the current state of the transaction.
+     * @return the state.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Gets the number of distinct parts in the transaction. Only exact once the transaction has been reserved.
+     * @return the number of parts.
+     */
+    public int getPartCount() {
+        return size;
+    }
+
+    /**
+     * Sorts the entries by part id and merges entries for the same part. Transactions usually hold a handful of parts,
+     * so an insertion sort over the two parallel arrays is used instead of boxing them for a general sort.
+     */
+    private void sortAndMerge() {
+        for (int i = 1; i < size; i++) {
+            int id = partIds[i];
+            int quantity = quantities[i];
+            int j = i - 1;
+            while (j >= 0 && partIds[j] > id) {
+                partIds[j + 1] = partIds[j];
+                quantities[j + 1] = quantities[j];
+                j--;
+            }
+            partIds[j + 1] = id;
+            quantities[j + 1] = quantity;
+        }
+
+        int merged = 0;
+        for (int i = 0; i < size; i++) {
+            if (merged > 0 && partIds[merged - 1] == partIds[i]) {
+                quantities[merged - 1] = Math.addExact(quantities[merged - 1], quantities[i]);
+            } else {
+                partIds[merged] = partIds[i];
+                quantities[merged] = quantities[i];
+                merged++;
+            }
+        }
+        size = merged;
+    }
+}
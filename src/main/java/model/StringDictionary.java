@@ -0,0 +1,122 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The StringDictionary class gives each distinct string a small int code, so that a field repeated across millions of
+ * rows, such as a supplier's name, can be stored as the code and the text kept once. Two rows have equal text exactly when
+ * they have equal codes, so matching and grouping on such a field compare ints and never touch the strings.
+ * <p></p>
+ * Codes are handed out from 0 in the order strings are first seen and are never reused, so a dictionary only grows. That
+ * suits text drawn from a limited vocabulary; a field that is unique on every row gains nothing and pays for a map entry.
+ * Null is always encoded as NULL_CODE.
+ * <p></p>
+ * Encoding takes a lock only the first time a string is seen. Looking up a code, and decoding, take no lock and may be done
+ * on any thread.
+ */
+public final class StringDictionary {
+
+    // Declare Fields
+
+    /**
+     * The code of null, and the code returned for a string that has never been encoded.
+     */
+    public static final int NULL_CODE = -1;
+
+    /**
+     * The names of parts and products.
+     */
+    public static final StringDictionary NAMES = new StringDictionary();
+
+    /**
+     * The company names of outsourced parts.
+     */
+    public static final StringDictionary COMPANY_NAMES = new StringDictionary();
+
+    /**
+     * The names of the locations, such as warehouses, that stock is kept at.
+     */
+    public static final StringDictionary LOCATIONS = new StringDictionary();
+
+    /**
+     * The code of each string encoded so far.
+     */
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+
+    /**
+     * The string of each code, with spare room at the end. Replaced with a larger copy when full. Written before the code
+     * is put into codes, so a thread that has been given a code always finds its string here.
+     */
+    private volatile String[] strings = new String[64];
+
+    /**
+     * The number of codes handed out. Only changed while holding this dictionary's lock.
+     */
+    private int size;
+
+    // Declare Methods
+
+    /**
+     * Retrieves the code of a string, giving it the next code if it has not been seen before.
+     * @param string The string, or null.
+     * @return the string's code, or NULL_CODE for null.
+     */
+    public int encode(String string) {
+        if (string == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(string);
+        return code != null ? code : add(string);
+    }
+
+    /**
+     * Gives a string the next code, unless another thread has just done so.
+     * @param string The string, not null.
+     * @return the string's code.
+     */
+    private synchronized int add(String string) {
+        Integer code = codes.get(string);
+        if (code != null) {
+            return code;
+        }
+        String[] current = strings;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[size] = string;
+        // The volatile write publishes the string before the code is handed out through the map
+        strings = current;
+        codes.put(string, size);
+        return size++;
+    }
+
+    /**
+     * Retrieves the code of a string without encoding it, for matching against the codes of existing rows.
+     * @param string The string, or null.
+     * @return the string's code, or NULL_CODE if it is null or has never been encoded, which matches no string.
+     */
+    public int codeOf(String string) {
+        if (string == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(string);
+        return code != null ? code : NULL_CODE;
+    }
+
+    /**
+     * Retrieves the string of a code.
+     * @param code A code returned by encode(), or NULL_CODE.
+     * @return the string, or null for NULL_CODE.
+     */
+    public String decode(int code) {
+        return code == NULL_CODE ? null : strings[code];
+    }
+
+    /**
+     * @return the number of distinct strings encoded, which is one more than the largest code.
+     */
+    public int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,309 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The StripedStockCounter class holds a stock level that many threads can adjust at once without queueing on a single
+ * field. It works like a LongAdder, but it can refuse a decrement that would take the stock below zero, or below a
+ * minimum stock level.
+ * <p></p>
+ * While there is no contention the whole value lives in a single base field updated with compare-and-set. The first time
+ * two threads collide, the counter adds an array of cells and spreads the part of the stock that sits above the minimum
+ * across them. From then on most adjustments touch only the adjusting thread's own cell:
+ * <ul>
+ *     <li>Increments are added to the thread's cell.</li>
+ *     <li>Decrements take from the thread's cell if it holds enough. Cells only ever hold stock above the minimum, so a
+ *     decrement served by a cell can never break either floor.</li>
+ *     <li>Anything else (the cell is empty, the stock is at or near the minimum, or the floor is being crossed on purpose)
+ *     takes a slow path that gathers every cell back into the base, checks the floor exactly, and spreads what is left above
+ *     the minimum across the cells again.</li>
+ * </ul>
+ * The zero floor is always exact. The minimum floor is exact except during the short window in which a concurrent slow-path
+ * decrement is taking the stock below the minimum on purpose.
+ */
+public final class StripedStockCounter {
+
+    // Declare Fields
+
+    /**
+     * The largest number of cells a counter will use.
+     */
+    private static final int MAX_CELLS = maxCells();
+
+    /**
+     * Every eighth slot of the cell array is used, so that each cell sits on its own 64-byte cache line.
+     */
+    private static final int CELL_STRIDE = 8;
+
+    /**
+     * The stock that is not held in a cell. Once cells exist it is only changed while holding this counter's lock.
+     */
+    private final AtomicLong base;
+
+    /**
+     * The cells, created the first time the base is contended. Each cell sits on its own cache line (every eighth slot).
+     */
+    private volatile AtomicLongArray cells;
+
+    /**
+     * The minimum stock level. Cells only hold stock above this level.
+     */
+    private volatile long minimum;
+
+    /**
+     * True while the base holds at least the minimum, so stock found in a cell is above the minimum and may be taken freely.
+     */
+    private volatile boolean cellsUsable;
+
+    // Declare Constructor
+
+    /**
+     * Constructs a new counter.
+     * @param initialStock The starting stock level.
+     * @param minimum The minimum stock level.
+     */
+    public StripedStockCounter(long initialStock, long minimum) {
+        this.base = new AtomicLong(initialStock);
+        this.minimum = minimum;
+    }
+
+    // Declare Methods
+
+    /**
+     * Returns the current stock level. Like LongAdder.sum(), the result is not an atomic snapshot while other threads are adjusting the stock.
+     * @return the stock level.
+     */
+    public long get() {
+        long sum = base.get();
+        AtomicLongArray cellArray = cells;
+        if (cellArray != null) {
+            for (int i = 0; i < cellArray.length(); i += CELL_STRIDE) {
+                sum += cellArray.get(i);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Replaces the stock level.
+     * @param stock The new stock level.
+     */
+    public synchronized void set(long stock) {
+        AtomicLongArray cellArray = cells;
+        if (cellArray != null) {
+            for (int i = 0; i < cellArray.length(); i += CELL_STRIDE) {
+                cellArray.set(i, 0);
+            }
+        }
+        base.set(stock);
+        rebalance();
+    }
+
+    /**
+     * Returns the minimum stock level.
+     * @return the minimum.
+     */
+    public long getMinimum() {
+        return minimum;
+    }
+
+    /**
+     * Changes the minimum stock level.
+     * @param minimum The new minimum.
+     */
+    public synchronized void setMinimum(long minimum) {
+        this.minimum = minimum;
+        gather();
+        rebalance();
+    }
+
+    /**
+     * Adds stock. Adding never fails.
+     * @param amount The amount to add, which must not be negative.
+     */
+    public void add(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount must not be negative: " + amount);
+        }
+        AtomicLongArray cellArray = cells;
+        if (cellArray == null) {
+            long current = base.get();
+            if (base.compareAndSet(current, current + amount)) {
+                return;
+            }
+            cellArray = inflate();
+        }
+        if (cellsUsable) {
+            cellArray.getAndAdd(cellIndex(cellArray), amount);
+            return;
+        }
+        synchronized (this) {
+            gather();
+            base.addAndGet(amount);
+            rebalance();
+        }
+    }
+
+    /**
+     * Removes stock even if that takes the stock level below zero or below the minimum, to take back an addition that
+     * must not stand.
+     * @param amount The amount to remove, which must not be negative.
+     */
+    public synchronized void subtract(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount must not be negative: " + amount);
+        }
+        gather();
+        base.addAndGet(-amount);
+        rebalance();
+    }
+
+    /**
+     * Removes stock unless doing so would take the stock level below zero.
+     * @param amount The amount to remove, which must not be negative.
+     * @return true if the stock was removed.
+     */
+    public boolean tryRemove(long amount) {
+        return tryRemove(amount, 0);
+    }
+
+    /**
+     * Removes stock unless doing so would take the stock level below the minimum.
+     * @param amount The amount to remove, which must not be negative.
+     * @return true if the stock was removed.
+     */
+    public boolean tryRemoveAboveMinimum(long amount) {
+        return tryRemove(amount, minimum);
+    }
+
+    /**
+     * Removes stock unless doing so would take the stock level below the given floor.
+     * @param amount The amount to remove.
+     * @param floor The lowest stock level allowed after the removal.
+     * @return true if the stock was removed.
+     */
+    private boolean tryRemove(long amount, long floor) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount must not be negative: " + amount);
+        }
+        AtomicLongArray cellArray = cells;
+        if (cellArray == null) {
+            long current = base.get();
+            if (current - amount >= floor) {
+                if (base.compareAndSet(current, current - amount)) {
+                    return true;
+                }
+                cellArray = inflate();
+            } else if ((cellArray = cells) == null) {
+                return false;
+            }
+            // Otherwise another thread has just created the cells, so the base no longer holds all the stock. Check again below.
+        }
+        if (cellsUsable) {
+            int index = cellIndex(cellArray);
+            long current = cellArray.get(index);
+            while (current >= amount) {
+                if (cellArray.compareAndSet(index, current, current - amount)) {
+                    return true;
+                }
+                current = cellArray.get(index);
+            }
+        }
+        synchronized (this) {
+            gather();
+            long current = base.get();
+            boolean removed = current - amount >= floor;
+            if (removed) {
+                base.addAndGet(-amount);
+            }
+            rebalance();
+            return removed;
+        }
+    }
+
+    /**
+     * Picks the cell used by the current thread.
+     * @param cellArray The cells.
+     * @return the index of the thread's cell.
+     */
+    private static int cellIndex(AtomicLongArray cellArray) {
+        int cellCount = cellArray.length() / CELL_STRIDE;
+        int hash = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        return ((hash >>> 16) & (cellCount - 1)) * CELL_STRIDE;
+    }
+
+    /**
+     * Works out how many cells to use: the smallest power of two of at least twice the number of processors, up to 64.
+     * @return the number of cells.
+     */
+    private static int maxCells() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int cellCount = 2;
+        while (cellCount < processors * 2 && cellCount < 64) {
+            cellCount <<= 1;
+        }
+        return cellCount;
+    }
+
+    /**
+     * Creates the cells after contention on the base has been detected.
+     * @return the cells.
+     */
+    private synchronized AtomicLongArray inflate() {
+        if (cells == null) {
+            cells = new AtomicLongArray(MAX_CELLS * CELL_STRIDE);
+            rebalance();
+        }
+        return cells;
+    }
+
+    /**
+     * Moves all stock held in the cells back into the base. Must be called while holding this counter's lock.
+     */
+    private void gather() {
+        // Stop fast-path decrements first, so nothing takes from a cell while the stock is being counted.
+        cellsUsable = false;
+        AtomicLongArray cellArray = cells;
+        if (cellArray == null) {
+            return;
+        }
+        for (int i = 0; i < cellArray.length(); i += CELL_STRIDE) {
+            long held = cellArray.getAndSet(i, 0);
+            if (held != 0) {
+                base.addAndGet(held);
+            }
+        }
+    }
+
+    /**
+     * Spreads the stock above the minimum across the cells and re-enables the fast path when the base holds the full
+     * minimum. Must be called while holding this counter's lock.
+     */
+    private void rebalance() {
+        AtomicLongArray cellArray = cells;
+        if (cellArray == null) {
+            return;
+        }
+        long excess = base.get() - minimum;
+        if (excess < 0) {
+            cellsUsable = false;
+            return;
+        }
+        int cellCount = cellArray.length() / CELL_STRIDE;
+        long share = excess / cellCount;
+        if (share > 0) {
+            for (int i = 0; i < cellArray.length(); i += CELL_STRIDE) {
+                cellArray.getAndAdd(i, share);
+            }
+            base.addAndGet(-share * cellCount);
+        }
+        // Give the remainder to the current thread, which is the one most likely to adjust the stock again.
+        long remainder = excess - share * cellCount;
+        if (remainder > 0) {
+            cellArray.getAndAdd(cellIndex(cellArray), remainder);
+            base.addAndGet(-remainder);
+        }
+        cellsUsable = true;
+    }
+}
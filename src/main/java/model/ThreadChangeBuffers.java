@@ -0,0 +1,178 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The ThreadChangeBuffers class buffers changes to parts on the thread that makes them, and hands them on in batches, so
+ * threads changing the same part do not each take the lock that part's record is kept under. Each thread has a buffer of
+ * its own, handed on once it is full, or by appendAll() before the records are read.
+ * <p></p>
+ * A batch is handed on sorted by part id, and each part's changes in the order its thread made them, so the receiver can
+ * take each part's lock once per batch rather than once per change.
+ */
+final class ThreadChangeBuffers {
+
+    /**
+     * Receives the changes to one part from a batch.
+     */
+    @FunctionalInterface
+    interface Appender {
+
+        /**
+         * Appends a run of changes to one part, in the order they were made.
+         * @param partId The id of the part.
+         * @param order The changes to append from from to to, each as its index in times and values in the low 32 bits.
+         * @param from The first change to append.
+         * @param to The change after the last to append.
+         * @param times The time of each change, in epoch milliseconds.
+         * @param values The value of each change.
+         */
+        void append(int partId, long[] order, int from, int to, long[] times, int[] values);
+    }
+
+    // Declare Fields
+
+    /**
+     * The number of changes a thread buffers before handing them on.
+     */
+    private final int capacity;
+
+    /**
+     * Receives the buffered changes.
+     */
+    private final Appender appender;
+
+    /**
+     * Each thread's buffer.
+     */
+    private final ThreadLocal<Buffer> buffer = ThreadLocal.withInitial(this::newBuffer);
+
+    /**
+     * The buffer of every thread that has made a change, so the changes can be handed on before the records are read.
+     */
+    private final Queue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+
+    // Declare Constructors
+
+    /**
+     * Creates empty buffers.
+     * @param capacity The number of changes a thread buffers before handing them on.
+     * @param appender Receives the buffered changes, while the buffer they come from is locked.
+     */
+    ThreadChangeBuffers(int capacity, Appender appender) {
+        this.capacity = capacity;
+        this.appender = appender;
+    }
+
+    // Declare Methods
+
+    /**
+     * Buffers a change on the current thread, handing on the thread's buffer once it is full.
+     * @param partId The id of the part.
+     * @param timeMillis The time of the change, in epoch milliseconds.
+     * @param value The value of the change.
+     */
+    void add(int partId, long timeMillis, int value) {
+        buffer.get().add(partId, timeMillis, value);
+    }
+
+    /**
+     * Hands on the changes every thread has buffered, so a reader sees every change made before it started.
+     */
+    void appendAll() {
+        for (Buffer threadBuffer : buffers) {
+            if (threadBuffer.size > 0) {
+                threadBuffer.appendAll();
+            }
+        }
+    }
+
+    /**
+     * Creates the buffer of the current thread. The buffers of threads that have ended are handed on and dropped first,
+     * so there are never many more buffers than running threads.
+     * @return the buffer.
+     */
+    private Buffer newBuffer() {
+        for (Iterator<Buffer> iterator = buffers.iterator(); iterator.hasNext(); ) {
+            Buffer threadBuffer = iterator.next();
+            if (!threadBuffer.owner.isAlive()) {
+                threadBuffer.appendAll();
+                iterator.remove();
+            }
+        }
+        Buffer threadBuffer = new Buffer();
+        buffers.add(threadBuffer);
+        return threadBuffer;
+    }
+
+    /**
+     * The changes one thread has made and not yet handed on. Only its thread adds to it, so its lock is only ever waited
+     * on while another thread hands the changes on for a reader.
+     */
+    private final class Buffer {
+
+        /**
+         * The thread that makes the changes in this buffer.
+         */
+        final Thread owner = Thread.currentThread();
+
+        /**
+         * The part id, time and value of each buffered change, in the order they were made.
+         */
+        private final int[] partIds = new int[capacity];
+        private final long[] times = new long[capacity];
+        private final int[] values = new int[capacity];
+
+        /**
+         * The number of buffered changes. Volatile so appendAll() can pass over empty buffers without locking them.
+         */
+        volatile int size;
+
+        /**
+         * Buffers a change, handing the buffer on once it is full.
+         * @param partId The id of the part.
+         * @param timeMillis The time of the change.
+         * @param value The value of the change.
+         */
+        synchronized void add(int partId, long timeMillis, int value) {
+            int index = size;
+            partIds[index] = partId;
+            times[index] = timeMillis;
+            values[index] = value;
+            size = index + 1;
+            if (index + 1 == capacity) {
+                appendAll();
+            }
+        }
+
+        /**
+         * Hands on the buffered changes, a part at a time, and empties the buffer.
+         */
+        synchronized void appendAll() {
+            int count = size;
+            if (count == 0) {
+                return;
+            }
+            // Sorting by part id, then by the order the changes were made in, puts each part's changes in one run
+            long[] order = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = (long) partIds[i] << 32 | i;
+            }
+            Arrays.sort(order);
+            int from = 0;
+            while (from < count) {
+                int partId = partIds[(int) order[from]];
+                int to = from + 1;
+                while (to < count && partIds[(int) order[to]] == partId) {
+                    to++;
+                }
+                appender.append(partId, order, from, to, times, values);
+                from = to;
+            }
+            size = 0;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 module ims.inventoryapp {
         requires javafx.controls;
         requires javafx.fxml;
+        requires java.management;
+        requires jdk.jfr;
 
 
         opens ims.inventoryapp to javafx.fxml;
@@ -9,4 +11,5 @@ module ims.inventoryapp {
         opens controller to javafx.fxml;
         exports model;
         opens model to javafx.fxml;
+        exports utils to java.management;
         }
\ No newline at end of file
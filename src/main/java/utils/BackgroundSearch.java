@@ -0,0 +1,256 @@
+package utils;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * The BackgroundSearch class runs the searches typed into a search box on a background thread, so the JavaFX Application
+ * Thread only has to show the results. As with the search boxes before, a whole number is looked up as an id and anything
+ * else is matched against the names.
+ * <p></p>
+ * Searches run as the user types, once they have stopped typing for the debounce window, 200 ms by default or set with
+ * -Dims.search.debounceMillis. Pressing enter searches straight away, and reports when nothing was found. Starting a
+ * search cancels the one before it, whether it is still waiting out the debounce window or already running, and the
+ * results of a cancelled search are never shown. Matches are added to the table in batches as they are found, so the first
+ * rows appear before a search of a large catalogue is over.
+ * <p></p>
+ * All methods must be called on the JavaFX Application Thread.
+ * @param <T> The type of the rows searched, Part or Product.
+ */
+public class BackgroundSearch<T> {
+
+    // Declare Fields
+
+    /**
+     * The time to wait after the last keystroke before searching, in milliseconds.
+     */
+    public static final long DEBOUNCE_MILLIS = Long.getLong("ims.search.debounceMillis", 200);
+
+    /**
+     * The number of matches found before they are passed to the table, unless the search ends first.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * The number of rows scanned between checks for cancellation.
+     */
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+    /**
+     * The thread every search runs on. A search that is superseded stops within a few microseconds, so one thread is enough.
+     */
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "inventory-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The kind of search, for the metrics and Flight Recorder events.
+     */
+    private final InventoryMetrics.Operation operation;
+
+    /**
+     * Supplies the rows to scan for a name. Called on the JavaFX Application Thread; the collection returned must be
+     * safe to iterate on another thread while the inventory changes.
+     */
+    private final Supplier<? extends Collection<T>> rows;
+
+    /**
+     * Looks up a row by id, or returns null. Called on the search thread.
+     */
+    private final IntFunction<T> lookupById;
+
+    /**
+     * Reads the name of a row. Called on the search thread.
+     */
+    private final Function<T, String> nameOf;
+
+    /**
+     * The table the results are shown in.
+     */
+    private final TableView<T> table;
+
+    /**
+     * Supplies the items to show when the search box is empty.
+     */
+    private final Supplier<ObservableList<T>> allItems;
+
+    /**
+     * Reports a search started with enter that found nothing, given the query and whether it was an id.
+     */
+    private final BiConsumer<String, Boolean> noResults;
+
+    /**
+     * The number of the latest search. A search whose number is no longer the latest has been cancelled.
+     */
+    private volatile long generation;
+
+    /**
+     * The latest search, while it is waiting or running.
+     */
+    private Future<?> pending;
+
+    // Declare Methods
+
+    /**
+     * Creates a BackgroundSearch for a table.
+     * @param operation The kind of search, for the metrics and Flight Recorder events.
+     * @param rows Supplies the rows to scan for a name, as a collection that is safe to iterate on another thread.
+     * @param lookupById Looks up a row by id, safe to call on another thread.
+     * @param nameOf Reads the name of a row.
+     * @param table The table the results are shown in.
+     * @param allItems Supplies the items to show when the search box is empty.
+     * @param noResults Reports a search started with enter that found nothing.
+     */
+    public BackgroundSearch(InventoryMetrics.Operation operation, Supplier<? extends Collection<T>> rows, IntFunction<T> lookupById,
+                            Function<T, String> nameOf, TableView<T> table, Supplier<ObservableList<T>> allItems,
+                            BiConsumer<String, Boolean> noResults) {
+        this.operation = operation;
+        this.rows = rows;
+        this.lookupById = lookupById;
+        this.nameOf = nameOf;
+        this.table = table;
+        this.allItems = allItems;
+        this.noResults = noResults;
+    }
+
+    /**
+     * Searches once the debounce window has passed without another call. For each change to the search box's text.
+     * @param query The text in the search box.
+     */
+    public void searchSoon(String query) {
+        start(query, false, DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * Searches straight away, and reports when nothing is found. For the search box's action, when enter is pressed.
+     * @param query The text in the search box.
+     */
+    public void searchNow(String query) {
+        start(query, true, 0);
+    }
+
+    /**
+     * Cancels the latest search, if it has not finished, so its results are never shown.
+     */
+    public void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    /**
+     * Cancels the latest search and starts a new one.
+     * @param query The text in the search box.
+     * @param reportEmpty Whether to report the search if it finds nothing.
+     * @param delayMillis The time to wait before searching.
+     */
+    private void start(String query, boolean reportEmpty, long delayMillis) {
+        cancel();
+
+        // An empty search box shows everything again, which needs no search
+        if (query.isEmpty()) {
+            long searchStart = InventoryMetrics.begin();
+            SearchEvent searchEvent = SearchEvent.start(operation, query);
+            table.setItems(allItems.get());
+            InventoryMetrics.end(operation, searchStart);
+            searchEvent.finish(false, table.getItems().size());
+            return;
+        }
+
+        long searchGeneration = generation;
+        // Ask for the rows here, on the JavaFX Application Thread, in case they have to be prepared first
+        Collection<T> searchRows = rows.get();
+        ObservableList<T> results = FXCollections.observableArrayList();
+        Runnable search = () -> {
+            // Timed from here, so the wait before searching is not counted as the search's latency
+            long searchStart = InventoryMetrics.begin();
+            SearchEvent searchEvent = SearchEvent.start(operation, query);
+            // Parse the search input as an integer, without throwing if it is a name
+            long parsedQuery = ParseInput.parseInt(query);
+            boolean byId = parsedQuery != ParseInput.INVALID;
+            List<T> batch = new ArrayList<>();
+            int found = 0;
+            if (byId) {
+                T match = lookupById.apply((int) parsedQuery);
+                if (match != null) {
+                    batch.add(match);
+                    found++;
+                }
+            } else {
+                int scanned = 0;
+                for (T row : searchRows) {
+                    if (++scanned % CANCEL_CHECK_INTERVAL == 0 && generation != searchGeneration) {
+                        return;
+                    }
+                    if (query.equals(nameOf.apply(row))) {
+                        batch.add(row);
+                        found++;
+                        if (batch.size() == BATCH_SIZE) {
+                            show(searchGeneration, results, batch);
+                            batch = new ArrayList<>();
+                        }
+                    }
+                }
+            }
+            show(searchGeneration, results, batch);
+
+            // Finish on the JavaFX Application Thread, after the last batch is shown
+            boolean searchedById = byId;
+            int resultCount = found;
+            Platform.runLater(() -> {
+                if (generation != searchGeneration) {
+                    return;
+                }
+                pending = null;
+                InventoryMetrics.end(operation, searchStart);
+                searchEvent.finish(searchedById, resultCount);
+                if (resultCount == 0 && reportEmpty) {
+                    noResults.accept(query, searchedById);
+                } else if (resultCount == 0) {
+                    table.setItems(results);
+                }
+            });
+        };
+        pending = EXECUTOR.schedule(search, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds a batch of matches to the results shown in the table, unless the search has been cancelled. The results
+     * are put in the table with their first batch, so the table keeps its rows until there is something to replace them.
+     * @param searchGeneration The number of the search that found the matches.
+     * @param results The results of the search.
+     * @param batch The matches found since the last batch.
+     */
+    private void show(long searchGeneration, ObservableList<T> results, List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Platform.runLater(() -> {
+            if (generation != searchGeneration) {
+                return;
+            }
+            results.addAll(batch);
+            if (table.getItems() != results) {
+                table.setItems(results);
+            }
+        });
+    }
+}
@@ -0,0 +1,290 @@
+package utils;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The BatchObservableList class is an ObservableList backed by an ArrayList that can apply a whole batch of removals,
+ * replacements and additions in one pass, and tells its listeners about the batch as a single change. It behaves like the
+ * list from FXCollections.observableArrayList() otherwise.
+ * <p></p>
+ * The usual list methods remove rows one at a time, which moves every row after them each time and makes removing many
+ * rows from a large list quadratic. applyChanges() and clear() instead move each kept row at most once. applyChanges()
+ * finds the rows it is given through a position index rather than by looking at every row, so apart from that one move
+ * its cost grows with the size of the batch, not of the list.
+ * <p></p>
+ * The position index gives each element a stamp that grows along the list: appended elements get the next stamp, a
+ * replacement takes the stamp of the element it replaces, and removals leave the rest in order. An element's position is
+ * then a binary search on an array of the stamps in list order. The index is built on the first call to applyChanges()
+ * or indexOf(), and dropped to be built again by any change it cannot follow, such as an insertion before the end. It
+ * assumes an element is in the list at most once. indexOf(), and so remove(Object) and contains(), use it too, falling
+ * back to looking at every row only for an element that is not in the list itself but equal to one that is.
+ * @param <E> The type of the elements.
+ */
+public class BatchObservableList<E> extends ModifiableObservableListBase<E> {
+
+    // Declare Fields
+
+    /**
+     * The elements.
+     */
+    private final ArrayList<E> elements = new ArrayList<>();
+
+    /**
+     * The stamp of each element. Null while the position index is not built.
+     */
+    private IdentityHashMap<E, Long> stampOf;
+
+    /**
+     * The stamp of the element at each index, which grows along the list, with spare room at the end. Null while the
+     * position index is not built.
+     */
+    private long[] stamps;
+
+    /**
+     * The stamp of the last element appended while the position index is built.
+     */
+    private long lastStamp;
+
+    // Declare Methods
+
+    /**
+     * Applies a batch of changes as a single change to the listeners. The removals and replacements are made where the
+     * elements are, and then the additions are appended.
+     * @param removals The elements to remove. Elements not in the list are skipped.
+     * @param replacements The replacement of each element to replace. Elements not in the list are skipped, as are elements
+     *                     also in removals.
+     * @param additions The elements to append, in order.
+     */
+    public void applyChanges(Collection<? extends E> removals, Map<? extends E, ? extends E> replacements,
+                             Collection<? extends E> additions) {
+        if (stampOf == null) {
+            indexPositions();
+        }
+        // The position of each change shifted left, with the low bit set for a removal, so sorting puts them in list order
+        long[] changes = new long[removals.size() + replacements.size()];
+        int count = 0;
+        for (E element : removals) {
+            int position = positionOf(element);
+            if (position >= 0) {
+                changes[count++] = (long) position << 1 | 1;
+            }
+        }
+        for (E element : replacements.keySet()) {
+            int position = positionOf(element);
+            if (position >= 0) {
+                changes[count++] = (long) position << 1;
+            }
+        }
+        Arrays.sort(changes, 0, count);
+
+        beginChange();
+        try {
+            int removed = 0;
+            int firstRemoved = -1;
+            int previous = -1;
+            for (int i = 0; i < count; i++) {
+                int position = (int) (changes[i] >>> 1);
+                boolean removal = (changes[i] & 1) != 0;
+                // An element given twice, or both removed and replaced, is removed once
+                if (position == previous) {
+                    continue;
+                }
+                if (i + 1 < count && changes[i + 1] >>> 1 == position) {
+                    removal = true;
+                }
+                previous = position;
+                E element = elements.get(position);
+                // Each change is reported at the element's index in the updated list, as the changes before it have already been made
+                if (removal) {
+                    nextRemove(position - removed, element);
+                    stampOf.remove(element);
+                    // The removed positions are gathered at the front of changes, in order, for the move below
+                    changes[removed++] = position;
+                    if (firstRemoved < 0) {
+                        firstRemoved = position;
+                    }
+                } else {
+                    E replacement = replacements.get(element);
+                    nextSet(position - removed, element);
+                    stampOf.put(replacement, stampOf.remove(element));
+                    elements.set(position, replacement);
+                }
+            }
+            if (removed > 0) {
+                // The kept elements after the first removal are moved down over the removed ones in place, so the list is not copied
+                int size = elements.size();
+                int kept = firstRemoved;
+                int nextRemoved = 0;
+                for (int i = firstRemoved; i < size; i++) {
+                    if (nextRemoved < removed && changes[nextRemoved] == i) {
+                        nextRemoved++;
+                    } else {
+                        stamps[kept] = stamps[i];
+                        elements.set(kept++, elements.get(i));
+                    }
+                }
+                elements.subList(kept, size).clear();
+            }
+            int firstAdded = elements.size();
+            append(additions);
+            if (elements.size() > firstAdded) {
+                nextAdd(firstAdded, elements.size());
+            }
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * Builds the position index from the elements as they are now.
+     */
+    private void indexPositions() {
+        stampOf = new IdentityHashMap<>(elements.size() * 2);
+        stamps = new long[Math.max(16, elements.size() + (elements.size() >> 1))];
+        lastStamp = 0;
+        for (int i = 0; i < elements.size(); i++) {
+            stamps[i] = ++lastStamp;
+            stampOf.put(elements.get(i), lastStamp);
+        }
+    }
+
+    /**
+     * Drops the position index after a change it cannot follow, to be built again when next needed.
+     */
+    private void dropPositions() {
+        stampOf = null;
+        stamps = null;
+    }
+
+    /**
+     * Finds an element through the position index.
+     * @param element The element.
+     * @return the element's index, or -1 if it is not in the list.
+     */
+    private int positionOf(Object element) {
+        Long stamp = stampOf.get(element);
+        if (stamp == null) {
+            return -1;
+        }
+        int position = Arrays.binarySearch(stamps, 0, elements.size(), stamp);
+        return position >= 0 ? position : -1;
+    }
+
+    /**
+     * Appends elements, giving them the next stamps if the position index is built.
+     * @param additions The elements to append.
+     */
+    private void append(Collection<? extends E> additions) {
+        int firstAdded = elements.size();
+        elements.addAll(additions);
+        if (stampOf != null) {
+            if (elements.size() > stamps.length) {
+                stamps = Arrays.copyOf(stamps, elements.size() + (elements.size() >> 1));
+            }
+            for (int i = firstAdded; i < elements.size(); i++) {
+                stamps[i] = ++lastStamp;
+                stampOf.put(elements.get(i), lastStamp);
+            }
+        }
+    }
+
+    @Override
+    public E get(int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public int indexOf(Object element) {
+        if (stampOf == null) {
+            indexPositions();
+        }
+        int position = positionOf(element);
+        return position >= 0 ? position : elements.indexOf(element);
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return indexOf(element) >= 0;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> additions) {
+        if (additions.isEmpty()) {
+            return false;
+        }
+        beginChange();
+        try {
+            int firstAdded = elements.size();
+            append(additions);
+            nextAdd(firstAdded, elements.size());
+        } finally {
+            endChange();
+        }
+        return true;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+        beginChange();
+        try {
+            List<E> range = elements.subList(fromIndex, toIndex);
+            nextRemove(fromIndex, new ArrayList<>(range));
+            if (stampOf != null) {
+                if (range.size() == elements.size()) {
+                    dropPositions();
+                } else {
+                    range.forEach(stampOf::remove);
+                    System.arraycopy(stamps, toIndex, stamps, fromIndex, elements.size() - toIndex);
+                }
+            }
+            range.clear();
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    protected void doAdd(int index, E element) {
+        if (index == elements.size()) {
+            append(List.of(element));
+            return;
+        }
+        elements.add(index, element);
+        // There is no stamp between its neighbours' to give it
+        dropPositions();
+    }
+
+    @Override
+    protected E doSet(int index, E element) {
+        E oldElement = elements.set(index, element);
+        if (stampOf != null) {
+            stampOf.put(element, stampOf.remove(oldElement));
+        }
+        return oldElement;
+    }
+
+    @Override
+    protected E doRemove(int index) {
+        E oldElement = elements.remove(index);
+        if (stampOf != null) {
+            stampOf.remove(oldElement);
+            System.arraycopy(stamps, index + 1, stamps, index, elements.size() - index);
+        }
+        return oldElement;
+    }
+}
@@ -0,0 +1,43 @@
+package utils;
+
+import javafx.scene.control.TableCell;
+
+/**
+ * The DaysOfCoverTableCell class displays how many days a part's stock would last, such as the value of
+ * ConsumptionRates.getDaysOfCover() for the row's part. Fewer than ten days are shown to one decimal place, as that is
+ * when the fraction matters for reordering; more are shown as whole days. A part that is not being consumed shows nothing.
+ * @param <S> The type of the rows in the table.
+ */
+public class DaysOfCoverTableCell<S> extends TableCell<S, Double> {
+
+    // Declare Fields
+
+    /**
+     * Reused for every update, so formatting a cell while scrolling creates only the final String.
+     */
+    private final StringBuilder text = new StringBuilder(16);
+
+    // Declare Methods
+
+    /**
+     * Formats the days of cover for the row, or clears the cell if the row is empty or the part is not being consumed.
+     * @param days The days of cover.
+     * @param empty Whether the cell is empty.
+     */
+    @Override
+    protected void updateItem(Double days, boolean empty) {
+        super.updateItem(days, empty);
+        if (empty || days == null || days.isInfinite() || days.isNaN()) {
+            setText(null);
+        } else {
+            text.setLength(0);
+            if (days < 10) {
+                long tenths = Math.round(days * 10);
+                text.append(tenths / 10).append('.').append(tenths % 10);
+            } else {
+                text.append(Math.round(days));
+            }
+            setText(text.toString());
+        }
+    }
+}
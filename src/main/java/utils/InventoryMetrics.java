@@ -0,0 +1,276 @@
+package utils;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The InventoryMetrics class times Inventory operations, searches and scene swaps, and publishes a count and a
+ * LatencyHistogram for each kind of operation as platform MBeans, so they can be watched from JConsole or read with jcmd.
+ * <p></p>
+ * An operation is timed by calling begin() before it and end() after it:
+ * <pre>
+ *     long start = InventoryMetrics.begin();
+ *     Part part = partsById.get(partId);
+ *     InventoryMetrics.end(InventoryMetrics.Operation.PART_LOOKUP_BY_ID, start);
+ * </pre>
+ * Every operation is counted, but only a random sample of them is timed, one in 16 by default. Reading the clock costs
+ * tens of nanoseconds on some machines, so timing every operation would cost more than many of the operations themselves.
+ * The sample rate is set with -Dims.metrics.sampleRate, rounded up to a power of two; a rate of 1 times every operation.
+ * <p></p>
+ * Metrics can be switched off from the InventoryMetrics MBean or by starting the application with -Dims.metrics=false.
+ */
+public final class InventoryMetrics implements InventoryMetricsMXBean {
+
+    /**
+     * The kinds of operation that are timed. Each has its own MBean, named after the operation.
+     */
+    public enum Operation {
+        PART_LOOKUP_BY_ID("partLookupById"),
+        PART_LOOKUP_BY_NAME("partLookupByName"),
+        PART_LOOKUP_BY_COMPANY("partLookupByCompany"),
+        PART_LOOKUP_BY_MACHINE("partLookupByMachine"),
+        PART_QUERY("partQuery"),
+        PRODUCT_LOOKUP_BY_ID("productLookupById"),
+        PRODUCT_LOOKUP_BY_NAME("productLookupByName"),
+        PART_ADD("partAdd"),
+        PART_UPDATE("partUpdate"),
+        PART_DELETE("partDelete"),
+        PRODUCT_ADD("productAdd"),
+        PRODUCT_UPDATE("productUpdate"),
+        PRODUCT_DELETE("productDelete"),
+        ASSOCIATED_PARTS_CHANGE("associatedPartsChange"),
+        PART_SEARCH("partSearch"),
+        PRODUCT_SEARCH("productSearch"),
+        SCENE_SWAP("sceneSwap");
+
+        /**
+         * The name of the operation in its MBean's ObjectName.
+         */
+        private final String mbeanName;
+
+        /**
+         * Creates an Operation.
+         * @param mbeanName The name of the operation in its MBean's ObjectName.
+         */
+        Operation(String mbeanName) {
+            this.mbeanName = mbeanName;
+        }
+    }
+
+    // Declare Fields
+
+    /**
+     * The domain of every ObjectName registered by InventoryMetrics.
+     */
+    public static final String DOMAIN = "ims.inventoryapp";
+
+    /**
+     * Masks a random number so that one in every sample rate operations is timed.
+     */
+    private static final int SAMPLE_MASK = readSampleRate() - 1;
+
+    /**
+     * The number of runs of each operation, indexed by ordinal.
+     */
+    private static final LongAdder[] COUNTS = new LongAdder[Operation.values().length];
+
+    /**
+     * The histogram of the timed runs of each operation, indexed by ordinal.
+     */
+    private static final LatencyHistogram[] HISTOGRAMS = new LatencyHistogram[Operation.values().length];
+
+    /**
+     * The single instance, which is registered as the InventoryMetrics MBean.
+     */
+    private static final InventoryMetrics INSTANCE = new InventoryMetrics();
+
+    /**
+     * Whether operations are being timed.
+     */
+    private static volatile boolean enabled = !"false".equals(System.getProperty("ims.metrics"));
+
+    static {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            COUNTS[i] = new LongAdder();
+            HISTOGRAMS[i] = new LatencyHistogram();
+        }
+    }
+
+    // Declare Methods
+
+    /**
+     * InventoryMetrics only has one instance.
+     */
+    private InventoryMetrics() {
+    }
+
+    /**
+     * Reads the sample rate from the "ims.metrics.sampleRate" system property.
+     * @return the sample rate rounded up to a power of two, or 16 if the property is not set.
+     */
+    private static int readSampleRate() {
+        int sampleRate = Math.min(Integer.getInteger("ims.metrics.sampleRate", 16), 1 << 30);
+        return sampleRate <= 1 ? 1 : Integer.highestOneBit(sampleRate - 1) << 1;
+    }
+
+    /**
+     * Marks the start of an operation.
+     * @return the start time to pass to end(), or 0 if this run is not timed.
+     */
+    public static long begin() {
+        if (!enabled || (ThreadLocalRandom.current().nextInt() & SAMPLE_MASK) != 0) {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Marks the end of an operation, counts it, and records how long it took if it was timed.
+     * @param operation The kind of operation.
+     * @param start The value returned by begin().
+     */
+    public static void end(Operation operation, long start) {
+        if (!enabled) {
+            return;
+        }
+        COUNTS[operation.ordinal()].increment();
+        // A start of 0 means this run was not picked for timing.
+        if (start != 0) {
+            HISTOGRAMS[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Retrieves the number of runs of an operation.
+     * @param operation The kind of operation.
+     * @return the number of runs since the last reset.
+     */
+    public static long getCount(Operation operation) {
+        return COUNTS[operation.ordinal()].sum();
+    }
+
+    /**
+     * Retrieves the histogram of the timed runs of an operation.
+     * @param operation The kind of operation.
+     * @return the operation's histogram.
+     */
+    public static LatencyHistogram getHistogram(Operation operation) {
+        return HISTOGRAMS[operation.ordinal()];
+    }
+
+    /**
+     * Registers the InventoryMetrics MBean and one MBean per operation with the platform MBean server. Registering
+     * again does nothing.
+     */
+    public static void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(INSTANCE, new ObjectName(DOMAIN + ":type=InventoryMetrics"));
+            for (Operation operation : Operation.values()) {
+                ObjectName name = new ObjectName(DOMAIN + ":type=InventoryMetrics,operation=" + operation.mbeanName);
+                server.registerMBean(new OperationMetrics(COUNTS[operation.ordinal()], getHistogram(operation)), name);
+            }
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered, nothing to do.
+        } catch (JMException e) {
+            // The application works without its MBeans, so report the problem and carry on.
+            System.out.println("An error occurred while registering the metrics MBeans: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        InventoryMetrics.enabled = enabled;
+    }
+
+    @Override
+    public void resetAll() {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            COUNTS[i].reset();
+            HISTOGRAMS[i].reset();
+        }
+    }
+
+    /**
+     * The MBean for one kind of operation, which reads its attributes from the operation's count and histogram.
+     */
+    private static final class OperationMetrics implements OperationMetricsMXBean {
+
+        /**
+         * The operation's count.
+         */
+        private final LongAdder count;
+
+        /**
+         * The operation's histogram.
+         */
+        private final LatencyHistogram histogram;
+
+        /**
+         * Creates the MBean for an operation.
+         * @param count The operation's count.
+         * @param histogram The operation's histogram.
+         */
+        OperationMetrics(LongAdder count, LatencyHistogram histogram) {
+            this.count = count;
+            this.histogram = histogram;
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public long getSampledCount() {
+            return histogram.getCount();
+        }
+
+        @Override
+        public long getMeanNanos() {
+            long count = histogram.getCount();
+            return count == 0 ? 0 : histogram.getTotalNanos() / count;
+        }
+
+        @Override
+        public long getMaxNanos() {
+            return histogram.getMaxNanos();
+        }
+
+        @Override
+        public long getP50Nanos() {
+            return histogram.getValueAtPercentile(50);
+        }
+
+        @Override
+        public long getP90Nanos() {
+            return histogram.getValueAtPercentile(90);
+        }
+
+        @Override
+        public long getP99Nanos() {
+            return histogram.getValueAtPercentile(99);
+        }
+
+        @Override
+        public long getP999Nanos() {
+            return histogram.getValueAtPercentile(99.9);
+        }
+
+        @Override
+        public void reset() {
+            count.reset();
+            histogram.reset();
+        }
+    }
+}
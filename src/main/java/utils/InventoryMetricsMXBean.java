@@ -0,0 +1,23 @@
+package utils;
+
+/**
+ * The management interface for InventoryMetrics as a whole. Switching the metrics off leaves only a single volatile
+ * read in each instrumented operation.
+ */
+public interface InventoryMetricsMXBean {
+
+    /**
+     * @return whether operations are being timed.
+     */
+    boolean isEnabled();
+
+    /**
+     * @param enabled whether operations should be timed.
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Clears the recorded times of every operation.
+     */
+    void resetAll();
+}
@@ -0,0 +1,73 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * The InventoryOperationEvent class is a Java Flight Recorder event for one Inventory operation, such as a lookup or an
+ * update. Along with how long the operation took, it records how many parts or products the operation worked over and
+ * how many it returned or changed, so a recording shows which operations grow with the size of the Inventory.
+ * <p></p>
+ * When no recording is running, creating and finishing the event costs almost nothing. Only operations that take at
+ * least 100 microseconds are recorded by default, so that millions of fast id lookups do not fill the recording; use
+ * ims.InventoryOperation#threshold=0 ms in the recording settings to record every operation.
+ */
+@Name("ims.InventoryOperation")
+@Label("Inventory Operation")
+@Category({"Inventory Management System", "Inventory"})
+@Description("An add, update, delete or lookup of parts or products")
+@Threshold("100 us")
+public class InventoryOperationEvent extends Event {
+
+    // Declare Fields
+
+    /**
+     * The kind of operation, one of the names of InventoryMetrics.Operation.
+     */
+    @Label("Operation")
+    String operation;
+
+    /**
+     * The number of parts or products in the list the operation worked over.
+     */
+    @Label("Collection Size")
+    int collectionSize;
+
+    /**
+     * The number of parts or products the operation returned or changed.
+     */
+    @Label("Result Count")
+    int resultCount;
+
+    // Declare Methods
+
+    /**
+     * Creates the event for an operation and starts timing it.
+     * @param operation The kind of operation.
+     * @return the started event.
+     */
+    public static InventoryOperationEvent start(InventoryMetrics.Operation operation) {
+        InventoryOperationEvent event = new InventoryOperationEvent();
+        event.operation = operation.name();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stops timing the operation and commits the event, if a recording wants it.
+     * @param collectionSize The number of parts or products in the list the operation worked over.
+     * @param resultCount The number of parts or products the operation returned or changed.
+     */
+    public void finish(int collectionSize, int resultCount) {
+        end();
+        if (shouldCommit()) {
+            this.collectionSize = collectionSize;
+            this.resultCount = resultCount;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class records durations in nanoseconds into log-linear buckets, in the style of an HDR histogram.
+ * Each power of two is split into 32 equal buckets, so any percentile is reported within about 3% of the true value
+ * however long the durations are, from a few nanoseconds up to 18 minutes.
+ * <p></p>
+ * Recording takes no locks and allocates nothing, so many threads can record into the same histogram at once.
+ */
+public class LatencyHistogram {
+
+    // Declare Fields
+
+    /**
+     * The number of bits of each duration kept exactly. Each power of two is split into 2 ^ SUB_BUCKET_BITS buckets.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * The number of buckets per power of two.
+     */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The longest duration that can be told apart from longer ones, 2 ^ 40 ns or about 18 minutes.
+     */
+    private static final long HIGHEST_TRACKABLE = (1L << 40) - 1;
+
+    /**
+     * The number of recorded durations in each bucket.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(bucketIndex(HIGHEST_TRACKABLE) + 1);
+
+    /**
+     * The sum of all recorded durations.
+     */
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * The longest recorded duration.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    // Declare Methods
+
+    /**
+     * Finds the bucket for a duration. Durations below 32 ns get a bucket each; above that, the bucket is chosen by the
+     * power of two and the next five bits.
+     * @param nanos The duration, at least 0.
+     * @return the index of the bucket.
+     */
+    private static int bucketIndex(long nanos) {
+        if (nanos < SUB_BUCKET_COUNT) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((nanos >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    /**
+     * Finds the middle of the range of durations that share a bucket, which is the value reported for the bucket.
+     * @param index The index of the bucket.
+     * @return the duration in the middle of the bucket.
+     */
+    private static long bucketMidpoint(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowest = ((long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1)))) << shift;
+        return lowest + ((1L << shift) >>> 1);
+    }
+
+    /**
+     * Records a duration. Negative durations count as 0, and durations over about 18 minutes share the last bucket.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        long clamped = Math.max(0, Math.min(nanos, HIGHEST_TRACKABLE));
+        buckets.getAndIncrement(bucketIndex(clamped));
+        total.add(clamped);
+        // Only try to raise the max when it is actually exceeded, which soon becomes rare.
+        if (clamped > max.get()) {
+            max.accumulateAndGet(clamped, Math::max);
+        }
+    }
+
+    /**
+     * @return the number of recorded durations.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return the sum of all recorded durations in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return total.sum();
+    }
+
+    /**
+     * @return the longest recorded duration in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Finds the duration that the given percentage of recorded durations are at or below.
+     * @param percentile The percentile, between 0 and 100.
+     * @return the duration in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        // Copy the buckets first, so the counts add up even while other threads keep recording.
+        long[] counts = new long[buckets.length()];
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // The bucket midpoint can overshoot the true max for the last bucket in use.
+                return Math.min(bucketMidpoint(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears all recorded durations. Durations recorded while the reset is in progress may be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        total.reset();
+        max.set(0);
+    }
+}
@@ -0,0 +1,37 @@
+package utils;
+
+import javafx.scene.control.TableCell;
+import model.Money;
+
+/**
+ * The MoneyTableCell class displays a price held in minor units, such as the value of the "priceMinor" property of a Part
+ * or Product, with exactly Money.SCALE decimal places. Use it as the cell factory of a price TableColumn.
+ * @param <S> The type of the rows in the table.
+ */
+public class MoneyTableCell<S> extends TableCell<S, Long> {
+
+    // Declare Fields
+
+    /**
+     * Reused for every update, so formatting a cell while scrolling creates only the final String.
+     */
+    private final StringBuilder text = new StringBuilder(24);
+
+    // Declare Methods
+
+    /**
+     * Formats the price for the row, or clears the cell if the row is empty.
+     * @param price The price in minor units.
+     * @param empty Whether the cell is empty.
+     */
+    @Override
+    protected void updateItem(Long price, boolean empty) {
+        super.updateItem(price, empty);
+        if (empty || price == null) {
+            setText(null);
+        } else {
+            text.setLength(0);
+            setText(Money.appendTo(text, price).toString());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The NavigationEvent class is a Java Flight Recorder event for a switch from one form to another. The event's duration
+ * covers the whole switch; the load time is the part of it spent getting the form's view from the SceneCache, which is
+ * only long when the FXML file has to be read and the controller created because the view was not loaded yet.
+ */
+@Name("ims.Navigation")
+@Label("Navigation")
+@Category({"Inventory Management System", "User Interface"})
+@Description("A switch to another form, including loading its FXML file if it was not cached")
+public class NavigationEvent extends Event {
+
+    // Declare Fields
+
+    /**
+     * The FXML file of the form being switched to.
+     */
+    @Label("FXML File")
+    String fxmlFile;
+
+    /**
+     * The time spent getting the form's view, including FXMLLoader.load if the view was not cached.
+     */
+    @Label("Load Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long loadTime;
+
+    /**
+     * When getting the view was started, if the event is enabled. Transient, so it is not written to the recording.
+     */
+    private transient long loadStart;
+
+    // Declare Methods
+
+    /**
+     * Creates the event for a switch to a form and starts timing it.
+     * @param fxmlFile The FXML file of the form being switched to.
+     * @return the started event.
+     */
+    public static NavigationEvent start(String fxmlFile) {
+        NavigationEvent event = new NavigationEvent();
+        event.fxmlFile = fxmlFile;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Marks the start of getting the form's view.
+     */
+    public void loadStarted() {
+        if (isEnabled()) {
+            loadStart = System.nanoTime();
+        }
+    }
+
+    /**
+     * Marks the end of getting the form's view.
+     */
+    public void loadFinished() {
+        if (isEnabled()) {
+            loadTime = System.nanoTime() - loadStart;
+        }
+    }
+
+    /**
+     * Stops timing the switch and commits the event, if a recording wants it.
+     */
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
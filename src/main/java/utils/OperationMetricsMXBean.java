@@ -0,0 +1,54 @@
+package utils;
+
+/**
+ * The management interface for the metrics of one kind of operation, such as looking up a part by id. Each attribute is
+ * read when a tool such as JConsole asks for it. The count is exact; the times come from a sample of the runs, see
+ * InventoryMetrics. All times are in nanoseconds.
+ */
+public interface OperationMetricsMXBean {
+
+    /**
+     * @return the number of times the operation has run.
+     */
+    long getCount();
+
+    /**
+     * @return the number of runs that were timed, which the times below are computed from.
+     */
+    long getSampledCount();
+
+    /**
+     * @return the mean time per operation.
+     */
+    long getMeanNanos();
+
+    /**
+     * @return the longest time an operation took.
+     */
+    long getMaxNanos();
+
+    /**
+     * @return the time that half of the operations completed within.
+     */
+    long getP50Nanos();
+
+    /**
+     * @return the time that 90% of the operations completed within.
+     */
+    long getP90Nanos();
+
+    /**
+     * @return the time that 99% of the operations completed within.
+     */
+    long getP99Nanos();
+
+    /**
+     * @return the time that 99.9% of the operations completed within.
+     */
+    long getP999Nanos();
+
+    /**
+     * Clears the recorded times.
+     */
+    void reset();
+}
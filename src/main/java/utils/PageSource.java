@@ -0,0 +1,24 @@
+package utils;
+
+import java.util.List;
+
+/**
+ * The PageSource interface is implemented by stores that a PagedList reads its rows from, one page at a time. Rows are
+ * numbered from 0 in the store's sort order, which must not change between a call to size() and the fetch that follows.
+ * @param <E> The type of the rows.
+ */
+public interface PageSource<E> {
+
+    /**
+     * @return the number of rows in the store.
+     */
+    int size();
+
+    /**
+     * Reads a range of rows from the store. Called on the JavaFX Application Thread, so it should return quickly.
+     * @param fromIndex The index of the first row, inclusive.
+     * @param toIndex The index after the last row, no more than size().
+     * @return the rows, which the caller may keep. Later changes to the store must not change the returned list.
+     */
+    List<E> fetch(int fromIndex, int toIndex);
+}
@@ -0,0 +1,303 @@
+package utils;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableView;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The PagedList class is a read-only ObservableList that reads its rows from a PageSource one page at a time, for use as
+ * the items of a TableView. A TableView only asks for the rows it is showing, so only the pages around the viewport are
+ * ever read, plus the next page in the direction the user is scrolling. At most a fixed number of pages are kept, the
+ * least recently used being dropped first, so the memory held by the table stays the same however large the store is.
+ * <p></p>
+ * Changes to the store are passed on with sourceChanged(), which drops the pages the change affects and tells the table
+ * exactly which rows changed, so its selection and scroll position are kept. A store that is not an ObservableList reports
+ * its changes row by row between beginSourceEdit() and endSourceEdit() instead. All methods must be called on the JavaFX
+ * Application Thread.
+ * @param <E> The type of the rows.
+ */
+public class PagedList<E> extends ObservableListBase<E> {
+
+    // Declare Fields
+
+    /**
+     * The number of rows in a page by default, enough for a full table and then some.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 64;
+
+    /**
+     * The number of pages kept by default. The pages around the viewport and the prefetched page need three or four.
+     */
+    public static final int DEFAULT_MAX_PAGES = 8;
+
+    /**
+     * The store the rows are read from.
+     */
+    private final PageSource<E> source;
+
+    /**
+     * The number of rows in a page.
+     */
+    private final int pageSize;
+
+    /**
+     * The pages read so far, by page number, with the least recently used first.
+     */
+    private final Map<Integer, List<E>> pages;
+
+    /**
+     * The page of the last row asked for, used to tell which way the user is scrolling. -1 before the first row.
+     */
+    private int lastPage = -1;
+
+    /**
+     * The rows of lastPage, so that reading the rows of one page in turn does not look the page up every time. Null when
+     * the page may have been dropped.
+     */
+    private List<E> lastRows;
+
+    /**
+     * The first page whose rows have moved during the change started by beginSourceEdit(), or Integer.MAX_VALUE if none
+     * have.
+     */
+    private int firstEditedPage = Integer.MAX_VALUE;
+
+    // Declare Methods
+
+    /**
+     * Creates a PagedList with the default page size and number of pages.
+     * @param source The store to read rows from.
+     */
+    public PagedList(PageSource<E> source) {
+        this(source, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    /**
+     * Creates a PagedList.
+     * @param source The store to read rows from.
+     * @param pageSize The number of rows in a page.
+     * @param maxPages The number of pages to keep, at least 2 so the prefetched page does not push out the current one.
+     */
+    public PagedList(PageSource<E> source, int pageSize, int maxPages) {
+        if (pageSize < 1 || maxPages < 2) {
+            throw new IllegalArgumentException("pageSize must be at least 1 and maxPages at least 2");
+        }
+        this.source = Objects.requireNonNull(source);
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(maxPages * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<E>> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    /**
+     * Retrieves a row, reading its page from the store if it is not already kept. When a page is read, the next page in
+     * the direction of scrolling is read with it, so scrolling on does not stop to read again one row later.
+     * @param index The index of the row.
+     * @return the row.
+     */
+    @Override
+    public E get(int index) {
+        Objects.checkIndex(index, size());
+        int page = index / pageSize;
+        if (page == lastPage && lastRows != null) {
+            return lastRows.get(index - page * pageSize);
+        }
+        List<E> rows = pages.get(page);
+        if (rows == null) {
+            rows = load(page);
+            // Prefetch the neighbouring page on the side the user is moving towards.
+            int next = page < lastPage ? page - 1 : page + 1;
+            if (next >= 0 && next * pageSize < size() && !pages.containsKey(next)) {
+                load(next);
+                // Touch the requested page again, so it stays the most recently used.
+                pages.get(page);
+            }
+        }
+        lastPage = page;
+        lastRows = rows;
+        return rows.get(index - page * pageSize);
+    }
+
+    /**
+     * @return the number of rows in the store.
+     */
+    @Override
+    public int size() {
+        return source.size();
+    }
+
+    /**
+     * Reads a page from the store and keeps it.
+     * @param page The page number.
+     * @return the rows of the page.
+     */
+    private List<E> load(int page) {
+        int fromIndex = page * pageSize;
+        List<E> rows = source.fetch(fromIndex, Math.min(fromIndex + pageSize, size()));
+        pages.put(page, rows);
+        return rows;
+    }
+
+    /**
+     * @return the number of pages currently kept.
+     */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Passes on a change to the store, when the store is itself an ObservableList in the same order as the PageSource.
+     * The pages from the first changed row onwards are dropped, as their rows may have moved, and the same change is
+     * fired to this list's listeners.
+     * @param change The change to the store.
+     */
+    public void sourceChanged(ListChangeListener.Change<? extends E> change) {
+        int firstChangedPage = Integer.MAX_VALUE;
+        beginChange();
+        while (change.next()) {
+            firstChangedPage = Math.min(firstChangedPage, change.getFrom() / pageSize);
+            if (change.wasPermutated()) {
+                int[] permutation = new int[change.getTo()];
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    permutation[i] = change.getPermutation(i);
+                }
+                nextPermutation(change.getFrom(), change.getTo(), permutation);
+            } else if (change.wasUpdated()) {
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    nextUpdate(i);
+                }
+            } else {
+                if (change.wasRemoved()) {
+                    nextRemove(change.getFrom(), change.getRemoved());
+                }
+                if (change.wasAdded()) {
+                    nextAdd(change.getFrom(), change.getTo());
+                }
+            }
+        }
+        // Drop the affected pages before the listeners run, as they may read the changed rows.
+        int dropFrom = firstChangedPage;
+        pages.keySet().removeIf(page -> page >= dropFrom);
+        lastRows = null;
+        endChange();
+    }
+
+    /**
+     * Starts a change made of single rows, for a store that is not itself an ObservableList. Each row is then reported
+     * with sourceRowRemoved(), sourceRowReplaced(), sourceRowUpdated() or sourceRowsAdded(), at its index once the rows
+     * reported before it have changed, and the listeners are told of them all at once by endSourceEdit().
+     */
+    public void beginSourceEdit() {
+        beginChange();
+    }
+
+    /**
+     * Reports a row removed from the store. The pages from its page onwards are dropped, as their rows have moved.
+     * @param index The index the row was at.
+     * @param oldRow The row.
+     */
+    public void sourceRowRemoved(int index, E oldRow) {
+        firstEditedPage = Math.min(firstEditedPage, index / pageSize);
+        nextRemove(index, oldRow);
+    }
+
+    /**
+     * Reports a row of the store replaced by another. Only the row's page is dropped.
+     * @param index The index of the row.
+     * @param oldRow The row that was replaced.
+     */
+    public void sourceRowReplaced(int index, E oldRow) {
+        int page = index / pageSize;
+        pages.remove(page);
+        if (page == lastPage) {
+            lastRows = null;
+        }
+        nextSet(index, oldRow);
+    }
+
+    /**
+     * Reports a row of the store whose values have changed. No page is dropped, as the pages hold the same row.
+     * @param index The index of the row.
+     */
+    public void sourceRowUpdated(int index) {
+        nextUpdate(index);
+    }
+
+    /**
+     * Reports rows added to the store. The pages from the first added row's page onwards are dropped.
+     * @param fromIndex The index of the first added row.
+     * @param toIndex The index after the last added row.
+     */
+    public void sourceRowsAdded(int fromIndex, int toIndex) {
+        firstEditedPage = Math.min(firstEditedPage, fromIndex / pageSize);
+        nextAdd(fromIndex, toIndex);
+    }
+
+    /**
+     * Finishes a change started by beginSourceEdit() and tells the listeners about it.
+     */
+    public void endSourceEdit() {
+        // Drop the moved pages before the listeners run, as they may read the changed rows.
+        int dropFrom = firstEditedPage;
+        if (dropFrom != Integer.MAX_VALUE) {
+            pages.keySet().removeIf(page -> page >= dropFrom);
+            lastRows = null;
+        }
+        firstEditedPage = Integer.MAX_VALUE;
+        endChange();
+    }
+
+    /**
+     * Tells the listeners that the store has put the same rows in a new order, as a permutation, so the table keeps its
+     * selection. Every kept page is dropped.
+     * @param permutation The new index of the row at each old index, one for every row.
+     */
+    public void sourceReordered(int[] permutation) {
+        beginChange();
+        pages.clear();
+        lastRows = null;
+        nextPermutation(0, permutation.length, permutation);
+        endChange();
+    }
+
+    /**
+     * Tells the listeners that every row of the store has been replaced, when the change cannot be described any more
+     * exactly. Every kept page is dropped.
+     * @param oldRows The rows the store held before, which must not change while the listeners run.
+     */
+    public void sourceReplaced(List<? extends E> oldRows) {
+        beginChange();
+        pages.clear();
+        lastRows = null;
+        if (!oldRows.isEmpty()) {
+            nextRemove(0, oldRows);
+        }
+        if (size() > 0) {
+            nextAdd(0, size());
+        }
+        endChange();
+    }
+
+    /**
+     * A TableView sort policy that leaves a PagedList in the store's order and sorts any other items as TableView usually
+     * does. A PagedList cannot be sorted in place, and the default policy would copy every row of the store before
+     * finding that out. Set with tableView.setSortPolicy(PagedList::sortUnlessPaged).
+     * @param table The table being sorted.
+     * @param <S> The type of the table's rows.
+     * @return true if the table was sorted, false to put the sort order back as it was.
+     */
+    public static <S> Boolean sortUnlessPaged(TableView<S> table) {
+        if (table.getItems() instanceof PagedList) {
+            return false;
+        }
+        return TableView.DEFAULT_SORT_POLICY.call(table);
+    }
+}
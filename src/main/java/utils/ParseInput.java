@@ -0,0 +1,177 @@
+package utils;
+
+/**
+ * The ParseInput class contains methods for parsing numbers from user input and imported data without throwing
+ * exceptions. Invalid input is reported through a return value instead of a NumberFormatException, so checking input
+ * costs the same whether it is valid or not.
+ * <p></p>
+ * Every method can parse a slice of a CharSequence, so numbers can be read straight out of a CSV line or buffer
+ * without first copying each field into its own String.
+ */
+public class ParseInput {
+
+    // Declare Fields
+
+    /**
+     * Returned by parseInt when the input is not an integer, or does not fit in an int.
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * Exact powers of ten that a double can hold, used by the fast path of parseDecimal.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Declare Methods
+
+    /**
+     * Parses an integer, accepting the same input as Integer.parseInt.
+     * @param text The text to parse.
+     * @return the value, or INVALID if the text is not an integer that fits in an int.
+     */
+    public static long parseInt(CharSequence text) {
+        return parseInt(text, 0, text.length());
+    }
+
+    /**
+     * Parses an integer from part of a CharSequence, accepting the same input as Integer.parseInt.
+     * @param text The text to parse.
+     * @param start The index of the first character.
+     * @param end The index after the last character.
+     * @return the value, or INVALID if the slice is not an integer that fits in an int.
+     */
+    public static long parseInt(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return INVALID;
+        }
+        boolean negative = false;
+        char first = text.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+            if (start == end) {
+                return INVALID;
+            }
+        }
+        // Anything longer than 10 digits after leading zeros cannot fit, and checking here keeps the accumulator from overflowing.
+        while (start < end - 1 && text.charAt(start) == '0') {
+            start++;
+        }
+        if (end - start > 10) {
+            return INVALID;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return INVALID;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a decimal number such as "12.99", "-3", ".5" or "1.5e3". Leading and trailing whitespace is ignored.
+     * Unlike Double.parseDouble, "NaN", "Infinity", hexadecimal and type suffixes are rejected.
+     * @param text The text to parse.
+     * @return the value, or NaN if the text is not a decimal number.
+     */
+    public static double parseDecimal(CharSequence text) {
+        return parseDecimal(text, 0, text.length());
+    }
+
+    /**
+     * Parses a decimal number from part of a CharSequence. See parseDecimal(CharSequence).
+     * @param text The text to parse.
+     * @param start The index of the first character.
+     * @param end The index after the last character.
+     * @return the value, or NaN if the slice is not a decimal number.
+     */
+    public static double parseDecimal(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start >= end) {
+            return Double.NaN;
+        }
+
+        int position = start;
+        boolean negative = false;
+        char first = text.charAt(position);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            position++;
+        }
+
+        // Read the digits, remembering up to 18 significant digits exactly and how many came after the decimal point.
+        long mantissa = 0;
+        int significantDigits = 0;
+        int digitCount = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        boolean exact = true;
+        for (; position < end; position++) {
+            char c = text.charAt(position);
+            if (c == '.') {
+                if (seenPoint) {
+                    return Double.NaN;
+                }
+                seenPoint = true;
+            } else if (c >= '0' && c <= '9') {
+                digitCount++;
+                if (significantDigits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) {
+                        significantDigits++;
+                    }
+                    if (seenPoint) {
+                        fractionDigits++;
+                    }
+                } else {
+                    exact = false;
+                }
+            } else {
+                break;
+            }
+        }
+        if (digitCount == 0) {
+            return Double.NaN;
+        }
+
+        int exponent = 0;
+        if (position < end) {
+            char c = text.charAt(position);
+            if (c != 'e' && c != 'E') {
+                return Double.NaN;
+            }
+            long parsedExponent = parseInt(text, position + 1, end);
+            if (parsedExponent == INVALID) {
+                return Double.NaN;
+            }
+            exponent = (int) parsedExponent;
+        }
+
+        // When the digits fit in 53 bits and the power of ten is exact, one division or multiplication gives the
+        // correctly rounded result. Otherwise the syntax is known to be valid, so Double.parseDouble cannot throw.
+        int scale = exponent - fractionDigits;
+        if (exact && mantissa < (1L << 53) && scale >= -22 && scale <= 22) {
+            double value = scale < 0 ? mantissa / POWERS_OF_TEN[-scale] : mantissa * POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        double value = Double.parseDouble(text.subSequence(start, end).toString());
+        return Double.isInfinite(value) ? Double.NaN : value;
+    }
+}
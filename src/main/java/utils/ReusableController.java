@@ -0,0 +1,19 @@
+package utils;
+
+/**
+ * The ReusableController interface is implemented by controllers whose view is kept by the SceneCache and shown again
+ * instead of being loaded from its FXML file each time. Before the view is shown, reset() is called to put the form back
+ * into the state a freshly loaded form would be in. Any data the form needs, such as the part to modify, is passed to the
+ * controller after the reset.
+ * <p></p>
+ * The SceneCache may load views on a background thread, so a reusable controller's initialize() should leave anything
+ * that reads the Inventory to reset(), which always runs on the JavaFX Application Thread.
+ */
+public interface ReusableController {
+
+    /**
+     * Clears any input and state left over from the last time the view was shown, and refreshes anything that depends
+     * on the Inventory. Called on the JavaFX Application Thread.
+     */
+    void reset();
+}
@@ -0,0 +1,163 @@
+package utils;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The SceneCache class loads each FXML view once and keeps its scene graph and controller, so that switching to a view
+ * again only has to reset its controller rather than parse the FXML and build every node from scratch.
+ * <p></p>
+ * Views can be preloaded on a background thread at startup. Building nodes off the JavaFX Application Thread is allowed
+ * as long as they are not yet part of a showing scene, which cached views are not until they are first shown. A view
+ * that is asked for while it is still being preloaded is waited for; one that has not been started yet is loaded by the
+ * thread that asks for it.
+ */
+public class SceneCache {
+
+    // Declare Fields
+
+    /**
+     * The FXML files of every view in the application, with the main form first.
+     */
+    public static final String[] VIEWS = {
+            "/view/MainForm.fxml",
+            "/view/AddPart.fxml",
+            "/view/AddProduct.fxml",
+            "/view/ModifyPart.fxml",
+            "/view/ModifyProduct.fxml"
+    };
+
+    /**
+     * The loaded, or loading, view for each FXML file.
+     */
+    private static final Map<String, FutureTask<CachedView>> views = new ConcurrentHashMap<>();
+
+    // Declare Methods
+
+    /**
+     * Starts loading the given views on a background thread, one after another.
+     * @param fxmlFiles The FXML files to load.
+     * @return the thread loading the views, which finishes once they are all loaded.
+     */
+    public static Thread preload(String... fxmlFiles) {
+        Thread preloader = new Thread(() -> {
+            for (String fxmlFile : fxmlFiles) {
+                // Running a task that another thread already started, or finished, does nothing.
+                task(fxmlFile).run();
+            }
+        }, "scene-preloader");
+        preloader.setDaemon(true);
+        preloader.start();
+        return preloader;
+    }
+
+    /**
+     * Retrieves the scene of a view, loading the view first if needed. Must be called on the JavaFX Application Thread.
+     * @param fxmlFile The FXML file of the view.
+     * @return the view's scene, the same one every time.
+     * @throws IOException If the FXML file cannot be loaded.
+     */
+    public static Scene getScene(String fxmlFile) throws IOException {
+        CachedView view = view(fxmlFile);
+        // Scenes must be created on the JavaFX Application Thread, so the preloader leaves this until the view is needed.
+        if (view.scene == null) {
+            view.scene = new Scene(view.root);
+        }
+        return view.scene;
+    }
+
+    /**
+     * Retrieves the controller of a view, loading the view first if needed.
+     * @param fxmlFile The FXML file of the view.
+     * @param <T> The type of the controller.
+     * @return the view's controller, the same one every time.
+     * @throws IOException If the FXML file cannot be loaded.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T getController(String fxmlFile) throws IOException {
+        return (T) view(fxmlFile).controller;
+    }
+
+    /**
+     * Finds the task that loads a view, creating it if this is the first time the view is asked for.
+     * @param fxmlFile The FXML file of the view.
+     * @return the task.
+     */
+    private static FutureTask<CachedView> task(String fxmlFile) {
+        return views.computeIfAbsent(fxmlFile, file -> new FutureTask<>(() -> load(file)));
+    }
+
+    /**
+     * Retrieves a loaded view, loading it on this thread if no other thread has started to.
+     * @param fxmlFile The FXML file of the view.
+     * @return the view.
+     * @throws IOException If the FXML file cannot be loaded.
+     */
+    private static CachedView view(String fxmlFile) throws IOException {
+        FutureTask<CachedView> task = task(fxmlFile);
+        task.run();
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            // Forget the failed load so that the next request tries again, rather than failing forever.
+            views.remove(fxmlFile, task);
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Unable to load " + fxmlFile, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + fxmlFile, e);
+        }
+    }
+
+    /**
+     * Loads a view from its FXML file.
+     * @param fxmlFile The FXML file of the view.
+     * @return the view.
+     * @throws IOException If the FXML file cannot be loaded.
+     */
+    private static CachedView load(String fxmlFile) throws IOException {
+        FXMLLoader fxmlLoader = new FXMLLoader(SceneCache.class.getResource(fxmlFile));
+        Parent root = fxmlLoader.load();
+        return new CachedView(root, fxmlLoader.getController());
+    }
+
+    /**
+     * A loaded view: its root node, its controller, and once it has been shown, its scene.
+     */
+    private static final class CachedView {
+
+        /**
+         * The root node of the view.
+         */
+        private final Parent root;
+
+        /**
+         * The view's controller.
+         */
+        private final Object controller;
+
+        /**
+         * The scene holding the root node, created the first time the view is shown. Only used on the JavaFX Application Thread.
+         */
+        private Scene scene;
+
+        /**
+         * Creates a CachedView.
+         * @param root The root node of the view.
+         * @param controller The view's controller.
+         */
+        CachedView(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package utils;
 
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import java.io.IOException;
+import java.util.function.Consumer;
 
 /**
- * The SceneSwap class is a utility class with a single method that swaps the current scene of a JavaFX application to a new FXML file.
+ * The SceneSwap class is a utility class that swaps the current scene of a JavaFX application to the view of a different FXML file.
+ * Views come from the SceneCache, so each FXML file is only loaded once and later swaps reuse its scene and controller.
  */
 public class SceneSwap {
 
@@ -18,19 +18,47 @@ public class SceneSwap {
     // Declare Methods
 
     /**
-     * The swapScene method can be called to load a different FXML file in response to an actionEvent. Does not include functionality for passing data between controllers.
-     * @param fxmlFile The path and name for the fxml file to be loaded.
+     * Sets the stage that scenes are swapped on, so the first scene can be shown before there is an actionEvent to find the stage from.
+     * @param primaryStage The primary stage of the application.
+     */
+    public static void setStage(Stage primaryStage) {
+        stage = primaryStage;
+    }
+
+    /**
+     * The swapScene method can be called to show the view of a different FXML file in response to an actionEvent. Does not include functionality for passing data between controllers.
+     * @param fxmlFile The path and name for the fxml file to be shown.
      * @param eventSource The fx:id of the source of the actionEvent. Null if no actionEvent to be used.
      */
     public static void swapScene(String fxmlFile, Object eventSource) {
+        swapScene(fxmlFile, eventSource, null);
+    }
+
+    /**
+     * Shows the view of a different FXML file and passes data to its controller. If the controller is a ReusableController,
+     * it is reset before the data is passed, so nothing is left over from the last time the view was shown.
+     * @param fxmlFile The path and name for the fxml file to be shown.
+     * @param eventSource The fx:id of the source of the actionEvent. Null if no actionEvent to be used.
+     * @param receiveData Passes data to the controller of the view, or null if there is nothing to pass.
+     * @param <T> The type of the controller.
+     */
+    public static <T> void swapScene(String fxmlFile, Object eventSource, Consumer<T> receiveData) {
+        long start = InventoryMetrics.begin();
+        NavigationEvent navigation = NavigationEvent.start(fxmlFile);
         try {
-            // Create a new FXMLLoader instance and set the location of the FXML file
-            FXMLLoader fxmlLoader = new FXMLLoader();
-            fxmlLoader.setLocation(SceneSwap.class.getResource(fxmlFile));
+            // Get the view from the cache, which only loads the FXML file if it has not been loaded before
+            navigation.loadStarted();
+            Scene scene = SceneCache.getScene(fxmlFile);
+            T controller = SceneCache.getController(fxmlFile);
+            navigation.loadFinished();
 
-            // Load the FXML file and get the root node
-            Parent root = fxmlLoader.load();
-            Scene scene = new Scene(root);
+            // Clear the view from its last use, then hand over any data it needs
+            if (controller instanceof ReusableController) {
+                ((ReusableController) controller).reset();
+            }
+            if (receiveData != null) {
+                receiveData.accept(controller);
+            }
 
             // Get the current stage and set the new scene
             if (stage == null) {
@@ -44,7 +72,7 @@ public class SceneSwap {
             System.out.println("An error occurred while swapping scenes: " + e.getMessage());
             e.printStackTrace();
         }
+        InventoryMetrics.end(InventoryMetrics.Operation.SCENE_SWAP, start);
+        navigation.finish();
     }
 }
-
-
@@ -0,0 +1,74 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The SearchEvent class is a Java Flight Recorder event for a search typed into one of the search boxes. It covers the
+ * whole search, from reading the query to showing the results in the table, but not the time an alert is open.
+ */
+@Name("ims.Search")
+@Label("Search")
+@Category({"Inventory Management System", "User Interface"})
+@Description("A search typed into a parts or products search box")
+public class SearchEvent extends Event {
+
+    // Declare Fields
+
+    /**
+     * The kind of search, InventoryMetrics.Operation.PART_SEARCH or PRODUCT_SEARCH.
+     */
+    @Label("Search")
+    String search;
+
+    /**
+     * The text typed into the search box.
+     */
+    @Label("Query")
+    String query;
+
+    /**
+     * Whether the query was an id rather than a name.
+     */
+    @Label("By Id")
+    boolean byId;
+
+    /**
+     * The number of parts or products shown as the result.
+     */
+    @Label("Result Count")
+    int resultCount;
+
+    // Declare Methods
+
+    /**
+     * Creates the event for a search and starts timing it.
+     * @param search The kind of search.
+     * @param query The text typed into the search box.
+     * @return the started event.
+     */
+    public static SearchEvent start(InventoryMetrics.Operation search, String query) {
+        SearchEvent event = new SearchEvent();
+        event.search = search.name();
+        event.query = query;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stops timing the search and commits the event, if a recording wants it.
+     * @param byId Whether the query was an id rather than a name.
+     * @param resultCount The number of parts or products shown as the result.
+     */
+    public void finish(boolean byId, int resultCount) {
+        end();
+        if (shouldCommit()) {
+            this.byId = byId;
+            this.resultCount = resultCount;
+            commit();
+        }
+    }
+}
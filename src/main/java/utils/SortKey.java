@@ -0,0 +1,203 @@
+package utils;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * The SortKey class turns one column of a table's rows into an array of int keys, so rows can be sorted by comparing
+ * primitives instead of calling a Comparator on boxed cell values. The keys are compared as unsigned ints: whole numbers
+ * have their sign bit flipped, and longs and text are replaced by their rank among the column's distinct values.
+ * <p></p>
+ * order() sorts by any number of keys at once. Every step runs in parallel on the common ForkJoinPool, and none of them
+ * may be run on the JavaFX Application Thread for a large table.
+ * @param <T> The type of the rows.
+ */
+public abstract class SortKey<T> {
+
+    // Declare Fields
+
+    /**
+     * The Collator text is ordered by, which follows the user's language. Collators are not safe to share between
+     * threads, so each thread collates with its own copy.
+     */
+    private static final Collator COLLATOR = Collator.getInstance();
+
+    /**
+     * Each thread's copy of COLLATOR.
+     */
+    private static final ThreadLocal<Collator> THREAD_COLLATOR = ThreadLocal.withInitial(() -> (Collator) COLLATOR.clone());
+
+    // Declare Methods
+
+    /**
+     * Computes the key of every row.
+     * @param rows The rows.
+     * @return the keys, compared as unsigned ints, in the same order as the rows.
+     */
+    abstract int[] keys(T[] rows);
+
+    /**
+     * Creates a key that orders rows by a whole number, such as the id or stock.
+     * @param value Reads the number from a row.
+     * @param <T> The type of the rows.
+     * @return the key.
+     */
+    public static <T> SortKey<T> ofInt(ToIntFunction<? super T> value) {
+        return new SortKey<>() {
+            @Override
+            int[] keys(T[] rows) {
+                int[] keys = new int[rows.length];
+                Arrays.parallelSetAll(keys, i -> value.applyAsInt(rows[i]) ^ Integer.MIN_VALUE);
+                return keys;
+            }
+        };
+    }
+
+    /**
+     * Creates a key that orders rows by a long, such as the price in minor units.
+     * @param value Reads the long from a row.
+     * @param <T> The type of the rows.
+     * @return the key.
+     */
+    public static <T> SortKey<T> ofLong(ToLongFunction<? super T> value) {
+        return new SortKey<>() {
+            @Override
+            int[] keys(T[] rows) {
+                long[] values = new long[rows.length];
+                Arrays.parallelSetAll(values, i -> value.applyAsLong(rows[i]));
+                long[] distinct = values.clone();
+                Arrays.parallelSort(distinct);
+                int distinctCount = 0;
+                for (int i = 0; i < distinct.length; i++) {
+                    if (i == 0 || distinct[i] != distinct[distinctCount - 1]) {
+                        distinct[distinctCount++] = distinct[i];
+                    }
+                }
+                // Each value's rank is its position among the distinct values, so equal values get equal keys
+                int count = distinctCount;
+                int[] keys = new int[rows.length];
+                Arrays.parallelSetAll(keys, i -> Arrays.binarySearch(distinct, 0, count, values[i]));
+                return keys;
+            }
+        };
+    }
+
+    /**
+     * Creates a key that orders rows by a double, such as the days of cover. Infinity orders after every number.
+     * @param value Reads the double from a row.
+     * @param <T> The type of the rows.
+     * @return the key.
+     */
+    public static <T> SortKey<T> ofDouble(ToDoubleFunction<? super T> value) {
+        // Flipping every bit but the sign of a negative double makes the bits order like the doubles do
+        return ofLong(row -> {
+            long bits = Double.doubleToLongBits(value.applyAsDouble(row));
+            return bits ^ (bits >> 63 & Long.MAX_VALUE);
+        });
+    }
+
+    /**
+     * Creates a key that orders rows by text, such as the name, in the order of the user's language rather than by
+     * character code. Each distinct text is collated once, however many rows share it.
+     * @param value Reads the text from a row. Null is ordered as an empty text.
+     * @param <T> The type of the rows.
+     * @return the key.
+     */
+    public static <T> SortKey<T> ofText(Function<? super T, String> value) {
+        return new SortKey<>() {
+            @Override
+            int[] keys(T[] rows) {
+                String[] texts = new String[rows.length];
+                Arrays.parallelSetAll(texts, i -> Objects.toString(value.apply(rows[i]), ""));
+                CollationKey[] collationKeys = Arrays.stream(texts).parallel().distinct()
+                        .map(text -> THREAD_COLLATOR.get().getCollationKey(text))
+                        .toArray(CollationKey[]::new);
+                Arrays.parallelSort(collationKeys);
+                // Texts the collator sees as equal, such as ones that only differ in ways the collator ignores, share a rank
+                Map<String, Integer> ranks = new HashMap<>(collationKeys.length * 2);
+                int rank = 0;
+                for (int i = 0; i < collationKeys.length; i++) {
+                    if (i > 0 && collationKeys[i].compareTo(collationKeys[i - 1]) != 0) {
+                        rank++;
+                    }
+                    ranks.put(collationKeys[i].getSourceString(), rank);
+                }
+                int[] keys = new int[rows.length];
+                Arrays.parallelSetAll(keys, i -> ranks.get(texts[i]));
+                return keys;
+            }
+        };
+    }
+
+    /**
+     * Sorts rows by several keys, the first key deciding the order and each later key only ordering rows the keys before
+     * it found equal. Rows equal on every key keep their order. The rows are not moved; instead the order they would be
+     * in is returned, as an index into rows for each position.
+     * <p></p>
+     * The rows are sorted once per key, last key first. Each pass packs a row's key and its position after the last pass
+     * into one long and sorts the longs with Arrays.parallelSort, so ties keep the order of the pass before and no
+     * Comparator is ever called.
+     * @param rows The rows to sort.
+     * @param keys The keys to sort by, most significant first.
+     * @param descending Whether each key sorts from high to low, in the same order as keys.
+     * @param <T> The type of the rows.
+     * @return the index in rows of the row at each sorted position.
+     */
+    public static <T> int[] order(T[] rows, List<SortKey<T>> keys, boolean[] descending) {
+        int[] order = IntStream.range(0, rows.length).parallel().toArray();
+        long[] packed = new long[rows.length];
+        for (int k = keys.size() - 1; k >= 0; k--) {
+            int[] rowKeys = keys.get(k).keys(rows);
+            // A descending key flips every bit, which reverses the unsigned order
+            int flip = descending[k] ? -1 : 0;
+            int[] previous = order;
+            Arrays.parallelSetAll(packed, position ->
+                    (Integer.toUnsignedLong(rowKeys[previous[position]] ^ flip) << 32) | position);
+            Arrays.parallelSort(packed);
+            int[] next = new int[rows.length];
+            Arrays.parallelSetAll(next, position -> previous[(int) packed[position]]);
+            order = next;
+        }
+        return order;
+    }
+
+    /**
+     * Checks whether pairs of rows are each in order by several keys, so a few rows that changed can be checked against
+     * their neighbours without sorting every row again. A pair that is equal on every key counts as in order.
+     * @param pairs The rows to compare, the first row of each pair at an even index and the second row just after it.
+     * @param keys The keys to sort by, most significant first.
+     * @param descending Whether each key sorts from high to low, in the same order as keys.
+     * @param <T> The type of the rows.
+     * @return true if no pair has its second row ordered before its first.
+     */
+    static <T> boolean pairsInOrder(T[] pairs, List<SortKey<T>> keys, boolean[] descending) {
+        // Keys are only comparable within one call of keys(), so every pair is keyed together
+        int[][] pairKeys = new int[keys.size()][];
+        for (int k = 0; k < keys.size(); k++) {
+            pairKeys[k] = keys.get(k).keys(pairs);
+        }
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            for (int k = 0; k < keys.size(); k++) {
+                int flip = descending[k] ? -1 : 0;
+                int compared = Integer.compareUnsigned(pairKeys[k][i] ^ flip, pairKeys[k][i + 1] ^ flip);
+                if (compared > 0) {
+                    return false;
+                }
+                if (compared < 0) {
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,120 @@
+package utils;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The StartupTimer class measures the time from the start of the process to the first frame of the main form, and holds
+ * back startup work the first frame does not need, such as loading the other forms, until that frame has been laid out.
+ * <p></p>
+ * Two system properties control it:
+ * <ul>
+ *     <li>-Dims.startup.report=true prints the time to first frame, as "Time to first frame: 612 ms".</li>
+ *     <li>-Dims.startup.exit=true exits the application once the deferred startup work has finished. The class data
+ *     sharing training run and the startup harness use this to start the application without anyone closing it.</li>
+ * </ul>
+ */
+public final class StartupTimer {
+
+    // Declare Fields
+
+    /**
+     * The start of the line printed with -Dims.startup.report=true, followed by the time in milliseconds.
+     */
+    public static final String REPORT_PREFIX = "Time to first frame: ";
+
+    /**
+     * Whether to print the time to first frame.
+     */
+    private static final boolean REPORT = Boolean.getBoolean("ims.startup.report");
+
+    /**
+     * Whether to exit once the deferred startup work has finished.
+     */
+    private static final boolean EXIT = Boolean.getBoolean("ims.startup.exit");
+
+    /**
+     * The time to first frame in milliseconds, or -1 until the first frame has been laid out.
+     */
+    private static volatile long timeToFirstFrameMillis = -1;
+
+    // Declare Methods
+
+    /**
+     * StartupTimer only has static methods.
+     */
+    private StartupTimer() {
+    }
+
+    /**
+     * Runs deferred startup work once the first frame of a scene has been laid out, and records the time to first frame.
+     * Must be called on the JavaFX Application Thread, before the scene's first pulse.
+     * @param scene The scene shown first.
+     * @param deferred The startup work to run once the first frame is out of the way. Runs on the JavaFX Application Thread.
+     */
+    public static void afterFirstFrame(Scene scene, Runnable deferred) {
+        Runnable firstPulse = new Runnable() {
+            @Override
+            public void run() {
+                if (timeToFirstFrameMillis >= 0) {
+                    return;
+                }
+                timeToFirstFrameMillis = millisSinceStart();
+
+                // Listeners cannot be removed while the pulse is running them, and the frame still has to be rendered,
+                // so the rest waits until the pulse is over.
+                Platform.runLater(() -> {
+                    scene.removePostLayoutPulseListener(this);
+                    if (REPORT) {
+                        System.out.println(REPORT_PREFIX + timeToFirstFrameMillis + " ms");
+                    }
+                    deferred.run();
+                });
+            }
+        };
+        scene.addPostLayoutPulseListener(firstPulse);
+    }
+
+    /**
+     * Exits the application once the given startup work has finished, if -Dims.startup.exit=true was given. Otherwise
+     * does nothing.
+     * @param work The threads doing startup work in the background.
+     */
+    public static void exitAfter(Thread... work) {
+        if (!EXIT) {
+            return;
+        }
+        Thread exiter = new Thread(() -> {
+            for (Thread thread : work) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            Platform.exit();
+        }, "startup-exit");
+        exiter.setDaemon(true);
+        exiter.start();
+    }
+
+    /**
+     * @return the time to first frame in milliseconds, or -1 if the first frame has not been laid out yet.
+     */
+    public static long getTimeToFirstFrameMillis() {
+        return timeToFirstFrameMillis;
+    }
+
+    /**
+     * Works out how long ago the process started, which includes starting the JVM and loading the JavaFX runtime.
+     * @return the milliseconds since the process started.
+     */
+    private static long millisSinceStart() {
+        Instant processStart = ProcessHandle.current().info().startInstant().orElse(Instant.now());
+        return Duration.between(processStart, Instant.now()).toMillis();
+    }
+}
@@ -0,0 +1,456 @@
+package utils;
+
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * The TableSorter class sorts a large table off the JavaFX Application Thread. It gives the table a PagedList of the rows,
+ * which shows them in their store's order until the user clicks a column header. The rows are then copied into an array,
+ * and a background thread works out their order from primitive keys with SortKey.order(), using every core. When the order
+ * is ready, it is swapped into the PagedList in one change, as a permutation so the selection is kept.
+ * <p></p>
+ * Sorting by several columns works as it does in any TableView, by shift-clicking the headers. Only columns given a key
+ * with sortBy() can be sorted. While the table is sorted, removed, replaced and updated rows are changed in place straight
+ * away. Added rows are shown at the end, and they or a changed row that no longer fits where it is start a new sort, which
+ * moves them into place when it finishes. When the table shows other items, such as search results, they are sorted
+ * as TableView usually does.
+ * <p></p>
+ * All methods must be called on the JavaFX Application Thread.
+ * @param <T> The type of the rows.
+ */
+public class TableSorter<T> {
+
+    // Declare Fields
+
+    /**
+     * The thread every sort is run from. The sorting itself is spread over the common ForkJoinPool.
+     */
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "table-sort");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The rows, in their store's order.
+     */
+    private final ObservableList<T> rows;
+
+    /**
+     * The key of each column that can be sorted.
+     */
+    private final Map<TableColumn<T, ?>, SortKey<T>> keys = new HashMap<>();
+
+    /**
+     * The items given to the table, which read from rows or sortedRows.
+     */
+    private final PagedList<T> items;
+
+    /**
+     * The rows in sorted order, or null while the table shows them in their store's order.
+     */
+    private List<T> sortedRows;
+
+    /**
+     * The index in rows of the row at each position of sortedRows, or null while the table shows the store's order.
+     */
+    private int[] shownOrder;
+
+    /**
+     * The value of rowsVersion when the rows were copied for sortedRows.
+     */
+    private long shownVersion;
+
+    /**
+     * Counts the changes to rows, so a sort can tell whether the rows it copied are still current.
+     */
+    private long rowsVersion;
+
+    /**
+     * The columns the user last asked to sort by, most significant first. Empty for the store's order.
+     */
+    private List<TableColumn<T, ?>> sortColumns = List.of();
+
+    /**
+     * The sort type of each column in sortColumns.
+     */
+    private List<TableColumn.SortType> sortTypes = List.of();
+
+    /**
+     * The number of the latest sort. A sort whose number is no longer the latest has been cancelled.
+     */
+    private volatile long generation;
+
+    /**
+     * The latest sort, while it is waiting or running.
+     */
+    private Future<?> pending;
+
+    /**
+     * Whether a new sort has been queued after a change to the rows.
+     */
+    private boolean resortQueued;
+
+    // Declare Methods
+
+    /**
+     * Creates a TableSorter and makes it the table's sort policy. The table is not given the items; set them with
+     * table.setItems(getItems()).
+     * @param table The table to sort.
+     * @param rows The rows, in their store's order. Must only change on the JavaFX Application Thread.
+     */
+    public TableSorter(TableView<T> table, ObservableList<T> rows) {
+        this.rows = rows;
+        this.items = new PagedList<>(new PageSource<T>() {
+            @Override
+            public int size() {
+                return sortedRows == null ? rows.size() : sortedRows.size();
+            }
+
+            @Override
+            public List<T> fetch(int fromIndex, int toIndex) {
+                return new ArrayList<>((sortedRows == null ? rows : sortedRows).subList(fromIndex, toIndex));
+            }
+        });
+        rows.addListener((ListChangeListener<T>) this::rowsChanged);
+        table.setSortPolicy(this::sort);
+    }
+
+    /**
+     * Lets a column be sorted.
+     * @param column The column.
+     * @param key The key that orders the rows the same way as the column's values.
+     * @return this TableSorter, to add more columns.
+     */
+    public TableSorter<T> sortBy(TableColumn<T, ?> column, SortKey<T> key) {
+        keys.put(column, key);
+        return this;
+    }
+
+    /**
+     * @return the items to give the table, in the order the user last asked for.
+     */
+    public PagedList<T> getItems() {
+        return items;
+    }
+
+    /**
+     * The table's sort policy. Called when the user changes the sort order. Starts a sort of the items in the background
+     * and returns straight away.
+     * @param table The table being sorted.
+     * @return true if the table is being sorted, false to put the sort order back as it was.
+     */
+    private Boolean sort(TableView<T> table) {
+        if (table.getItems() != items) {
+            // The table shows something else, so the items go back to the store's order ready for when they return
+            requestOrder(List.of(), List.of());
+            return PagedList.sortUnlessPaged(table);
+        }
+        List<TableColumn<T, ?>> columns = new ArrayList<>(table.getSortOrder());
+        List<TableColumn.SortType> types = new ArrayList<>();
+        for (TableColumn<T, ?> column : columns) {
+            if (!keys.containsKey(column)) {
+                return false;
+            }
+            types.add(column.getSortType());
+        }
+        requestOrder(columns, types);
+        return true;
+    }
+
+    /**
+     * Starts sorting by the given columns, unless the items are already sorted or being sorted that way.
+     * @param columns The columns, most significant first. Empty for the store's order.
+     * @param types The sort type of each column.
+     */
+    private void requestOrder(List<TableColumn<T, ?>> columns, List<TableColumn.SortType> types) {
+        if (columns.equals(sortColumns) && types.equals(sortTypes)) {
+            return;
+        }
+        sortColumns = columns;
+        sortTypes = types;
+        if (columns.isEmpty()) {
+            cancel();
+            showStoreOrder();
+        } else {
+            start();
+        }
+    }
+
+    /**
+     * Cancels the latest sort, if it has not finished, so its order is never shown.
+     */
+    private void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    /**
+     * Cancels the latest sort and starts a new one by sortColumns, from a copy of the rows as they are now.
+     */
+    private void start() {
+        cancel();
+        long sortGeneration = generation;
+        long version = rowsVersion;
+        @SuppressWarnings("unchecked")
+        T[] snapshot = (T[]) rows.toArray();
+        List<SortKey<T>> sortKeys = sortKeys();
+        boolean[] descending = descending();
+        // The order shown now, to turn the new order into a permutation of it
+        int[] previousOrder = shownOrder;
+        boolean permutable = shownOrder == null || shownVersion == version;
+
+        pending = EXECUTOR.submit(() -> {
+            int[] order = SortKey.order(snapshot, sortKeys, descending);
+            if (generation != sortGeneration) {
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            T[] sorted = (T[]) new Object[snapshot.length];
+            Arrays.parallelSetAll(sorted, position -> snapshot[order[position]]);
+            int[] permutation = permutable ? permutation(previousOrder, order) : null;
+            // Copied here rather than on the JavaFX Application Thread, so later changes can be made to it in place
+            List<T> sortedList = new ArrayList<>(Arrays.asList(sorted));
+
+            Platform.runLater(() -> {
+                // A change to the rows since they were copied has queued a new sort, so this order is already out of date
+                if (generation != sortGeneration || rowsVersion != version) {
+                    return;
+                }
+                pending = null;
+                show(sortedList, order, version, permutation);
+            });
+        });
+    }
+
+    /**
+     * @return the key of each column in sortColumns.
+     */
+    private List<SortKey<T>> sortKeys() {
+        List<SortKey<T>> sortKeys = new ArrayList<>();
+        for (TableColumn<T, ?> column : sortColumns) {
+            sortKeys.add(keys.get(column));
+        }
+        return sortKeys;
+    }
+
+    /**
+     * @return whether each column in sortColumns sorts from high to low.
+     */
+    private boolean[] descending() {
+        boolean[] descending = new boolean[sortTypes.size()];
+        for (int i = 0; i < sortTypes.size(); i++) {
+            descending[i] = sortTypes.get(i) == TableColumn.SortType.DESCENDING;
+        }
+        return descending;
+    }
+
+    /**
+     * Works out where each row shown now moves to in a new order of the same rows.
+     * @param previousOrder The index in the copied rows of the row at each position shown now, or null for the store's order.
+     * @param order The index in the copied rows of the row at each position of the new order.
+     * @return the new position of the row at each position shown now.
+     */
+    private static int[] permutation(int[] previousOrder, int[] order) {
+        int[] newPosition = new int[order.length];
+        // Every row is at exactly one position, so the writes never collide
+        IntStream.range(0, order.length).parallel().forEach(position -> newPosition[order[position]] = position);
+        if (previousOrder == null) {
+            return newPosition;
+        }
+        int[] permutation = new int[order.length];
+        Arrays.parallelSetAll(permutation, position -> newPosition[previousOrder[position]]);
+        return permutation;
+    }
+
+    /**
+     * Swaps a new order into the items.
+     * @param sorted The rows in the new order.
+     * @param order The index in the copied rows of the row at each position.
+     * @param version The value of rowsVersion when the rows were copied.
+     * @param permutation The new position of each row shown before, or null if the rows shown before were copied from an
+     *                    older version of the rows.
+     */
+    private void show(List<T> sorted, int[] order, long version, int[] permutation) {
+        List<T> oldRows = sortedRows;
+        sortedRows = sorted;
+        shownOrder = order;
+        shownVersion = version;
+        if (permutation != null) {
+            items.sourceReordered(permutation);
+        } else {
+            items.sourceReplaced(oldRows);
+        }
+    }
+
+    /**
+     * Puts the items back in the store's order.
+     */
+    private void showStoreOrder() {
+        if (sortedRows == null) {
+            return;
+        }
+        List<T> oldRows = sortedRows;
+        int[] oldOrder = shownOrder;
+        boolean permutable = shownVersion == rowsVersion;
+        sortedRows = null;
+        shownOrder = null;
+        // Each row moves back to its index in the store, which is its index in the copied rows if the store has not changed
+        if (permutable) {
+            items.sourceReordered(oldOrder);
+        } else {
+            items.sourceReplaced(oldRows);
+        }
+    }
+
+    /**
+     * Passes a change to the rows on to the items. While they are sorted, removed and replaced rows are changed in place
+     * in sortedRows and added rows are put at the end, so the table shows the change straight away. Then only if a row
+     * was added, or a replaced or updated row is now out of order with its neighbours, the rows are sorted again once the
+     * current event is handled, so a batch of changes leads to one sort.
+     * @param change The change to the rows.
+     */
+    private void rowsChanged(ListChangeListener.Change<? extends T> change) {
+        rowsVersion++;
+        if (sortedRows == null) {
+            items.sourceChanged(change);
+            if (!sortColumns.isEmpty()) {
+                queueSort();
+            }
+            return;
+        }
+        Set<T> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<T, T> replaced = new IdentityHashMap<>();
+        Set<T> updated = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<T> added = new ArrayList<>();
+        while (change.next()) {
+            // A new order of the rows in the store leaves their sorted order as it is
+            if (change.wasPermutated()) {
+                continue;
+            }
+            if (change.wasUpdated()) {
+                updated.addAll(change.getList().subList(change.getFrom(), change.getTo()));
+            } else {
+                // Replacements next to removals or additions are merged with them, so removed and added rows are paired
+                // up in order. A pair that was not really a replacement still ends up in order, as every replacement is
+                // checked against its neighbours.
+                List<? extends T> oldRows = change.getRemoved();
+                List<? extends T> newRows = change.getAddedSubList();
+                int pairs = Math.min(oldRows.size(), newRows.size());
+                for (int i = 0; i < pairs; i++) {
+                    replaced.put(oldRows.get(i), newRows.get(i));
+                }
+                removed.addAll(oldRows.subList(pairs, oldRows.size()));
+                added.addAll(newRows.subList(pairs, newRows.size()));
+            }
+        }
+
+        // The positions of the replaced and updated rows, to check them against their neighbours
+        int[] changed = new int[replaced.size() + updated.size()];
+        int changedCount = 0;
+        int remaining = removed.size() + replaced.size() + updated.size();
+        items.beginSourceEdit();
+        try {
+            // The kept rows are moved down over the removed ones in place, stopping once every changed row has been found
+            int scanned = 0;
+            int kept = 0;
+            for (; scanned < sortedRows.size() && remaining > 0; scanned++) {
+                T row = sortedRows.get(scanned);
+                if (removed.contains(row)) {
+                    items.sourceRowRemoved(kept, row);
+                    remaining--;
+                    continue;
+                }
+                T replacement = replaced.get(row);
+                if (replacement != null) {
+                    sortedRows.set(kept, replacement);
+                    items.sourceRowReplaced(kept, row);
+                    changed[changedCount++] = kept++;
+                    remaining--;
+                    continue;
+                }
+                if (updated.contains(row)) {
+                    items.sourceRowUpdated(kept);
+                    changed[changedCount++] = kept;
+                    remaining--;
+                }
+                sortedRows.set(kept++, row);
+            }
+            sortedRows.subList(kept, scanned).clear();
+            if (!added.isEmpty()) {
+                int firstAdded = sortedRows.size();
+                sortedRows.addAll(added);
+                items.sourceRowsAdded(firstAdded, sortedRows.size());
+            }
+        } finally {
+            items.endSourceEdit();
+        }
+
+        // A sort still running was started from rows that have now changed, so it is started again
+        if (pending != null || !added.isEmpty() || !inOrder(changed, changedCount)) {
+            queueSort();
+        }
+    }
+
+    /**
+     * Checks whether rows of sortedRows are still in order with the rows either side of them.
+     * @param positions The positions of the rows in sortedRows.
+     * @param count The number of positions to check.
+     * @return true if every row is in order with its neighbours.
+     */
+    private boolean inOrder(int[] positions, int count) {
+        if (count == 0) {
+            return true;
+        }
+        List<T> pairs = new ArrayList<>(count * 4);
+        for (int i = 0; i < count; i++) {
+            int position = positions[i];
+            if (position > 0) {
+                pairs.add(sortedRows.get(position - 1));
+                pairs.add(sortedRows.get(position));
+            }
+            if (position + 1 < sortedRows.size()) {
+                pairs.add(sortedRows.get(position));
+                pairs.add(sortedRows.get(position + 1));
+            }
+        }
+        @SuppressWarnings("unchecked")
+        T[] pairArray = (T[]) pairs.toArray();
+        return SortKey.pairsInOrder(pairArray, sortKeys(), descending());
+    }
+
+    /**
+     * Sorts the rows again once the current event is handled, unless that has already been queued.
+     */
+    private void queueSort() {
+        if (resortQueued) {
+            return;
+        }
+        resortQueued = true;
+        Platform.runLater(() -> {
+            resortQueued = false;
+            if (!sortColumns.isEmpty()) {
+                start();
+            }
+        });
+    }
+}
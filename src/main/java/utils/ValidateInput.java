@@ -4,102 +4,227 @@ package utils;
 /**
  * The ValidateInput class contains methods for validating user input. It also builds an error message that can be used to
  * inform the user about which of their inputs need to be corrected and how to correct them.
+ * <p></p>
+ * The check methods return a bitmask of the rules that were broken, made of the constants below, and allocate nothing.
+ * A result of 0 means the input is valid. The message for a bitmask is only built when it is needed, by describe(),
+ * which lets bulk paths such as imports validate millions of rows without creating any Strings.
  */
 public class ValidateInput {
 
-    // Declare Methods
+    // Declare Fields
 
     /**
-     * Validates input for a new Product without a Company Name field and if needed, creates an error message string
-     * that can be used to prompt the user for any corrections needed to their inputs.
-     * @param name The name of the product.
-     * @param stock The amount of stock for the product.
-     * @param price The price of the product.
-     * @param min The minimum amount of stock for the product.
-     * @param max The maximum amount of stock for the product.
-     * @return errorMessage A String containing error messages for the invalid input.
+     * The name is empty.
      */
-    public static String validateInputProduct(String name, int stock, double price, int min, int max) {
-        String errorMessage = "";
+    public static final int NAME_EMPTY = 1;
 
-        if (name.isEmpty()) {
-            errorMessage += "• Name field is empty\n";
-        }
+    /**
+     * The inventory level is zero or negative.
+     */
+    public static final int STOCK_NOT_POSITIVE = 1 << 1;
+
+    /**
+     * The inventory level is not between min and max.
+     */
+    public static final int STOCK_OUT_OF_RANGE = 1 << 2;
+
+    /**
+     * The price is zero or negative.
+     */
+    public static final int PRICE_NOT_POSITIVE = 1 << 3;
+
+    /**
+     * The max is zero or negative.
+     */
+    public static final int MAX_NOT_POSITIVE = 1 << 4;
+
+    /**
+     * The min is zero or negative.
+     */
+    public static final int MIN_NOT_POSITIVE = 1 << 5;
+
+    /**
+     * The max is less than the min.
+     */
+    public static final int MAX_BELOW_MIN = 1 << 6;
+
+    /**
+     * The company name of an outsourced part is empty.
+     */
+    public static final int COMPANY_NAME_EMPTY = 1 << 7;
+
+    /**
+     * The machine ID of an in-house part is zero or negative.
+     */
+    public static final int MACHINE_ID_NOT_POSITIVE = 1 << 8;
 
+    /**
+     * The message line for each rule, in bit order.
+     */
+    private static final String[] MESSAGES = {
+            "• Name field is empty\n",
+            "• Inventory must be a positive integer\n",
+            "• Inventory value must be between min and max.\n",
+            "• Price must be a positive decimal number\n",
+            "• Maximum value must be a positive integer\n",
+            "• Minimum value must be a positive integer\n",
+            "• Maximum value must be greater than or equal to minimum value\n",
+            "• Company Name must be entered.\n",
+            "• Machine ID must be entered.\n"
+    };
+
+    // Declare Methods
+
+    /**
+     * Checks the fields shared by Products and Parts.
+     * @param name The name.
+     * @param stock The amount of stock.
+     * @param price The price.
+     * @param min The minimum amount of stock.
+     * @param max The maximum amount of stock.
+     * @return the bitmask of broken rules, 0 if the input is valid.
+     */
+    public static int checkProduct(CharSequence name, int stock, double price, int min, int max) {
+        int violations = 0;
+        if (name.length() == 0) {
+            violations |= NAME_EMPTY;
+        }
         if (stock <= 0) {
-            errorMessage += "• Inventory must be a positive integer\n";
+            violations |= STOCK_NOT_POSITIVE;
         }
-
         if (stock < min || stock > max) {
-            errorMessage += "• Inventory value must be between min and max.\n";
+            violations |= STOCK_OUT_OF_RANGE;
         }
-
         if (price <= 0) {
-            errorMessage += "• Price must be a positive decimal number\n";
+            violations |= PRICE_NOT_POSITIVE;
         }
-
         if (max <= 0) {
-            errorMessage += "• Maximum value must be a positive integer\n";
+            violations |= MAX_NOT_POSITIVE;
         }
-
         if (min <= 0) {
-            errorMessage += "• Minimum value must be a positive integer\n";
+            violations |= MIN_NOT_POSITIVE;
         }
-
         if (max < min) {
-            errorMessage += "• Maximum value must be greater than or equal to minimum value\n";
+            violations |= MAX_BELOW_MIN;
         }
-
-        return errorMessage;
+        return violations;
     }
 
     /**
-     * Validates input for a new Outsourced Part, which requires an input in the Company Name field and if needed,
-     * creates an error message string that can be used to prompt the user for any corrections needed to their inputs.
+     * Checks the input for an Outsourced Part.
      * @param name The name of the part.
      * @param stock The amount of stock for the part.
      * @param price The price of the part.
      * @param min The minimum amount of stock for the part.
      * @param max The maximum amount of stock for the part.
      * @param companyName The name of the company who produces the part.
-     * @return errorMessage A String containing error messages for the invalid input.
+     * @return the bitmask of broken rules, 0 if the input is valid.
      */
-    public static String validateInputOutsourced(String name, int stock, double price, int min, int max, String companyName) {
-        String errorMessage = "";
-
-        if (name.isEmpty()) {
-            errorMessage += "• Name field is empty\n";
-        }
-
-        if (stock <= 0) {
-            errorMessage += "• Inventory must be a positive integer\n";
-        }
-
-        if (stock < min || stock > max) {
-            errorMessage += "• Inventory value must be between min and max.\n";
+    public static int checkOutsourced(CharSequence name, int stock, double price, int min, int max, CharSequence companyName) {
+        int violations = checkProduct(name, stock, price, min, max);
+        if (companyName.length() == 0) {
+            violations |= COMPANY_NAME_EMPTY;
         }
+        return violations;
+    }
 
-        if (price <= 0) {
-            errorMessage += "• Price must be a positive decimal number\n";
+    /**
+     * Checks the input for an In-House Part.
+     * @param name The name of the part.
+     * @param stock The amount of stock for the part.
+     * @param price The price of the part.
+     * @param min The minimum amount of stock for the part.
+     * @param max The maximum amount of stock for the part.
+     * @param machineId The ID of the machine used to produce the part.
+     * @return the bitmask of broken rules, 0 if the input is valid.
+     */
+    public static int checkInHouse(CharSequence name, int stock, double price, int min, int max, int machineId) {
+        int violations = checkProduct(name, stock, price, min, max);
+        if (machineId <= 0) {
+            violations |= MACHINE_ID_NOT_POSITIVE;
         }
+        return violations;
+    }
 
-        if (max <= 0) {
-            errorMessage += "• Maximum value must be a positive integer\n";
-        }
+    /**
+     * Checks many rows at once, given as one array per column, and writes the bitmask for each row into violations.
+     * A row is checked as an Outsourced Part if companyNames is not null and holds a name for the row, as an In-House
+     * Part if machineIds is not null, and as a Product otherwise.
+     * @param names The name column.
+     * @param stock The inventory column.
+     * @param price The price column.
+     * @param min The min column.
+     * @param max The max column.
+     * @param companyNames The company name column, or null if there are no Outsourced rows.
+     * @param machineIds The machine ID column, or null if there are no In-House rows.
+     * @param rowCount The number of rows to check, starting from the first.
+     * @param violations Receives the bitmask for each row.
+     * @return the number of invalid rows.
+     */
+    public static int checkBatch(CharSequence[] names, int[] stock, double[] price, int[] min, int[] max,
+                                 CharSequence[] companyNames, int[] machineIds, int rowCount, int[] violations) {
+        int invalidRows = 0;
+        for (int row = 0; row < rowCount; row++) {
+            int rowViolations = checkProduct(names[row], stock[row], price[row], min[row], max[row]);
+            if (companyNames != null && companyNames[row] != null) {
+                if (companyNames[row].length() == 0) {
+                    rowViolations |= COMPANY_NAME_EMPTY;
+                }
+            } else if (machineIds != null && machineIds[row] <= 0) {
+                rowViolations |= MACHINE_ID_NOT_POSITIVE;
+            }
+            violations[row] = rowViolations;
+            // Count without a branch, so the loop does not depend on how often rows are invalid.
+            invalidRows += (rowViolations | -rowViolations) >>> 31;
+        }
+        return invalidRows;
+    }
 
-        if (min <= 0) {
-            errorMessage += "• Minimum value must be a positive integer\n";
+    /**
+     * Builds the error message for a bitmask returned by one of the check methods, one line per broken rule.
+     * @param violations The bitmask of broken rules.
+     * @return the error message, or an empty String if no rules were broken.
+     */
+    public static String describe(int violations) {
+        if (violations == 0) {
+            return "";
         }
-
-        if (max < min) {
-            errorMessage += "• Maximum value must be greater than or equal to minimum value\n";
+        StringBuilder errorMessage = new StringBuilder();
+        for (int bit = 0; bit < MESSAGES.length; bit++) {
+            if ((violations & (1 << bit)) != 0) {
+                errorMessage.append(MESSAGES[bit]);
+            }
         }
+        return errorMessage.toString();
+    }
 
-        if (companyName.isEmpty()) {
-            errorMessage += "• Company Name must be entered.\n";
-        }
+    /**
+     * Validates input for a new Product without a Company Name field and if needed, creates an error message string
+     * that can be used to prompt the user for any corrections needed to their inputs.
+     * @param name The name of the product.
+     * @param stock The amount of stock for the product.
+     * @param price The price of the product.
+     * @param min The minimum amount of stock for the product.
+     * @param max The maximum amount of stock for the product.
+     * @return errorMessage A String containing error messages for the invalid input.
+     */
+    public static String validateInputProduct(String name, int stock, double price, int min, int max) {
+        return describe(checkProduct(name, stock, price, min, max));
+    }
 
-        return errorMessage;
+    /**
+     * Validates input for a new Outsourced Part, which requires an input in the Company Name field and if needed,
+     * creates an error message string that can be used to prompt the user for any corrections needed to their inputs.
+     * @param name The name of the part.
+     * @param stock The amount of stock for the part.
+     * @param price The price of the part.
+     * @param min The minimum amount of stock for the part.
+     * @param max The maximum amount of stock for the part.
+     * @param companyName The name of the company who produces the part.
+     * @return errorMessage A String containing error messages for the invalid input.
+     */
+    public static String validateInputOutsourced(String name, int stock, double price, int min, int max, String companyName) {
+        return describe(checkOutsourced(name, stock, price, min, max, companyName));
     }
 
     /**
@@ -114,40 +239,6 @@ public class ValidateInput {
      * @return errorMessage A String containing error messages for the invalid input.
      */
     public static String validateInputInHouse(String name, int stock, double price, int min, int max, int machineId) {
-        String errorMessage = "";
-
-        if (name.isEmpty()) {
-            errorMessage += "• Name field is empty\n";
-        }
-
-        if (stock <= 0) {
-            errorMessage += "• Inventory must be a positive integer\n";
-        }
-
-        if (stock < min || stock > max) {
-            errorMessage += "• Inventory value must be between min and max.\n";
-        }
-
-        if (price <= 0) {
-            errorMessage += "• Price must be a positive decimal number\n";
-        }
-
-        if (max <= 0) {
-            errorMessage += "• Maximum value must be a positive integer\n";
-        }
-
-        if (min <= 0) {
-            errorMessage += "• Minimum value must be a positive integer\n";
-        }
-
-        if (max < min) {
-            errorMessage += "• Maximum value must be greater than or equal to minimum value\n";
-        }
-
-        if (machineId <= 0) {
-            errorMessage += "• Machine ID must be entered.\n";
-        }
-
-        return errorMessage;
+        return describe(checkInHouse(name, stock, price, min, max, machineId));
     }
 }
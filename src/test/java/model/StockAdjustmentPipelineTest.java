@@ -0,0 +1,106 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a StockAdjustmentPipeline applies each batch only once it is durable, and undoes a batch it cannot sync.
+ */
+class StockAdjustmentPipelineTest {
+
+    /**
+     * Checks that adjustments are applied and acknowledged once synced, and that one breaking the floor is refused.
+     * @param directory A temporary directory for the journal.
+     * @throws Exception If the journal cannot be written or the test is interrupted.
+     */
+    @Test
+    void appliesSyncedBatches(@TempDir Path directory) throws Exception {
+        Part part = addPart(50_001, 10);
+        try (StockJournal journal = new StockJournal(directory.resolve("journal.bin"));
+             StockAdjustmentPipeline pipeline = new StockAdjustmentPipeline(journal, Duration.ofMillis(1))) {
+            CompletableFuture<Boolean> added = pipeline.submit(50_001, 5);
+            CompletableFuture<Boolean> removed = pipeline.submit(50_001, -3);
+            CompletableFuture<Boolean> tooMany = pipeline.submit(50_001, -100);
+            assertTrue(added.get(10, TimeUnit.SECONDS));
+            assertTrue(removed.get(10, TimeUnit.SECONDS));
+            assertFalse(tooMany.get(10, TimeUnit.SECONDS));
+            assertFalse(pipeline.submit(50_002, 1).get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(12, part.getStock());
+    }
+
+    /**
+     * Checks that a batch whose journal sync fails is undone on the part, and every caller is told of the failure.
+     * @param directory A temporary directory for the journal.
+     * @throws Exception If the journal cannot be opened or the test is interrupted.
+     */
+    @Test
+    void revertsBatchWhenSyncFails(@TempDir Path directory) throws Exception {
+        Part part = addPart(50_011, 10);
+        int consumedBefore = consumed(50_011);
+        try (StockJournal journal = new FailingJournal(directory.resolve("journal.bin"));
+             StockAdjustmentPipeline pipeline = new StockAdjustmentPipeline(journal, Duration.ofMillis(1))) {
+            CompletableFuture<Boolean> added = pipeline.submit(50_011, 5);
+            CompletableFuture<Boolean> removed = pipeline.submit(50_011, -8);
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> added.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, failure.getCause());
+            assertThrows(ExecutionException.class, () -> removed.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(10, part.getStock());
+        assertEquals(consumedBefore, consumed(50_011));
+    }
+
+    /**
+     * Reads the consumption of a part over the last seven days.
+     * @param partId The id of the part.
+     * @return the quantity consumed.
+     */
+    private static int consumed(int partId) {
+        return (int) Math.round(Inventory.getConsumptionRates().getDailyRate(partId, ConsumptionRates.Window.SEVEN_DAYS) * 7);
+    }
+
+    /**
+     * Adds a part to the Inventory.
+     * @param id The id of the part, clear of the ids other tests use.
+     * @param stock The part's stock.
+     * @return the part.
+     */
+    private static Part addPart(int id, int stock) {
+        Part part = new InHouse(id, "Part " + id, 1, stock, 0, 1_000, 1);
+        Inventory.addPart(part);
+        return part;
+    }
+
+    /**
+     * A journal whose every sync fails, as when the disk is full.
+     */
+    private static final class FailingJournal extends StockJournal {
+
+        /**
+         * Opens the journal.
+         * @param file The journal file.
+         * @throws IOException If the file cannot be opened.
+         */
+        FailingJournal(Path file) throws IOException {
+            super(file);
+        }
+
+        @Override
+        public void sync() throws IOException {
+            throw new IOException("No space left on device");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a StockHistory keeps its samples in order and ends at the level each part holds.
+ */
+class StockHistoryTest {
+
+    /**
+     * The first id of the parts adjusted through the Inventory's history, clear of the ids other tests use.
+     */
+    private static final int FIRST_PART_ID = 30_001;
+
+    /**
+     * Checks that four threads adjusting 200 parts at random leave each part's history ending at the part's stock.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    void concurrentAdjustmentsEndAtThePartsLevel() throws InterruptedException {
+        Part[] parts = new Part[200];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new InHouse(FIRST_PART_ID + i, "Part " + i, 1, 1_000, 0, 1_000_000, 1);
+        }
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    parts[random.nextInt(parts.length)].adjustStock(random.nextInt(21) - 10, false);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        StockHistory history = Inventory.getStockHistory();
+        for (Part part : parts) {
+            assertEquals(part.getStock(), history.stockAt(part.getId(), Long.MAX_VALUE).orElseThrow(),
+                    "The history of part " + part.getId());
+        }
+    }
+
+    /**
+     * Checks that changes are applied in the order they were recorded, and that a level recorded afterwards is not
+     * changed by them.
+     */
+    @Test
+    void changesComeBeforeALaterLevel() {
+        StockHistory history = new StockHistory(null, Long.MAX_VALUE);
+        history.track(1, 10);
+        history.recordChange(1, 5);
+        history.recordChange(1, -3);
+        assertEquals(12, history.stockAt(1, Long.MAX_VALUE).orElseThrow());
+        history.recordChange(1, 4);
+        history.record(1, 16, 40);
+        assertEquals(40, history.stockAt(1, Long.MAX_VALUE).orElseThrow());
+    }
+
+    /**
+     * Checks that samples recorded out of time order are kept in order, at the time of the latest sample before them.
+     */
+    @Test
+    void samplesStayInTimeOrder() {
+        StockHistory history = new StockHistory(null, Long.MAX_VALUE);
+        history.record(1, 1_000, 0, 5);
+        history.record(1, 3_000, 5, 7);
+        history.record(1, 2_000, 7, 9);
+        StockHistory.Samples samples = history.range(1, 0, Long.MAX_VALUE);
+        assertEquals(4, samples.size());
+        for (int i = 1; i < samples.size(); i++) {
+            assertTrue(samples.time(i) >= samples.time(i - 1), "Sample " + i + " is before the one before it");
+        }
+        assertEquals(9, samples.level(3));
+        assertEquals(3_000, samples.time(3));
+        assertEquals(5, history.stockAt(1, 2_500).orElseThrow());
+    }
+
+    /**
+     * Checks that chunks spilled to the file read back the same as those kept in memory.
+     * @param directory A temporary directory for the spill file.
+     */
+    @Test
+    void spilledChunksReadBack(@TempDir Path directory) {
+        StockHistory history = new StockHistory(directory.resolve("history.bin"), 8_192);
+        for (int i = 0; i < 20_000; i++) {
+            history.record(1, i, 0, i % 1_000);
+        }
+        assertTrue(history.getInMemoryBytes() < 20_000);
+        assertEquals(500, history.stockAt(1, 5_500).orElseThrow());
+        assertEquals(999, history.stockAt(1, 19_999).orElseThrow());
+    }
+
+    /**
+     * Checks that a spill file that cannot be written leaves every sample in memory and readable.
+     * @param directory A temporary directory, in which the spill file's directory does not exist.
+     */
+    @Test
+    void failedSpillKeepsSamplesInMemory(@TempDir Path directory) {
+        StockHistory history = new StockHistory(directory.resolve("missing").resolve("history.bin"), 8_192);
+        for (int i = 0; i < 20_000; i++) {
+            history.record(1, i, 0, i % 1_000);
+        }
+        assertEquals(500, history.stockAt(1, 5_500).orElseThrow());
+        // The level before the first change is the first sample
+        assertEquals(20_001, history.range(1, 0, Long.MAX_VALUE).size());
+    }
+}
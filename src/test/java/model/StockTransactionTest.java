@@ -0,0 +1,94 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a StockTransaction reserves all of its parts or none, and settles with the parts the Inventory holds.
+ */
+class StockTransactionTest {
+
+    /**
+     * Checks that a part without enough stock undoes the reservations already made for the parts before it.
+     */
+    @Test
+    void failedReservationRollsBack() {
+        Part plenty = addPart(40_001, 100);
+        Part scarce = addPart(40_002, 5);
+        StockTransaction transaction = new StockTransaction().add(40_001, 10).add(40_002, 10);
+        assertFalse(transaction.reserve());
+        assertEquals(StockTransaction.State.OPEN, transaction.getState());
+        assertEquals(100, plenty.getStock());
+        assertEquals(0, plenty.getReservedStock());
+        assertEquals(5, scarce.getStock());
+        assertEquals(0, scarce.getReservedStock());
+    }
+
+    /**
+     * Checks that a missing part fails the reservation and undoes the rest.
+     */
+    @Test
+    void missingPartRollsBack() {
+        Part part = addPart(40_011, 100);
+        StockTransaction transaction = new StockTransaction().add(40_011, 10).add(40_012, 1);
+        assertFalse(transaction.reserve());
+        assertEquals(100, part.getStock());
+        assertEquals(0, part.getReservedStock());
+    }
+
+    /**
+     * Checks that committing consumes the reserved quantities and releasing returns them.
+     */
+    @Test
+    void commitConsumesAndReleaseReturns() {
+        Part part = addPart(40_021, 100);
+        StockTransaction committed = new StockTransaction().add(40_021, 10).add(40_021, 5);
+        assertTrue(committed.reserve());
+        assertEquals(1, committed.getPartCount());
+        assertEquals(85, part.getStock());
+        assertEquals(15, part.getReservedStock());
+        committed.commit();
+        assertEquals(85, part.getStock());
+        assertEquals(0, part.getReservedStock());
+
+        StockTransaction released = new StockTransaction().add(40_021, 20);
+        assertTrue(released.reserve());
+        released.release();
+        assertEquals(85, part.getStock());
+        assertEquals(0, part.getReservedStock());
+    }
+
+    /**
+     * Checks that stock released after its part was replaced goes back to the replacement, which also holds the
+     * reservation while it is open.
+     */
+    @Test
+    void releaseReachesTheReplacementPart() {
+        Part original = addPart(40_031, 100);
+        StockTransaction transaction = new StockTransaction().add(40_031, 30);
+        assertTrue(transaction.reserve());
+        Part replacement = new InHouse(40_031, "Replacement", 1, 70, 0, 1_000, 1);
+        assertTrue(Inventory.updatePart(Inventory.getAllParts().indexOf(original), replacement));
+        assertEquals(30, replacement.getReservedStock());
+        transaction.release();
+        assertSame(replacement, Inventory.lookupPart(40_031));
+        assertEquals(100, replacement.getStock());
+        assertEquals(0, replacement.getReservedStock());
+    }
+
+    /**
+     * Adds a part to the Inventory.
+     * @param id The id of the part, clear of the ids other tests use.
+     * @param stock The part's stock.
+     * @return the part.
+     */
+    private static Part addPart(int id, int stock) {
+        Part part = new InHouse(id, "Part " + id, 1, stock, 0, 1_000, 1);
+        Inventory.addPart(part);
+        return part;
+    }
+}
@@ -0,0 +1,89 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a StripedStockCounter never lets stock be removed past its floors, even with many threads removing at once.
+ */
+class StripedStockCounterTest {
+
+    /**
+     * The number of threads that adjust the counter at once.
+     */
+    private static final int THREADS = 8;
+
+    /**
+     * Checks that removals are refused once they would go below zero or below the minimum.
+     */
+    @Test
+    void refusesRemovalsPastTheFloors() {
+        StripedStockCounter counter = new StripedStockCounter(20, 5);
+        assertFalse(counter.tryRemoveAboveMinimum(16));
+        assertTrue(counter.tryRemoveAboveMinimum(15));
+        assertFalse(counter.tryRemoveAboveMinimum(1));
+        assertTrue(counter.tryRemove(5));
+        assertFalse(counter.tryRemove(1));
+        assertEquals(0, counter.get());
+    }
+
+    /**
+     * Checks that threads removing one unit at a time stop at the minimum, having removed exactly the stock above it.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    void concurrentRemovalsStopAtTheMinimum() throws InterruptedException {
+        StripedStockCounter counter = new StripedStockCounter(100_000, 10);
+        AtomicLong removed = new AtomicLong();
+        runOnThreads(() -> {
+            while (counter.tryRemoveAboveMinimum(1)) {
+                removed.incrementAndGet();
+            }
+        });
+        assertEquals(99_990, removed.get());
+        assertEquals(10, counter.get());
+    }
+
+    /**
+     * Checks that removals mixed with additions keep the counter at or above zero and end at the expected level.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    void concurrentAdjustmentsNeverGoBelowZero() throws InterruptedException {
+        StripedStockCounter counter = new StripedStockCounter(50, 0);
+        AtomicLong removed = new AtomicLong();
+        AtomicLong lowest = new AtomicLong(Long.MAX_VALUE);
+        runOnThreads(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                if (counter.tryRemove(3)) {
+                    removed.addAndGet(3);
+                }
+                counter.add(1);
+                lowest.accumulateAndGet(counter.get(), Math::min);
+            }
+        });
+        assertEquals(50 + THREADS * 20_000L - removed.get(), counter.get());
+        assertTrue(lowest.get() >= 0, "The stock went down to " + lowest.get());
+    }
+
+    /**
+     * Runs a task on THREADS threads at once and waits for them all.
+     * @param task The task.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    static void runOnThreads(Runnable task) throws InterruptedException {
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread(task);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package utils;
+
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a BatchObservableList applies batches of changes where the elements are, and reports them so that a
+ * listener replaying the changes on a copy of the list ends with the same elements.
+ */
+class BatchObservableListTest {
+
+    /**
+     * Checks the changes reported for one batch of a removal, a replacement and an addition.
+     */
+    @Test
+    void reportsEachChangeOfABatch() {
+        BatchObservableList<String> list = new BatchObservableList<>();
+        list.addAll(List.of("a", "b", "c", "d"));
+        List<String> changes = new ArrayList<>();
+        list.addListener((ListChangeListener<String>) change -> {
+            while (change.next()) {
+                if (change.wasReplaced()) {
+                    changes.add("replaced " + change.getRemoved() + " with " + change.getAddedSubList() + " at " + change.getFrom());
+                } else if (change.wasRemoved()) {
+                    changes.add("removed " + change.getRemoved() + " at " + change.getFrom());
+                } else if (change.wasAdded()) {
+                    changes.add("added " + change.getAddedSubList() + " at " + change.getFrom());
+                }
+            }
+        });
+        list.applyChanges(List.of("a"), Map.of("c", "C"), List.of("e"));
+        assertEquals(List.of("b", "C", "d", "e"), list);
+        // Each change is reported at its index once the changes before it are made
+        assertEquals(List.of("removed [a] at 0", "replaced [c] with [C] at 1", "added [e] at 3"), changes);
+    }
+
+    /**
+     * Checks that an element both removed and replaced is only removed, and elements not in the list are skipped.
+     */
+    @Test
+    void removalWinsOverReplacement() {
+        BatchObservableList<String> list = new BatchObservableList<>();
+        list.addAll(List.of("a", "b", "c"));
+        list.applyChanges(List.of("b", "x"), Map.of("b", "B", "y", "Y"), List.of());
+        assertEquals(List.of("a", "c"), list);
+    }
+
+    /**
+     * Checks random batches against an ArrayList, replaying every reported change on a copy of the list.
+     */
+    @Test
+    void replayedChangesMatchTheList() {
+        SplittableRandom random = new SplittableRandom(1);
+        BatchObservableList<Integer> list = new BatchObservableList<>();
+        List<Integer> expected = new ArrayList<>();
+        List<Integer> replayed = new ArrayList<>();
+        list.addListener((ListChangeListener<Integer>) change -> {
+            while (change.next()) {
+                assertFalse(change.wasPermutated());
+                replayed.subList(change.getFrom(), change.getFrom() + change.getRemovedSize()).clear();
+                replayed.addAll(change.getFrom(), change.getAddedSubList());
+            }
+        });
+        int nextValue = 0;
+        for (int step = 0; step < 2_000; step++) {
+            // New Integer objects, so every element is a distinct object, as parts and products are
+            Set<Integer> removals = new HashSet<>();
+            Map<Integer, Integer> replacements = new IdentityHashMap<>();
+            List<Integer> additions = new ArrayList<>();
+            for (int i = random.nextInt(4); i > 0 && !expected.isEmpty(); i--) {
+                removals.add(expected.get(random.nextInt(expected.size())));
+            }
+            for (int i = random.nextInt(4); i > 0 && !expected.isEmpty(); i--) {
+                replacements.put(expected.get(random.nextInt(expected.size())), Integer.valueOf(nextValue++ + 1_000_000));
+            }
+            for (int i = random.nextInt(6); i > 0; i--) {
+                additions.add(Integer.valueOf(nextValue++ + 1_000_000));
+            }
+            for (int i = 0; i < expected.size(); i++) {
+                Integer element = expected.get(i);
+                if (!removals.contains(element) && replacements.containsKey(element)) {
+                    expected.set(i, replacements.get(element));
+                }
+            }
+            expected.removeIf(removals::contains);
+            expected.addAll(additions);
+            list.applyChanges(removals, replacements, additions);
+            assertEquals(expected, list, "The list after step " + step);
+            assertEquals(expected, replayed, "The replayed changes after step " + step);
+            if (!expected.isEmpty()) {
+                Integer element = expected.get(random.nextInt(expected.size()));
+                assertEquals(expected.indexOf(element), list.indexOf(element));
+                assertTrue(list.contains(element));
+            }
+        }
+    }
+}